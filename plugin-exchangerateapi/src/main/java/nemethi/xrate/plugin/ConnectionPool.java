@@ -0,0 +1,115 @@
+package nemethi.xrate.plugin;
+
+import nemethi.xrate.api.TransportStats;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.juneau.rest.client2.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * The pool of the connections of a {@link RestClient}, which counts the requests sent over them
+ * and the TLS handshakes needed to open them.
+ */
+final class ConnectionPool {
+
+    private static final String HTTP_SCHEME = "http";
+    private static final String HTTPS_SCHEME = "https";
+
+    private final PoolingHttpClientConnectionManager manager;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder secureRequests = new LongAdder();
+    private final LongAdder handshakes = new LongAdder();
+
+    ConnectionPool(int size) {
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register(HTTP_SCHEME, PlainConnectionSocketFactory.getSocketFactory())
+                .register(HTTPS_SCHEME, new CountingSocketFactory(SSLConnectionSocketFactory.getSocketFactory()))
+                .build();
+        manager = new PoolingHttpClientConnectionManager(socketFactories);
+        manager.setMaxTotal(size);
+        manager.setDefaultMaxPerRoute(size);
+    }
+
+    RestClient createClient(Duration connectTimeout, Duration requestTimeout, Duration idleTimeout, ExecutorService executor) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(toMillis(connectTimeout))
+                .setConnectionRequestTimeout(toMillis(requestTimeout))
+                .setSocketTimeout(toMillis(requestTimeout))
+                .build();
+        return RestClient.create().json().ignoreErrors()
+                .connectionManager(manager)
+                .defaultRequestConfig(requestConfig)
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .addInterceptorFirst(this::countRequest)
+                .executorService(executor, false)
+                .build();
+    }
+
+    private static int toMillis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+
+    private void countRequest(HttpRequest request, HttpContext context) {
+        requests.increment();
+        HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+        if (nonNull(target) && HTTPS_SCHEME.equalsIgnoreCase(target.getSchemeName())) {
+            secureRequests.increment();
+        }
+    }
+
+    TransportStats getStats() {
+        PoolStats stats = manager.getTotalStats();
+        return new TransportStats(requests.sum(), secureRequests.sum(), handshakes.sum(),
+                stats.getLeased(), stats.getAvailable());
+    }
+
+    // Every TLS connection is opened by either connectSocket() or, through a proxy, createLayeredSocket()
+    private final class CountingSocketFactory implements LayeredConnectionSocketFactory {
+
+        private final LayeredConnectionSocketFactory factory;
+
+        private CountingSocketFactory(LayeredConnectionSocketFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return factory.createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            Socket connectedSocket = factory.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            handshakes.increment();
+            return connectedSocket;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            Socket layeredSocket = factory.createLayeredSocket(socket, target, port, context);
+            handshakes.increment();
+            return layeredSocket;
+        }
+    }
+}
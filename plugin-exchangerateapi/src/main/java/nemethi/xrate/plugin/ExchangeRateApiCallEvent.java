@@ -0,0 +1,68 @@
+package nemethi.xrate.plugin;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Currency;
+
+import static java.util.Objects.isNull;
+
+/**
+ * A request to ExchangeRate-API, from sending it to decoding its response.
+ * <p>
+ * Its fields are only filled in if the event is recorded, so a call pays next to nothing for it otherwise.
+ */
+@Name("nemethi.xrate.plugin.ExchangeRateApiCall")
+@Label("ExchangeRate-API Call")
+@Category("Xrate")
+@Description("A request to ExchangeRate-API, from sending it to decoding its response")
+@StackTrace(false)
+final class ExchangeRateApiCallEvent extends Event {
+
+    static final String SUCCESS = "success";
+    // The name the plugin has in the metrics of xrate
+    private static final String PROVIDER = ExchangeRateApiConverter.class.getName();
+
+    @Label("Provider")
+    private String provider;
+
+    @Label("Pairs")
+    @Description("The pair converted, or the base currency of a table of rates")
+    private String pairs;
+
+    @Label("Payload Size")
+    @DataAmount
+    private long payloadSize;
+
+    @Label("Outcome")
+    @Description("success, or the simple class name of the exception")
+    private String outcome;
+
+    void setPayloadSize(long payloadSize) {
+        this.payloadSize = payloadSize;
+    }
+
+    void record(Currency from, Currency to, Throwable failure) {
+        if (shouldCommit()) {
+            record(from.getCurrencyCode() + '_' + to.getCurrencyCode(), failure);
+        }
+    }
+
+    void record(Currency base, Throwable failure) {
+        if (shouldCommit()) {
+            record(base.getCurrencyCode(), failure);
+        }
+    }
+
+    private void record(String pairs, Throwable failure) {
+        this.provider = PROVIDER;
+        this.pairs = pairs;
+        this.outcome = isNull(failure) ? SUCCESS : failure.getClass().getSimpleName();
+        commit();
+    }
+}
@@ -1,43 +1,154 @@
 package nemethi.xrate.plugin;
 
+import nemethi.xrate.api.Transport;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.juneau.rest.client2.RestCallException;
 import org.apache.juneau.rest.client2.RestClient;
+import org.apache.juneau.parser.ParseException;
 import org.apache.juneau.rest.client2.RestResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Currency;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
 
 public class ExchangeRateApiClient {
 
     private static final String DEFAULT_ENDPOINT = "https://v6.exchangerate-api.com";
-    private static final RestClient DEFAULT_REST_CLIENT = RestClient.create().json().ignoreErrors().build();
+    private static final String INVALID_RESPONSE_MESSAGE = "Cannot read the response of ExchangeRate-API";
+    private static final String MISSING_CONVERSION_RESULT_MESSAGE = "The response has no conversion_result";
+    private static final long DEFAULT_TABLE_LIFETIME_SECONDS = 3600L;
+    private static final int ASYNC_POOL_SIZE = 16;
+    private static final int ASYNC_QUEUE_CAPACITY = 1024;
+    // The same as the defaults of the xrate transport
+    private static final int DEFAULT_POOL_SIZE = 16;
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(30);
 
     private final String endpointUri;
     private final RestClient client;
+    private final Executor executor;
+    private volatile RestClient transportClient;
 
     public ExchangeRateApiClient() {
-        this(DEFAULT_ENDPOINT, DEFAULT_REST_CLIENT);
+        this(DEFAULT_ENDPOINT);
     }
 
     public ExchangeRateApiClient(String endpointUri) {
-        this(endpointUri, DEFAULT_REST_CLIENT);
+        this(endpointUri, null, null);
     }
 
     ExchangeRateApiClient(String endpointUri, RestClient client) {
+        this(endpointUri, client, null);
+    }
+
+    ExchangeRateApiClient(String endpointUri, RestClient client, Executor executor) {
         this.endpointUri = endpointUri;
         this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Sends every subsequent request over a pool sized and timed out like the specified transport,
+     * and reports the connections of the pool to it.
+     *
+     * @param transport the transport shared by the process
+     */
+    public void setTransport(Transport transport) {
+        ConnectionPool pool = new ConnectionPool(transport.getPoolSize());
+        transportClient = pool.createClient(transport.getConnectTimeout(), transport.getRequestTimeout(),
+                transport.getIdleTimeout(), AsyncDefaults.EXECUTOR);
+        transport.addStatsSource(pool::getStats);
+    }
+
+    private RestClient getClient() {
+        if (nonNull(client)) {
+            return client;
+        }
+        RestClient pooledClient = transportClient;
+        return isNull(pooledClient) ? Defaults.REST_CLIENT : pooledClient;
+    }
+
+    private Executor getExecutor() {
+        return isNull(executor) ? AsyncDefaults.EXECUTOR : executor;
+    }
+
+    private static ThreadPoolExecutor createAsyncExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(ASYNC_POOL_SIZE, ASYNC_POOL_SIZE, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "exchangerateapi-client");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     public BigDecimal convert(Currency from, Currency to, BigDecimal amount, String apiKey) throws URISyntaxException, RestCallException, ExchangeRateApiException {
-        URI uri = buildUri(from, to, amount, apiKey);
-        RestResponse response = client.get(uri).run();
-        return getConversionResult(response);
+        ExchangeRateApiCallEvent event = new ExchangeRateApiCallEvent();
+        event.begin();
+        try {
+            URI uri = buildUri(from, to, amount, apiKey);
+            RestResponse response = getClient().get(uri).run();
+            BigDecimal result = getConversionResult(readBody(response, event));
+            event.record(from, to, null);
+            return result;
+        } catch (URISyntaxException | RestCallException | ExchangeRateApiException | RuntimeException e) {
+            event.record(from, to, e);
+            throw e;
+        }
+    }
+
+    public RateTable getRates(Currency base, String apiKey) throws URISyntaxException, RestCallException, ExchangeRateApiException {
+        ExchangeRateApiCallEvent event = new ExchangeRateApiCallEvent();
+        event.begin();
+        try {
+            URI uri = buildLatestUri(base, apiKey);
+            RestResponse response = getClient().get(uri).run();
+            RateTable table = getRateTable(base, readBody(response, event));
+            event.record(base, null);
+            return table;
+        } catch (URISyntaxException | RestCallException | ExchangeRateApiException | RuntimeException e) {
+            event.record(base, e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<RateTable> getRatesAsync(Currency base, String apiKey) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getRates(base, apiKey);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, getExecutor());
+    }
+
+    // Juneau's RestRequest.runFuture() only returns a plain Future backed by the blocking Apache HttpClient,
+    // so the call is run on the same bounded executor and completed from there instead of blocking on the Future
+    public CompletableFuture<BigDecimal> convertAsync(Currency from, Currency to, BigDecimal amount, String apiKey) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return convert(from, to, amount, apiKey);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, getExecutor());
     }
 
     private URI buildUri(Currency from, Currency to, BigDecimal amount, String apiKey) throws URISyntaxException {
@@ -46,25 +157,54 @@ public class ExchangeRateApiClient {
         return uriBuilder.build();
     }
 
-    private BigDecimal getConversionResult(RestResponse response) throws RestCallException, ExchangeRateApiException {
-        Map<String, String> body = response.getBody().as(Map.class, String.class, String.class);
-        if (isSuccessfulResult(body)) {
-            return new BigDecimal(body.get("conversion_result"));
+    private URI buildLatestUri(Currency base, String apiKey) throws URISyntaxException {
+        URIBuilder uriBuilder = new URIBuilder(endpointUri);
+        uriBuilder.setPath(String.format("/v6/%s/latest/%s", apiKey, base));
+        return uriBuilder.build();
+    }
+
+    private RateTable getRateTable(Currency base, RateResponse body) throws ExchangeRateApiException {
+        if (body.isSuccessful()) {
+            return new RateTable(base, body.getRates(), getNextUpdate(body));
+        }
+        throw new ExchangeRateApiException(body.getErrorType());
+    }
+
+    private Instant getNextUpdate(RateResponse body) {
+        if (body.hasNextUpdate()) {
+            return Instant.ofEpochSecond(body.getNextUpdate());
         }
-        throw new ExchangeRateApiException(getErrorType(body));
+        return Instant.now().plusSeconds(DEFAULT_TABLE_LIFETIME_SECONDS);
     }
 
-    private boolean isSuccessfulResult(Map<String, String> body) {
-        if (isNull(body)) {
-            return false;
+    private BigDecimal getConversionResult(RateResponse body) throws ExchangeRateApiException {
+        if (body.isSuccessful()) {
+            return requireNonNull(body.getConversionResult(), MISSING_CONVERSION_RESULT_MESSAGE);
         }
-        return "success".equals(body.get("result"));
+        throw new ExchangeRateApiException(body.getErrorType());
     }
 
-    private String getErrorType(Map<String, String> body) {
-        if(isNull(body)) {
-            return null;
+    // The body is decoded while it is read from the connection, instead of being parsed into a map first
+    private RateResponse readBody(RestResponse response, ExchangeRateApiCallEvent event) throws RestCallException {
+        try (InputStream body = response.getBody().asInputStream()) {
+            RateResponse rateResponse = RateResponse.read(body);
+            event.setPayloadSize(rateResponse.getSize());
+            return rateResponse;
+        } catch (IOException | ParseException e) {
+            throw new RestCallException(response, e, INVALID_RESPONSE_MESSAGE);
         }
-        return body.get("error-type");
+    }
+
+    // Building a RestClient takes the better part of a second, which is more than a whole CLI run otherwise,
+    // so the shared client is only built when the first request is sent, not when the plugin is loaded
+    private static final class Defaults {
+
+        private static final RestClient REST_CLIENT = new ConnectionPool(DEFAULT_POOL_SIZE)
+                .createClient(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_IDLE_TIMEOUT, AsyncDefaults.EXECUTOR);
+    }
+
+    private static final class AsyncDefaults {
+
+        private static final ThreadPoolExecutor EXECUTOR = createAsyncExecutor();
     }
 }
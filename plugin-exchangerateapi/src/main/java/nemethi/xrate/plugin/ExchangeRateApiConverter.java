@@ -3,40 +3,150 @@ package nemethi.xrate.plugin;
 import nemethi.xrate.api.ConversionException;
 import nemethi.xrate.api.ConversionResult;
 import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.ProviderUnavailableException;
+import nemethi.xrate.api.SettingsAware;
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportAware;
+import org.apache.juneau.rest.client2.RestCallException;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.time.Clock;
 import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class ExchangeRateApiConverter implements CurrencyConverter {
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class ExchangeRateApiConverter implements CurrencyConverter, TransportAware, SettingsAware {
+
+    private static final String RATE_TABLE_SETTING = "rateTable";
+    private static final String RATE_NOT_FOUND_TEMPLATE = "The exchange rate of %s to %s is not found";
 
     private final ExchangeRateApiClient client;
+    private final Clock clock;
+    private final Map<Currency, RateTable> rateTables = new ConcurrentHashMap<>();
+    private boolean rateTableMode;
     private String apiKey;
 
     public ExchangeRateApiConverter() {
-        this(new ExchangeRateApiClient());
+        this(new ExchangeRateApiClient(), Clock.systemUTC());
     }
 
     ExchangeRateApiConverter(ExchangeRateApiClient client) {
+        this(client, Clock.systemUTC());
+    }
+
+    ExchangeRateApiConverter(ExchangeRateApiClient client, Clock clock) {
         this.client = client;
+        this.clock = clock;
     }
 
     @Override
     @NotNull
     public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
         try {
+            if (rateTableMode) {
+                return convertWithRateTable(getRateTable(from), to, amount);
+            }
             BigDecimal result = client.convert(from, to, amount, apiKey);
             return new ConversionResult(from, to, amount, result);
-        } catch (URISyntaxException e) {
-            throw new ConversionException("Error while building URI for ExchangeRate-API: " + e.getMessage());
+        } catch (ConversionException e) {
+            throw e;
         } catch (Exception e) {
-            throw new ConversionException("Error while calling ExchangeRate-API: " + e.getMessage());
+            throw toConversionException(e);
         }
     }
 
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        if (rateTableMode) {
+            return getRateTableAsync(from)
+                    .handle((table, throwable) -> {
+                        if (nonNull(throwable)) {
+                            throw toConversionException(unwrap(throwable));
+                        }
+                        return convertWithRateTable(table, to, amount);
+                    });
+        }
+        return client.convertAsync(from, to, amount, apiKey)
+                .handle((result, throwable) -> {
+                    if (nonNull(throwable)) {
+                        throw toConversionException(unwrap(throwable));
+                    }
+                    return new ConversionResult(from, to, amount, result);
+                });
+    }
+
+    private RateTable getRateTable(Currency base) throws URISyntaxException, RestCallException, ExchangeRateApiException {
+        RateTable table = rateTables.get(base);
+        if (isNull(table) || table.isExpiredAt(clock.instant())) {
+            table = client.getRates(base, apiKey);
+            rateTables.put(base, table);
+        }
+        return table;
+    }
+
+    private CompletableFuture<RateTable> getRateTableAsync(Currency base) {
+        RateTable table = rateTables.get(base);
+        if (isNull(table) || table.isExpiredAt(clock.instant())) {
+            return client.getRatesAsync(base, apiKey).thenApply(fetchedTable -> {
+                rateTables.put(base, fetchedTable);
+                return fetchedTable;
+            });
+        }
+        return CompletableFuture.completedFuture(table);
+    }
+
+    private ConversionResult convertWithRateTable(RateTable table, Currency to, BigDecimal amount) {
+        BigDecimal rate = table.getRate(to).orElseThrow(() -> new ConversionException(
+                "Error while calling ExchangeRate-API: " + String.format(RATE_NOT_FOUND_TEMPLATE, table.getBase(), to)));
+        return ConversionResult.ofRate(table.getBase(), to, amount, rate);
+    }
+
+    private Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && nonNull(throwable.getCause())) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private ConversionException toConversionException(Throwable throwable) {
+        if (throwable instanceof ConversionException) {
+            return (ConversionException) throwable;
+        }
+        if (throwable instanceof ExchangeRateApiException && ((ExchangeRateApiException) throwable).isAccountError()) {
+            return new ProviderUnavailableException("Error while calling ExchangeRate-API: " + throwable.getMessage(), throwable);
+        }
+        if (throwable instanceof URISyntaxException) {
+            return new ConversionException("Error while building URI for ExchangeRate-API: " + throwable.getMessage());
+        }
+        return new ConversionException("Error while calling ExchangeRate-API: " + throwable.getMessage());
+    }
+
     @Override
     public void setAuthCredentials(@NotNull String authCredentials) {
         apiKey = authCredentials;
+        rateTables.clear();
+    }
+
+    /**
+     * Switches to the rate table of the source currency if {@code rateTable} is {@code true}.
+     * Otherwise, each conversion is requested separately.
+     */
+    @Override
+    public void setSettings(@NotNull Map<String, String> settings) {
+        rateTableMode = Boolean.parseBoolean(settings.get(RATE_TABLE_SETTING));
+        rateTables.clear();
+    }
+
+    @Override
+    public void setTransport(@NotNull Transport transport) {
+        client.setTransport(transport);
     }
 }
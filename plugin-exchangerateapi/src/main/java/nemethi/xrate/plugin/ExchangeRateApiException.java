@@ -1,6 +1,7 @@
 package nemethi.xrate.plugin;
 
 import java.util.Map;
+import java.util.Set;
 
 import static java.util.Objects.isNull;
 
@@ -12,6 +13,8 @@ public class ExchangeRateApiException extends Exception {
             "inactive-account", "Your email address wasn't confirmed",
             "quota-reached", "Your account has reached the number of requests allowed by your plan");
 
+    private static final Set<String> ACCOUNT_ERROR_TYPES = Set.of("invalid-key", "inactive-account", "quota-reached");
+
     private final String errorType;
 
     public ExchangeRateApiException(String errorType) {
@@ -22,6 +25,15 @@ public class ExchangeRateApiException extends Exception {
         }
     }
 
+    public String getErrorType() {
+        return errorType;
+    }
+
+    // These errors do not depend on the request, so no other request can succeed until the account is fixed
+    public boolean isAccountError() {
+        return ACCOUNT_ERROR_TYPES.contains(errorType);
+    }
+
     @Override
     public String getMessage() {
         return ERROR_TYPES_TO_MESSAGES.getOrDefault(errorType, "Unknown error");
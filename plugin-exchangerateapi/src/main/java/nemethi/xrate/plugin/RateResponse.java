@@ -0,0 +1,423 @@
+package nemethi.xrate.plugin;
+
+import nemethi.xrate.api.CurrencyRegistry;
+import org.apache.juneau.parser.ParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The members of an ExchangeRate-API response the client needs, read straight from the bytes of the body.
+ * <p>
+ * Only {@code result}, {@code error-type}, {@code time_next_update_unix}, {@code conversion_result}
+ * and the {@code conversion_rates} object are decoded, every other member is skipped without being materialized.
+ * The rates are stored in an array indexed by the {@link CurrencyRegistry} id of their currency,
+ * so neither a map nor a string is built for them. An empty body is read as a response without a result.
+ */
+final class RateResponse {
+
+    private static final String MALFORMED_JSON_MESSAGE = "Malformed JSON at byte %d";
+    private static final String INVALID_NUMBER_MESSAGE = "Invalid number at byte %d";
+    private static final int BUFFER_SIZE = 1024;
+    private static final int INITIAL_TOKEN_LENGTH = 32;
+    // The most digits whose value always fits into a long
+    private static final int MAX_EXACT_DIGITS = 18;
+    private static final int CODE_LENGTH = 3;
+    private static final int END_OF_STREAM = -1;
+    private static final byte[] RESULT = bytes("result");
+    private static final byte[] SUCCESS = bytes("success");
+    private static final byte[] ERROR_TYPE = bytes("error-type");
+    private static final byte[] NEXT_UPDATE = bytes("time_next_update_unix");
+    private static final byte[] CONVERSION_RESULT = bytes("conversion_result");
+    private static final byte[] CONVERSION_RATES = bytes("conversion_rates");
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLimit;
+    private long position;
+    private byte[] token = new byte[INITIAL_TOKEN_LENGTH];
+    private int tokenLength;
+    private long unscaled;
+    private int scale;
+    private boolean exact;
+    private BigDecimal decimal;
+
+    private boolean successful;
+    private String errorType;
+    private boolean hasNextUpdate;
+    private long nextUpdate;
+    private BigDecimal conversionResult;
+    private BigDecimal[] rates;
+
+    private RateResponse(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads a response from the specified stream, which is left open.
+     *
+     * @param input the body of the response
+     * @return the decoded response
+     * @throws IOException    if the stream cannot be read
+     * @throws ParseException if the body is not a JSON object
+     */
+    static RateResponse read(InputStream input) throws IOException, ParseException {
+        RateResponse response = new RateResponse(input);
+        if (isNull(input)) {
+            return response;
+        }
+        response.readDocument();
+        return response;
+    }
+
+    /**
+     * Returns the number of bytes of the body decoded.
+     *
+     * @return the number of bytes decoded
+     */
+    long getSize() {
+        return position;
+    }
+
+    boolean isSuccessful() {
+        return successful;
+    }
+
+    String getErrorType() {
+        return errorType;
+    }
+
+    boolean hasNextUpdate() {
+        return hasNextUpdate;
+    }
+
+    long getNextUpdate() {
+        return nextUpdate;
+    }
+
+    BigDecimal getConversionResult() {
+        return conversionResult;
+    }
+
+    /**
+     * Returns the rates indexed by the {@link CurrencyRegistry} id of their currency.
+     * The rates of currencies missing from the response or from the registry are null.
+     *
+     * @return the rates, or an array of nulls if the response has no rates
+     */
+    BigDecimal[] getRates() {
+        return isNull(rates) ? new BigDecimal[CurrencyRegistry.size()] : rates;
+    }
+
+    private void readDocument() throws IOException, ParseException {
+        int b = nextNonWhitespace();
+        if (b == END_OF_STREAM) {
+            return;
+        }
+        if (b != '{') {
+            throw malformed();
+        }
+        readObject(this::readMember);
+        if (nextNonWhitespace() != END_OF_STREAM) {
+            throw malformed();
+        }
+    }
+
+    private void readMember() throws IOException, ParseException {
+        if (isToken(RESULT)) {
+            successful = readString() && isToken(SUCCESS);
+        } else if (isToken(ERROR_TYPE)) {
+            errorType = readString() ? new String(token, 0, tokenLength, StandardCharsets.UTF_8) : null;
+        } else if (isToken(NEXT_UPDATE)) {
+            hasNextUpdate = readNumber();
+            if (hasNextUpdate) {
+                nextUpdate = exact && scale == 0 ? unscaled : toBigDecimal().longValue();
+            } else {
+                skipValue();
+            }
+        } else if (isToken(CONVERSION_RESULT)) {
+            conversionResult = readNumber() || readQuotedNumber() ? toBigDecimal() : null;
+        } else if (isToken(CONVERSION_RATES)) {
+            readRates();
+        } else {
+            skipValue();
+        }
+    }
+
+    private void readRates() throws IOException, ParseException {
+        if (peekNonWhitespace() != '{') {
+            skipValue();
+            return;
+        }
+        next();
+        rates = new BigDecimal[CurrencyRegistry.size()];
+        readObject(this::readRate);
+    }
+
+    private void readRate() throws IOException, ParseException {
+        int id = tokenLength == CODE_LENGTH ? CurrencyRegistry.idOf(token, 0) : CurrencyRegistry.UNKNOWN_ID;
+        if (id == CurrencyRegistry.UNKNOWN_ID) {
+            skipValue();
+        } else if (readNumber()) {
+            rates[id] = toBigDecimal();
+        } else {
+            skipValue();
+        }
+    }
+
+    // Reads the members of an object whose opening brace is already read, leaving each key in the token
+    private void readObject(MemberReader memberReader) throws IOException, ParseException {
+        int b = nextNonWhitespace();
+        if (b == '}') {
+            return;
+        }
+        while (true) {
+            if (b != '"') {
+                throw malformed();
+            }
+            readStringContent();
+            if (nextNonWhitespace() != ':') {
+                throw malformed();
+            }
+            memberReader.read();
+            b = nextNonWhitespace();
+            if (b == '}') {
+                return;
+            }
+            if (b != ',') {
+                throw malformed();
+            }
+            b = nextNonWhitespace();
+        }
+    }
+
+    // Reads a string value into the token, or skips the value if it is not a string
+    private boolean readString() throws IOException, ParseException {
+        if (peekNonWhitespace() != '"') {
+            skipValue();
+            return false;
+        }
+        next();
+        readStringContent();
+        return true;
+    }
+
+    // The conversion result used to be read as a string, so a quoted number is still accepted
+    private boolean readQuotedNumber() throws IOException, ParseException {
+        if (!readString()) {
+            return false;
+        }
+        if (!parseNumberToken()) {
+            throw invalidNumber();
+        }
+        return true;
+    }
+
+    // Escape sequences are kept as they are, as none of the decoded keys and values contain one
+    private void readStringContent() throws IOException, ParseException {
+        tokenLength = 0;
+        int b = next();
+        while (b != '"') {
+            if (b == END_OF_STREAM) {
+                throw malformed();
+            }
+            appendToToken(b);
+            if (b == '\\') {
+                appendToToken(next());
+            }
+            b = next();
+        }
+    }
+
+    // Reads a number value into the token, or reads nothing if the value is not a number
+    private boolean readNumber() throws IOException, ParseException {
+        int b = peekNonWhitespace();
+        if (b != '-' && !isDigit(b)) {
+            return false;
+        }
+        tokenLength = 0;
+        while (isNumberPart(peek())) {
+            appendToToken(next());
+        }
+        if (!parseNumberToken()) {
+            throw invalidNumber();
+        }
+        return true;
+    }
+
+    // Most rates have a handful of digits, so they are parsed into an unscaled long
+    // and only the rest are left to the BigDecimal parser
+    private boolean parseNumberToken() {
+        unscaled = 0;
+        scale = 0;
+        exact = false;
+        int i = 0;
+        boolean negative = tokenLength > 0 && token[0] == '-';
+        if (negative) {
+            i++;
+        }
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < tokenLength; i++) {
+            byte b = token[i];
+            if (isDigit(b)) {
+                unscaled = unscaled * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return isBigDecimal();
+            }
+        }
+        if (digits == 0 || digits > MAX_EXACT_DIGITS) {
+            return isBigDecimal();
+        }
+        if (negative) {
+            unscaled = -unscaled;
+        }
+        exact = true;
+        return true;
+    }
+
+    private boolean isBigDecimal() {
+        try {
+            decimal = new BigDecimal(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private BigDecimal toBigDecimal() {
+        return exact ? BigDecimal.valueOf(unscaled, scale) : decimal;
+    }
+
+    private void skipValue() throws IOException, ParseException {
+        int b = nextNonWhitespace();
+        if (b == '"') {
+            readStringContent();
+        } else if (b == '{' || b == '[') {
+            skipContainer();
+        } else if (isLiteralPart(b)) {
+            while (isLiteralPart(peek())) {
+                next();
+            }
+        } else {
+            throw malformed();
+        }
+    }
+
+    private void skipContainer() throws IOException, ParseException {
+        int depth = 1;
+        while (depth > 0) {
+            int b = next();
+            if (b == '"') {
+                readStringContent();
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            } else if (b == END_OF_STREAM) {
+                throw malformed();
+            }
+        }
+    }
+
+    private boolean isToken(byte[] expected) {
+        return Arrays.equals(token, 0, tokenLength, expected, 0, expected.length);
+    }
+
+    private void appendToToken(int b) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+        }
+        token[tokenLength++] = (byte) b;
+    }
+
+    private int peekNonWhitespace() throws IOException {
+        int b = peek();
+        while (isWhitespace(b)) {
+            next();
+            b = peek();
+        }
+        return b;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int b = next();
+        while (isWhitespace(b)) {
+            b = next();
+        }
+        return b;
+    }
+
+    private int peek() throws IOException {
+        if (bufferPosition == bufferLimit && !fill()) {
+            return END_OF_STREAM;
+        }
+        return buffer[bufferPosition] & 0xFF;
+    }
+
+    private int next() throws IOException {
+        int b = peek();
+        if (b != END_OF_STREAM) {
+            bufferPosition++;
+            position++;
+        }
+        return b;
+    }
+
+    private boolean fill() throws IOException {
+        int read = input.read(buffer);
+        while (read == 0) {
+            read = input.read(buffer);
+        }
+        bufferPosition = 0;
+        bufferLimit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(int b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isNumberPart(int b) {
+        return isDigit(b) || b == '.' || b == '-' || b == '+' || b == 'e' || b == 'E';
+    }
+
+    private static boolean isLiteralPart(int b) {
+        return isNumberPart(b) || b >= 'a' && b <= 'z';
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Both point at the last byte read, which is the offending one
+    private ParseException malformed() {
+        return new ParseException(String.format(MALFORMED_JSON_MESSAGE, position - 1));
+    }
+
+    private ParseException invalidNumber() {
+        return new ParseException(String.format(INVALID_NUMBER_MESSAGE, position - 1));
+    }
+
+    @FunctionalInterface
+    private interface MemberReader {
+
+        void read() throws IOException, ParseException;
+    }
+}
@@ -0,0 +1,85 @@
+package nemethi.xrate.plugin;
+
+import nemethi.xrate.api.CurrencyRegistry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.nonNull;
+
+public class RateTable {
+
+    private final Currency base;
+    // Indexed by the CurrencyRegistry id of the currencies
+    private final BigDecimal[] rates;
+    private final int size;
+    private final Instant nextUpdate;
+
+    /**
+     * Creates a table from rates keyed by currency code.
+     * The rates of codes without a currency in the {@link CurrencyRegistry} are left out.
+     *
+     * @param base       the base currency of the rates
+     * @param rates      the rates keyed by currency code
+     * @param nextUpdate the time the rates are updated next
+     */
+    public RateTable(Currency base, Map<String, BigDecimal> rates, Instant nextUpdate) {
+        this(base, toArray(rates), nextUpdate);
+    }
+
+    // Takes ownership of the array, which must not be modified afterwards
+    RateTable(Currency base, BigDecimal[] rates, Instant nextUpdate) {
+        this.base = base;
+        this.rates = rates;
+        this.size = countRates(rates);
+        this.nextUpdate = nextUpdate;
+    }
+
+    private static BigDecimal[] toArray(Map<String, BigDecimal> rates) {
+        BigDecimal[] array = new BigDecimal[CurrencyRegistry.size()];
+        rates.forEach((code, rate) -> {
+            int id = CurrencyRegistry.idOf(code);
+            if (id != CurrencyRegistry.UNKNOWN_ID) {
+                array[id] = rate;
+            }
+        });
+        return array;
+    }
+
+    private static int countRates(BigDecimal[] rates) {
+        int count = 0;
+        for (BigDecimal rate : rates) {
+            if (nonNull(rate)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Currency getBase() {
+        return base;
+    }
+
+    public Optional<BigDecimal> getRate(Currency target) {
+        int id = CurrencyRegistry.idOf(target);
+        if (id == CurrencyRegistry.UNKNOWN_ID || id >= rates.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(rates[id]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant getNextUpdate() {
+        return nextUpdate;
+    }
+
+    public boolean isExpiredAt(Instant instant) {
+        return !instant.isBefore(nextUpdate);
+    }
+}
@@ -1,5 +1,9 @@
 package nemethi.xrate.plugin;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.juneau.parser.ParseException;
 import org.apache.juneau.rest.client2.RestCallException;
 import org.apache.juneau.rest.client2.RestClient;
 import org.apache.juneau.rest.client2.RestRequest;
@@ -9,15 +13,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Currency;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
@@ -55,12 +67,43 @@ class ExchangeRateApiClientTest {
     class HappyPath {
 
         @Test
-        void convert() throws RestCallException, ExchangeRateApiException, URISyntaxException {
+        void convertAsync() throws RestCallException, IOException {
+            client = new ExchangeRateApiClient(ENDPOINT_URI, restClient, Runnable::run);
             final String expectedResult = "42";
             when(restClient.get(any())).thenReturn(request);
             when(request.run()).thenReturn(response);
-            when(response.getBody()).thenReturn(responseBody);
-            when(responseBody.as(any(Class.class), any(), any())).thenReturn(Map.of("result", "success", "conversion_result", expectedResult));
+            respondWith("{\"result\":\"success\",\"conversion_result\":" + expectedResult + "}");
+
+            BigDecimal result = client.convertAsync(FROM, TO, AMOUNT, API_KEY).join();
+
+            assertThat(result).isEqualTo(new BigDecimal(expectedResult));
+            verify(restClient).get(EXPECTED_URI);
+        }
+
+        @Test
+        void getRates() throws RestCallException, IOException, ExchangeRateApiException, URISyntaxException {
+            when(restClient.get(any())).thenReturn(request);
+            when(request.run()).thenReturn(response);
+            respondWith("{\"result\":\"success\",\"time_next_update_unix\":1622592000,\"base_code\":\"USD\","
+                    + "\"conversion_rates\":{\"USD\":1,\"GBP\":0.7213,\"HUF\":286.45}}");
+
+            RateTable table = client.getRates(FROM, API_KEY);
+
+            assertThat(table.getBase()).isEqualTo(FROM);
+            assertThat(table.size()).isEqualTo(3);
+            assertThat(table.getRate(TO)).contains(new BigDecimal("0.7213"));
+            assertThat(table.getRate(Currency.getInstance("HUF"))).contains(new BigDecimal("286.45"));
+            assertThat(table.getNextUpdate()).isEqualTo(Instant.ofEpochSecond(1622592000));
+            verify(restClient).get(URI.create(String.format("%s/v6/%s/latest/%s", ENDPOINT_URI, API_KEY, FROM)));
+            verify(responseBody).asInputStream();
+        }
+
+        @Test
+        void convert() throws RestCallException, IOException, ExchangeRateApiException, URISyntaxException {
+            final String expectedResult = "42";
+            when(restClient.get(any())).thenReturn(request);
+            when(request.run()).thenReturn(response);
+            respondWith("{\"result\":\"success\",\"conversion_result\":" + expectedResult + "}");
 
             BigDecimal result = client.convert(FROM, TO, AMOUNT, API_KEY);
 
@@ -68,7 +111,7 @@ class ExchangeRateApiClientTest {
             verify(restClient).get(EXPECTED_URI);
             verify(request).run();
             verify(response).getBody();
-            verify(responseBody).as(Map.class, String.class, String.class);
+            verify(responseBody).asInputStream();
         }
     }
 
@@ -84,6 +127,32 @@ class ExchangeRateApiClientTest {
             assertThat(thrown).isInstanceOf(URISyntaxException.class);
         }
 
+        @Test
+        void convertAsyncCompletesExceptionallyOnRestClientError() throws RestCallException {
+            client = new ExchangeRateApiClient(ENDPOINT_URI, restClient, Runnable::run);
+            when(restClient.get(any())).thenReturn(request);
+            when(request.run()).thenThrow(RestCallException.class);
+
+            Throwable thrown = catchThrowable(() -> client.convertAsync(FROM, TO, AMOUNT, API_KEY).join());
+
+            assertThat(thrown)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(RestCallException.class);
+        }
+
+        @Test
+        void getRatesThrowsExceptionOnUnsuccessfulResult() throws RestCallException, IOException {
+            when(restClient.get(any())).thenReturn(request);
+            when(request.run()).thenReturn(response);
+            respondWith("{\"result\":\"error\",\"error-type\":\"quota-reached\"}");
+
+            Throwable thrown = catchThrowable(() -> client.getRates(FROM, API_KEY));
+
+            assertThat(thrown)
+                    .isInstanceOf(ExchangeRateApiException.class)
+                    .hasMessage("Your account has reached the number of requests allowed by your plan");
+        }
+
         @Test
         void throwsExceptionOnRestClientError() throws RestCallException {
             when(restClient.get(any())).thenReturn(request);
@@ -97,11 +166,10 @@ class ExchangeRateApiClientTest {
         }
 
         @Test
-        void throwsExceptionOnUnsuccessfulConversion() throws RestCallException {
+        void throwsExceptionOnUnsuccessfulConversion() throws RestCallException, IOException {
             when(restClient.get(any())).thenReturn(request);
             when(request.run()).thenReturn(response);
-            when(response.getBody()).thenReturn(responseBody);
-            when(responseBody.as(any(Class.class), any(), any())).thenReturn(Map.of("result", "error", "error-type", "test"));
+            respondWith("{\"result\":\"error\",\"error-type\":\"test\"}");
 
             Throwable thrown = catchThrowable(() -> client.convert(FROM, TO, AMOUNT, API_KEY));
 
@@ -109,33 +177,31 @@ class ExchangeRateApiClientTest {
             verify(restClient).get(EXPECTED_URI);
             verify(request).run();
             verify(response).getBody();
-            verify(responseBody).as(Map.class, String.class, String.class);
+            verify(responseBody).asInputStream();
         }
 
         @Test
-        void doesNotHandleMissingConversionResult() throws RestCallException {
+        void doesNotHandleMissingConversionResult() throws RestCallException, IOException {
             when(restClient.get(any())).thenReturn(request);
             when(request.run()).thenReturn(response);
-            when(response.getBody()).thenReturn(responseBody);
-            when(responseBody.as(any(Class.class), any(), any())).thenReturn(Map.of("result", "success"));
+            respondWith("{\"result\":\"success\"}");
 
             Throwable thrown = catchThrowable(() -> client.convert(FROM, TO, AMOUNT, API_KEY));
 
             assertThat(thrown)
                     .isInstanceOf(NullPointerException.class)
-                    .hasStackTraceContaining("BigDecimal");
+                    .hasMessage("The response has no conversion_result");
             verify(restClient).get(EXPECTED_URI);
             verify(request).run();
             verify(response).getBody();
-            verify(responseBody).as(Map.class, String.class, String.class);
+            verify(responseBody).asInputStream();
         }
 
         @Test
-        void throwsExceptionOnMissingResponseBody() throws RestCallException {
+        void throwsExceptionOnMissingResponseBody() throws RestCallException, IOException {
             when(restClient.get(any())).thenReturn(request);
             when(request.run()).thenReturn(response);
-            when(response.getBody()).thenReturn(responseBody);
-            when(responseBody.as(any(Class.class), any(), any())).thenReturn(null);
+            respondWith("");
 
             Throwable thrown = catchThrowable(() -> client.convert(FROM, TO, AMOUNT, API_KEY));
 
@@ -143,7 +209,58 @@ class ExchangeRateApiClientTest {
             verify(restClient).get(EXPECTED_URI);
             verify(request).run();
             verify(response).getBody();
-            verify(responseBody).as(Map.class, String.class, String.class);
+            verify(responseBody).asInputStream();
         }
+
+        @Test
+        void throwsExceptionOnMalformedResponseBody() throws RestCallException, IOException {
+            when(restClient.get(any())).thenReturn(request);
+            when(request.run()).thenReturn(response);
+            respondWith("{\"result\":\"success\",");
+
+            Throwable thrown = catchThrowable(() -> client.getRates(FROM, API_KEY));
+
+            assertThat(thrown)
+                    .isInstanceOf(RestCallException.class)
+                    .hasMessageContaining("Cannot read the response of ExchangeRate-API")
+                    .hasCauseInstanceOf(ParseException.class);
+        }
+    }
+
+    @Test
+    void recordsCallEvents(@TempDir Path directory) throws Exception {
+        var success = "{\"result\":\"success\",\"conversion_result\":42}";
+        var error = "{\"result\":\"error\",\"error-type\":\"invalid-key\"}";
+        when(restClient.get(any())).thenReturn(request);
+        when(request.run()).thenReturn(response);
+        when(response.getBody()).thenReturn(responseBody);
+        when(responseBody.asInputStream()).thenReturn(toStream(success), toStream(error));
+        Path file = directory.resolve("calls.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("nemethi.xrate.plugin.ExchangeRateApiCall");
+            recording.start();
+            client.convert(FROM, TO, AMOUNT, API_KEY);
+            catchThrowable(() -> client.getRates(FROM, API_KEY));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("nemethi.xrate.plugin.ExchangeRateApiCall"))
+                .collect(toList());
+
+        assertThat(events).extracting(event -> event.getString("provider")).containsOnly(ExchangeRateApiConverter.class.getName());
+        assertThat(events).extracting(event -> event.getString("pairs")).containsExactly("USD_GBP", "USD");
+        assertThat(events).extracting(event -> event.getLong("payloadSize")).containsExactly((long) success.length(), (long) error.length());
+        assertThat(events).extracting(event -> event.getString("outcome")).containsExactly("success", "ExchangeRateApiException");
+    }
+
+    private void respondWith(String json) throws RestCallException, IOException {
+        when(response.getBody()).thenReturn(responseBody);
+        when(responseBody.asInputStream()).thenReturn(toStream(json));
+    }
+
+    private static ByteArrayInputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
     }
 }
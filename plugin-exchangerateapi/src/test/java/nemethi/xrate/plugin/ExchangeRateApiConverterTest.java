@@ -1,9 +1,12 @@
 package nemethi.xrate.plugin;
 
 import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ProviderUnavailableException;
 import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.Transport;
 import org.apache.juneau.rest.client2.RestCallException;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -11,12 +14,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +63,45 @@ class ExchangeRateApiConverterTest {
         verify(client).convert(FROM, TO, AMOUNT, API_KEY);
     }
 
+    @Test
+    void requestsEachConversionSeparatelyUnlessRateTableIsEnabled() throws RestCallException, ExchangeRateApiException, URISyntaxException {
+        when(client.convert(any(), any(), any(), any())).thenReturn(new BigDecimal("42"));
+        converter.setSettings(Map.of("rateTable", "false"));
+
+        converter.convert(FROM, TO, AMOUNT);
+
+        verify(client).convert(FROM, TO, AMOUNT, API_KEY);
+        verify(client, never()).getRates(any(), any());
+    }
+
+    @Test
+    void convertAsync() {
+        final var expectedResult = new BigDecimal("42");
+        final var expectedConversionResult = new ConversionResult(FROM, TO, AMOUNT, expectedResult);
+        when(client.convertAsync(any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(expectedResult));
+
+        ConversionResult result = converter.convertAsync(FROM, TO, AMOUNT).join();
+
+        assertThat(result).isEqualTo(expectedConversionResult);
+        verify(client).convertAsync(FROM, TO, AMOUNT, API_KEY);
+    }
+
+    @Test
+    void convertAsyncWrapsException(@Mock ExchangeRateApiException exception) {
+        when(exception.getMessage()).thenReturn(EXCEPTION_MESSAGE);
+        CompletableFuture<BigDecimal> failedFuture = CompletableFuture.failedFuture(new CompletionException(exception));
+        when(client.convertAsync(any(), any(), any(), any())).thenReturn(failedFuture);
+
+        Throwable thrown = catchThrowable(() -> converter.convertAsync(FROM, TO, AMOUNT).join());
+
+        assertThat(thrown)
+                .isInstanceOf(CompletionException.class)
+                .getCause()
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Error while calling ExchangeRate-API: %s", EXCEPTION_MESSAGE);
+        verify(client).convertAsync(FROM, TO, AMOUNT, API_KEY);
+    }
+
     @Test
     void wrapsUriSyntaxException(@Mock URISyntaxException exception) throws RestCallException, ExchangeRateApiException, URISyntaxException {
         when(client.convert(any(), any(), any(), any())).thenThrow(exception);
@@ -78,4 +129,85 @@ class ExchangeRateApiConverterTest {
         verify(client).convert(FROM, TO, AMOUNT, API_KEY);
         verify(exception).getMessage();
     }
+
+    @Test
+    void wrapsAccountErrorInProviderUnavailableException() throws RestCallException, ExchangeRateApiException, URISyntaxException {
+        var exception = new ExchangeRateApiException("quota-reached");
+        when(client.convert(any(), any(), any(), any())).thenThrow(exception);
+
+        Throwable thrown = catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+
+        assertThat(thrown)
+                .isInstanceOf(ProviderUnavailableException.class)
+                .hasMessage("Error while calling ExchangeRate-API: Your account has reached the number of requests allowed by your plan")
+                .hasCause(exception);
+    }
+
+    @Test
+    void passesTransportToClient(@Mock Transport transport) {
+        converter.setTransport(transport);
+
+        verify(client).setTransport(transport);
+    }
+
+    @Nested
+    class RateTableMode {
+
+        private final Instant now = Instant.parse("2021-06-01T12:00:00Z");
+        private final RateTable table = new RateTable(FROM, Map.of("HUF", new BigDecimal("350.5"), "GBP", new BigDecimal("0.86")),
+                now.plusSeconds(3600));
+
+        @BeforeEach
+        void setUp() {
+            converter = new ExchangeRateApiConverter(client, Clock.fixed(now, ZoneOffset.UTC));
+            converter.setSettings(Map.of("rateTable", "true"));
+            converter.setAuthCredentials(API_KEY);
+        }
+
+        @Test
+        void answersAnyTargetFromOneRateTable() throws RestCallException, ExchangeRateApiException, URISyntaxException {
+            when(client.getRates(any(), any())).thenReturn(table);
+
+            ConversionResult hufResult = converter.convert(FROM, TO, AMOUNT);
+            ConversionResult gbpResult = converter.convert(FROM, Currency.getInstance("GBP"), AMOUNT);
+
+            assertThat(hufResult).isEqualTo(new ConversionResult(FROM, TO, AMOUNT, new BigDecimal("701.0")));
+            assertThat(gbpResult.getResult()).isEqualByComparingTo("1.72");
+            verify(client).getRates(FROM, API_KEY);
+            verifyNoMoreInteractions(client);
+        }
+
+        @Test
+        void refetchesExpiredRateTable() throws RestCallException, ExchangeRateApiException, URISyntaxException {
+            var expiredTable = new RateTable(FROM, Map.of("HUF", BigDecimal.ONE), now);
+            when(client.getRates(any(), any())).thenReturn(expiredTable, table);
+
+            converter.convert(FROM, TO, AMOUNT);
+            ConversionResult result = converter.convert(FROM, TO, AMOUNT);
+
+            assertThat(result.getResult()).isEqualByComparingTo("701");
+            verify(client, times(2)).getRates(FROM, API_KEY);
+        }
+
+        @Test
+        void throwsExceptionOnMissingRate() throws RestCallException, ExchangeRateApiException, URISyntaxException {
+            when(client.getRates(any(), any())).thenReturn(table);
+
+            Throwable thrown = catchThrowable(() -> converter.convert(FROM, Currency.getInstance("JPY"), AMOUNT));
+
+            assertThat(thrown)
+                    .isInstanceOf(ConversionException.class)
+                    .hasMessage("Error while calling ExchangeRate-API: The exchange rate of EUR to JPY is not found");
+        }
+
+        @Test
+        void convertAsyncUsesRateTable() {
+            when(client.getRatesAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(table));
+
+            ConversionResult result = converter.convertAsync(FROM, TO, AMOUNT).join();
+
+            assertThat(result.getResult()).isEqualByComparingTo("701");
+            verify(client).getRatesAsync(FROM, API_KEY);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package nemethi.xrate.plugin;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.stream.Stream;
 
@@ -19,6 +20,21 @@ class ExchangeRateApiExceptionTest {
         assertThat(exception).hasMessage(message);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"invalid-key", "inactive-account", "quota-reached"})
+    void accountErrors(String errorType) {
+        var exception = new ExchangeRateApiException(errorType);
+        assertThat(exception.isAccountError()).isTrue();
+        assertThat(exception.getErrorType()).isEqualTo(errorType);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "unsupported-code", "malformed-request"})
+    void requestErrors(String errorType) {
+        var exception = new ExchangeRateApiException(errorType);
+        assertThat(exception.isAccountError()).isFalse();
+    }
+
     private static Stream<Arguments> arguments() {
         return Stream.of(
                 Arguments.of(null, UNKNOWN_ERROR_MESSAGE),
@@ -0,0 +1,126 @@
+package nemethi.xrate.plugin;
+
+import nemethi.xrate.api.CurrencyRegistry;
+import org.apache.juneau.parser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RateResponseTest {
+
+    @Test
+    void readsSuccessfulPairResponse() throws IOException, ParseException {
+        RateResponse response = read("{\"result\":\"success\",\"documentation\":\"https://www.exchangerate-api.com/docs\","
+                + "\"base_code\":\"USD\",\"target_code\":\"GBP\",\"conversion_rate\":0.7213,\"conversion_result\":554.0522}");
+
+        assertThat(response.isSuccessful()).isTrue();
+        assertThat(response.getConversionResult()).isEqualTo(new BigDecimal("554.0522"));
+        assertThat(response.getErrorType()).isNull();
+        assertThat(response.hasNextUpdate()).isFalse();
+    }
+
+    @Test
+    void readsRatesByCurrencyId() throws IOException, ParseException {
+        RateResponse response = read("{ \"result\" : \"success\", \"time_next_update_unix\" : 1623196801,\n"
+                + " \"conversion_rates\" : { \"USD\" : 1, \"GBP\" : 0.7213, \"HUF\" : -286.450, \"XYZ\" : 2 } }");
+
+        BigDecimal[] rates = response.getRates();
+
+        assertThat(response.isSuccessful()).isTrue();
+        assertThat(response.getNextUpdate()).isEqualTo(1623196801L);
+        assertThat(rates).hasSize(CurrencyRegistry.size());
+        assertThat(rates[CurrencyRegistry.idOf("USD")]).isEqualTo(new BigDecimal("1"));
+        assertThat(rates[CurrencyRegistry.idOf("GBP")]).isEqualTo(new BigDecimal("0.7213"));
+        assertThat(rates[CurrencyRegistry.idOf("HUF")]).isEqualTo(new BigDecimal("-286.450"));
+        assertThat(rates[CurrencyRegistry.idOf("EUR")]).isNull();
+    }
+
+    @Test
+    void readsNumbersTooLongForLong() throws IOException, ParseException {
+        RateResponse response = read("{\"result\":\"success\",\"conversion_result\":12345678901234567890.5,"
+                + "\"conversion_rates\":{\"JPY\":1.5E2}}");
+
+        assertThat(response.getConversionResult()).isEqualTo(new BigDecimal("12345678901234567890.5"));
+        assertThat(response.getRates()[CurrencyRegistry.idOf("JPY")]).isEqualTo(new BigDecimal("1.5E2"));
+    }
+
+    @Test
+    void readsQuotedConversionResult() throws IOException, ParseException {
+        RateResponse response = read("{\"result\":\"success\",\"conversion_result\":\"42\"}");
+
+        assertThat(response.getConversionResult()).isEqualTo(new BigDecimal("42"));
+    }
+
+    @Test
+    void readsErrorResponse() throws IOException, ParseException {
+        RateResponse response = read("{\"result\":\"error\",\"error-type\":\"invalid-key\",\"extra\":[{\"a\":\"}\"},null,true]}");
+
+        assertThat(response.isSuccessful()).isFalse();
+        assertThat(response.getErrorType()).isEqualTo("invalid-key");
+    }
+
+    @Test
+    void skipsValuesOfUnexpectedType() throws IOException, ParseException {
+        RateResponse response = read("{\"result\":null,\"error-type\":null,\"time_next_update_unix\":\"soon\","
+                + "\"conversion_result\":null,\"conversion_rates\":[1,2]}");
+
+        assertThat(response.isSuccessful()).isFalse();
+        assertThat(response.getErrorType()).isNull();
+        assertThat(response.hasNextUpdate()).isFalse();
+        assertThat(response.getConversionResult()).isNull();
+        assertThat(response.getRates()).containsOnlyNulls();
+    }
+
+    @Test
+    void readsEmptyBodyAsResponseWithoutResult() throws IOException, ParseException {
+        RateResponse response = read(" ");
+
+        assertThat(response.isSuccessful()).isFalse();
+        assertThat(response.getErrorType()).isNull();
+    }
+
+    @Test
+    void readsBodyLongerThanBuffer() throws IOException, ParseException {
+        String padding = "x".repeat(5000);
+        RateResponse response = read("{\"documentation\":\"" + padding + "\",\"result\":\"success\",\"conversion_rates\":{\"EUR\":0.85}}");
+
+        assertThat(response.getRates()[CurrencyRegistry.idOf("EUR")]).isEqualTo(new BigDecimal("0.85"));
+    }
+
+    @Test
+    void throwsExceptionOnMalformedJson() {
+        Throwable thrown = catchThrowable(() -> read("{\"result\" \"success\"}"));
+
+        assertThat(thrown)
+                .isInstanceOf(ParseException.class)
+                .hasMessage("Malformed JSON at byte 10");
+    }
+
+    @Test
+    void throwsExceptionOnIncompleteJson() {
+        Throwable thrown = catchThrowable(() -> read("{\"conversion_rates\":{\"USD\":1"));
+
+        assertThat(thrown)
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Malformed JSON");
+    }
+
+    @Test
+    void throwsExceptionOnInvalidNumber() {
+        Throwable thrown = catchThrowable(() -> read("{\"conversion_rates\":{\"USD\":1.2.3}}"));
+
+        assertThat(thrown)
+                .isInstanceOf(ParseException.class)
+                .hasMessage("Invalid number at byte 31");
+    }
+
+    private static RateResponse read(String json) throws IOException, ParseException {
+        return RateResponse.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,7 +1,10 @@
 package nemethi.xrate.plugin.integ;
 
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportStats;
 import nemethi.xrate.plugin.ExchangeRateApiClient;
 import nemethi.xrate.plugin.ExchangeRateApiException;
+import nemethi.xrate.plugin.RateTable;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -12,15 +15,21 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.util.Currency;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class ExchangeRateApiClientIT {
 
@@ -62,6 +71,19 @@ class ExchangeRateApiClientIT {
         verifyRequest(mockWebServer.takeRequest());
     }
 
+    @Test
+    void rateTableResponse() throws SerializeException, RestCallException, ExchangeRateApiException, URISyntaxException, InterruptedException {
+        final Map<String, Object> responseBody = Map.of("result", "success", "base_code", "USD",
+                "time_next_update_unix", 1622592000, "conversion_rates", Map.of("USD", 1, "GBP", MOCK_RESULT));
+        mockWebServer.enqueue(mockResponse(responseBody));
+
+        RateTable table = client.getRates(FROM, API_KEY);
+
+        assertThat(table.getRate(TO)).contains(new BigDecimal(EXPECTED_RESULT));
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getPath()).contains(String.format("/v6/%s/latest/%s", API_KEY, FROM));
+    }
+
     @Test
     void errorResponse() throws SerializeException, InterruptedException {
         final Map<String, Object> responseBody = Map.of("result", "error", "error-type", "invalid-api-key");
@@ -83,6 +105,33 @@ class ExchangeRateApiClientIT {
         verifyRequest(mockWebServer.takeRequest());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsPooledConnectionsToTransport() throws Exception {
+        Transport transport = mock(Transport.class);
+        when(transport.getPoolSize()).thenReturn(2);
+        when(transport.getConnectTimeout()).thenReturn(Duration.ofSeconds(1));
+        when(transport.getRequestTimeout()).thenReturn(Duration.ofSeconds(2));
+        when(transport.getIdleTimeout()).thenReturn(Duration.ofSeconds(30));
+        final Map<String, Object> responseBody = Map.of("result", "success", "conversion_result", MOCK_RESULT);
+        mockWebServer.enqueue(mockResponse(responseBody));
+        mockWebServer.enqueue(mockResponse(responseBody));
+
+        client.setTransport(transport);
+        client.convert(FROM, TO, AMOUNT, API_KEY);
+        client.convert(FROM, TO, AMOUNT, API_KEY);
+
+        ArgumentCaptor<Supplier<TransportStats>> source = ArgumentCaptor.forClass(Supplier.class);
+        verify(transport).addStatsSource(source.capture());
+        TransportStats stats = source.getValue().get();
+        assertThat(stats.getRequests()).isEqualTo(2);
+        assertThat(stats.getSecureRequests()).isZero();
+        assertThat(stats.getActiveConnections()).isZero();
+        assertThat(stats.getIdleConnections()).isEqualTo(1);
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+    }
+
     private MockResponse mockResponse(Map<String, Object> responseBody) throws SerializeException {
         return mockResponse(200, responseBody);
     }
@@ -0,0 +1,83 @@
+package nemethi.xrate.api;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Holds the bounded executor used by the default implementation of
+ * {@link CurrencyConverter#convertAsync(java.util.Currency, java.util.Currency, java.math.BigDecimal)}.
+ * <p>
+ * The executor is created on first use. Its threads are daemon threads, so they never prevent the JVM from exiting.
+ * When all threads are busy and the queue is full, further conversions are rejected right away:
+ * their futures fail with a {@link ConversionException}, so the calling thread never runs a blocking conversion itself.
+ */
+final class ConversionExecutor {
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+    private static final String THREAD_NAME_PREFIX = "xrate-conversion-";
+    private static final String SATURATED_MESSAGE = "Too many conversions in progress, the conversion was rejected";
+
+    private ConversionExecutor() {
+    }
+
+    /**
+     * Returns the shared executor.
+     *
+     * @return the executor for blocking conversions
+     */
+    static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    /**
+     * Runs the conversion on the shared executor.
+     *
+     * @param conversion the blocking conversion
+     * @return a future of the result, which fails with a {@link ConversionException} if the executor is saturated
+     */
+    static <T> CompletableFuture<T> supplyAsync(Supplier<T> conversion) {
+        return supplyAsync(conversion, get());
+    }
+
+    static <T> CompletableFuture<T> supplyAsync(Supplier<T> conversion, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(conversion, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new ConversionException(SATURATED_MESSAGE, e));
+        }
+    }
+
+    static ThreadPoolExecutor createExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new DaemonThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Holder {
+
+        private static final Executor EXECUTOR = createExecutor(POOL_SIZE, QUEUE_CAPACITY);
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
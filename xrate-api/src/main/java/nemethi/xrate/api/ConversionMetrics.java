@@ -0,0 +1,75 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the measurements of the conversions of xrate: the latency and the outcome of every call to a provider,
+ * the lookups of the rate caches, the conversions coalesced into one call and the number of calls in flight.
+ * <p>
+ * Every method is called on the path of a conversion, possibly from many threads at the same time,
+ * so implementations should be thread-safe and return quickly, without blocking or allocating.
+ * Every method does nothing by default.
+ */
+public interface ConversionMetrics {
+
+    /**
+     * The metrics that ignore every measurement.
+     */
+    ConversionMetrics NONE = new ConversionMetrics() {
+    };
+
+    /**
+     * Records that a call to a provider started.
+     * The call is finished by exactly one of {@link #recordSuccess}, {@link #recordFailure} or {@link #recordCancellation}.
+     *
+     * @param provider the name of the provider
+     */
+    default void recordStart(@NotNull String provider) {
+    }
+
+    /**
+     * Records that a call to a provider returned a result.
+     *
+     * @param provider     the name of the provider
+     * @param elapsedNanos the latency of the call in nanoseconds
+     */
+    default void recordSuccess(@NotNull String provider, long elapsedNanos) {
+    }
+
+    /**
+     * Records that a call to a provider failed.
+     *
+     * @param provider     the name of the provider
+     * @param elapsedNanos the latency of the call in nanoseconds
+     * @param failure      the exception the call failed with, usually a {@link ConversionException}
+     */
+    default void recordFailure(@NotNull String provider, long elapsedNanos, @NotNull Throwable failure) {
+    }
+
+    /**
+     * Records that a call to a provider was cancelled, e.g. because another provider answered first.
+     *
+     * @param provider the name of the provider
+     */
+    default void recordCancellation(@NotNull String provider) {
+    }
+
+    /**
+     * Records that a conversion waited for the conversion of the same currency pair already in flight,
+     * instead of calling a provider.
+     */
+    default void recordCoalesced() {
+    }
+
+    /**
+     * Records that the rate of a conversion was found in a cache.
+     */
+    default void recordCacheHit() {
+    }
+
+    /**
+     * Records that the rate of a conversion was not found in any cache, so a provider was called.
+     */
+    default void recordCacheMiss() {
+    }
+}
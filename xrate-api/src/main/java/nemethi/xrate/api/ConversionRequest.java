@@ -0,0 +1,90 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Represents the immutable parameters of a single currency conversion.
+ * It is used to submit multiple conversions to a {@link CurrencyConverter} at once.
+ */
+public class ConversionRequest {
+
+    private final Currency from;
+    private final Currency to;
+    private final BigDecimal amount;
+
+    /**
+     * Creates a new {@code ConversionRequest} instance.
+     * <p>
+     * If any of the parameters is null, a {@link NullPointerException} is thrown.
+     *
+     * @param from   the currency to convert from
+     * @param to     the currency to convert to
+     * @param amount the amount to convert
+     */
+    public ConversionRequest(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        this.from = requireNonNull(from, "Parameter 'from' cannot be null");
+        this.to = requireNonNull(to, "Parameter 'to' cannot be null");
+        this.amount = requireNonNull(amount, "Parameter 'amount' cannot be null");
+    }
+
+    /**
+     * Returns the currency the amount is converted from.
+     *
+     * @return the currency to convert from
+     */
+    public Currency getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the currency the amount is converted to.
+     *
+     * @return the currency to convert to
+     */
+    public Currency getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the amount to convert.
+     *
+     * @return the amount to convert
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ConversionRequest that = (ConversionRequest) o;
+        return from.equals(that.from) &&
+                to.equals(that.to) &&
+                amount.equals(that.amount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, amount);
+    }
+
+    @Override
+    public String toString() {
+        return "ConversionRequest{" +
+                "from=" + from +
+                ", to=" + to +
+                ", amount=" + amount +
+                '}';
+    }
+}
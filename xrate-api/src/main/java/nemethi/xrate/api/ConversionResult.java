@@ -6,14 +6,20 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.Currency;
-import java.util.Objects;
+import java.util.Optional;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Represents the immutable result of a currency conversion.
  * Apart from the resulting amount it contains the initial parameters of the conversion.
  * It also provides methods for getting the rate and the inverse rate.
+ * <p>
+ * The rate, the inverse rate and the hash code are computed on first use and reused afterwards,
+ * so instances can be shared between threads without repeating the divisions.
+ * The same applies to the {@link Money} views of the amount and the result.
  */
 public class ConversionResult {
 
@@ -28,6 +34,15 @@ public class ConversionResult {
     private final Currency to;
     private final BigDecimal amount;
     private final BigDecimal result;
+    private final BigDecimal knownRate;
+    private final String provider;
+    // Lazily computed from the immutable fields above. Racing threads compute the same value,
+    // and BigDecimal and Money are safely published through their final fields, so no synchronization is needed.
+    private BigDecimal rate;
+    private BigDecimal inverseRate;
+    private Money amountMoney;
+    private Money resultMoney;
+    private int hash;
 
     /**
      * Creates a new {@code ConversionResult} instance.
@@ -45,6 +60,72 @@ public class ConversionResult {
         this.to = requireNonNull(to, "Parameter 'to' cannot be null");
         this.amount = requireNonNull(amount, "Parameter 'amount' cannot be null");
         this.result = requireNonNull(result, "Parameter 'result' cannot be null");
+        this.knownRate = null;
+        this.provider = null;
+    }
+
+    /**
+     * Creates a new {@code ConversionResult} instance whose result was computed from an already known exchange rate,
+     * for subclasses that describe the conversion in more detail.
+     * The rate and the inverse rate are derived from the given rate instead of dividing the result by the amount.
+     * <p>
+     * If any of the parameters is null, a {@link NullPointerException} is thrown.
+     *
+     * @param from   the currency converted from
+     * @param to     the currency converted to
+     * @param amount the amount converted
+     * @param result the result of the conversion
+     * @param rate   the exchange rate of {@code from} to {@code to} the result was computed with
+     */
+    protected ConversionResult(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount,
+                               @NotNull BigDecimal result, @NotNull BigDecimal rate) {
+        this.from = requireNonNull(from, "Parameter 'from' cannot be null");
+        this.to = requireNonNull(to, "Parameter 'to' cannot be null");
+        this.amount = requireNonNull(amount, "Parameter 'amount' cannot be null");
+        this.result = requireNonNull(result, "Parameter 'result' cannot be null");
+        this.knownRate = requireNonNull(rate, "Parameter 'rate' cannot be null");
+        this.provider = null;
+    }
+
+    /**
+     * Creates a copy of the given result that records the name of the provider that produced it,
+     * for subclasses that override {@link #withProvider(String)}.
+     * <p>
+     * If any of the parameters is null, a {@link NullPointerException} is thrown.
+     *
+     * @param other    the result to copy
+     * @param provider the name of the provider that produced the result
+     */
+    protected ConversionResult(@NotNull ConversionResult other, @NotNull String provider) {
+        requireNonNull(other, "Parameter 'other' cannot be null");
+        this.from = other.from;
+        this.to = other.to;
+        this.amount = other.amount;
+        this.result = other.result;
+        this.knownRate = other.knownRate;
+        this.provider = requireNonNull(provider, "Parameter 'provider' cannot be null");
+    }
+
+    /**
+     * Creates a new {@code ConversionResult} instance from an already known exchange rate.
+     * <p>
+     * The result is the product of the amount and the rate. The rate and the inverse rate are derived
+     * from the given rate instead of dividing the result by the amount.
+     * If any of the parameters is null, a {@link NullPointerException} is thrown.
+     *
+     * @param from   the currency converted from
+     * @param to     the currency converted to
+     * @param amount the amount converted
+     * @param rate   the exchange rate of {@code from} to {@code to}
+     * @return the result of converting the amount with the given rate
+     */
+    public static ConversionResult ofRate(@NotNull Currency from, @NotNull Currency to,
+                                          @NotNull BigDecimal amount, @NotNull BigDecimal rate) {
+        requireNonNull(from, "Parameter 'from' cannot be null");
+        requireNonNull(to, "Parameter 'to' cannot be null");
+        requireNonNull(amount, "Parameter 'amount' cannot be null");
+        requireNonNull(rate, "Parameter 'rate' cannot be null");
+        return new ConversionResult(from, to, amount, amount.multiply(rate, MATH_CONTEXT), rate);
     }
 
     /**
@@ -56,7 +137,48 @@ public class ConversionResult {
      * @return the quotient of <code>result</code> divided by <code>amount</code>
      */
     public BigDecimal getRate() {
-        return result.divide(amount, NUMBER_OF_DECIMAL_PLACES, MATH_CONTEXT.getRoundingMode());
+        BigDecimal rate = this.rate;
+        if (isNull(rate)) {
+            rate = nonNull(knownRate)
+                    ? knownRate.setScale(NUMBER_OF_DECIMAL_PLACES, MATH_CONTEXT.getRoundingMode())
+                    : result.divide(amount, NUMBER_OF_DECIMAL_PLACES, MATH_CONTEXT.getRoundingMode());
+            this.rate = rate;
+        }
+        return rate;
+    }
+
+    /**
+     * Returns the exchange rate the result was computed with, unrounded, if it is known.
+     * It is known if the result was created from a rate, like with {@link #ofRate(Currency, Currency, BigDecimal, BigDecimal)}.
+     *
+     * @return the exchange rate the result was computed with, or an empty {@code Optional} if only the result is known
+     */
+    public Optional<BigDecimal> getKnownRate() {
+        return Optional.ofNullable(knownRate);
+    }
+
+    /**
+     * Returns the name of the provider that produced this result, if it is known.
+     * It is known if the result was passed on by a converter that chooses between several providers.
+     *
+     * @return the name of the provider, or an empty {@code Optional} if it is not known
+     */
+    public Optional<String> getProvider() {
+        return Optional.ofNullable(provider);
+    }
+
+    /**
+     * Returns a copy of this result that records the name of the provider that produced it.
+     * The provider is not part of the equality of results.
+     * <p>
+     * Subclasses that add fields should override this method, so that the copy keeps them.
+     * If the provider is null, a {@link NullPointerException} is thrown.
+     *
+     * @param provider the name of the provider that produced this result
+     * @return a copy of this result with the provider
+     */
+    public ConversionResult withProvider(@NotNull String provider) {
+        return new ConversionResult(this, provider);
     }
 
     /**
@@ -68,7 +190,14 @@ public class ConversionResult {
      * @return the quotient of <code>amount</code> divided by <code>result</code>
      */
     public BigDecimal getInverseRate() {
-        return amount.divide(result, NUMBER_OF_DECIMAL_PLACES, MATH_CONTEXT.getRoundingMode());
+        BigDecimal inverseRate = this.inverseRate;
+        if (isNull(inverseRate)) {
+            inverseRate = nonNull(knownRate)
+                    ? BigDecimal.ONE.divide(knownRate, NUMBER_OF_DECIMAL_PLACES, MATH_CONTEXT.getRoundingMode())
+                    : amount.divide(result, NUMBER_OF_DECIMAL_PLACES, MATH_CONTEXT.getRoundingMode());
+            this.inverseRate = inverseRate;
+        }
+        return inverseRate;
     }
 
     /**
@@ -107,6 +236,35 @@ public class ConversionResult {
         return result;
     }
 
+    /**
+     * Returns the conversion amount as {@link Money}, rounded to the scale of the currency converted from.
+     *
+     * @return the amount converted as {@code Money}
+     */
+    public Money getAmountMoney() {
+        Money amountMoney = this.amountMoney;
+        if (isNull(amountMoney)) {
+            amountMoney = Money.of(amount, from);
+            this.amountMoney = amountMoney;
+        }
+        return amountMoney;
+    }
+
+    /**
+     * Returns the conversion result as {@link Money}, rounded to the scale of the currency converted to.
+     * For example, a result of 1.4449 GBP is returned as 1.44 GBP.
+     *
+     * @return the result of the conversion as {@code Money}
+     */
+    public Money getResultMoney() {
+        Money resultMoney = this.resultMoney;
+        if (isNull(resultMoney)) {
+            resultMoney = Money.of(result, to);
+            this.resultMoney = resultMoney;
+        }
+        return resultMoney;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -124,7 +282,15 @@ public class ConversionResult {
 
     @Override
     public int hashCode() {
-        return Objects.hash(from, to, amount, result);
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = from.hashCode();
+            hash = 31 * hash + to.hashCode();
+            hash = 31 * hash + amount.hashCode();
+            hash = 31 * hash + result.hashCode();
+            this.hash = hash;
+        }
+        return hash;
     }
 
     @Override
@@ -3,7 +3,11 @@ package nemethi.xrate.api;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Converts an amount of money from a currency to another currency, possibly using a third-party service.
@@ -24,6 +28,48 @@ public interface CurrencyConverter {
     @NotNull
     ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException;
 
+    /**
+     * Converts the specified amount from a currency to another currency without blocking the calling thread.
+     * Returns a future that completes with the result of the conversion, which must never be null.
+     * If the conversion fails, the future completes exceptionally with a {@link ConversionException}.
+     * <p>
+     * The default implementation runs {@link #convert(Currency, Currency, BigDecimal)} on a bounded,
+     * shared executor dedicated to conversions. If the executor is saturated, the future fails right away
+     * with a {@link ConversionException}.
+     * Implementations using a non-blocking HTTP client should override this method.
+     *
+     * @param from   the currency converted from
+     * @param to     the currency converted to
+     * @param amount the amount converted
+     * @return a future of the result of the conversion
+     */
+    @NotNull
+    default CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        return ConversionExecutor.supplyAsync(() -> convert(from, to, amount));
+    }
+
+    /**
+     * Converts each of the specified requests.
+     * Returns the results in the iteration order of the given requests, one result for each request.
+     * The returned list and its elements must never be null.
+     * <p>
+     * The default implementation calls {@link #convert(Currency, Currency, BigDecimal)} for each request.
+     * Implementations backed by a third-party service that can answer multiple currency pairs
+     * in a single call should override this method.
+     *
+     * @param requests the conversions to perform
+     * @return the results of the conversions
+     * @throws ConversionException if any of the conversions fails
+     */
+    @NotNull
+    default List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        List<ConversionResult> results = new ArrayList<>(requests.size());
+        for (ConversionRequest request : requests) {
+            results.add(convert(request.getFrom(), request.getTo(), request.getAmount()));
+        }
+        return results;
+    }
+
     /**
      * Sets the credentials used for authentication, if there is any.
      *
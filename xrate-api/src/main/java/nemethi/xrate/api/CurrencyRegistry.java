@@ -0,0 +1,206 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.checkIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Assigns a dense, zero-based {@code int} id to every {@linkplain Currency#getAvailableCurrencies() available currency}.
+ * <p>
+ * Ids are assigned in the alphabetical order of the currency codes, so they range from 0 to {@link #size()} - 1
+ * and can be used as indices of arrays, bit sets or rate matrices instead of {@link Currency} objects or codes.
+ * The ids depend on the currencies known to the running JVM, thus they must not be persisted or sent to other processes.
+ * <p>
+ * Lookups never allocate and never throw on unknown codes, they return {@link #UNKNOWN_ID} or null instead.
+ * Codes are case-sensitive, just like in {@link Currency#getInstance(String)}.
+ */
+public final class CurrencyRegistry {
+
+    /**
+     * The id returned for codes that do not belong to any available currency.
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    private static final int CODE_LENGTH = 3;
+    private static final int LETTER_COUNT = 'Z' - 'A' + 1;
+    private static final Currency[] CURRENCIES = sortedCurrencies();
+    private static final String[] CODES = codesOf(CURRENCIES);
+    private static final short[] IDS_BY_CODE = indexCodes(CODES);
+    private static final List<Currency> CURRENCY_LIST = List.of(CURRENCIES);
+    private static final List<String> CODE_LIST = List.of(CODES);
+
+    private CurrencyRegistry() {
+    }
+
+    private static Currency[] sortedCurrencies() {
+        return Currency.getAvailableCurrencies()
+                .stream()
+                .filter(currency -> packCode(currency.getCurrencyCode()) != UNKNOWN_ID)
+                .sorted(Comparator.comparing(Currency::getCurrencyCode))
+                .toArray(Currency[]::new);
+    }
+
+    private static String[] codesOf(Currency[] currencies) {
+        return Arrays.stream(currencies).map(Currency::getCurrencyCode).toArray(String[]::new);
+    }
+
+    private static short[] indexCodes(String[] codes) {
+        short[] ids = new short[LETTER_COUNT * LETTER_COUNT * LETTER_COUNT];
+        Arrays.fill(ids, (short) UNKNOWN_ID);
+        for (int id = 0; id < codes.length; id++) {
+            ids[packCode(codes[id])] = (short) id;
+        }
+        return ids;
+    }
+
+    private static int packCode(CharSequence code) {
+        if (code.length() != CODE_LENGTH) {
+            return UNKNOWN_ID;
+        }
+        return packLetters(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    private static int packLetters(int first, int second, int third) {
+        if (isNotLetter(first) || isNotLetter(second) || isNotLetter(third)) {
+            return UNKNOWN_ID;
+        }
+        return ((first - 'A') * LETTER_COUNT + (second - 'A')) * LETTER_COUNT + (third - 'A');
+    }
+
+    private static boolean isNotLetter(int c) {
+        return c < 'A' || c > 'Z';
+    }
+
+    /**
+     * Returns the number of registered currencies.
+     *
+     * @return the number of registered currencies
+     */
+    public static int size() {
+        return CURRENCIES.length;
+    }
+
+    /**
+     * Returns the id of the currency with the given code.
+     * <p>
+     * If the code is null, a {@link NullPointerException} is thrown.
+     *
+     * @param code the ISO 4217 code of the currency, e.g. USD
+     * @return the id of the currency, or {@link #UNKNOWN_ID} if there is no currency with the given code
+     */
+    public static int idOf(@NotNull CharSequence code) {
+        requireNonNull(code, "Parameter 'code' cannot be null");
+        int packed = packCode(code);
+        return packed == UNKNOWN_ID ? UNKNOWN_ID : IDS_BY_CODE[packed];
+    }
+
+    /**
+     * Returns the id of the currency whose code is stored as three ASCII bytes at the given offset.
+     * <p>
+     * This method is meant for parsers working on raw input, so no {@code String} has to be created for the code.
+     * If the array is null, a {@link NullPointerException} is thrown.
+     * If the offset is negative or there are less than three bytes after it, an {@link IndexOutOfBoundsException} is thrown.
+     *
+     * @param bytes  the array containing the code
+     * @param offset the index of the first letter of the code
+     * @return the id of the currency, or {@link #UNKNOWN_ID} if there is no currency with the given code
+     */
+    public static int idOf(@NotNull byte[] bytes, int offset) {
+        requireNonNull(bytes, "Parameter 'bytes' cannot be null");
+        checkFromIndexSize(offset, CODE_LENGTH, bytes.length);
+        int packed = packLetters(bytes[offset], bytes[offset + 1], bytes[offset + 2]);
+        return packed == UNKNOWN_ID ? UNKNOWN_ID : IDS_BY_CODE[packed];
+    }
+
+    /**
+     * Returns the id of the given currency.
+     * <p>
+     * If the currency is null, a {@link NullPointerException} is thrown.
+     *
+     * @param currency the currency
+     * @return the id of the currency, or {@link #UNKNOWN_ID} if the currency is not registered
+     */
+    public static int idOf(@NotNull Currency currency) {
+        requireNonNull(currency, "Parameter 'currency' cannot be null");
+        return idOf(currency.getCurrencyCode());
+    }
+
+    /**
+     * Returns the currency with the given id.
+     * <p>
+     * If there is no currency with the given id, an {@link IndexOutOfBoundsException} is thrown.
+     *
+     * @param id the id of the currency
+     * @return the currency with the given id
+     */
+    @NotNull
+    public static Currency getCurrency(int id) {
+        return CURRENCIES[checkIndex(id, CURRENCIES.length)];
+    }
+
+    /**
+     * Returns the ISO 4217 code of the currency with the given id.
+     * <p>
+     * If there is no currency with the given id, an {@link IndexOutOfBoundsException} is thrown.
+     *
+     * @param id the id of the currency
+     * @return the code of the currency with the given id
+     */
+    @NotNull
+    public static String getCode(int id) {
+        return CODES[checkIndex(id, CODES.length)];
+    }
+
+    /**
+     * Returns the currency with the given code, without throwing an exception on unknown codes
+     * like {@link Currency#getInstance(String)} does.
+     * <p>
+     * If the code is null, a {@link NullPointerException} is thrown.
+     *
+     * @param code the ISO 4217 code of the currency, e.g. USD
+     * @return the currency with the given code, or null if there is no such currency
+     */
+    @Nullable
+    public static Currency findCurrency(@NotNull CharSequence code) {
+        int id = idOf(code);
+        return id == UNKNOWN_ID ? null : CURRENCIES[id];
+    }
+
+    /**
+     * Returns every registered currency, sorted by their codes, so the index of each currency is its id.
+     *
+     * @return an unmodifiable list of the registered currencies
+     */
+    @NotNull
+    public static List<Currency> getCurrencies() {
+        return CURRENCY_LIST;
+    }
+
+    /**
+     * Returns the codes of every registered currency in alphabetical order, so the index of each code is its id.
+     *
+     * @return an unmodifiable list of the registered currency codes
+     */
+    @NotNull
+    public static List<String> getCodes() {
+        return CODE_LIST;
+    }
+
+    /**
+     * Returns whether the given id belongs to a registered currency.
+     *
+     * @param id the id to check
+     * @return true if the id belongs to a registered currency
+     */
+    public static boolean isValidId(int id) {
+        return id >= 0 && id < CURRENCIES.length;
+    }
+}
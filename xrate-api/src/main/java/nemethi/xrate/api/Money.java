@@ -0,0 +1,238 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Represents an immutable amount of money as a fixed-point number.
+ * <p>
+ * The amount is stored as an unscaled {@code long} in the minor unit of its currency,
+ * so the scale is the {@linkplain Currency#getDefaultFractionDigits() default fraction digits} of the currency,
+ * e.g. 12.34 USD is stored as 1234 with a scale of 2.
+ * Currencies without default fraction digits, like gold, use a scale of {@value #FALLBACK_SCALE}.
+ * <p>
+ * Amounts are rounded to the scale of their currency with {@link RoundingMode#HALF_EVEN}.
+ * Amounts that do not fit into a {@code long} are kept as a {@link BigDecimal} instead,
+ * so no operation ever overflows silently.
+ */
+public final class Money {
+
+    /**
+     * The scale used for currencies that have no default fraction digits.
+     */
+    public static final int FALLBACK_SCALE = 4;
+
+    private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = powersOfTen();
+
+    private final Currency currency;
+    private final int scale;
+    private final long unscaled;
+    private final BigDecimal overflow;
+
+    private Money(Currency currency, int scale, long unscaled, BigDecimal overflow) {
+        this.currency = currency;
+        this.scale = scale;
+        this.unscaled = unscaled;
+        this.overflow = overflow;
+    }
+
+    private static long[] powersOfTen() {
+        long[] powers = new long[MAX_LONG_DIGITS + 1];
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * 10;
+        }
+        return powers;
+    }
+
+    /**
+     * Creates a new {@code Money} instance from the given amount, rounded to the scale of the currency.
+     * <p>
+     * If any of the parameters is null, a {@link NullPointerException} is thrown.
+     *
+     * @param amount   the amount of money
+     * @param currency the currency of the amount
+     * @return the amount in the given currency
+     */
+    public static Money of(@NotNull BigDecimal amount, @NotNull Currency currency) {
+        requireNonNull(amount, "Parameter 'amount' cannot be null");
+        requireNonNull(currency, "Parameter 'currency' cannot be null");
+        return fromBigDecimal(amount, currency, scaleOf(currency));
+    }
+
+    /**
+     * Creates a new {@code Money} instance from an amount given in the minor unit of the currency,
+     * e.g. {@code ofMinor(1234, USD)} is 12.34 USD.
+     * <p>
+     * If the currency is null, a {@link NullPointerException} is thrown.
+     *
+     * @param unscaled the amount in the minor unit of the currency
+     * @param currency the currency of the amount
+     * @return the amount in the given currency
+     */
+    public static Money ofMinor(long unscaled, @NotNull Currency currency) {
+        requireNonNull(currency, "Parameter 'currency' cannot be null");
+        return new Money(currency, scaleOf(currency), unscaled, null);
+    }
+
+    private static int scaleOf(Currency currency) {
+        int fractionDigits = currency.getDefaultFractionDigits();
+        return fractionDigits < 0 ? FALLBACK_SCALE : fractionDigits;
+    }
+
+    private static Money fromBigDecimal(BigDecimal amount, Currency currency, int scale) {
+        BigDecimal rounded = amount.setScale(scale, ROUNDING_MODE);
+        BigInteger unscaledValue = rounded.unscaledValue();
+        if (unscaledValue.bitLength() < Long.SIZE) {
+            return new Money(currency, scale, unscaledValue.longValue(), null);
+        }
+        return new Money(currency, scale, 0, rounded);
+    }
+
+    /**
+     * Converts this amount to another currency with the given exchange rate.
+     * <p>
+     * The product is rounded to the scale of the target currency with {@link RoundingMode#HALF_EVEN}.
+     * If any of the parameters is null, a {@link NullPointerException} is thrown.
+     *
+     * @param rate   the exchange rate of the currency of this amount to the target currency
+     * @param target the currency to convert to
+     * @return the converted amount
+     */
+    public Money multiply(@NotNull BigDecimal rate, @NotNull Currency target) {
+        requireNonNull(rate, "Parameter 'rate' cannot be null");
+        requireNonNull(target, "Parameter 'target' cannot be null");
+        // Scaling the rate to an integer keeps its compact long value, unlike unscaledValue(), which allocates a BigInteger
+        if (rate.precision() <= MAX_LONG_DIGITS && rate.scale() >= 0) {
+            return multiply(rate.scaleByPowerOfTen(rate.scale()).longValue(), rate.scale(), target);
+        }
+        return fromBigDecimal(toBigDecimal().multiply(rate), target, scaleOf(target));
+    }
+
+    /**
+     * Converts this amount to another currency with an exchange rate given as an unscaled value and a scale,
+     * e.g. a rate of 0.7213 is given as {@code multiply(7213, 4, target)}.
+     * <p>
+     * This method does not allocate anything apart from the result, unless the product does not fit into a {@code long}.
+     * The product is rounded to the scale of the target currency with {@link RoundingMode#HALF_EVEN}.
+     * If the target currency is null, a {@link NullPointerException} is thrown.
+     *
+     * @param unscaledRate the unscaled value of the exchange rate
+     * @param rateScale    the scale of the exchange rate
+     * @param target       the currency to convert to
+     * @return the converted amount
+     */
+    public Money multiply(long unscaledRate, int rateScale, @NotNull Currency target) {
+        requireNonNull(target, "Parameter 'target' cannot be null");
+        int targetScale = scaleOf(target);
+        int excessScale = scale + rateScale - targetScale;
+        if (isCompact() && excessScale >= 0 && excessScale <= MAX_LONG_DIGITS) {
+            long high = Math.multiplyHigh(unscaled, unscaledRate);
+            long low = unscaled * unscaledRate;
+            if (high == (low >> (Long.SIZE - 1))) {
+                return new Money(target, targetScale, divideHalfEven(low, POWERS_OF_TEN[excessScale]), null);
+            }
+        }
+        return fromBigDecimal(toBigDecimal().multiply(BigDecimal.valueOf(unscaledRate, rateScale)), target, targetScale);
+    }
+
+    private static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long twiceRemainder = Math.abs(dividend % divisor) * 2;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    /**
+     * Returns the currency of this amount.
+     *
+     * @return the currency of this amount
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Returns the scale of this amount, which is the number of digits after the decimal point.
+     *
+     * @return the scale of this amount
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns whether this amount is stored as an unscaled {@code long}.
+     * If not, it did not fit into a {@code long} and it is stored as a {@link BigDecimal}.
+     *
+     * @return true if this amount is stored as an unscaled {@code long}
+     */
+    public boolean isCompact() {
+        return isNull(overflow);
+    }
+
+    /**
+     * Returns this amount in the minor unit of its currency.
+     * <p>
+     * If the amount does not fit into a {@code long}, an {@link ArithmeticException} is thrown.
+     *
+     * @return the unscaled value of this amount
+     */
+    public long getUnscaled() {
+        if (nonNull(overflow)) {
+            throw new ArithmeticException("The amount does not fit into a long: " + overflow);
+        }
+        return unscaled;
+    }
+
+    /**
+     * Returns this amount as a {@link BigDecimal} with the scale of its currency.
+     *
+     * @return this amount as a {@code BigDecimal}
+     */
+    public BigDecimal toBigDecimal() {
+        return isCompact() ? BigDecimal.valueOf(unscaled, scale) : overflow;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        // An amount is only kept as a BigDecimal if it does not fit into a long, so equal amounts are stored the same way
+        Money that = (Money) o;
+        if (isCompact() && that.isCompact()) {
+            return currency.equals(that.currency) && unscaled == that.unscaled;
+        }
+        return currency.equals(that.currency) && Objects.equals(overflow, that.overflow);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * currency.hashCode() + (isCompact() ? Long.hashCode(unscaled) : overflow.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "Money{" +
+                "currency=" + currency +
+                ", amount=" + toBigDecimal().toPlainString() +
+                '}';
+    }
+}
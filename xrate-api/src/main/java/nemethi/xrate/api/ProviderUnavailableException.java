@@ -0,0 +1,30 @@
+package nemethi.xrate.api;
+
+/**
+ * Thrown to indicate that the provider behind a converter cannot serve any conversion for a while,
+ * e.g. because the quota of the account is reached or the credentials are not valid.
+ * <p>
+ * Unlike other conversion errors, it is not specific to the converted currencies or amount,
+ * so retrying the same provider with another conversion is not expected to succeed.
+ */
+public class ProviderUnavailableException extends ConversionException {
+
+    /**
+     * Constructs a new instance with the specified message.
+     *
+     * @param message the message
+     */
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new instance with specified message and cause.
+     *
+     * @param message the message
+     * @param cause   the cause
+     */
+    public ProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Implemented by converters that have settings of their own in the configuration file of xrate.
+ * xrate calls {@link #setSettings(Map)} once, before the first conversion, with every {@code xrate.plugin.} setting
+ * except the authentication credentials. The keys are given without that prefix, e.g. {@code rateTable}
+ * for {@code xrate.plugin.rateTable}. Settings missing from the map are not configured, converters should use their defaults.
+ */
+public interface SettingsAware {
+
+    /**
+     * Sets the plugin settings of the configuration.
+     *
+     * @param settings the settings by their key without the {@code xrate.plugin.} prefix
+     */
+    void setSettings(@NotNull Map<String, String> settings);
+}
@@ -0,0 +1,113 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The HTTP transport that xrate shares between the built-in converter and the plugins of a process,
+ * so that connections, TLS sessions and HTTP/2 streams are reused across conversions.
+ * <p>
+ * Converters that send their requests with {@link #send(HttpRequest, BodyHandler)} and
+ * {@link #sendAsync(HttpRequest, BodyHandler)} use the shared pool directly.
+ * Converters that use another HTTP client should size and time out its pool with the settings of the transport,
+ * and report its connections with {@link #addStatsSource(Supplier)}.
+ *
+ * @see TransportAware
+ */
+public interface Transport {
+
+    /**
+     * Returns a request builder for the specified URI, with the request timeout of the transport already set.
+     *
+     * @param uri the URI of the request
+     * @return a new request builder
+     */
+    @NotNull
+    HttpRequest.Builder newRequest(@NotNull URI uri);
+
+    /**
+     * Sends the specified request over a pooled connection, blocking until the response is received.
+     *
+     * @param request     the request to send
+     * @param bodyHandler the handler of the response body
+     * @param <T>         the type of the response body
+     * @return the response
+     * @throws IOException          if an I/O error occurs
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    @NotNull
+    <T> HttpResponse<T> send(@NotNull HttpRequest request, @NotNull BodyHandler<T> bodyHandler) throws IOException, InterruptedException;
+
+    /**
+     * Sends the specified request over a pooled connection without blocking the calling thread.
+     *
+     * @param request     the request to send
+     * @param bodyHandler the handler of the response body
+     * @param <T>         the type of the response body
+     * @return a future of the response
+     */
+    @NotNull
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(@NotNull HttpRequest request, @NotNull BodyHandler<T> bodyHandler);
+
+    /**
+     * Returns the maximum number of connections kept in the pool.
+     *
+     * @return the size of the pool
+     */
+    int getPoolSize();
+
+    /**
+     * Returns whether HTTP/2 is preferred over HTTP/1.1.
+     *
+     * @return true if HTTP/2 is negotiated whenever the server supports it
+     */
+    boolean isHttp2Preferred();
+
+    /**
+     * Returns the maximum time to establish a connection.
+     *
+     * @return the connect timeout
+     */
+    @NotNull
+    Duration getConnectTimeout();
+
+    /**
+     * Returns the maximum time to wait for a response.
+     *
+     * @return the request timeout
+     */
+    @NotNull
+    Duration getRequestTimeout();
+
+    /**
+     * Returns the time after which an unused connection is closed.
+     *
+     * @return the idle timeout
+     */
+    @NotNull
+    Duration getIdleTimeout();
+
+    /**
+     * Returns the statistics of the transport, including those of every registered source.
+     *
+     * @return a snapshot of the statistics
+     */
+    @NotNull
+    TransportStats getStats();
+
+    /**
+     * Registers the statistics of a connection pool that is not managed by the transport,
+     * so that {@link #getStats()} includes them.
+     *
+     * @param source returns a snapshot of the statistics of the pool
+     */
+    void addStatsSource(@NotNull Supplier<TransportStats> source);
+}
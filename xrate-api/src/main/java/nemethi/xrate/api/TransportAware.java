@@ -0,0 +1,18 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Implemented by converters that send their requests through the {@link Transport} shared by the process.
+ * xrate calls {@link #setTransport(Transport)} once, before the first conversion.
+ * Converters that are never given a transport should fall back to a pool of their own.
+ */
+public interface TransportAware {
+
+    /**
+     * Sets the transport used for every subsequent request.
+     *
+     * @param transport the shared transport
+     */
+    void setTransport(@NotNull Transport transport);
+}
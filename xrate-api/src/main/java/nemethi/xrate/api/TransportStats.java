@@ -0,0 +1,121 @@
+package nemethi.xrate.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the connection statistics of a {@link Transport}.
+ * <p>
+ * A handshake is saved whenever a request over TLS is sent on a connection that is already established,
+ * so the number of saved handshakes shows how well the connections are reused.
+ */
+public final class TransportStats {
+
+    private static final TransportStats EMPTY = new TransportStats(0, 0, 0, 0, 0);
+
+    private final long requests;
+    private final long secureRequests;
+    private final long handshakes;
+    private final int activeConnections;
+    private final int idleConnections;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param requests          the number of requests sent
+     * @param secureRequests    the number of requests sent over TLS
+     * @param handshakes        the number of TLS connections established
+     * @param activeConnections the number of open connections that carry a request
+     * @param idleConnections   the number of open connections that wait in the pool
+     */
+    public TransportStats(long requests, long secureRequests, long handshakes, int activeConnections, int idleConnections) {
+        this.requests = requests;
+        this.secureRequests = secureRequests;
+        this.handshakes = handshakes;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+    }
+
+    /**
+     * Returns a snapshot without any requests or connections.
+     *
+     * @return the empty snapshot
+     */
+    @NotNull
+    public static TransportStats empty() {
+        return EMPTY;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getSecureRequests() {
+        return secureRequests;
+    }
+
+    public long getHandshakes() {
+        return handshakes;
+    }
+
+    /**
+     * Returns the number of requests over TLS that did not need a new connection.
+     *
+     * @return the number of saved handshakes
+     */
+    public long getHandshakesSaved() {
+        return Math.max(0, secureRequests - handshakes);
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    /**
+     * Returns the sum of this snapshot and the specified one, e.g. to combine the statistics of two pools.
+     *
+     * @param other the snapshot to add
+     * @return the combined snapshot
+     */
+    @NotNull
+    public TransportStats plus(@NotNull TransportStats other) {
+        return new TransportStats(requests + other.requests, secureRequests + other.secureRequests,
+                handshakes + other.handshakes, activeConnections + other.activeConnections,
+                idleConnections + other.idleConnections);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TransportStats that = (TransportStats) o;
+        return requests == that.requests && secureRequests == that.secureRequests && handshakes == that.handshakes
+                && activeConnections == that.activeConnections && idleConnections == that.idleConnections;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(requests, secureRequests, handshakes, activeConnections, idleConnections);
+    }
+
+    @Override
+    public String toString() {
+        return "TransportStats{" +
+                "requests=" + requests +
+                ", secureRequests=" + secureRequests +
+                ", handshakes=" + handshakes +
+                ", handshakesSaved=" + getHandshakesSaved() +
+                ", activeConnections=" + activeConnections +
+                ", idleConnections=" + idleConnections +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package nemethi.xrate.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ConversionExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = ConversionExecutor.createExecutor(1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void failsConversionWithoutRunningItOnCallerIfSaturated() {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> running = ConversionExecutor.supplyAsync(this::awaitRelease, executor);
+        CompletableFuture<Thread> queued = ConversionExecutor.supplyAsync(this::awaitRelease, executor);
+
+        CompletableFuture<Thread> rejected = ConversionExecutor.supplyAsync(Thread::currentThread, executor);
+
+        Throwable thrown = catchThrowable(rejected::join);
+        assertThat(thrown).hasCauseInstanceOf(ConversionException.class)
+                .hasRootCauseInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        assertThat(running.join()).isNotEqualTo(caller);
+        assertThat(queued.join()).isNotEqualTo(caller);
+    }
+
+    private Thread awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Thread.currentThread();
+    }
+}
@@ -0,0 +1,42 @@
+package nemethi.xrate.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ConversionRequestTest {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Test
+    void gettersWork() {
+        var request = new ConversionRequest(FROM, TO, AMOUNT);
+
+        assertThat(request.getFrom()).isEqualTo(FROM);
+        assertThat(request.getTo()).isEqualTo(TO);
+        assertThat(request.getAmount()).isEqualTo(AMOUNT);
+    }
+
+    @Test
+    void equalObjectsHaveSameHashCode() {
+        var request = new ConversionRequest(FROM, TO, AMOUNT);
+        var otherRequest = new ConversionRequest(FROM, TO, AMOUNT);
+
+        assertThat(request).isEqualTo(otherRequest).hasSameHashCodeAs(otherRequest);
+    }
+
+    @Test
+    void throwsOnNullAmount() {
+        Throwable thrown = catchThrowable(() -> new ConversionRequest(FROM, TO, null));
+
+        assertThat(thrown)
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("Parameter 'amount' cannot be null");
+    }
+}
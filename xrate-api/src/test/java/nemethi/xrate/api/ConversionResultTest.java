@@ -66,6 +66,97 @@ class ConversionResultTest {
         assertThat(thrown).isInstanceOf(ArithmeticException.class);
     }
 
+    @Test
+    void getRateAndInverseRateReturnSameInstanceOnRepeatedCalls() {
+        assertThat(conversionResult.getRate()).isSameAs(conversionResult.getRate());
+        assertThat(conversionResult.getInverseRate()).isSameAs(conversionResult.getInverseRate());
+    }
+
+    @Test
+    void getAmountMoneyAndGetResultMoneyRoundToScaleOfCurrency() {
+        var conversionResult = new ConversionResult(FROM, TO, new BigDecimal("2.005"), new BigDecimal("1.4449"));
+
+        assertThat(conversionResult.getAmountMoney()).isEqualTo(Money.ofMinor(200, FROM));
+        assertThat(conversionResult.getResultMoney()).isEqualTo(Money.ofMinor(144, TO));
+        assertThat(conversionResult.getResultMoney()).isSameAs(conversionResult.getResultMoney());
+    }
+
+    @Test
+    void withProviderKeepsResultAndAddsProvider() {
+        var known = ConversionResult.ofRate(FROM, TO, AMOUNT, RESULT);
+
+        ConversionResult named = known.withProvider("provider");
+
+        assertThat(conversionResult.getProvider()).isEmpty();
+        assertThat(named.getProvider()).contains("provider");
+        assertThat(named).isEqualTo(known).hasSameHashCodeAs(known);
+        assertThat(named.getKnownRate()).isEqualTo(known.getKnownRate());
+    }
+
+    @Test
+    void withProviderThrowsOnNullProvider() {
+        Throwable thrown = catchThrowable(() -> conversionResult.withProvider(null));
+        assertThat(thrown).isInstanceOf(NullPointerException.class);
+    }
+
+    @Nested
+    class OfRateTests {
+
+        private final BigDecimal rate = new BigDecimal("0.721345");
+        private final BigDecimal amount = new BigDecimal("768.13");
+
+        @Test
+        void resultIsProductOfAmountAndRate() {
+            var result = ConversionResult.ofRate(FROM, TO, amount, rate);
+
+            assertThat(result.getFrom()).isEqualTo(FROM);
+            assertThat(result.getTo()).isEqualTo(TO);
+            assertThat(result.getAmount()).isEqualTo(amount);
+            assertThat(result.getResult()).isEqualTo(amount.multiply(rate, ConversionResult.MATH_CONTEXT));
+        }
+
+        @Test
+        void ratesMatchThoseComputedFromResult() {
+            var result = ConversionResult.ofRate(FROM, TO, amount, rate);
+            var computed = new ConversionResult(FROM, TO, amount, result.getResult());
+
+            assertThat(result.getRate()).isEqualTo(computed.getRate());
+            assertThat(result.getInverseRate()).isEqualTo(computed.getInverseRate());
+        }
+
+        @Test
+        void isEqualToResultCreatedWithConstructor() {
+            var result = ConversionResult.ofRate(FROM, TO, AMOUNT, RESULT);
+
+            assertThat(result).isEqualTo(conversionResult);
+            assertThat(result).hasSameHashCodeAs(conversionResult);
+        }
+
+        @Test
+        void keepsKnownRateUnrounded() {
+            var result = ConversionResult.ofRate(FROM, TO, amount, rate);
+
+            assertThat(result.getKnownRate()).contains(rate);
+            assertThat(conversionResult.getKnownRate()).isEmpty();
+        }
+
+        @Test
+        void getRateWithZeroAmountReturnsKnownRate() {
+            var result = ConversionResult.ofRate(FROM, TO, BigDecimal.ZERO, rate);
+
+            assertThat(result.getRate()).isEqualByComparingTo("0.7213");
+        }
+
+        @Test
+        void throwsOnNullRate() {
+            Throwable thrown = catchThrowable(() -> ConversionResult.ofRate(FROM, TO, AMOUNT, null));
+
+            assertThat(thrown)
+                    .isInstanceOf(NullPointerException.class)
+                    .hasMessage("Parameter 'rate' cannot be null");
+        }
+    }
+
     @Nested
     class ConstructorTests {
 
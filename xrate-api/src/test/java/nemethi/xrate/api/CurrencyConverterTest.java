@@ -0,0 +1,80 @@
+package nemethi.xrate.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrencyConverterTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final BigDecimal AMOUNT = BigDecimal.TEN;
+    private static final ConversionResult USD_GBP_RESULT = new ConversionResult(USD, GBP, AMOUNT, new BigDecimal("7.2"));
+    private static final ConversionResult USD_EUR_RESULT = new ConversionResult(USD, EUR, AMOUNT, new BigDecimal("8.5"));
+
+    private CurrencyConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = mock(CurrencyConverter.class, Answers.CALLS_REAL_METHODS);
+    }
+
+    @Test
+    void convertAllConvertsEachRequestInOrder() {
+        when(converter.convert(USD, GBP, AMOUNT)).thenReturn(USD_GBP_RESULT);
+        when(converter.convert(USD, EUR, AMOUNT)).thenReturn(USD_EUR_RESULT);
+
+        List<ConversionResult> results = converter.convertAll(List.of(
+                new ConversionRequest(USD, GBP, AMOUNT), new ConversionRequest(USD, EUR, AMOUNT)));
+
+        assertThat(results).containsExactly(USD_GBP_RESULT, USD_EUR_RESULT);
+    }
+
+    @Test
+    void convertAsyncRunsConvertOnAnotherThread() {
+        Thread caller = Thread.currentThread();
+        when(converter.convert(USD, GBP, AMOUNT)).thenAnswer(invocation -> {
+            assertThat(Thread.currentThread()).isNotEqualTo(caller);
+            return USD_GBP_RESULT;
+        });
+
+        ConversionResult result = converter.convertAsync(USD, GBP, AMOUNT).join();
+
+        assertThat(result).isEqualTo(USD_GBP_RESULT);
+    }
+
+    @Test
+    void convertAsyncCompletesExceptionallyOnFailure() {
+        ConversionException exception = new ConversionException("testMessage");
+        when(converter.convert(USD, GBP, AMOUNT)).thenThrow(exception);
+
+        Throwable thrown = catchThrowable(() -> converter.convertAsync(USD, GBP, AMOUNT).join());
+
+        assertThat(thrown).isInstanceOf(CompletionException.class).hasCause(exception);
+    }
+
+    @Test
+    void convertAllStopsAtFirstFailure() {
+        ConversionException exception = new ConversionException("testMessage");
+        when(converter.convert(USD, GBP, AMOUNT)).thenThrow(exception);
+
+        Throwable thrown = catchThrowable(() -> converter.convertAll(List.of(
+                new ConversionRequest(USD, GBP, AMOUNT), new ConversionRequest(USD, EUR, AMOUNT))));
+
+        assertThat(thrown).isEqualTo(exception);
+        verify(converter, never()).convert(USD, EUR, AMOUNT);
+    }
+}
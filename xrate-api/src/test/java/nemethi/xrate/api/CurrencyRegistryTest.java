@@ -0,0 +1,106 @@
+package nemethi.xrate.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Currency;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class CurrencyRegistryTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    void registersEveryAvailableCurrency() {
+        assertThat(CurrencyRegistry.size()).isEqualTo(Currency.getAvailableCurrencies().size());
+        assertThat(CurrencyRegistry.getCurrencies()).containsExactlyInAnyOrderElementsOf(Currency.getAvailableCurrencies());
+    }
+
+    @Test
+    void idsAreDenseAndFollowAlphabeticalOrderOfCodes() {
+        var sortedCodes = Currency.getAvailableCurrencies().stream()
+                .map(Currency::getCurrencyCode)
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertThat(CurrencyRegistry.getCodes()).isEqualTo(sortedCodes);
+        for (int id = 0; id < CurrencyRegistry.size(); id++) {
+            Currency currency = CurrencyRegistry.getCurrency(id);
+            assertThat(CurrencyRegistry.idOf(currency)).isEqualTo(id);
+            assertThat(CurrencyRegistry.getCode(id)).isEqualTo(currency.getCurrencyCode());
+        }
+    }
+
+    @Test
+    void idOfCharSequenceWorks() {
+        int id = CurrencyRegistry.idOf(new StringBuilder("USD"));
+
+        assertThat(CurrencyRegistry.getCurrency(id)).isEqualTo(USD);
+    }
+
+    @Test
+    void idOfBytesWorks() {
+        byte[] bytes = "EUR,USD,10".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(CurrencyRegistry.idOf(bytes, 4)).isEqualTo(CurrencyRegistry.idOf(USD));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"AAA", "usd", "US", "USDX", "", "U$D", "12A"})
+    void returnsUnknownIdOnUnknownCode(String code) {
+        assertThat(CurrencyRegistry.idOf(code)).isEqualTo(CurrencyRegistry.UNKNOWN_ID);
+        assertThat(CurrencyRegistry.findCurrency(code)).isNull();
+    }
+
+    @Test
+    void idOfBytesReturnsUnknownIdOnUnknownCode() {
+        byte[] bytes = "usd".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(CurrencyRegistry.idOf(bytes, 0)).isEqualTo(CurrencyRegistry.UNKNOWN_ID);
+    }
+
+    @Test
+    void idOfBytesThrowsIfCodeDoesNotFit() {
+        byte[] bytes = "EUR,US".getBytes(StandardCharsets.US_ASCII);
+
+        Throwable thrown = catchThrowable(() -> CurrencyRegistry.idOf(bytes, 4));
+
+        assertThat(thrown).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void findCurrencyWorks() {
+        assertThat(CurrencyRegistry.findCurrency("USD")).isEqualTo(USD);
+    }
+
+    @Test
+    void getCurrencyThrowsOnInvalidId() {
+        Throwable thrown = catchThrowable(() -> CurrencyRegistry.getCurrency(CurrencyRegistry.size()));
+
+        assertThat(thrown).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(CurrencyRegistry.isValidId(CurrencyRegistry.size())).isFalse();
+        assertThat(CurrencyRegistry.isValidId(CurrencyRegistry.UNKNOWN_ID)).isFalse();
+        assertThat(CurrencyRegistry.isValidId(0)).isTrue();
+    }
+
+    @Test
+    void listingsAreUnmodifiable() {
+        Throwable thrown = catchThrowable(() -> CurrencyRegistry.getCodes().add("AAA"));
+
+        assertThat(thrown).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void throwsOnNullCode() {
+        Throwable thrown = catchThrowable(() -> CurrencyRegistry.idOf((CharSequence) null));
+
+        assertThat(thrown)
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("Parameter 'code' cannot be null");
+    }
+}
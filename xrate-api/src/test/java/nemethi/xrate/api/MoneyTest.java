@@ -0,0 +1,185 @@
+package nemethi.xrate.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    private static final Currency KWD = Currency.getInstance("KWD");
+    private static final Currency XAU = Currency.getInstance("XAU");
+
+    @Test
+    void ofUsesDefaultFractionDigitsOfCurrency() {
+        assertThat(Money.of(new BigDecimal("12.34"), USD).getUnscaled()).isEqualTo(1234);
+        assertThat(Money.of(new BigDecimal("12.34"), JPY).getUnscaled()).isEqualTo(12);
+        assertThat(Money.of(new BigDecimal("12.34"), KWD).getUnscaled()).isEqualTo(12340);
+        assertThat(Money.of(new BigDecimal("12.34"), KWD).getScale()).isEqualTo(3);
+    }
+
+    @Test
+    void ofUsesFallbackScaleForCurrencyWithoutFractionDigits() {
+        Money money = Money.of(new BigDecimal("1.23456"), XAU);
+
+        assertThat(money.getScale()).isEqualTo(Money.FALLBACK_SCALE);
+        assertThat(money.toBigDecimal()).isEqualTo("1.2346");
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0.125, 12", "0.135, 14", "-0.125, -12", "-0.135, -14", "0.1251, 13"})
+    void ofRoundsHalfEven(String amount, long expectedUnscaled) {
+        assertThat(Money.of(new BigDecimal(amount), USD).getUnscaled()).isEqualTo(expectedUnscaled);
+    }
+
+    @Test
+    void ofMinorWorks() {
+        Money money = Money.ofMinor(1234, USD);
+
+        assertThat(money.getCurrency()).isEqualTo(USD);
+        assertThat(money.toBigDecimal()).isEqualTo("12.34");
+        assertThat(money.isCompact()).isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "768.13, 0.721345, 554.09",
+            "1.00, 0.725, 0.72",
+            "1.00, 0.735, 0.74",
+            "-1.00, 0.725, -0.72",
+            "-1.00, 0.735, -0.74",
+            "100, 1.2345678901234567, 123.46",
+            "0.01, 0.5, 0.00"
+    })
+    void multiplyMatchesBigDecimalWithHalfEvenRounding(String amount, String rate, String expected) {
+        Money money = Money.of(new BigDecimal(amount), USD);
+
+        Money converted = money.multiply(new BigDecimal(rate), GBP);
+
+        assertThat(converted.getCurrency()).isEqualTo(GBP);
+        assertThat(converted.isCompact()).isTrue();
+        assertThat(converted.toBigDecimal()).isEqualTo(expected);
+        assertThat(converted.toBigDecimal())
+                .isEqualTo(money.toBigDecimal().multiply(new BigDecimal(rate)).setScale(2, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void multiplyRoundsToScaleOfTargetCurrency() {
+        Money converted = Money.of(new BigDecimal("100.00"), USD).multiply(new BigDecimal("109.8765"), JPY);
+
+        assertThat(converted.getScale()).isZero();
+        assertThat(converted.getUnscaled()).isEqualTo(10988);
+    }
+
+    @Test
+    void multiplyWithUnscaledRateWorks() {
+        Money converted = Money.ofMinor(76813, USD).multiply(721345, 6, GBP);
+
+        assertThat(converted).isEqualTo(Money.ofMinor(55409, GBP));
+    }
+
+    @Test
+    void multiplyWithNegativeRateScaleWorks() {
+        Money converted = Money.ofMinor(150, USD).multiply(new BigDecimal("1E+2"), JPY);
+
+        assertThat(converted).isEqualTo(Money.ofMinor(150, JPY));
+    }
+
+    @Test
+    void multiplyFallsBackToBigDecimalOnOverflow() {
+        Money money = Money.ofMinor(Long.MAX_VALUE, USD);
+
+        Money converted = money.multiply(new BigDecimal("1000.5"), GBP);
+
+        assertThat(converted.isCompact()).isFalse();
+        assertThat(converted.toBigDecimal())
+                .isEqualTo(money.toBigDecimal().multiply(new BigDecimal("1000.5")).setScale(2, RoundingMode.HALF_EVEN));
+        Throwable thrown = catchThrowable(converted::getUnscaled);
+        assertThat(thrown).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void multiplyKeepsCompactResultWhenIntermediateProductFits() {
+        Money converted = Money.ofMinor(Long.MAX_VALUE / 10, USD).multiply(5, 1, GBP);
+
+        assertThat(converted.isCompact()).isTrue();
+        assertThat(converted.getUnscaled()).isEqualTo(Long.MAX_VALUE / 20);
+    }
+
+    @Test
+    void multiplyKeepsCompactResultAtOverflowBoundary() {
+        Money converted = Money.ofMinor(Long.MAX_VALUE, USD).multiply(1, 0, GBP);
+
+        assertThat(converted.isCompact()).isTrue();
+        assertThat(converted.getUnscaled()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void multiplyFallsBackToBigDecimalJustPastOverflowBoundary() {
+        Money converted = Money.ofMinor(Long.MIN_VALUE, USD).multiply(-1, 0, GBP);
+
+        assertThat(converted.isCompact()).isFalse();
+        assertThat(converted.toBigDecimal()).isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).negate());
+    }
+
+    @Test
+    void equalAmountsOfOverflowHaveSameHashCode() {
+        BigDecimal amount = new BigDecimal("123456789012345678901234567890.12");
+
+        assertThat(Money.of(amount, USD))
+                .isEqualTo(Money.of(amount, USD))
+                .hasSameHashCodeAs(Money.of(amount, USD))
+                .isNotEqualTo(Money.ofMinor(1234, USD));
+    }
+
+    @Test
+    void ofFallsBackToBigDecimalOnOverflow() {
+        BigDecimal amount = new BigDecimal("123456789012345678901234567890.12");
+
+        Money money = Money.of(amount, USD);
+
+        assertThat(money.isCompact()).isFalse();
+        assertThat(money.toBigDecimal()).isEqualTo(amount);
+    }
+
+    @Test
+    void equalsComparesCurrencyAndAmount() {
+        assertThat(Money.ofMinor(1234, USD))
+                .isEqualTo(Money.of(new BigDecimal("12.34"), USD))
+                .hasSameHashCodeAs(Money.of(new BigDecimal("12.34"), USD))
+                .isNotEqualTo(Money.ofMinor(1234, GBP))
+                .isNotEqualTo(Money.ofMinor(1235, USD));
+    }
+
+    @Test
+    void throwsOnNullCurrency() {
+        Throwable thrown = catchThrowable(() -> Money.of(BigDecimal.ONE, null));
+
+        assertThat(thrown)
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("Parameter 'currency' cannot be null");
+    }
+
+    @Test
+    void throwsOnNullRate() {
+        Throwable thrown = catchThrowable(() -> Money.ofMinor(1, USD).multiply(null, GBP));
+
+        assertThat(thrown)
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("Parameter 'rate' cannot be null");
+    }
+
+    @Test
+    void toStringWorks() {
+        assertThat(Money.ofMinor(-5, USD)).hasToString("Money{currency=USD, amount=-0.05}");
+    }
+}
@@ -0,0 +1,47 @@
+package nemethi.xrate.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransportStatsTest {
+
+    @Test
+    void gettersWork() {
+        var stats = new TransportStats(10, 8, 2, 1, 3);
+
+        assertThat(stats.getRequests()).isEqualTo(10);
+        assertThat(stats.getSecureRequests()).isEqualTo(8);
+        assertThat(stats.getHandshakes()).isEqualTo(2);
+        assertThat(stats.getHandshakesSaved()).isEqualTo(6);
+        assertThat(stats.getActiveConnections()).isEqualTo(1);
+        assertThat(stats.getIdleConnections()).isEqualTo(3);
+    }
+
+    @Test
+    void handshakesSavedIsNeverNegative() {
+        var stats = new TransportStats(1, 1, 2, 0, 0);
+
+        assertThat(stats.getHandshakesSaved()).isZero();
+    }
+
+    @Test
+    void plusAddsEveryCounter() {
+        var stats = new TransportStats(10, 8, 2, 1, 3).plus(new TransportStats(5, 4, 1, 2, 0));
+
+        assertThat(stats).isEqualTo(new TransportStats(15, 12, 3, 3, 3));
+    }
+
+    @Test
+    void emptyHasNoRequestsOrConnections() {
+        assertThat(TransportStats.empty()).isEqualTo(new TransportStats(0, 0, 0, 0, 0));
+    }
+
+    @Test
+    void equalObjectsHaveSameHashCode() {
+        var stats = new TransportStats(10, 8, 2, 1, 3);
+        var otherStats = new TransportStats(10, 8, 2, 1, 3);
+
+        assertThat(stats).isEqualTo(otherStats).hasSameHashCodeAs(otherStats);
+    }
+}
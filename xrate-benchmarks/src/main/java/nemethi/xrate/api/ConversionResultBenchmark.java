@@ -0,0 +1,64 @@
+package nemethi.xrate.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionResultBenchmark {
+
+    private static final Currency FROM = Currency.getInstance("EUR");
+    private static final Currency TO = Currency.getInstance("HUF");
+    private static final BigDecimal AMOUNT = new BigDecimal("768.13");
+    private static final BigDecimal RESULT = new BigDecimal("278275.41");
+    private static final BigDecimal RATE = new BigDecimal("362.2761");
+
+    private ConversionResult result;
+
+    @Setup
+    public void setUp() {
+        result = new ConversionResult(FROM, TO, AMOUNT, RESULT);
+    }
+
+    @Benchmark
+    public BigDecimal getRate() {
+        return result.getRate();
+    }
+
+    @Benchmark
+    public BigDecimal getInverseRate() {
+        return result.getInverseRate();
+    }
+
+    // What a converter pays for a fresh result that is printed: the rates are computed once per result
+    @Benchmark
+    public void newResultWithRates(Blackhole blackhole) {
+        ConversionResult fresh = new ConversionResult(FROM, TO, AMOUNT, RESULT);
+        blackhole.consume(fresh.getRate());
+        blackhole.consume(fresh.getInverseRate());
+    }
+
+    @Benchmark
+    public void knownRateResultWithRates(Blackhole blackhole) {
+        ConversionResult fresh = ConversionResult.ofRate(FROM, TO, AMOUNT, RATE);
+        blackhole.consume(fresh.getRate());
+        blackhole.consume(fresh.getInverseRate());
+    }
+}
@@ -0,0 +1,49 @@
+package nemethi.xrate.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final Currency FROM = Currency.getInstance("EUR");
+    private static final Currency TO = Currency.getInstance("HUF");
+    private static final BigDecimal AMOUNT = new BigDecimal("768.13");
+    private static final BigDecimal RATE = new BigDecimal("362.2761");
+    private static final long UNSCALED_RATE = 3622761;
+    private static final int RATE_SCALE = 4;
+
+    private final Money money = Money.of(AMOUNT, FROM);
+
+    @Benchmark
+    public BigDecimal bigDecimalMultiply() {
+        return AMOUNT.multiply(RATE).setScale(TO.getDefaultFractionDigits(), RoundingMode.HALF_EVEN);
+    }
+
+    @Benchmark
+    public Money moneyMultiply() {
+        return money.multiply(RATE, TO);
+    }
+
+    @Benchmark
+    public Money moneyMultiplyUnscaledRate() {
+        return money.multiply(UNSCALED_RATE, RATE_SCALE, TO);
+    }
+}
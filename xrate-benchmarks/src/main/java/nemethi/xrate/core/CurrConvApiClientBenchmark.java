@@ -0,0 +1,61 @@
+package nemethi.xrate.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Currency;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.joining;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrConvApiClientBenchmark {
+
+    private static final List<String> TARGETS = List.of("GBP", "EUR", "HUF", "JPY", "CHF", "CAD", "AUD", "SEK");
+
+    @Param({"1", "8"})
+    private int pairCount;
+
+    private CurrConvApiClient client;
+    private Set<CurrencyPair> pairs;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        client = new CurrConvApiClient("http://localhost");
+        pairs = new LinkedHashSet<>();
+        for (String target : TARGETS.subList(0, pairCount)) {
+            pairs.add(CurrencyPair.of(Currency.getInstance("USD"), Currency.getInstance(target)));
+        }
+        json = pairs.stream()
+                .map(pair -> String.format("\"%s\":%s", pair.toKey(), "0.721345"))
+                .collect(joining(",", "{", "}"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<CurrencyPair, BigDecimal> parseJson() {
+        return client.parseJson(ByteBuffer.wrap(json), pairs);
+    }
+}
@@ -0,0 +1,60 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultCurrencyConverterBenchmark {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final BigDecimal AMOUNT = new BigDecimal("768.13");
+
+    private DefaultCurrencyConverter converter;
+
+    @Setup
+    public void setUp() {
+        converter = new DefaultCurrencyConverter(new StubClient(new BigDecimal("0.7213")));
+        converter.setAuthCredentials("apiKey");
+    }
+
+    @Benchmark
+    public ConversionResult convert() {
+        return converter.convert(FROM, TO, AMOUNT);
+    }
+
+    // Answers without any I/O, so only the work of the converter itself is measured
+    private static final class StubClient extends CurrConvApiClient {
+
+        private final Optional<BigDecimal> rate;
+
+        private StubClient(BigDecimal rate) {
+            super("http://localhost");
+            this.rate = Optional.of(rate);
+        }
+
+        @Override
+        public Optional<BigDecimal> getConversionRate(Currency from, Currency to, String apiKey) {
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.CurrencyConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// The ExchangeRate-API plugin is on the classpath of the benchmarks, so a provider is always found
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginLoaderBenchmark {
+
+    private final PluginLoader sharedLoader = new PluginLoader();
+
+    // What every launch of the CLI pays: a fresh ServiceLoader scan and provider instantiation
+    @Benchmark
+    public Optional<CurrencyConverter> findFirstPluginWithNewLoader() {
+        return new PluginLoader().findFirstPlugin();
+    }
+
+    // Discovery without instantiation, as done by the routing and hedging strategies before choosing providers
+    @Benchmark
+    public List<Class<? extends CurrencyConverter>> findPluginTypesWithNewLoader() {
+        return new PluginLoader().findPluginTypes();
+    }
+
+    @Benchmark
+    public Optional<CurrencyConverter> findFirstPluginWithSharedLoader() {
+        return sharedLoader.findFirstPlugin();
+    }
+}
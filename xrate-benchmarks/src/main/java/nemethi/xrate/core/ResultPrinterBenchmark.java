@@ -0,0 +1,48 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultPrinterBenchmark {
+
+    private ResultPrinter printer;
+    private ConversionResult result;
+
+    @Setup
+    public void setUp() {
+        printer = new ResultPrinter(new PrintWriter(Writer.nullWriter()));
+        result = new ConversionResult(Currency.getInstance("EUR"), Currency.getInstance("HUF"),
+                new BigDecimal("768.13"), new BigDecimal("278275.41"));
+    }
+
+    @Benchmark
+    public void print() {
+        printer.print(result);
+    }
+
+    @Benchmark
+    public void printCsv() {
+        printer.printCsv(result);
+    }
+}
@@ -0,0 +1,89 @@
+package nemethi.xrate.plugin;
+
+import org.apache.juneau.json.JsonParser;
+import org.apache.juneau.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.joining;
+
+// Measures the decoding the client does on a response body, without the HTTP round trip,
+// against parsing the same body into a map with Juneau, which the client used to do
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeRateApiClientBenchmark {
+
+    private static final Currency BASE = Currency.getInstance("USD");
+    private static final String PAIR_RESPONSE = "{\"result\":\"success\",\"base_code\":\"USD\",\"target_code\":\"GBP\","
+            + "\"conversion_rate\":0.7213,\"conversion_result\":554.0522}";
+
+    private static final byte[] PAIR_RESPONSE_BYTES = PAIR_RESPONSE.getBytes(StandardCharsets.UTF_8);
+
+    private byte[] latestResponse;
+
+    @Setup
+    public void setUp() {
+        String rates = Currency.getAvailableCurrencies().stream()
+                .map(Currency::getCurrencyCode)
+                .sorted()
+                .limit(160)
+                .map(code -> String.format("\"%s\":%s", code, "1.234567"))
+                .collect(joining(","));
+        latestResponse = ("{\"result\":\"success\",\"time_next_update_unix\":1623196801,\"base_code\":\"USD\","
+                + "\"conversion_rates\":{" + rates + "}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, String> parsePairResponseWithJuneau() throws IOException, ParseException {
+        return JsonParser.DEFAULT.parse(reader(PAIR_RESPONSE_BYTES), Map.class, String.class, String.class);
+    }
+
+    @Benchmark
+    public RateTable parseLatestResponseWithJuneau() throws IOException, ParseException {
+        Map<String, Object> body = JsonParser.DEFAULT.parse(reader(latestResponse), Map.class, String.class, Object.class);
+        Map<String, BigDecimal> rates = new HashMap<>();
+        ((Map<?, ?>) body.get("conversion_rates"))
+                .forEach((code, rate) -> rates.put(code.toString(), new BigDecimal(rate.toString())));
+        Instant nextUpdate = Instant.ofEpochSecond(((Number) body.get("time_next_update_unix")).longValue());
+        return new RateTable(BASE, rates, nextUpdate);
+    }
+
+    @Benchmark
+    public BigDecimal decodePairResponse() throws IOException, ParseException {
+        return RateResponse.read(new ByteArrayInputStream(PAIR_RESPONSE_BYTES)).getConversionResult();
+    }
+
+    @Benchmark
+    public RateTable decodeLatestResponse() throws IOException, ParseException {
+        RateResponse body = RateResponse.read(new ByteArrayInputStream(latestResponse));
+        return new RateTable(BASE, body.getRates(), Instant.ofEpochSecond(body.getNextUpdate()));
+    }
+
+    private static Reader reader(byte[] body) {
+        return new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+    }
+}
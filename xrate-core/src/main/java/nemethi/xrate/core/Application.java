@@ -1,5 +1,8 @@
 package nemethi.xrate.core;
 
+import jdk.jfr.Recording;
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.CurrencyRegistry;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
@@ -8,27 +11,40 @@ import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.Spec;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.text.ParseException;
 import java.util.Currency;
 import java.util.concurrent.Callable;
 
-import static java.util.stream.Collectors.joining;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 @Command(name = "xrate", description = "Get exchange rates and convert currencies using third-party services.%n",
-        mixinStandardHelpOptions = true, version = "1.0.1")
+        mixinStandardHelpOptions = true, version = "1.0.1", subcommands = ServeCommand.class)
 public class Application implements Callable<Integer> {
 
-    private static final String DEFAULT_CONFIG_FILE = "xrate.properties";
+    private static final String DEFAULT_CONFIG_FILE = "${sys:xrate.config:-xrate.properties}";
     private static final String DEFAULT_AMOUNT = "1";
     private static final String DEFAULT_FROM_CURRENCY = "USD";
     private static final String DEFAULT_TO_CURRENCY = "GBP";
     private static final String CURRENCY_DELIMITER = ", ";
+    private static final String RECORDING_SETTINGS = "default";
+    private static final String RECORDING_ERROR_MESSAGE = "Cannot record to file: %s";
 
     private Currency from;
     private Currency to;
     private BigDecimal amount;
     private boolean listAvailableCurrencies;
+    private Path batchFile;
+    private boolean readStdin;
+    private boolean printStats;
+    private Path recordingFile;
     private String configFilePath;
     private CommandSpec spec;
 
@@ -46,20 +62,67 @@ public class Application implements Callable<Integer> {
     public Integer call() {
         if (listAvailableCurrencies) {
             printAvailableCurrencies();
+            return 0;
+        }
+        Xrate xrate = createXrate(getConfig(configFilePath), spec.commandLine().getOut());
+        if (printStats) {
+            xrate.enableMetrics();
+        }
+        Recording recording = startRecording();
+        try {
+            convert(xrate);
+        } finally {
+            stopRecording(recording);
+            if (printStats) {
+                xrate.printMetrics(spec.commandLine().getErr());
+            }
+        }
+        return 0;
+    }
+
+    private void convert(Xrate xrate) {
+        if (readStdin) {
+            xrate.convertPipeline(createStdinReader());
+        } else if (nonNull(batchFile)) {
+            xrate.convertBatch(batchFile);
         } else {
-            Xrate xrate = createXrate(getConfig(configFilePath), spec.commandLine().getOut());
             xrate.convert(from, to, amount);
         }
-        return 0;
+    }
+
+    // The events of xrate are enabled without a threshold, the JVM events as in the default settings of the JDK
+    private Recording startRecording() {
+        if (isNull(recordingFile)) {
+            return null;
+        }
+        Recording recording = null;
+        try {
+            recording = new Recording(jdk.jfr.Configuration.getConfiguration(RECORDING_SETTINGS));
+            recording.setDestination(recordingFile);
+            recording.start();
+            return recording;
+        } catch (IOException | ParseException e) {
+            if (nonNull(recording)) {
+                recording.close();
+            }
+            throw new ConversionException(String.format(RECORDING_ERROR_MESSAGE, recordingFile), e);
+        }
+    }
+
+    // Stopping the recording writes it to its destination
+    private void stopRecording(Recording recording) {
+        if (nonNull(recording)) {
+            recording.stop();
+            recording.close();
+        }
     }
 
     private void printAvailableCurrencies() {
-        String currencies = Currency.getAvailableCurrencies()
-                .stream()
-                .map(Currency::getCurrencyCode)
-                .sorted()
-                .collect(joining(CURRENCY_DELIMITER));
-        spec.commandLine().getOut().println(currencies);
+        spec.commandLine().getOut().println(String.join(CURRENCY_DELIMITER, CurrencyRegistry.getCodes()));
+    }
+
+    Reader createStdinReader() {
+        return new InputStreamReader(System.in, Charset.defaultCharset());
     }
 
     Configuration getConfig(String configFilePath) {
@@ -70,6 +133,10 @@ public class Application implements Callable<Integer> {
         return new Xrate(config, writer);
     }
 
+    String getConfigFilePath() {
+        return configFilePath;
+    }
+
     @Parameters(index = "0", paramLabel = "FROM",
             description = "The currency to convert from. Defaults to ${DEFAULT-VALUE}.", defaultValue = DEFAULT_FROM_CURRENCY)
     public void setFrom(String from) {
@@ -83,11 +150,11 @@ public class Application implements Callable<Integer> {
     }
 
     private Currency validateCurrency(String code) {
-        try {
-            return Currency.getInstance(code);
-        } catch (Exception e) {
+        Currency currency = CurrencyRegistry.findCurrency(code);
+        if (isNull(currency)) {
             throw new ParameterException(spec.commandLine(), String.format("Unknown currency: %s", code));
         }
+        return currency;
     }
 
     @Parameters(index = "2", paramLabel = "AMOUNT",
@@ -105,6 +172,30 @@ public class Application implements Callable<Integer> {
         this.listAvailableCurrencies = listAvailableCurrencies;
     }
 
+    @Option(names = {"-b", "--batch"}, paramLabel = "FILE",
+            description = "Convert every from,to,amount row of the given CSV file and print the results as CSV.")
+    public void setBatchFile(Path batchFile) {
+        this.batchFile = batchFile;
+    }
+
+    @Option(names = "--stdin",
+            description = "Read FROM TO AMOUNT lines from the standard input and print the results as CSV, in input order.")
+    public void setReadStdin(boolean readStdin) {
+        this.readStdin = readStdin;
+    }
+
+    @Option(names = "--stats",
+            description = "Print the latency of the providers, the cache hit ratio and the connection statistics to the standard error at exit.")
+    public void setPrintStats(boolean printStats) {
+        this.printStats = printStats;
+    }
+
+    @Option(names = "--jfr", paramLabel = "FILE",
+            description = "Record the run with Java Flight Recorder into the given file, including an event for every conversion, cache lookup and provider call.")
+    public void setRecordingFile(Path recordingFile) {
+        this.recordingFile = recordingFile;
+    }
+
     @Option(names = {"-c", "--config"}, description = "Path to the config file to use.", defaultValue = DEFAULT_CONFIG_FILE)
     public void setConfigFilePath(String configFilePath) {
         this.configFilePath = configFilePath;
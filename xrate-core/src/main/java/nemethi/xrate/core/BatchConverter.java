@@ -0,0 +1,158 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Currency;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Converts the {@code from,to,amount} rows of a CSV file and prints a result row for each of them, in input order.
+ * <p>
+ * The file is read in fixed-size chunks and at most {@link #MAX_PENDING_ROWS} rows are held in memory at once,
+ * so memory use does not depend on the size of the file.
+ * The rate of each currency pair is requested only once, with at most {@code maxConcurrentCalls} requests in flight;
+ * every other row of the same pair is converted with the rate already fetched.
+ */
+public class BatchConverter {
+
+    static final int MAX_PENDING_ROWS = 4096;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String HEADER = "from,to,amount";
+    private static final String COMMENT_PREFIX = "#";
+    private static final String READ_ERROR_MESSAGE = "Cannot read batch file: %s";
+
+    private final CurrencyConverter converter;
+    private final ResultPrinter printer;
+    private final Semaphore concurrentCalls;
+    private final Map<CurrencyPair, CompletableFuture<BigDecimal>> rates = new HashMap<>();
+
+    public BatchConverter(CurrencyConverter converter, ResultPrinter printer, int maxConcurrentCalls) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("The number of concurrent calls must be positive");
+        }
+        this.converter = converter;
+        this.printer = printer;
+        this.concurrentCalls = new Semaphore(maxConcurrentCalls);
+    }
+
+    public long convert(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            return convert(reader);
+        } catch (IOException e) {
+            throw new ConversionException(String.format(READ_ERROR_MESSAGE, file), e);
+        }
+    }
+
+    long convert(BufferedReader reader) throws IOException {
+        Deque<PendingRow> pendingRows = new ArrayDeque<>();
+        long rowCount = 0;
+        String line;
+        while (nonNull(line = reader.readLine())) {
+            String row = line.trim();
+            if (isSkipped(row)) {
+                continue;
+            }
+            pendingRows.add(new PendingRow(row, convertRow(row)));
+            rowCount++;
+            printCompletedRows(pendingRows);
+            if (pendingRows.size() >= MAX_PENDING_ROWS) {
+                print(pendingRows.poll());
+            }
+        }
+        while (!pendingRows.isEmpty()) {
+            print(pendingRows.poll());
+        }
+        return rowCount;
+    }
+
+    // The head rows are printed as soon as they are done, only waiting for the head when too many rows are pending
+    private void printCompletedRows(Deque<PendingRow> pendingRows) {
+        while (!pendingRows.isEmpty() && pendingRows.peek().result.isDone()) {
+            print(pendingRows.poll());
+        }
+    }
+
+    private boolean isSkipped(String row) {
+        return row.isEmpty() || row.startsWith(COMMENT_PREFIX) || row.equalsIgnoreCase(HEADER);
+    }
+
+    private CompletableFuture<ConversionResult> convertRow(String row) {
+        try {
+            ConversionRequest request = RequestParser.parse(row);
+            Currency from = request.getFrom();
+            Currency to = request.getTo();
+            return getRate(CurrencyPair.of(from, to)).thenApply(rate -> Rates.convert(from, to, request.getAmount(), rate));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // A failed pair is not retried, so a bad pair in a large file cannot flood the provider with requests
+    private CompletableFuture<BigDecimal> getRate(CurrencyPair pair) {
+        CompletableFuture<BigDecimal> rate = rates.get(pair);
+        if (isNull(rate)) {
+            rate = fetchRate(pair);
+            rates.put(pair, rate);
+        }
+        return rate;
+    }
+
+    // The result of converting 1 may be rounded by the provider, the known rate is more precise if there is one
+    private CompletableFuture<BigDecimal> fetchRate(CurrencyPair pair) {
+        concurrentCalls.acquireUninterruptibly();
+        try {
+            return converter.convertAsync(pair.getFrom(), pair.getTo(), BigDecimal.ONE)
+                    .thenApply(result -> Rates.rateOf(result).orElseThrow())
+                    .whenComplete((rate, throwable) -> concurrentCalls.release());
+        } catch (RuntimeException e) {
+            concurrentCalls.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void print(PendingRow pendingRow) {
+        try {
+            printer.printCsv(pendingRow.result.join());
+        } catch (CompletionException e) {
+            printer.printCsvError(pendingRow.row, getMessage(e));
+        }
+    }
+
+    private String getMessage(CompletionException exception) {
+        Throwable cause = nonNull(exception.getCause()) ? exception.getCause() : exception;
+        return String.valueOf(cause.getMessage());
+    }
+
+    private static final class PendingRow {
+
+        private final String row;
+        private final CompletableFuture<ConversionResult> result;
+
+        private PendingRow(String row, CompletableFuture<ConversionResult> result) {
+            this.row = row;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package nemethi.xrate.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A lookup of the rate of a pair in a cache of rates.
+ */
+@Name("nemethi.xrate.CacheLookup")
+@Label("Cache Lookup")
+@Category("Xrate")
+@Description("A lookup of the rate of a pair in a cache of rates")
+@StackTrace(false)
+final class CacheLookupEvent extends Event {
+
+    @Label("Pair")
+    private String pair;
+
+    @Label("Cache")
+    private String cache;
+
+    @Label("Cache Hit")
+    private boolean hit;
+
+    void record(CurrencyPair pair, RateCache cache, boolean hit) {
+        if (shouldCommit()) {
+            this.pair = pair.toKey();
+            this.cache = cache.getClass().getSimpleName();
+            this.hit = hit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class CachingCurrencyConverter implements CurrencyConverter {
+
+    private final CurrencyConverter delegate;
+    private final RateCache cache;
+    private final ConversionMetrics metrics;
+    private final boolean lastCache;
+
+    public CachingCurrencyConverter(CurrencyConverter delegate, RateCache cache) {
+        this(delegate, cache, ConversionMetrics.NONE);
+    }
+
+    public CachingCurrencyConverter(CurrencyConverter delegate, RateCache cache, ConversionMetrics metrics) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.lastCache = !(delegate instanceof CachingCurrencyConverter);
+    }
+
+    @Override
+    @NotNull
+    public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
+        Optional<BigDecimal> rate = lookUp(from, to);
+        if (rate.isPresent()) {
+            return Rates.convert(from, to, amount, rate.get());
+        }
+        return store(delegate.convert(from, to, amount));
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        Optional<BigDecimal> rate = lookUp(from, to);
+        if (rate.isPresent()) {
+            return CompletableFuture.completedFuture(Rates.convert(from, to, amount, rate.get()));
+        }
+        return delegate.convertAsync(from, to, amount).thenApply(this::store);
+    }
+
+    @Override
+    @NotNull
+    public List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        List<ConversionResult> results = new ArrayList<>(requests.size());
+        List<ConversionRequest> misses = new ArrayList<>();
+        for (ConversionRequest request : requests) {
+            Optional<BigDecimal> rate = lookUp(request.getFrom(), request.getTo());
+            if (rate.isPresent()) {
+                results.add(Rates.convert(request.getFrom(), request.getTo(), request.getAmount(), rate.get()));
+            } else {
+                results.add(null);
+                misses.add(request);
+            }
+        }
+        if (!misses.isEmpty()) {
+            fillMisses(results, delegate.convertAll(misses));
+        }
+        return results;
+    }
+
+    // When caches are stacked, a miss is only recorded by the last one, so every conversion counts once
+    private Optional<BigDecimal> lookUp(Currency from, Currency to) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        CurrencyPair pair = CurrencyPair.of(from, to);
+        Optional<BigDecimal> rate = cache.get(pair);
+        event.record(pair, cache, rate.isPresent());
+        if (rate.isPresent()) {
+            metrics.recordCacheHit();
+        } else if (lastCache) {
+            metrics.recordCacheMiss();
+        }
+        return rate;
+    }
+
+    private void fillMisses(List<ConversionResult> results, List<ConversionResult> converted) {
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (isNull(results.get(i))) {
+                results.set(i, store(converted.get(next++)));
+            }
+        }
+    }
+
+    // A derived result is answered from the rate graph, which knows its path and bounds the age of its legs,
+    // while a cached copy would lose both and outlive the legs it was derived from
+    private ConversionResult store(ConversionResult result) {
+        if (nonNull(result) && !(result instanceof DerivedConversionResult)) {
+            Rates.rateOf(result).ifPresent(rate -> store(CurrencyPair.of(result.getFrom(), result.getTo()), rate, result));
+        }
+        return result;
+    }
+
+    private void store(CurrencyPair pair, BigDecimal rate, ConversionResult result) {
+        Optional<String> source = result.getProvider();
+        if (source.isPresent()) {
+            cache.put(pair, rate, source.get());
+        } else {
+            cache.put(pair, rate);
+        }
+    }
+
+    @Override
+    public void setAuthCredentials(@NotNull String authCredentials) {
+        delegate.setAuthCredentials(authCredentials);
+    }
+
+    public RateCache getCache() {
+        return cache;
+    }
+}
@@ -4,6 +4,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import static java.util.Objects.isNull;
@@ -14,7 +17,49 @@ public class Configuration {
     private static final String EMPTY_STRING = "";
     private static final String CORE_ENDPOINT_KEY = "xrate.core.endpoint";
     private static final String CORE_AUTH_KEY = "xrate.core.auth";
-    private static final String PLUGIN_AUTH_KEY = "xrate.plugin.auth";
+    private static final String PLUGIN_KEY_PREFIX = "xrate.plugin.";
+    private static final String PLUGIN_AUTH_KEY = PLUGIN_KEY_PREFIX + "auth";
+    private static final String CACHE_TTL_KEY = "xrate.cache.ttl";
+    private static final String CACHE_SIZE_KEY = "xrate.cache.size";
+    private static final String CACHE_DIR_KEY = "xrate.cache.dir";
+    private static final String CACHE_MATRIX_KEY = "xrate.cache.matrix";
+    private static final String BATCH_CONCURRENCY_KEY = "xrate.batch.concurrency";
+    private static final String PIPELINE_WINDOW_KEY = "xrate.pipeline.window";
+    private static final String SERVER_THREADS_KEY = "xrate.server.threads";
+    private static final String PROVIDER_STRATEGY_KEY = "xrate.providers.strategy";
+    private static final String HEDGE_DELAY_KEY = "xrate.providers.hedge.delay";
+    private static final String HEDGE_ADAPTIVE_KEY = "xrate.providers.hedge.adaptive";
+    private static final String ROUTE_FAILURES_KEY = "xrate.providers.route.failures";
+    private static final String ROUTE_OPEN_TIME_KEY = "xrate.providers.route.openTime";
+    private static final String TRANSPORT_POOL_SIZE_KEY = "xrate.transport.poolSize";
+    private static final String TRANSPORT_HTTP2_KEY = "xrate.transport.http2";
+    private static final String TRANSPORT_CONNECT_TIMEOUT_KEY = "xrate.transport.connectTimeout";
+    private static final String TRANSPORT_REQUEST_TIMEOUT_KEY = "xrate.transport.requestTimeout";
+    private static final String TRANSPORT_IDLE_TIMEOUT_KEY = "xrate.transport.idleTimeout";
+    private static final String METRICS_JMX_KEY = "xrate.metrics.jmx";
+    private static final String TRIANGULATION_KEY = "xrate.core.triangulation";
+    private static final String PIVOT_KEY = "xrate.core.triangulation.pivot";
+    private static final String TRIANGULATION_MAX_AGE_KEY = "xrate.core.triangulation.maxAge";
+    private static final String DEFAULT_PROVIDER_STRATEGY = "first";
+    private static final String DEFAULT_HEDGE_DELAY_MILLIS = "200";
+    private static final String DEFAULT_HEDGE_ADAPTIVE = "true";
+    private static final String DEFAULT_ROUTE_FAILURES = "3";
+    private static final String DEFAULT_ROUTE_OPEN_TIME_SECONDS = "30";
+    private static final String DEFAULT_TRANSPORT_POOL_SIZE = "16";
+    private static final String DEFAULT_TRANSPORT_HTTP2 = "true";
+    private static final String DEFAULT_TRANSPORT_CONNECT_TIMEOUT_SECONDS = "5";
+    private static final String DEFAULT_TRANSPORT_REQUEST_TIMEOUT_SECONDS = "10";
+    private static final String DEFAULT_TRANSPORT_IDLE_TIMEOUT_SECONDS = "30";
+    private static final String DEFAULT_METRICS_JMX = "false";
+    private static final String DEFAULT_TRIANGULATION = "none";
+    private static final String DEFAULT_PIVOT = "USD";
+    private static final String DEFAULT_TRIANGULATION_MAX_AGE_SECONDS = "60";
+    private static final String DEFAULT_CACHE_TTL_SECONDS = "60";
+    private static final String DEFAULT_CACHE_SIZE = "1000";
+    private static final String DEFAULT_CACHE_MATRIX = "false";
+    private static final String DEFAULT_BATCH_CONCURRENCY = "8";
+    private static final String DEFAULT_PIPELINE_WINDOW = "64";
+    private static final String DEFAULT_SERVER_THREADS = "16";
 
     private final Properties properties;
 
@@ -66,4 +111,148 @@ public class Configuration {
     public String getPluginAuthCredentials() {
         return properties.getProperty(PLUGIN_AUTH_KEY, EMPTY_STRING);
     }
+
+    /**
+     * Returns the settings of the plugins, by their key without the {@code xrate.plugin.} prefix.
+     * The authentication credentials are not included.
+     */
+    public Map<String, String> getPluginSettings() {
+        Map<String, String> settings = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(PLUGIN_KEY_PREFIX) && !key.equals(PLUGIN_AUTH_KEY)) {
+                settings.put(key.substring(PLUGIN_KEY_PREFIX.length()), properties.getProperty(key).trim());
+            }
+        }
+        return settings;
+    }
+
+    public long getCacheTtlSeconds() {
+        return getLong(CACHE_TTL_KEY, DEFAULT_CACHE_TTL_SECONDS);
+    }
+
+    public int getCacheMaxEntries() {
+        return getInt(CACHE_SIZE_KEY, DEFAULT_CACHE_SIZE);
+    }
+
+    public String getCacheDirectory() {
+        return properties.getProperty(CACHE_DIR_KEY, EMPTY_STRING).trim();
+    }
+
+    public boolean isRateMatrixEnabled() {
+        return getBoolean(CACHE_MATRIX_KEY, DEFAULT_CACHE_MATRIX);
+    }
+
+    public TriangulationPolicy getTriangulationPolicy() {
+        String value = properties.getProperty(TRIANGULATION_KEY, DEFAULT_TRIANGULATION);
+        try {
+            return TriangulationPolicy.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw invalidValue(TRIANGULATION_KEY, value, e);
+        }
+    }
+
+    public Currency getTriangulationPivot() {
+        String value = properties.getProperty(PIVOT_KEY, DEFAULT_PIVOT).trim();
+        try {
+            return Currency.getInstance(value);
+        } catch (IllegalArgumentException e) {
+            throw invalidValue(PIVOT_KEY, value, e);
+        }
+    }
+
+    public long getTriangulationMaxAgeSeconds() {
+        return getLong(TRIANGULATION_MAX_AGE_KEY, DEFAULT_TRIANGULATION_MAX_AGE_SECONDS);
+    }
+
+    public int getBatchConcurrency() {
+        return getInt(BATCH_CONCURRENCY_KEY, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    public int getPipelineWindow() {
+        return getInt(PIPELINE_WINDOW_KEY, DEFAULT_PIPELINE_WINDOW);
+    }
+
+    public int getServerThreads() {
+        return getInt(SERVER_THREADS_KEY, DEFAULT_SERVER_THREADS);
+    }
+
+    public ProviderStrategy getProviderStrategy() {
+        String value = properties.getProperty(PROVIDER_STRATEGY_KEY, DEFAULT_PROVIDER_STRATEGY);
+        try {
+            return ProviderStrategy.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw invalidValue(PROVIDER_STRATEGY_KEY, value, e);
+        }
+    }
+
+    public long getHedgeDelayMillis() {
+        return getLong(HEDGE_DELAY_KEY, DEFAULT_HEDGE_DELAY_MILLIS);
+    }
+
+    public boolean isHedgeDelayAdaptive() {
+        return getBoolean(HEDGE_ADAPTIVE_KEY, DEFAULT_HEDGE_ADAPTIVE);
+    }
+
+    public int getRouteFailureThreshold() {
+        return getInt(ROUTE_FAILURES_KEY, DEFAULT_ROUTE_FAILURES);
+    }
+
+    public long getRouteOpenTimeSeconds() {
+        return getLong(ROUTE_OPEN_TIME_KEY, DEFAULT_ROUTE_OPEN_TIME_SECONDS);
+    }
+
+    public int getTransportPoolSize() {
+        return getInt(TRANSPORT_POOL_SIZE_KEY, DEFAULT_TRANSPORT_POOL_SIZE);
+    }
+
+    public boolean isTransportHttp2Preferred() {
+        return getBoolean(TRANSPORT_HTTP2_KEY, DEFAULT_TRANSPORT_HTTP2);
+    }
+
+    public long getTransportConnectTimeoutSeconds() {
+        return getLong(TRANSPORT_CONNECT_TIMEOUT_KEY, DEFAULT_TRANSPORT_CONNECT_TIMEOUT_SECONDS);
+    }
+
+    public long getTransportRequestTimeoutSeconds() {
+        return getLong(TRANSPORT_REQUEST_TIMEOUT_KEY, DEFAULT_TRANSPORT_REQUEST_TIMEOUT_SECONDS);
+    }
+
+    public long getTransportIdleTimeoutSeconds() {
+        return getLong(TRANSPORT_IDLE_TIMEOUT_KEY, DEFAULT_TRANSPORT_IDLE_TIMEOUT_SECONDS);
+    }
+
+    public boolean isMetricsJmxEnabled() {
+        return getBoolean(METRICS_JMX_KEY, DEFAULT_METRICS_JMX);
+    }
+
+    private long getLong(String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalidValue(key, value, e);
+        }
+    }
+
+    private int getInt(String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue).trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalidValue(key, value, e);
+        }
+    }
+
+    private boolean getBoolean(String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue).trim();
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        throw invalidValue(key, value, new IllegalArgumentException(value));
+    }
+
+    private ConfigurationException invalidValue(String key, String value, IllegalArgumentException e) {
+        String message = String.format("Invalid value of %s: %s", key, value);
+        return new ConfigurationException(message, e);
+    }
 }
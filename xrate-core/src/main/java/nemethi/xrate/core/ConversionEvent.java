@@ -0,0 +1,37 @@
+package nemethi.xrate.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Currency;
+
+/**
+ * A conversion of the command line, from creating the converter on the first call to printing the result.
+ * The provider calls and cache lookups it is made of are recorded as events of their own.
+ */
+@Name("nemethi.xrate.Conversion")
+@Label("Conversion")
+@Category("Xrate")
+@Description("A conversion of the command line, from creating the converter on the first call to printing the result")
+@StackTrace(false)
+final class ConversionEvent extends Event {
+
+    @Label("Pair")
+    private String pair;
+
+    @Label("Outcome")
+    @Description("success, or the simple class name of the cause of the failure")
+    private String outcome;
+
+    void record(Currency from, Currency to, Throwable failure) {
+        if (shouldCommit()) {
+            this.pair = CurrencyPair.of(from, to).toKey();
+            this.outcome = ProviderCallEvent.outcomeOf(failure);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package nemethi.xrate.core;
+
+import java.util.List;
+
+/**
+ * The metrics of the conversions of a process, as they are exposed over JMX
+ * under the name {@value DefaultConversionMetrics#OBJECT_NAME}.
+ */
+public interface ConversionMetricsMXBean {
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    /**
+     * Returns the share of the conversions whose rate was found in a cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if nothing was converted yet
+     */
+    double getCacheHitRatio();
+
+    /**
+     * Returns the number of conversions that waited for the conversion of the same pair already in flight,
+     * instead of calling a provider.
+     *
+     * @return the number of coalesced conversions
+     */
+    long getCoalescedRequests();
+
+    long getInFlightRequests();
+
+    /**
+     * Returns the metrics of every provider that was called, ordered by name.
+     *
+     * @return the metrics of the providers
+     */
+    List<DefaultConversionMetrics.ProviderStats> getProviders();
+}
@@ -1,7 +1,7 @@
 package nemethi.xrate.core;
 
+import nemethi.xrate.api.Transport;
 import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -9,71 +9,112 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Currency;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.stream.Collectors.joining;
 
 public class CurrConvApiClient {
 
-    private static final String QUERY_PARAMS_TEMPLATE = "%s?q=%s_%s&apiKey=%s&compact=ultra";
-    private static final String KEY_NOT_FOUND_TEMPLATE = "JSONObject[\"%s\"] not found.";
-    private static final String EXCHANGE_RATE_NOT_FOUND_TEMPLATE = "The exchange rate of %s to %s is not found";
+    private static final String QUERY_PARAMS_TEMPLATE = "%s?q=%s&apiKey=%s&compact=ultra";
+    private static final String QUERY_DELIMITER = ",";
+    // The name the built-in provider has in the metrics
+    private static final String PROVIDER = DefaultCurrencyConverter.class.getName();
 
     private final String endpointUri;
-    private final HttpClient httpClient;
+    private final Transport transport;
 
     public CurrConvApiClient(String endpointUri) {
-        this(endpointUri, HttpClient.newHttpClient());
+        this(endpointUri, HttpTransport.getDefault());
     }
 
-    CurrConvApiClient(String endpointUri, HttpClient httpClient) {
+    public CurrConvApiClient(String endpointUri, Transport transport) {
         this.endpointUri = endpointUri;
-        this.httpClient = httpClient;
+        this.transport = transport;
+    }
+
+    CurrConvApiClient(String endpointUri, HttpClient httpClient) {
+        this(endpointUri, new HttpTransport(httpClient));
     }
 
-    public BigDecimal getConversionRate(Currency from, Currency to, String apiKey) throws IOException, InterruptedException {
-        return getConversionRate(from.getCurrencyCode(), to.getCurrencyCode(), apiKey);
+    /**
+     * Returns the rate of the currency pair, or an empty {@code Optional} if the response has no rate for it.
+     */
+    public Optional<BigDecimal> getConversionRate(Currency from, Currency to, String apiKey) throws IOException, InterruptedException {
+        CurrencyPair pair = CurrencyPair.of(from, to);
+        return Optional.ofNullable(getConversionRates(Set.of(pair), apiKey).get(pair));
     }
 
-    private BigDecimal getConversionRate(String fromCurrency, String toCurrency, String apiKey) throws IOException, InterruptedException {
-        URI uri = buildUri(fromCurrency, toCurrency, apiKey);
-        HttpRequest request = HttpRequest.newBuilder(uri).build();
-        return sendRequest(request, fromCurrency, toCurrency);
+    public CompletableFuture<Optional<BigDecimal>> getConversionRateAsync(Currency from, Currency to, String apiKey) {
+        Set<CurrencyPair> pairs = Set.of(CurrencyPair.of(from, to));
+        URI uri = buildUri(pairs, apiKey);
+        HttpRequest request = transport.newRequest(uri).build();
+        CompletableFuture<Map<CurrencyPair, BigDecimal>> rates = sendRequestAsync(request, pairs);
+        return Futures.cancelSourceOnCancel(rates, rates.thenApply(rateMap -> Optional.ofNullable(rateMap.get(CurrencyPair.of(from, to)))));
     }
 
-    private URI buildUri(String from, String to, String apiKey) {
-        return URI.create(String.format(QUERY_PARAMS_TEMPLATE, endpointUri, from, to, apiKey));
+    /**
+     * Returns the rates of the currency pairs with a single request. Pairs the response has no rate for are missing from the map.
+     */
+    public Map<CurrencyPair, BigDecimal> getConversionRates(Collection<CurrencyPair> pairs, String apiKey) throws IOException, InterruptedException {
+        Set<CurrencyPair> distinctPairs = new LinkedHashSet<>(pairs);
+        URI uri = buildUri(distinctPairs, apiKey);
+        HttpRequest request = transport.newRequest(uri).build();
+        return sendRequest(request, distinctPairs);
     }
 
-    private BigDecimal sendRequest(HttpRequest request, String fromCurrency, String toCurrency) throws IOException, InterruptedException {
-        HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-        String result = parseJson(response.body(), fromCurrency, toCurrency);
-        return new BigDecimal(result);
+    private URI buildUri(Set<CurrencyPair> pairs, String apiKey) {
+        String query = pairs.stream().map(CurrencyPair::toKey).collect(joining(QUERY_DELIMITER));
+        return URI.create(String.format(QUERY_PARAMS_TEMPLATE, endpointUri, query, apiKey));
     }
 
-    // The getBigDecimal() method is intentionally not used
-    // because the BigDecimal(String) constructor is more precise
-    private String parseJson(String json, String from, String to) {
-        String key = String.format("%s_%s", from, to);
-        return getRateFromJson(json, from, to, key);
+    private Map<CurrencyPair, BigDecimal> sendRequest(HttpRequest request, Set<CurrencyPair> pairs) throws IOException, InterruptedException {
+        ProviderCallEvent event = new ProviderCallEvent();
+        event.begin();
+        try {
+            Map<CurrencyPair, BigDecimal> rates = receiveRates(request, pairs, event);
+            event.record(PROVIDER, pairs, null);
+            return rates;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            event.record(PROVIDER, pairs, e);
+            throw e;
+        }
     }
 
-    private String getRateFromJson(String json, String from, String to, String key) {
+    // The JDK client reports a body that cannot be scanned as an I/O error, but it is a malformed response
+    private Map<CurrencyPair, BigDecimal> receiveRates(HttpRequest request, Set<CurrencyPair> pairs, ProviderCallEvent event)
+            throws IOException, InterruptedException {
         try {
-            return new JSONObject(json).getNumber(key).toString();
-        } catch (JSONException e) {
-            if (keyIsNotFound(e, key)) {
-                throw exceptionWithMoreFormalMessage(e.getCause(), from, to);
+            HttpResponse<Map<CurrencyPair, BigDecimal>> response = transport.send(request, RateScanner.bodyHandler(pairs, event::setPayloadSize));
+            return response.body();
+        } catch (IOException e) {
+            if (e.getCause() instanceof JSONException) {
+                throw (JSONException) e.getCause();
             }
             throw e;
         }
     }
 
-    private boolean keyIsNotFound(JSONException exception, String key) {
-        String message = String.format(KEY_NOT_FOUND_TEMPLATE, key);
-        return message.equals(exception.getMessage());
+    private CompletableFuture<Map<CurrencyPair, BigDecimal>> sendRequestAsync(HttpRequest request, Set<CurrencyPair> pairs) {
+        ProviderCallEvent event = new ProviderCallEvent();
+        event.begin();
+        CompletableFuture<HttpResponse<Map<CurrencyPair, BigDecimal>>> response =
+                transport.sendAsync(request, RateScanner.bodyHandler(pairs, event::setPayloadSize));
+        return Futures.cancelSourceOnCancel(response, response
+                .thenApply(HttpResponse::body)
+                .whenComplete((rates, failure) -> event.record(PROVIDER, pairs, failure)));
     }
 
-    private JSONException exceptionWithMoreFormalMessage(Throwable cause, String from, String to) {
-        return new JSONException(String.format(EXCHANGE_RATE_NOT_FOUND_TEMPLATE, from, to), cause);
+    // Numbers are parsed from their literal, so the rates are as precise as the response
+    Map<CurrencyPair, BigDecimal> parseJson(ByteBuffer json, Set<CurrencyPair> pairs) {
+        RateScanner scanner = new RateScanner(pairs);
+        scanner.scan(json);
+        return scanner.getRates();
     }
 }
@@ -0,0 +1,61 @@
+package nemethi.xrate.core;
+
+import java.util.Currency;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+public final class CurrencyPair {
+
+    private static final String KEY_FORMAT = "%s_%s";
+
+    private final Currency from;
+    private final Currency to;
+
+    public CurrencyPair(Currency from, Currency to) {
+        this.from = requireNonNull(from, "Parameter 'from' cannot be null");
+        this.to = requireNonNull(to, "Parameter 'to' cannot be null");
+    }
+
+    public static CurrencyPair of(Currency from, Currency to) {
+        return new CurrencyPair(from, to);
+    }
+
+    public Currency getFrom() {
+        return from;
+    }
+
+    public Currency getTo() {
+        return to;
+    }
+
+    public CurrencyPair inverse() {
+        return new CurrencyPair(to, from);
+    }
+
+    public String toKey() {
+        return String.format(KEY_FORMAT, from.getCurrencyCode(), to.getCurrencyCode());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CurrencyPair that = (CurrencyPair) o;
+        return from.equals(that.from) && to.equals(that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return toKey();
+    }
+}
@@ -0,0 +1,235 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps the metrics of the conversions of a process in memory, without locks.
+ * <p>
+ * The latency of every call to a provider is counted in a {@link LatencyHistogram},
+ * and failures are counted by their cause: the cause of a {@link ConversionException}, or the exception itself if it has none.
+ * Counters are {@link LongAdder}s, so threads recording at the same time do not contend on a single value.
+ */
+public class DefaultConversionMetrics implements ConversionMetrics, ConversionMetricsMXBean {
+
+    public static final String OBJECT_NAME = "nemethi.xrate:type=ConversionMetrics";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double MEDIAN = 0.5;
+    private static final double P99 = 0.99;
+    private static final double P999 = 0.999;
+
+    private final ConcurrentMap<String, ProviderMetrics> providers = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+
+    @Override
+    public void recordStart(@NotNull String provider) {
+        inFlight.increment();
+    }
+
+    @Override
+    public void recordSuccess(@NotNull String provider, long elapsedNanos) {
+        inFlight.decrement();
+        ProviderMetrics metrics = metricsOf(provider);
+        metrics.latency.record(elapsedNanos);
+        metrics.successes.increment();
+    }
+
+    @Override
+    public void recordFailure(@NotNull String provider, long elapsedNanos, @NotNull Throwable failure) {
+        inFlight.decrement();
+        ProviderMetrics metrics = metricsOf(provider);
+        metrics.latency.record(elapsedNanos);
+        metrics.failuresOf(causeOf(failure)).increment();
+    }
+
+    @Override
+    public void recordCancellation(@NotNull String provider) {
+        inFlight.decrement();
+        metricsOf(provider).cancellations.increment();
+    }
+
+    @Override
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    @Override
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    // A plain lookup first, because computeIfAbsent() may lock the bin even when the provider is already known
+    private ProviderMetrics metricsOf(String provider) {
+        ProviderMetrics metrics = providers.get(provider);
+        return nonNull(metrics) ? metrics : providers.computeIfAbsent(provider, name -> new ProviderMetrics());
+    }
+
+    static String causeOf(Throwable failure) {
+        Throwable exception = failure instanceof CompletionException && nonNull(failure.getCause()) ? failure.getCause() : failure;
+        Throwable cause = exception instanceof ConversionException ? exception.getCause() : null;
+        return isNull(cause) ? exception.getClass().getSimpleName() : cause.getClass().getSimpleName();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public long getCoalescedRequests() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public long getInFlightRequests() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public List<ProviderStats> getProviders() {
+        List<ProviderStats> stats = new ArrayList<>(providers.size());
+        providers.forEach((name, metrics) -> stats.add(metrics.toStats(name)));
+        stats.sort(Comparator.comparing(ProviderStats::getProvider));
+        return stats;
+    }
+
+    public static final class ProviderStats {
+
+        private final String provider;
+        private final long successes;
+        private final long failures;
+        private final long cancellations;
+        private final double latencyP50Millis;
+        private final double latencyP99Millis;
+        private final double latencyP999Millis;
+        private final double latencyMaxMillis;
+        private final Map<String, Long> failuresByCause;
+
+        private ProviderStats(String provider, long successes, long cancellations, LatencyHistogram latency,
+                              Map<String, Long> failuresByCause) {
+            this.provider = provider;
+            this.successes = successes;
+            this.failures = failuresByCause.values().stream().mapToLong(Long::longValue).sum();
+            this.cancellations = cancellations;
+            this.latencyP50Millis = toMillis(latency.getPercentile(MEDIAN));
+            this.latencyP99Millis = toMillis(latency.getPercentile(P99));
+            this.latencyP999Millis = toMillis(latency.getPercentile(P999));
+            this.latencyMaxMillis = toMillis(latency.getMax());
+            this.failuresByCause = failuresByCause;
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / NANOS_PER_MILLI;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public long getSuccesses() {
+            return successes;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+
+        public double getLatencyP50Millis() {
+            return latencyP50Millis;
+        }
+
+        public double getLatencyP99Millis() {
+            return latencyP99Millis;
+        }
+
+        public double getLatencyP999Millis() {
+            return latencyP999Millis;
+        }
+
+        public double getLatencyMaxMillis() {
+            return latencyMaxMillis;
+        }
+
+        /**
+         * Returns the number of failures by the simple class name of their cause, ordered by name.
+         */
+        public Map<String, Long> getFailuresByCause() {
+            return failuresByCause;
+        }
+
+        @Override
+        public String toString() {
+            return "ProviderStats{" +
+                    "provider=" + provider +
+                    ", successes=" + successes +
+                    ", failures=" + failures +
+                    ", cancellations=" + cancellations +
+                    ", latencyP50Millis=" + latencyP50Millis +
+                    ", latencyP99Millis=" + latencyP99Millis +
+                    ", latencyP999Millis=" + latencyP999Millis +
+                    ", latencyMaxMillis=" + latencyMaxMillis +
+                    ", failuresByCause=" + failuresByCause +
+                    '}';
+        }
+    }
+
+    private static final class ProviderMetrics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder cancellations = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        private LongAdder failuresOf(String cause) {
+            LongAdder counter = failures.get(cause);
+            return nonNull(counter) ? counter : failures.computeIfAbsent(cause, name -> new LongAdder());
+        }
+
+        private ProviderStats toStats(String provider) {
+            Map<String, Long> failuresByCause = new TreeMap<>();
+            failures.forEach((cause, counter) -> failuresByCause.put(cause, counter.sum()));
+            return new ProviderStats(provider, successes.sum(), cancellations.sum(), latency,
+                    Collections.unmodifiableMap(failuresByCause));
+        }
+    }
+}
@@ -1,39 +1,161 @@
 package nemethi.xrate.core;
 
 import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
 import nemethi.xrate.api.ConversionResult;
 import nemethi.xrate.api.CurrencyConverter;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 public class DefaultCurrencyConverter implements CurrencyConverter {
 
     private static final String ERROR_MESSAGE = "Could not convert currency using the default third-party API:";
+    private static final String RATE_NOT_FOUND_MESSAGE = ERROR_MESSAGE + " The exchange rate of %s to %s is not found";
     private final CurrConvApiClient client;
+    private final RateGraph rateGraph;
     private String authCredentials;
 
     public DefaultCurrencyConverter(CurrConvApiClient client) {
+        this(client, RateGraph.disabled());
+    }
+
+    public DefaultCurrencyConverter(CurrConvApiClient client, RateGraph rateGraph) {
         this.client = client;
+        this.rateGraph = rateGraph;
     }
 
     @Override
     @NotNull
     public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
-        BigDecimal result = amount.multiply(getRate(from, to), ConversionResult.MATH_CONTEXT);
-        return new ConversionResult(from, to, amount, result);
+        CurrencyPair pair = CurrencyPair.of(from, to);
+        Optional<DerivedRate> derivedRate = rateGraph.find(pair);
+        if (derivedRate.isPresent()) {
+            return createDerivedResult(from, to, amount, derivedRate.get());
+        }
+        return createResult(from, to, amount, record(pair, getRate(from, to)));
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        CurrencyPair pair = CurrencyPair.of(from, to);
+        Optional<DerivedRate> derivedRate = rateGraph.find(pair);
+        if (derivedRate.isPresent()) {
+            return CompletableFuture.completedFuture(createDerivedResult(from, to, amount, derivedRate.get()));
+        }
+        try {
+            CompletableFuture<Optional<BigDecimal>> rate = client.getConversionRateAsync(from, to, authCredentials);
+            return Futures.cancelSourceOnCancel(rate, rate.handle((fetchedRate, throwable) -> {
+                if (nonNull(throwable)) {
+                    throw new ConversionException(ERROR_MESSAGE, unwrap(throwable));
+                }
+                return createResult(from, to, amount, record(pair, fetchedRate.orElseThrow(() -> rateNotFound(pair))));
+            }));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new ConversionException(ERROR_MESSAGE, e));
+        }
+    }
+
+    private Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && nonNull(throwable.getCause())) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    @Override
+    @NotNull
+    public List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        List<ConversionResult> results = new ArrayList<>(requests.size());
+        List<CurrencyPair> missingPairs = new ArrayList<>();
+        for (ConversionRequest request : requests) {
+            CurrencyPair pair = CurrencyPair.of(request.getFrom(), request.getTo());
+            Optional<DerivedRate> derivedRate = rateGraph.find(pair);
+            if (derivedRate.isPresent()) {
+                results.add(createDerivedResult(request.getFrom(), request.getTo(), request.getAmount(), derivedRate.get()));
+            } else {
+                results.add(null);
+                missingPairs.add(pair);
+            }
+        }
+        if (!missingPairs.isEmpty()) {
+            fillMissingResults(requests, results, getRates(missingPairs));
+        }
+        return results;
+    }
+
+    private void fillMissingResults(Collection<ConversionRequest> requests, List<ConversionResult> results,
+                                    Map<CurrencyPair, BigDecimal> rates) {
+        rates.forEach(rateGraph::record);
+        int index = 0;
+        for (ConversionRequest request : requests) {
+            if (isNull(results.get(index))) {
+                BigDecimal rate = rates.get(CurrencyPair.of(request.getFrom(), request.getTo()));
+                results.set(index, createResult(request.getFrom(), request.getTo(), request.getAmount(), rate));
+            }
+            index++;
+        }
+    }
+
+    private BigDecimal record(CurrencyPair pair, BigDecimal rate) {
+        rateGraph.record(pair, rate);
+        return rate;
+    }
+
+    private ConversionResult createResult(Currency from, Currency to, BigDecimal amount, BigDecimal rate) {
+        return Rates.convert(from, to, amount, rate);
+    }
+
+    private ConversionResult createDerivedResult(Currency from, Currency to, BigDecimal amount, DerivedRate derivedRate) {
+        return DerivedConversionResult.ofRate(from, to, amount, derivedRate.getRate(), derivedRate.getDerivation(), derivedRate.getPath());
     }
 
     private BigDecimal getRate(@NotNull Currency from, @NotNull Currency to) {
+        Optional<BigDecimal> rate;
         try {
-            return client.getConversionRate(from, to, authCredentials);
+            rate = client.getConversionRate(from, to, authCredentials);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new ConversionException(ERROR_MESSAGE, e);
         } catch (Exception e) {
             throw new ConversionException(ERROR_MESSAGE, e);
         }
+        return rate.orElseThrow(() -> rateNotFound(CurrencyPair.of(from, to)));
+    }
+
+    private Map<CurrencyPair, BigDecimal> getRates(List<CurrencyPair> pairs) {
+        Map<CurrencyPair, BigDecimal> rates;
+        try {
+            rates = client.getConversionRates(pairs, authCredentials);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConversionException(ERROR_MESSAGE, e);
+        } catch (Exception e) {
+            throw new ConversionException(ERROR_MESSAGE, e);
+        }
+        for (CurrencyPair pair : pairs) {
+            if (!rates.containsKey(pair)) {
+                throw rateNotFound(pair);
+            }
+        }
+        return rates;
+    }
+
+    private ConversionException rateNotFound(CurrencyPair pair) {
+        return new ConversionException(String.format(RATE_NOT_FOUND_MESSAGE,
+                pair.getFrom().getCurrencyCode(), pair.getTo().getCurrencyCode()));
     }
 
     @Override
@@ -0,0 +1,99 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionResult;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.Objects;
+
+public class DerivedConversionResult extends ConversionResult {
+
+    private final RateDerivation derivation;
+    private final List<Currency> path;
+    // Cached like the hash code of the superclass, since results are used as keys and the path is hashed element by element
+    private int hash;
+
+    public DerivedConversionResult(Currency from, Currency to, BigDecimal amount, BigDecimal result,
+                                   RateDerivation derivation, List<Currency> path) {
+        super(from, to, amount, result);
+        this.derivation = derivation;
+        this.path = List.copyOf(path);
+    }
+
+    private DerivedConversionResult(Currency from, Currency to, BigDecimal amount, BigDecimal result, BigDecimal rate,
+                                    RateDerivation derivation, List<Currency> path) {
+        super(from, to, amount, result, rate);
+        this.derivation = derivation;
+        this.path = List.copyOf(path);
+    }
+
+    private DerivedConversionResult(DerivedConversionResult other, String provider) {
+        super(other, provider);
+        this.derivation = other.derivation;
+        this.path = other.path;
+        this.hash = other.hash;
+    }
+
+    /**
+     * Creates a result by converting the amount with a derived rate, which is kept as the known rate of the result.
+     *
+     * @param from       the currency converted from
+     * @param to         the currency converted to
+     * @param amount     the amount converted
+     * @param rate       the derived rate of {@code from} to {@code to}
+     * @param derivation how the rate was derived
+     * @param path       the currencies the rate was derived through
+     * @return the result of converting the amount with the derived rate
+     */
+    public static DerivedConversionResult ofRate(Currency from, Currency to, BigDecimal amount, BigDecimal rate,
+                                                 RateDerivation derivation, List<Currency> path) {
+        return new DerivedConversionResult(from, to, amount, amount.multiply(rate, MATH_CONTEXT), rate, derivation, path);
+    }
+
+    @Override
+    public DerivedConversionResult withProvider(String provider) {
+        return new DerivedConversionResult(this, provider);
+    }
+
+    public RateDerivation getDerivation() {
+        return derivation;
+    }
+
+    public List<Currency> getPath() {
+        return path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        DerivedConversionResult that = (DerivedConversionResult) o;
+        return derivation == that.derivation && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = super.hashCode();
+            hash = 31 * hash + Objects.hashCode(derivation);
+            hash = 31 * hash + path.hashCode();
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "DerivedConversionResult{" +
+                "from=" + getFrom() +
+                ", to=" + getTo() +
+                ", amount=" + getAmount() +
+                ", result=" + getResult() +
+                ", derivation=" + derivation +
+                ", path=" + path +
+                '}';
+    }
+}
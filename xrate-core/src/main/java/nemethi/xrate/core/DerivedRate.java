@@ -0,0 +1,30 @@
+package nemethi.xrate.core;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+
+public final class DerivedRate {
+
+    private final BigDecimal rate;
+    private final RateDerivation derivation;
+    private final List<Currency> path;
+
+    DerivedRate(BigDecimal rate, RateDerivation derivation, List<Currency> path) {
+        this.rate = rate;
+        this.derivation = derivation;
+        this.path = List.copyOf(path);
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public RateDerivation getDerivation() {
+        return derivation;
+    }
+
+    public List<Currency> getPath() {
+        return path;
+    }
+}
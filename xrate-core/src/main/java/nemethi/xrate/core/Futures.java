@@ -0,0 +1,28 @@
+package nemethi.xrate.core;
+
+import java.util.concurrent.CompletableFuture;
+
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Cancels the source future when the future derived from it is cancelled, and returns the derived future.
+     * A future created with e.g. {@code thenApply} does not pass its cancellation back to its source,
+     * so without this the work behind the source, like an HTTP request, would keep running.
+     *
+     * @param source  the future the other one is derived from
+     * @param derived the derived future
+     * @param <T>     the type of the result of the derived future
+     * @return the derived future
+     */
+    static <T> CompletableFuture<T> cancelSourceOnCancel(CompletableFuture<?> source, CompletableFuture<T> derived) {
+        derived.whenComplete((result, throwable) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+}
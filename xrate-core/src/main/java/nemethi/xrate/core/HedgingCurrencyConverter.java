@@ -0,0 +1,271 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Sends each conversion to the primary provider, and if it does not answer in time, to the next one as well.
+ * <p>
+ * The first provider in the list is the primary. If it has not answered after the hedge delay,
+ * the same conversion is sent to the next provider, and so on, until a provider answers or every provider is tried.
+ * A failed attempt starts the next one right away. The first successful result wins and the other attempts are cancelled.
+ * Cancellation reaches the HTTP request of providers that send it asynchronously, like the built-in converter;
+ * providers that convert on a blocking thread finish their call, and their result is dropped.
+ * <p>
+ * The hedge delay is either fixed, or once enough conversions are observed,
+ * the 95th percentile of the latency of the primary, so only the slowest few percent of the conversions are sent twice.
+ * The delays of every hedging converter are timed by a single shared daemon thread.
+ */
+public class HedgingCurrencyConverter implements CurrencyConverter {
+
+    private static final String NO_PROVIDERS_MESSAGE = "At least one provider is required";
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MIN_LATENCY_SAMPLES = 16;
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final String THREAD_NAME = "xrate-hedge";
+
+    private final List<CurrencyConverter> providers;
+    private final Duration delay;
+    private final boolean adaptive;
+    private final ScheduledExecutorService scheduler;
+    private final LatencyWindow primaryLatencies = new LatencyWindow(LATENCY_SAMPLES);
+    private final LongAdder hedgedCount = new LongAdder();
+
+    public HedgingCurrencyConverter(List<CurrencyConverter> providers, Duration delay, boolean adaptive) {
+        this(providers, delay, adaptive, SchedulerHolder.SCHEDULER);
+    }
+
+    HedgingCurrencyConverter(List<CurrencyConverter> providers, Duration delay, boolean adaptive,
+                             ScheduledExecutorService scheduler) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException(NO_PROVIDERS_MESSAGE);
+        }
+        this.providers = List.copyOf(providers);
+        this.delay = delay;
+        this.adaptive = adaptive;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    @NotNull
+    public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
+        try {
+            return convertAsync(from, to, amount).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        return new Hedge(from, to, amount).start();
+    }
+
+    // Hedging a whole batch would double the load on every provider, so the providers are only tried one after the other
+    @Override
+    @NotNull
+    public List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        ConversionException failure = null;
+        for (CurrencyConverter provider : providers) {
+            try {
+                return MeteredCurrencyConverter.withProvider(provider.convertAll(requests), provider);
+            } catch (ConversionException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private RuntimeException unwrap(CompletionException exception) {
+        Throwable cause = exception.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new ConversionException(String.valueOf(nonNull(cause) ? cause.getMessage() : exception.getMessage()), cause);
+    }
+
+    /**
+     * Sets the same credentials for every provider.
+     */
+    @Override
+    public void setAuthCredentials(@NotNull String authCredentials) {
+        providers.forEach(provider -> provider.setAuthCredentials(authCredentials));
+    }
+
+    public Duration getHedgeDelay() {
+        if (!adaptive) {
+            return delay;
+        }
+        long percentile = primaryLatencies.percentile(HEDGE_PERCENTILE);
+        return percentile < 0 ? delay : Duration.ofNanos(percentile);
+    }
+
+    public long getHedgedCount() {
+        return hedgedCount.sum();
+    }
+
+    public List<CurrencyConverter> getProviders() {
+        return providers;
+    }
+
+    private final class Hedge {
+
+        private final Currency from;
+        private final Currency to;
+        private final BigDecimal amount;
+        private final CompletableFuture<ConversionResult> result = new CompletableFuture<>();
+        private final List<CompletableFuture<ConversionResult>> attempts = new ArrayList<>();
+        private int nextProvider;
+        private int pendingAttempts;
+        private ScheduledFuture<?> timer;
+
+        private Hedge(Currency from, Currency to, BigDecimal amount) {
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        private CompletableFuture<ConversionResult> start() {
+            result.whenComplete((ignored, throwable) -> cancelAttempts());
+            launchNext();
+            return result;
+        }
+
+        private void launchNext() {
+            int index;
+            synchronized (this) {
+                if (result.isDone() || nextProvider == providers.size()) {
+                    return;
+                }
+                cancelTimer();
+                index = nextProvider++;
+                pendingAttempts++;
+            }
+            if (index > 0) {
+                hedgedCount.increment();
+            }
+            long startedAt = System.nanoTime();
+            CompletableFuture<ConversionResult> attempt;
+            try {
+                attempt = providers.get(index).convertAsync(from, to, amount);
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+            synchronized (this) {
+                attempts.add(attempt);
+                if (!result.isDone() && nextProvider < providers.size() && isNull(timer)) {
+                    timer = scheduler.schedule(this::launchNext, getHedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            attempt.whenComplete((conversionResult, throwable) -> complete(index, startedAt, conversionResult, throwable));
+        }
+
+        // The primary is sampled even if it loses: when it is cancelled, its latency is at least as long as it ran,
+        // and leaving it out would bias the percentile towards the fast conversions
+        private void complete(int index, long startedAt, ConversionResult conversionResult, Throwable throwable) {
+            if (index == 0 && (isNull(throwable) || isCancellation(throwable))) {
+                primaryLatencies.record(System.nanoTime() - startedAt);
+            }
+            if (isNull(throwable)) {
+                result.complete(conversionResult.withProvider(MeteredCurrencyConverter.nameOf(providers.get(index))));
+                return;
+            }
+            boolean exhausted;
+            boolean idle;
+            synchronized (this) {
+                pendingAttempts--;
+                idle = pendingAttempts == 0;
+                exhausted = idle && nextProvider == providers.size();
+            }
+            if (exhausted) {
+                result.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+            } else if (idle) {
+                launchNext();
+            }
+        }
+
+        private boolean isCancellation(Throwable throwable) {
+            Throwable cause = throwable instanceof CompletionException && nonNull(throwable.getCause())
+                    ? throwable.getCause() : throwable;
+            return cause instanceof CancellationException;
+        }
+
+        private synchronized void cancelAttempts() {
+            cancelTimer();
+            attempts.forEach(attempt -> attempt.cancel(false));
+        }
+
+        private void cancelTimer() {
+            if (nonNull(timer)) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+    }
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        // Nearly every timer is cancelled, so cancelled timers are removed right away instead of waiting for their delay
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    private static final class LatencyWindow {
+
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        private synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        // Returns -1 until there are enough samples for a meaningful percentile
+        private synchronized long percentile(double percentile) {
+            if (count < MIN_LATENCY_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(percentile * count) - 1];
+        }
+    }
+}
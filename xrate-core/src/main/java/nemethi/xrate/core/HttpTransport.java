@@ -0,0 +1,223 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportStats;
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link Transport} of xrate, backed by a single JDK {@link HttpClient}.
+ * <p>
+ * The JDK client keeps its idle connections in a pool of its own, which is sized and timed out through
+ * system properties read when the first client is created, so the settings of the first transport
+ * of the process apply to every later one as well.
+ */
+public class HttpTransport implements Transport {
+
+    private static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    private static final String SECURE_SCHEME = "https";
+    private static final String TLS_ERROR_MESSAGE = "Cannot initialize TLS";
+    // The same as the defaults of the configuration
+    private static final int DEFAULT_POOL_SIZE = 16;
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int poolSize;
+    private final boolean http2Preferred;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final Duration idleTimeout;
+    private final SSLContext sslContext;
+    private final TlsConnectionCounter connections = new TlsConnectionCounter();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder secureRequests = new LongAdder();
+    private final AtomicInteger activeSecureRequests = new AtomicInteger();
+    private final List<Supplier<TransportStats>> statsSources = new CopyOnWriteArrayList<>();
+    private volatile HttpClient httpClient;
+
+    public HttpTransport(int poolSize, boolean http2Preferred, Duration connectTimeout, Duration requestTimeout, Duration idleTimeout) {
+        this(poolSize, http2Preferred, connectTimeout, requestTimeout, idleTimeout, null);
+    }
+
+    HttpTransport(int poolSize, boolean http2Preferred, Duration connectTimeout, Duration requestTimeout, Duration idleTimeout,
+                  SSLContext sslContext) {
+        this.poolSize = poolSize;
+        this.http2Preferred = http2Preferred;
+        this.connectTimeout = requireNonNull(connectTimeout);
+        this.requestTimeout = requireNonNull(requestTimeout);
+        this.idleTimeout = requireNonNull(idleTimeout);
+        this.sslContext = sslContext;
+    }
+
+    // Wraps a client that is already built, the TLS connections of which are not counted
+    HttpTransport(HttpClient httpClient) {
+        this(DEFAULT_POOL_SIZE, true, DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+        this.httpClient = httpClient;
+    }
+
+    static HttpTransport getDefault() {
+        return Defaults.TRANSPORT;
+    }
+
+    @NotNull
+    @Override
+    public HttpRequest.Builder newRequest(@NotNull URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(requestTimeout);
+    }
+
+    @NotNull
+    @Override
+    public <T> HttpResponse<T> send(@NotNull HttpRequest request, @NotNull BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        boolean secure = countRequest(request);
+        try {
+            return getHttpClient().send(request, bodyHandler);
+        } finally {
+            countResponse(secure);
+        }
+    }
+
+    @NotNull
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(@NotNull HttpRequest request, @NotNull BodyHandler<T> bodyHandler) {
+        boolean secure = countRequest(request);
+        try {
+            CompletableFuture<HttpResponse<T>> response = getHttpClient().sendAsync(request, bodyHandler);
+            return Futures.cancelSourceOnCancel(response, response.whenComplete((ignored, throwable) -> countResponse(secure)));
+        } catch (RuntimeException e) {
+            countResponse(secure);
+            throw e;
+        }
+    }
+
+    private boolean countRequest(HttpRequest request) {
+        requests.increment();
+        boolean secure = SECURE_SCHEME.equalsIgnoreCase(request.uri().getScheme());
+        if (secure) {
+            secureRequests.increment();
+            activeSecureRequests.incrementAndGet();
+        }
+        return secure;
+    }
+
+    private void countResponse(boolean secure) {
+        if (secure) {
+            activeSecureRequests.decrementAndGet();
+        }
+    }
+
+    HttpClient getHttpClient() {
+        HttpClient client = httpClient;
+        if (isNull(client)) {
+            synchronized (this) {
+                client = httpClient;
+                if (isNull(client)) {
+                    client = createHttpClient();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private HttpClient createHttpClient() {
+        setPropertyIfAbsent(POOL_SIZE_PROPERTY, poolSize);
+        setPropertyIfAbsent(KEEP_ALIVE_PROPERTY, idleTimeout.toSeconds());
+        return HttpClient.newBuilder()
+                .version(http2Preferred ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .sslContext(connections.wrap(getSslContext()))
+                .build();
+    }
+
+    private static void setPropertyIfAbsent(String key, long value) {
+        if (isNull(System.getProperty(key))) {
+            System.setProperty(key, String.valueOf(value));
+        }
+    }
+
+    private SSLContext getSslContext() {
+        if (!isNull(sslContext)) {
+            return sslContext;
+        }
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new ConversionException(TLS_ERROR_MESSAGE, e);
+        }
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public boolean isHttp2Preferred() {
+        return http2Preferred;
+    }
+
+    @NotNull
+    @Override
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    @NotNull
+    @Override
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    @NotNull
+    @Override
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    // An HTTP/2 connection carries many requests at once, so the number of active connections is an upper bound
+    @NotNull
+    @Override
+    public TransportStats getStats() {
+        int open = connections.getOpenConnections();
+        int active = Math.min(open, activeSecureRequests.get());
+        TransportStats stats = new TransportStats(requests.sum(), secureRequests.sum(),
+                connections.getOpenedConnections(), active, open - active);
+        for (Supplier<TransportStats> source : statsSources) {
+            stats = stats.plus(source.get());
+        }
+        return stats;
+    }
+
+    @Override
+    public void addStatsSource(@NotNull Supplier<TransportStats> source) {
+        statsSources.add(requireNonNull(source));
+    }
+
+    private static final class Defaults {
+
+        private static final HttpTransport TRANSPORT = new HttpTransport(DEFAULT_POOL_SIZE, true,
+                DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+    }
+}
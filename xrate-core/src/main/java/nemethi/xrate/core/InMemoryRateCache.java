@@ -0,0 +1,106 @@
+package nemethi.xrate.core;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class InMemoryRateCache implements RateCache {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<CurrencyPair, Entry> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public InMemoryRateCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    InMemoryRateCache(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CurrencyPair, Entry> eldest) {
+                boolean full = size() > InMemoryRateCache.this.maxEntries;
+                if (full) {
+                    evictionCount.incrementAndGet();
+                }
+                return full;
+            }
+        };
+    }
+
+    @Override
+    public Optional<BigDecimal> get(CurrencyPair pair) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(pair);
+            if (nonNull(entry) && entry.isExpiredAt(clock.instant())) {
+                entries.remove(pair);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (isNull(entry)) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        hitCount.incrementAndGet();
+        return Optional.of(entry.rate);
+    }
+
+    @Override
+    public void put(CurrencyPair pair, BigDecimal rate) {
+        Entry entry = new Entry(rate, clock.instant().plus(ttl));
+        synchronized (entries) {
+            entries.put(pair, entry);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private static final class Entry {
+
+        private final BigDecimal rate;
+        private final Instant expiresAt;
+
+        private Entry(BigDecimal rate, Instant expiresAt) {
+            this.rate = rate;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpiredAt(Instant instant) {
+            return !instant.isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package nemethi.xrate.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A rate cache stored in a fixed-layout file, that is shared by every xrate process on the host.
+ * <p>
+ * The file consists of a header followed by a set-associative table:
+ * every currency pair hashes to a bucket of {@link #SLOTS_PER_BUCKET} slots,
+ * and each slot holds the pair, the rate and the time it was fetched.
+ * Reads take a shared, writes take an exclusive {@link FileLock} on the bucket only,
+ * so concurrent processes never see half-written slots and the file is never rewritten as a whole.
+ * When a bucket is full, the slot fetched the longest time ago is replaced.
+ */
+public class MappedRateCache implements RateCache, Closeable {
+
+    static final String FILE_NAME = "rates.cache";
+    static final int SLOTS_PER_BUCKET = 8;
+    static final int DEFAULT_BUCKET_COUNT = 512;
+
+    private static final int MAGIC = 0x58525443;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int BUCKET_COUNT_OFFSET = 8;
+    private static final int SLOT_SIZE = 32;
+    private static final int KEY_OFFSET = 0;
+    private static final int SCALE_OFFSET = 4;
+    private static final int UNSCALED_RATE_OFFSET = 8;
+    private static final int FETCHED_AT_OFFSET = 16;
+    private static final int BUCKET_SIZE = SLOTS_PER_BUCKET * SLOT_SIZE;
+    private static final int EMPTY_KEY = 0;
+    private static final int OCCUPIED_FLAG = 1 << 30;
+    private static final int BITS_PER_LETTER = 5;
+    private static final int MAX_DIGITS_IN_LONG = 18;
+    private static final MathContext STORAGE_MATH_CONTEXT = new MathContext(MAX_DIGITS_IN_LONG, RoundingMode.HALF_EVEN);
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int bucketCount;
+    private final Object[] bucketLocks;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public MappedRateCache(Path directory, Duration ttl) throws IOException {
+        this(directory, ttl, DEFAULT_BUCKET_COUNT, Clock.systemUTC());
+    }
+
+    MappedRateCache(Path directory, Duration ttl, int bucketCount, Clock clock) throws IOException {
+        this.ttl = ttl;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        this.channel = FileChannel.open(directory.resolve(FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) bucketCount * BUCKET_SIZE);
+        this.bucketCount = initializeHeader(bucketCount);
+        this.bucketLocks = new Object[this.bucketCount];
+        for (int i = 0; i < bucketLocks.length; i++) {
+            bucketLocks[i] = new Object();
+        }
+    }
+
+    private int initializeHeader(int requestedBucketCount) throws IOException {
+        try (FileLock ignored = channel.lock(0, HEADER_SIZE, false)) {
+            if (buffer.getInt(MAGIC_OFFSET) == MAGIC && buffer.getInt(VERSION_OFFSET) == VERSION) {
+                int existingBucketCount = buffer.getInt(BUCKET_COUNT_OFFSET);
+                if (existingBucketCount == requestedBucketCount) {
+                    return existingBucketCount;
+                }
+            }
+            clearTable(requestedBucketCount);
+            buffer.putInt(BUCKET_COUNT_OFFSET, requestedBucketCount);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            return requestedBucketCount;
+        }
+    }
+
+    private void clearTable(int bucketCount) {
+        for (int position = HEADER_SIZE; position < HEADER_SIZE + bucketCount * BUCKET_SIZE; position += SLOT_SIZE) {
+            buffer.putInt(position + KEY_OFFSET, EMPTY_KEY);
+        }
+    }
+
+    @Override
+    public Optional<BigDecimal> get(CurrencyPair pair) {
+        int key = keyOf(pair);
+        if (key == EMPTY_KEY) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        int bucket = bucketOf(key);
+        Optional<BigDecimal> rate = withBucketLock(bucket, true, () -> read(bucket, key));
+        if (rate.isPresent()) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return rate;
+    }
+
+    private Optional<BigDecimal> read(int bucket, int key) {
+        int bucketPosition = bucketPosition(bucket);
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            int position = bucketPosition + slot * SLOT_SIZE;
+            if (buffer.getInt(position + KEY_OFFSET) == key) {
+                return readIfFresh(position);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<BigDecimal> readIfFresh(int position) {
+        long fetchedAt = buffer.getLong(position + FETCHED_AT_OFFSET);
+        if (clock.millis() - fetchedAt >= ttl.toMillis()) {
+            return Optional.empty();
+        }
+        long unscaledRate = buffer.getLong(position + UNSCALED_RATE_OFFSET);
+        int scale = buffer.getInt(position + SCALE_OFFSET);
+        return Optional.of(BigDecimal.valueOf(unscaledRate, scale));
+    }
+
+    @Override
+    public void put(CurrencyPair pair, BigDecimal rate) {
+        int key = keyOf(pair);
+        if (key == EMPTY_KEY) {
+            return;
+        }
+        BigDecimal storedRate = toStorableRate(rate);
+        int bucket = bucketOf(key);
+        withBucketLock(bucket, false, () -> {
+            write(findSlotToWrite(bucket, key), key, storedRate);
+            return null;
+        });
+    }
+
+    private BigDecimal toStorableRate(BigDecimal rate) {
+        if (rate.precision() > MAX_DIGITS_IN_LONG) {
+            return rate.round(STORAGE_MATH_CONTEXT);
+        }
+        return rate;
+    }
+
+    private int findSlotToWrite(int bucket, int key) {
+        int bucketPosition = bucketPosition(bucket);
+        int oldestPosition = bucketPosition;
+        long oldestFetchedAt = Long.MAX_VALUE;
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            int position = bucketPosition + slot * SLOT_SIZE;
+            int slotKey = buffer.getInt(position + KEY_OFFSET);
+            if (slotKey == key || slotKey == EMPTY_KEY) {
+                return position;
+            }
+            long fetchedAt = buffer.getLong(position + FETCHED_AT_OFFSET);
+            if (fetchedAt < oldestFetchedAt) {
+                oldestFetchedAt = fetchedAt;
+                oldestPosition = position;
+            }
+        }
+        return oldestPosition;
+    }
+
+    private void write(int position, int key, BigDecimal rate) {
+        buffer.putInt(position + SCALE_OFFSET, rate.scale());
+        buffer.putLong(position + UNSCALED_RATE_OFFSET, rate.unscaledValue().longValueExact());
+        buffer.putLong(position + FETCHED_AT_OFFSET, clock.millis());
+        buffer.putInt(position + KEY_OFFSET, key);
+    }
+
+    private <T> T withBucketLock(int bucket, boolean shared, IOSupplier<T> action) {
+        synchronized (bucketLocks[bucket]) {
+            try (FileLock ignored = channel.lock(bucketPosition(bucket), BUCKET_SIZE, shared)) {
+                return action.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private int bucketPosition(int bucket) {
+        return HEADER_SIZE + bucket * BUCKET_SIZE;
+    }
+
+    private int bucketOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % bucketCount;
+    }
+
+    // Packs both currency codes into 30 bits, five bits per letter, and marks the key as occupied
+    static int keyOf(CurrencyPair pair) {
+        int from = packCode(pair.getFrom().getCurrencyCode());
+        int to = packCode(pair.getTo().getCurrencyCode());
+        if (from < 0 || to < 0) {
+            return EMPTY_KEY;
+        }
+        return OCCUPIED_FLAG | (from << (3 * BITS_PER_LETTER)) | to;
+    }
+
+    private static int packCode(String code) {
+        if (code.length() != 3) {
+            return -1;
+        }
+        int packed = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char letter = code.charAt(i);
+            if (letter < 'A' || letter > 'Z') {
+                return -1;
+            }
+            packed = (packed << BITS_PER_LETTER) | (letter - 'A');
+        }
+        return packed;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+
+        T get() throws IOException;
+    }
+}
@@ -0,0 +1,148 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Records the latency and the outcome of every call to a provider in {@link ConversionMetrics},
+ * under the class name of the provider.
+ */
+public class MeteredCurrencyConverter implements CurrencyConverter {
+
+    private final CurrencyConverter delegate;
+    private final ConversionMetrics metrics;
+    private final String provider;
+    private final LongSupplier ticker;
+
+    public MeteredCurrencyConverter(CurrencyConverter delegate, ConversionMetrics metrics) {
+        this(delegate, metrics, System::nanoTime);
+    }
+
+    MeteredCurrencyConverter(CurrencyConverter delegate, ConversionMetrics metrics, LongSupplier ticker) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.provider = delegate.getClass().getName();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the name a converter is known by: the class name of the provider behind it, if it is metered.
+     *
+     * @param converter the converter
+     * @return the name of the provider
+     */
+    static String nameOf(CurrencyConverter converter) {
+        if (converter instanceof MeteredCurrencyConverter) {
+            return ((MeteredCurrencyConverter) converter).getProvider();
+        }
+        return converter.getClass().getName();
+    }
+
+    /**
+     * Returns copies of the results that record the name of the provider that produced them.
+     *
+     * @param results  the results of the provider
+     * @param provider the provider
+     * @return the results with the name of the provider
+     */
+    static List<ConversionResult> withProvider(List<ConversionResult> results, CurrencyConverter provider) {
+        String name = nameOf(provider);
+        List<ConversionResult> named = new ArrayList<>(results.size());
+        for (ConversionResult result : results) {
+            named.add(isNull(result) ? null : result.withProvider(name));
+        }
+        return named;
+    }
+
+    @Override
+    @NotNull
+    public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
+        metrics.recordStart(provider);
+        long startedAt = ticker.getAsLong();
+        try {
+            ConversionResult result = delegate.convert(from, to, amount);
+            metrics.recordSuccess(provider, ticker.getAsLong() - startedAt);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(provider, ticker.getAsLong() - startedAt, e);
+            throw e;
+        }
+    }
+
+    // The future of the provider is returned as it is, so cancelling it still reaches the provider
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        metrics.recordStart(provider);
+        long startedAt = ticker.getAsLong();
+        CompletableFuture<ConversionResult> future;
+        try {
+            future = delegate.convertAsync(from, to, amount);
+        } catch (RuntimeException e) {
+            metrics.recordFailure(provider, ticker.getAsLong() - startedAt, e);
+            throw e;
+        }
+        future.whenComplete((result, throwable) -> record(startedAt, throwable));
+        return future;
+    }
+
+    private void record(long startedAt, Throwable throwable) {
+        long elapsedNanos = ticker.getAsLong() - startedAt;
+        if (isNull(throwable)) {
+            metrics.recordSuccess(provider, elapsedNanos);
+            return;
+        }
+        Throwable cause = throwable instanceof CompletionException && nonNull(throwable.getCause())
+                ? throwable.getCause() : throwable;
+        if (cause instanceof CancellationException) {
+            metrics.recordCancellation(provider);
+        } else {
+            metrics.recordFailure(provider, elapsedNanos, cause);
+        }
+    }
+
+    @Override
+    @NotNull
+    public List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        metrics.recordStart(provider);
+        long startedAt = ticker.getAsLong();
+        try {
+            List<ConversionResult> results = delegate.convertAll(requests);
+            metrics.recordSuccess(provider, ticker.getAsLong() - startedAt);
+            return results;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(provider, ticker.getAsLong() - startedAt, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setAuthCredentials(@NotNull String authCredentials) {
+        delegate.setAuthCredentials(authCredentials);
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public CurrencyConverter getDelegate() {
+        return delegate;
+    }
+}
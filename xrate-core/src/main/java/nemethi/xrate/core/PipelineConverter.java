@@ -0,0 +1,158 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Converts newline-delimited {@code FROM TO AMOUNT} requests concurrently and prints a result line for each of them,
+ * in input order.
+ * <p>
+ * Every request gets a sequence number. Completed requests wait in a reorder buffer until all earlier requests
+ * are printed, so a slow request delays the output, but not the conversion of the requests after it.
+ * A request holds one of the {@code windowSize} permits from the moment it is read until it is printed,
+ * so a slow consumer stops the reading of the input instead of filling the memory.
+ * <p>
+ * The results are printed by a writer thread of their own, so a slow consumer never blocks the threads
+ * that complete the conversions.
+ */
+public class PipelineConverter {
+
+    private static final String WRITER_THREAD_NAME = "xrate-pipeline-writer";
+    private static final long UNKNOWN_COUNT = -1;
+
+    private final CurrencyConverter converter;
+    private final ResultPrinter printer;
+    private final Semaphore window;
+    private final Map<Long, CompletedRequest> reorderBuffer = new HashMap<>();
+    private long nextToPrint;
+    private long requestCount = UNKNOWN_COUNT;
+
+    public PipelineConverter(CurrencyConverter converter, ResultPrinter printer, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The window size must be positive");
+        }
+        this.converter = converter;
+        this.printer = printer;
+        this.window = new Semaphore(windowSize);
+    }
+
+    public long convert(BufferedReader reader) throws IOException {
+        Thread writer = new Thread(this::writeResults, WRITER_THREAD_NAME);
+        writer.setDaemon(true);
+        writer.start();
+        long sequenceNumber = 0;
+        try {
+            String line;
+            while (nonNull(line = reader.readLine())) {
+                String row = line.trim();
+                if (row.isEmpty()) {
+                    continue;
+                }
+                window.acquireUninterruptibly();
+                long currentSequenceNumber = sequenceNumber++;
+                submit(row).whenComplete((result, throwable) ->
+                        complete(currentSequenceNumber, new CompletedRequest(row, result, throwable)));
+            }
+        } finally {
+            finishReading(sequenceNumber);
+        }
+        awaitOutput(writer);
+        return sequenceNumber;
+    }
+
+    private CompletableFuture<ConversionResult> submit(String row) {
+        try {
+            ConversionRequest request = RequestParser.parse(row);
+            return converter.convertAsync(request.getFrom(), request.getTo(), request.getAmount());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Runs on the thread that completed the conversion, so it only hands the result over to the writer
+    private synchronized void complete(long sequenceNumber, CompletedRequest request) {
+        reorderBuffer.put(sequenceNumber, request);
+        if (sequenceNumber == nextToPrint) {
+            notifyAll();
+        }
+    }
+
+    private synchronized void finishReading(long count) {
+        requestCount = count;
+        notifyAll();
+    }
+
+    private void writeResults() {
+        CompletedRequest next;
+        while (nonNull(next = takeNext())) {
+            print(next);
+            window.release();
+        }
+    }
+
+    // Returns null once every request read is printed, or if the writer is interrupted
+    private synchronized CompletedRequest takeNext() {
+        while (true) {
+            CompletedRequest next = reorderBuffer.remove(nextToPrint);
+            if (nonNull(next)) {
+                nextToPrint++;
+                return next;
+            }
+            if (nextToPrint == requestCount) {
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private void print(CompletedRequest request) {
+        if (nonNull(request.throwable)) {
+            printer.printCsvError(request.row, getMessage(request.throwable));
+        } else {
+            printer.printCsv(request.result);
+        }
+    }
+
+    private String getMessage(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && nonNull(throwable.getCause())
+                ? throwable.getCause() : throwable;
+        return String.valueOf(cause.getMessage());
+    }
+
+    private void awaitOutput(Thread writer) {
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CompletedRequest {
+
+        private final String row;
+        private final ConversionResult result;
+        private final Throwable throwable;
+
+        private CompletedRequest(String row, ConversionResult result, Throwable throwable) {
+            this.row = row;
+            this.result = result;
+            this.throwable = throwable;
+        }
+    }
+}
@@ -2,18 +2,122 @@ package nemethi.xrate.core;
 
 import nemethi.xrate.api.CurrencyConverter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
+import java.util.stream.Collectors;
 
+import static java.util.Objects.isNull;
+
+/**
+ * Finds the {@link CurrencyConverter} plugins on the class path.
+ * <p>
+ * Plugins are discovered with {@link ServiceLoader#stream()}, so their types are known without instantiating them,
+ * and only the plugins that are actually used are instantiated.
+ * If a cache file is given, the discovered types are stored in it together with a fingerprint of the class path,
+ * and later runs with the same class path load the types from the file instead of scanning the class path.
+ */
 public class PluginLoader {
 
+    static final String CACHE_FILE_NAME = "providers.cache";
+
+    private static final String INSTANTIATION_ERROR_MESSAGE = "Cannot instantiate plugin: %s";
+
+    private final ClassLoader classLoader;
     private final ServiceLoader<CurrencyConverter> serviceLoader;
+    private final Path cacheFile;
+    private final String classPathFingerprint;
 
     public PluginLoader() {
-        serviceLoader = ServiceLoader.load(CurrencyConverter.class);
+        this(null);
+    }
+
+    public PluginLoader(Path cacheFile) {
+        this(cacheFile, System.getProperty("java.class.path", ""));
+    }
+
+    PluginLoader(Path cacheFile, String classPath) {
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+        this.serviceLoader = ServiceLoader.load(CurrencyConverter.class, classLoader);
+        this.cacheFile = cacheFile;
+        this.classPathFingerprint = Integer.toHexString(classPath.hashCode());
     }
 
     public Optional<CurrencyConverter> findFirstPlugin() {
-        return serviceLoader.findFirst();
+        List<Class<? extends CurrencyConverter>> types = findPluginTypes();
+        if (types.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(instantiate(types.get(0)));
+    }
+
+    public List<CurrencyConverter> findAllPlugins() {
+        List<CurrencyConverter> plugins = new ArrayList<>();
+        for (Class<? extends CurrencyConverter> type : findPluginTypes()) {
+            plugins.add(instantiate(type));
+        }
+        return plugins;
+    }
+
+    public List<Class<? extends CurrencyConverter>> findPluginTypes() {
+        List<Class<? extends CurrencyConverter>> types = readCache();
+        if (isNull(types)) {
+            types = serviceLoader.stream().map(ServiceLoader.Provider::type).collect(Collectors.toList());
+            writeCache(types);
+        }
+        return types;
+    }
+
+    // Plugins are loaded from the class path, where ServiceLoader also requires a public no-arg constructor
+    private CurrencyConverter instantiate(Class<? extends CurrencyConverter> type) {
+        try {
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ServiceConfigurationError(String.format(INSTANTIATION_ERROR_MESSAGE, type.getName()), e);
+        }
+    }
+
+    // The cache only saves time, so a cache that cannot be read is treated as missing
+    private List<Class<? extends CurrencyConverter>> readCache() {
+        if (isNull(cacheFile) || !Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(classPathFingerprint)) {
+                return null;
+            }
+            List<Class<? extends CurrencyConverter>> types = new ArrayList<>();
+            for (String name : lines.subList(1, lines.size())) {
+                types.add(Class.forName(name, false, classLoader).asSubclass(CurrencyConverter.class));
+            }
+            return types;
+        } catch (IOException | ClassNotFoundException | ClassCastException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private void writeCache(List<Class<? extends CurrencyConverter>> types) {
+        if (isNull(cacheFile)) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(classPathFingerprint);
+        types.forEach(type -> lines.add(type.getName()));
+        try {
+            Path directory = Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            Path temporaryFile = Files.createTempFile(directory, CACHE_FILE_NAME, null);
+            Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the types are discovered again on the next run, a leftover temporary file is harmless
+        }
     }
 }
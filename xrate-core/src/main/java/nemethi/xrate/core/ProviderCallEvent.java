@@ -0,0 +1,67 @@
+package nemethi.xrate.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A request to the service of a provider, from sending it to decoding the rates of its response.
+ * <p>
+ * Its fields are only filled in if the event is recorded, so a call pays next to nothing for it otherwise.
+ */
+@Name("nemethi.xrate.ProviderCall")
+@Label("Provider Call")
+@Category("Xrate")
+@Description("A request to the service of a provider, from sending it to decoding the rates of its response")
+@StackTrace(false)
+final class ProviderCallEvent extends Event {
+
+    static final String SUCCESS = "success";
+    private static final String PAIR_DELIMITER = ",";
+
+    @Label("Provider")
+    private String provider;
+
+    @Label("Pairs")
+    private String pairs;
+
+    @Label("Payload Size")
+    @DataAmount
+    private long payloadSize;
+
+    @Label("Outcome")
+    @Description("success, or the simple class name of the cause of the failure")
+    private String outcome;
+
+    /**
+     * Returns the outcome of an operation as recorded by the events.
+     *
+     * @param failure the exception the operation failed with, or null if it succeeded
+     * @return {@value #SUCCESS}, or the simple class name of the cause of the failure
+     */
+    static String outcomeOf(Throwable failure) {
+        return isNull(failure) ? SUCCESS : DefaultConversionMetrics.causeOf(failure);
+    }
+
+    void setPayloadSize(long payloadSize) {
+        this.payloadSize = payloadSize;
+    }
+
+    void record(String provider, Collection<CurrencyPair> pairs, Throwable failure) {
+        if (shouldCommit()) {
+            this.provider = provider;
+            this.pairs = pairs.stream().map(CurrencyPair::toKey).collect(joining(PAIR_DELIMITER));
+            this.outcome = outcomeOf(failure);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package nemethi.xrate.core;
+
+import java.util.Locale;
+
+public enum ProviderStrategy {
+
+    FIRST,
+    HEDGE,
+    ROUTE;
+
+    public static ProviderStrategy fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,19 @@
+package nemethi.xrate.core;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface RateCache {
+
+    Optional<BigDecimal> get(CurrencyPair pair);
+
+    void put(CurrencyPair pair, BigDecimal rate);
+
+    /**
+     * Stores the rate together with the name of the provider it came from.
+     * Caches that do not keep the source of their rates store the rate only.
+     */
+    default void put(CurrencyPair pair, BigDecimal rate, String source) {
+        put(pair, rate);
+    }
+}
@@ -0,0 +1,8 @@
+package nemethi.xrate.core;
+
+public enum RateDerivation {
+
+    DIRECT,
+    INVERSE,
+    PIVOT
+}
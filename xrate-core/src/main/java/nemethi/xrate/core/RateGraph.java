@@ -0,0 +1,104 @@
+package nemethi.xrate.core;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class RateGraph {
+
+    private static final MathContext RATE_MATH_CONTEXT = MathContext.DECIMAL128;
+
+    private final TriangulationPolicy policy;
+    private final Currency pivot;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final Map<CurrencyPair, KnownRate> knownRates = new ConcurrentHashMap<>();
+
+    public RateGraph(TriangulationPolicy policy, Currency pivot, Duration maxAge) {
+        this(policy, pivot, maxAge, Clock.systemUTC());
+    }
+
+    RateGraph(TriangulationPolicy policy, Currency pivot, Duration maxAge, Clock clock) {
+        this.policy = policy;
+        this.pivot = pivot;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    public static RateGraph disabled() {
+        return new RateGraph(TriangulationPolicy.NONE, Currency.getInstance("USD"), Duration.ZERO);
+    }
+
+    public void record(CurrencyPair pair, BigDecimal rate) {
+        if (policy != TriangulationPolicy.NONE && rate.signum() != 0) {
+            knownRates.put(pair, new KnownRate(rate, clock.instant()));
+        }
+    }
+
+    public Optional<DerivedRate> find(CurrencyPair pair) {
+        if (policy == TriangulationPolicy.NONE) {
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        Optional<DerivedRate> rate = findDirectOrInverse(pair, now);
+        if (rate.isPresent() || !policy.allowsPivot()) {
+            return rate;
+        }
+        return findThroughPivot(pair, now);
+    }
+
+    private Optional<DerivedRate> findDirectOrInverse(CurrencyPair pair, Instant now) {
+        BigDecimal direct = getFresh(pair, now);
+        if (nonNull(direct)) {
+            return Optional.of(new DerivedRate(direct, RateDerivation.DIRECT, List.of(pair.getFrom(), pair.getTo())));
+        }
+        BigDecimal inverse = getFresh(pair.inverse(), now);
+        if (nonNull(inverse) && policy.allowsInverse()) {
+            BigDecimal rate = BigDecimal.ONE.divide(inverse, RATE_MATH_CONTEXT);
+            return Optional.of(new DerivedRate(rate, RateDerivation.INVERSE, List.of(pair.getFrom(), pair.getTo())));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<DerivedRate> findThroughPivot(CurrencyPair pair, Instant now) {
+        if (pair.getFrom().equals(pivot) || pair.getTo().equals(pivot)) {
+            return Optional.empty();
+        }
+        Optional<DerivedRate> firstLeg = findDirectOrInverse(CurrencyPair.of(pair.getFrom(), pivot), now);
+        Optional<DerivedRate> secondLeg = findDirectOrInverse(CurrencyPair.of(pivot, pair.getTo()), now);
+        if (firstLeg.isEmpty() || secondLeg.isEmpty()) {
+            return Optional.empty();
+        }
+        BigDecimal rate = firstLeg.get().getRate().multiply(secondLeg.get().getRate(), RATE_MATH_CONTEXT);
+        return Optional.of(new DerivedRate(rate, RateDerivation.PIVOT, List.of(pair.getFrom(), pivot, pair.getTo())));
+    }
+
+    private BigDecimal getFresh(CurrencyPair pair, Instant now) {
+        KnownRate knownRate = knownRates.get(pair);
+        if (isNull(knownRate) || !knownRate.fetchedAt.plus(maxAge).isAfter(now)) {
+            return null;
+        }
+        return knownRate.rate;
+    }
+
+    private static final class KnownRate {
+
+        private final BigDecimal rate;
+        private final Instant fetchedAt;
+
+        private KnownRate(BigDecimal rate, Instant fetchedAt) {
+            this.rate = rate;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.CurrencyRegistry;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.checkIndex;
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable snapshot of exchange rates between every pair of currencies, stored off-heap.
+ * <p>
+ * The rates are kept in a direct {@link ByteBuffer} as an N×N matrix indexed by the ids of the
+ * {@link CurrencyRegistry}, so the table itself puts no pressure on the garbage collector no matter how many rates it holds.
+ * Each cell holds the unscaled value and the scale of the rate, the time it was fetched and the provider it came from.
+ * <p>
+ * Snapshots are never modified. Updates are applied to a copy through a {@link Builder},
+ * and the new snapshot can be published with a single reference swap, so readers never see a half-updated table.
+ */
+public final class RateMatrix {
+
+    static final int CELL_SIZE = 24;
+
+    private static final int UNSCALED_RATE_OFFSET = 0;
+    private static final int FETCHED_AT_OFFSET = 8;
+    private static final int SCALE_OFFSET = 16;
+    private static final int SOURCE_OFFSET = 20;
+    private static final int EMPTY_SOURCE = 0;
+    private static final int MAX_DIGITS_IN_LONG = 18;
+    private static final MathContext STORAGE_MATH_CONTEXT = new MathContext(MAX_DIGITS_IN_LONG, RoundingMode.HALF_EVEN);
+
+    private final int size;
+    private final ByteBuffer cells;
+    private final List<String> sources;
+
+    private RateMatrix(int size, ByteBuffer cells, List<String> sources) {
+        this.size = size;
+        this.cells = cells;
+        this.sources = sources;
+    }
+
+    /**
+     * Creates an empty matrix for every currency of the {@link CurrencyRegistry}.
+     *
+     * @return an empty matrix
+     */
+    public static RateMatrix empty() {
+        return empty(CurrencyRegistry.size());
+    }
+
+    static RateMatrix empty(int size) {
+        return new RateMatrix(size, ByteBuffer.allocateDirect(size * size * CELL_SIZE), List.of());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int from, int to) {
+        return cells.getInt(position(from, to) + SOURCE_OFFSET) != EMPTY_SOURCE;
+    }
+
+    /**
+     * Returns the rate of the given currency ids, or null if there is no such rate in the matrix.
+     * If any of the ids is out of bounds, an {@link IndexOutOfBoundsException} is thrown.
+     */
+    public BigDecimal getRate(int from, int to) {
+        int position = position(from, to);
+        if (cells.getInt(position + SOURCE_OFFSET) == EMPTY_SOURCE) {
+            return null;
+        }
+        return BigDecimal.valueOf(cells.getLong(position + UNSCALED_RATE_OFFSET), cells.getInt(position + SCALE_OFFSET));
+    }
+
+    public long getUnscaledRate(int from, int to) {
+        return cells.getLong(position(from, to) + UNSCALED_RATE_OFFSET);
+    }
+
+    public int getScale(int from, int to) {
+        return cells.getInt(position(from, to) + SCALE_OFFSET);
+    }
+
+    /**
+     * Returns the time the rate of the given currency ids was fetched, in milliseconds since the epoch.
+     */
+    public long getFetchedAt(int from, int to) {
+        return cells.getLong(position(from, to) + FETCHED_AT_OFFSET);
+    }
+
+    /**
+     * Returns the name of the provider the rate of the given currency ids came from, or null if there is no such rate.
+     */
+    public String getSource(int from, int to) {
+        int source = cells.getInt(position(from, to) + SOURCE_OFFSET);
+        return source == EMPTY_SOURCE ? null : sources.get(source - 1);
+    }
+
+    /**
+     * Returns the rate as it is stored in a matrix: rounded to 18 significant digits with {@link RoundingMode#HALF_EVEN}
+     * if it has more, so that its unscaled value fits into a {@code long}.
+     */
+    static BigDecimal toStoredRate(BigDecimal rate) {
+        return rate.precision() > MAX_DIGITS_IN_LONG ? rate.round(STORAGE_MATH_CONTEXT) : rate;
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    private int position(int from, int to) {
+        return (checkIndex(from, size) * size + checkIndex(to, size)) * CELL_SIZE;
+    }
+
+    /**
+     * Builds a new {@link RateMatrix} from a copy of an existing one. The original matrix is not affected.
+     * A builder can only be built once.
+     */
+    public static final class Builder {
+
+        private final int size;
+        private final List<String> sources;
+        private ByteBuffer cells;
+
+        private Builder(RateMatrix matrix) {
+            this.size = matrix.size;
+            this.sources = new ArrayList<>(matrix.sources);
+            this.cells = ByteBuffer.allocateDirect(matrix.cells.capacity());
+            this.cells.put(matrix.cells.duplicate().clear()).clear();
+        }
+
+        /**
+         * Sets the rate of the given currency ids. Rates with more than 18 significant digits are rounded
+         * with {@link RoundingMode#HALF_EVEN}, so that their unscaled value fits into a {@code long}.
+         */
+        public Builder put(int from, int to, BigDecimal rate, long fetchedAt, String source) {
+            requireNonNull(rate, "Parameter 'rate' cannot be null");
+            requireNonNull(source, "Parameter 'source' cannot be null");
+            ByteBuffer cells = getCells();
+            int position = (checkIndex(from, size) * size + checkIndex(to, size)) * CELL_SIZE;
+            BigDecimal storedRate = toStoredRate(rate);
+            cells.putLong(position + UNSCALED_RATE_OFFSET, storedRate.unscaledValue().longValueExact());
+            cells.putLong(position + FETCHED_AT_OFFSET, fetchedAt);
+            cells.putInt(position + SCALE_OFFSET, storedRate.scale());
+            cells.putInt(position + SOURCE_OFFSET, sourceId(source));
+            return this;
+        }
+
+        public Builder remove(int from, int to) {
+            int position = (checkIndex(from, size) * size + checkIndex(to, size)) * CELL_SIZE;
+            getCells().putInt(position + SOURCE_OFFSET, EMPTY_SOURCE);
+            return this;
+        }
+
+        private int sourceId(String source) {
+            int index = sources.indexOf(source);
+            if (index < 0) {
+                sources.add(source);
+                index = sources.size() - 1;
+            }
+            return index + 1;
+        }
+
+        private ByteBuffer getCells() {
+            if (isNull(cells)) {
+                throw new IllegalStateException("The matrix is already built");
+            }
+            return cells;
+        }
+
+        public RateMatrix build() {
+            ByteBuffer builtCells = getCells();
+            cells = null;
+            return new RateMatrix(size, builtCells, List.copyOf(sources));
+        }
+    }
+}
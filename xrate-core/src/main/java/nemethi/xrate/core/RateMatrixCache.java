@@ -0,0 +1,176 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.CurrencyRegistry;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A rate cache that serves every lookup from the current {@link RateMatrix} snapshot.
+ * <p>
+ * Reads only dereference the published snapshot, so they are wait-free and never block writers.
+ * Copying the snapshot is expensive, so it is copied at most once per publish delay: a write is published right away
+ * if nothing was published within the delay. Otherwise it is staged in a single builder shared by the writers,
+ * and every staged write is published together as one new snapshot with a single volatile write once the delay is over.
+ * Until then, reads keep seeing the previous snapshot.
+ */
+public class RateMatrixCache implements RateCache {
+
+    static final Duration DEFAULT_PUBLISH_DELAY = Duration.ofMillis(50);
+    private static final String THREAD_NAME = "xrate-rate-matrix";
+
+    private final Duration ttl;
+    private final String source;
+    private final Clock clock;
+    private final Duration publishDelay;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private volatile RateMatrix snapshot;
+    // Guarded by this
+    private RateMatrix.Builder staged;
+    private boolean throttled;
+
+    public RateMatrixCache(Duration ttl, String source) {
+        this(ttl, source, RateMatrix.empty(), Clock.systemUTC(), DEFAULT_PUBLISH_DELAY, SchedulerHolder.SCHEDULER);
+    }
+
+    /**
+     * Creates a cache that publishes at most one snapshot per given delay, or every write right away if the delay is zero.
+     */
+    RateMatrixCache(Duration ttl, String source, RateMatrix matrix, Clock clock, Duration publishDelay,
+                    ScheduledExecutorService scheduler) {
+        this.ttl = ttl;
+        this.source = source;
+        this.clock = clock;
+        this.publishDelay = publishDelay;
+        this.scheduler = scheduler;
+        this.snapshot = matrix;
+    }
+
+    @Override
+    public Optional<BigDecimal> get(CurrencyPair pair) {
+        int from = CurrencyRegistry.idOf(pair.getFrom());
+        int to = CurrencyRegistry.idOf(pair.getTo());
+        BigDecimal rate = null;
+        if (from != CurrencyRegistry.UNKNOWN_ID && to != CurrencyRegistry.UNKNOWN_ID) {
+            rate = getIfFresh(snapshot, from, to);
+        }
+        if (isNull(rate)) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        hitCount.incrementAndGet();
+        return Optional.of(rate);
+    }
+
+    private BigDecimal getIfFresh(RateMatrix matrix, int from, int to) {
+        if (!matrix.contains(from, to) || clock.millis() - matrix.getFetchedAt(from, to) >= ttl.toMillis()) {
+            return null;
+        }
+        return matrix.getRate(from, to);
+    }
+
+    @Override
+    public void put(CurrencyPair pair, BigDecimal rate) {
+        put(pair, rate, source);
+    }
+
+    /**
+     * Stores the rate together with the name of the provider it came from, instead of the default source of the cache.
+     */
+    @Override
+    public void put(CurrencyPair pair, BigDecimal rate, String source) {
+        requireNonNull(rate, "Parameter 'rate' cannot be null");
+        requireNonNull(source, "Parameter 'source' cannot be null");
+        int from = CurrencyRegistry.idOf(pair.getFrom());
+        int to = CurrencyRegistry.idOf(pair.getTo());
+        if (from == CurrencyRegistry.UNKNOWN_ID || to == CurrencyRegistry.UNKNOWN_ID) {
+            return;
+        }
+        long fetchedAt = clock.millis();
+        synchronized (this) {
+            if (isNull(staged)) {
+                staged = snapshot.toBuilder();
+            }
+            staged.put(from, to, rate, fetchedAt, source);
+            if (!throttled) {
+                publishStaged();
+                throttle();
+            }
+        }
+    }
+
+    private void throttle() {
+        if (!publishDelay.isZero()) {
+            throttled = true;
+            scheduler.schedule(this::endThrottle, publishDelay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // The writes staged during the delay are published now, which starts another delay
+    private synchronized void endThrottle() {
+        throttled = false;
+        if (nonNull(staged)) {
+            publishStaged();
+            throttle();
+        }
+    }
+
+    /**
+     * Publishes the staged writes, then applies the given changes to a copy of the snapshot and publishes the copy.
+     * Updates are applied one at a time, and if the changes fail, none of them is published.
+     */
+    public synchronized RateMatrix update(UnaryOperator<RateMatrix.Builder> changes) {
+        RateMatrix matrix = changes.apply(publishStaged().toBuilder()).build();
+        snapshot = matrix;
+        return matrix;
+    }
+
+    /**
+     * Returns the current snapshot, with every staged write published.
+     */
+    public RateMatrix getSnapshot() {
+        return publishStaged();
+    }
+
+    private synchronized RateMatrix publishStaged() {
+        if (nonNull(staged)) {
+            snapshot = staged.build();
+            staged = null;
+        }
+        return snapshot;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            return new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package nemethi.xrate.core;
+
+import org.json.JSONException;
+
+import java.math.BigDecimal;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.LongConsumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Extracts the rates of currency pairs from a JSON object like {@code {"USD_GBP":0.7438,"USD_EUR":0.85}}
+ * while its bytes are received, without decoding them into a string or building a tree of the document.
+ * <p>
+ * Only the members of the outermost object are inspected: the value of a requested {@code FROM_TO} key is
+ * parsed into a {@link BigDecimal}, whether it is a number or a string of a number, and every other value is skipped.
+ * A scanner is not thread-safe and reads a single document.
+ */
+final class RateScanner {
+
+    private static final String MALFORMED_JSON_MESSAGE = "Malformed JSON at byte %d";
+    private static final String INCOMPLETE_JSON_MESSAGE = "Incomplete JSON after byte %d";
+    private static final String INVALID_RATE_MESSAGE = "Invalid rate of %s at byte %d";
+    private static final int MAX_PACKED_KEY_LENGTH = Long.BYTES;
+    private static final char KEY_SEPARATOR = '_';
+    private static final int INITIAL_NUMBER_LENGTH = 32;
+
+    private final CurrencyPair[] requestedPairs;
+    private final long[] keys;
+    private final int[] positions;
+    private final BigDecimal[] rates;
+    private State state = State.BEFORE_OBJECT;
+    private long position;
+    private long key;
+    private int keyLength;
+    private int keyIndex;
+    private int nestingDepth;
+    private char[] number = new char[INITIAL_NUMBER_LENGTH];
+    private int numberLength;
+
+    RateScanner(Set<CurrencyPair> pairs) {
+        requestedPairs = pairs.toArray(new CurrencyPair[0]);
+        keys = new long[requestedPairs.length];
+        for (int i = 0; i < requestedPairs.length; i++) {
+            keys[i] = pack(requestedPairs[i]);
+        }
+        // Sorted, so a key is looked up with a binary search, and each pair remembers where its key is
+        Arrays.sort(keys);
+        positions = new int[requestedPairs.length];
+        for (int i = 0; i < requestedPairs.length; i++) {
+            positions[i] = Arrays.binarySearch(keys, pack(requestedPairs[i]));
+        }
+        rates = new BigDecimal[keys.length];
+    }
+
+    /**
+     * Returns a body handler that scans the response for the rates of the specified pairs.
+     *
+     * @param pairs the pairs to look for
+     * @return the body handler
+     */
+    static BodyHandler<Map<CurrencyPair, BigDecimal>> bodyHandler(Set<CurrencyPair> pairs) {
+        return bodyHandler(pairs, size -> {
+        });
+    }
+
+    /**
+     * Returns a body handler that scans the response for the rates of the specified pairs,
+     * and reports the number of bytes received once the body is complete or cannot be scanned.
+     *
+     * @param pairs        the pairs to look for
+     * @param sizeListener the listener of the size of the body
+     * @return the body handler
+     */
+    static BodyHandler<Map<CurrencyPair, BigDecimal>> bodyHandler(Set<CurrencyPair> pairs, LongConsumer sizeListener) {
+        return responseInfo -> new RateSubscriber(new RateScanner(pairs), sizeListener);
+    }
+
+    // A FROM_TO key is 7 ASCII bytes, which fit into a long, so a key is never copied into an array or a string
+    private static long pack(CurrencyPair pair) {
+        long packed = pack(0, pair.getFrom().getCurrencyCode());
+        return pack(packed << Byte.SIZE | KEY_SEPARATOR, pair.getTo().getCurrencyCode());
+    }
+
+    private static long pack(long packed, String code) {
+        for (int i = 0; i < code.length(); i++) {
+            packed = packed << Byte.SIZE | code.charAt(i) & 0xFF;
+        }
+        return packed;
+    }
+
+    void scan(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            accept(buffer.get());
+            position++;
+        }
+    }
+
+    /**
+     * Returns the number of bytes scanned so far.
+     *
+     * @return the number of bytes scanned
+     */
+    long getSize() {
+        return position;
+    }
+
+    /**
+     * Returns the rates found in the document, in the order the pairs were requested.
+     * A pair is missing from the map if the document does not contain its rate.
+     *
+     * @return the rates found
+     */
+    Map<CurrencyPair, BigDecimal> getRates() {
+        if (state != State.DONE) {
+            throw new JSONException(String.format(INCOMPLETE_JSON_MESSAGE, position));
+        }
+        Map<CurrencyPair, BigDecimal> found = new LinkedHashMap<>();
+        for (int i = 0; i < positions.length; i++) {
+            BigDecimal rate = rates[positions[i]];
+            if (nonNull(rate)) {
+                found.put(requestedPairs[i], rate);
+            }
+        }
+        return found;
+    }
+
+    private void accept(byte b) {
+        switch (state) {
+            case BEFORE_OBJECT:
+                if (b == '{') {
+                    state = State.FIRST_KEY;
+                } else if (!isWhitespace(b)) {
+                    throw malformed();
+                }
+                break;
+            case FIRST_KEY:
+                if (b == '}') {
+                    state = State.DONE;
+                } else {
+                    acceptKeyStart(b);
+                }
+                break;
+            case NEXT_KEY:
+                acceptKeyStart(b);
+                break;
+            case KEY:
+                if (b == '"') {
+                    keyIndex = keyLength <= MAX_PACKED_KEY_LENGTH ? Arrays.binarySearch(keys, key) : -1;
+                    state = State.COLON;
+                } else if (b == '\\') {
+                    keyLength = MAX_PACKED_KEY_LENGTH + 1;
+                    state = State.KEY_ESCAPE;
+                } else {
+                    key = key << Byte.SIZE | b & 0xFF;
+                    keyLength++;
+                }
+                break;
+            case KEY_ESCAPE:
+                state = State.KEY;
+                break;
+            case COLON:
+                if (b == ':') {
+                    state = State.VALUE;
+                } else if (!isWhitespace(b)) {
+                    throw malformed();
+                }
+                break;
+            case VALUE:
+                acceptValue(b);
+                break;
+            case NUMBER:
+                if (isNumberPart(b)) {
+                    appendToNumber(b);
+                } else {
+                    recordRate();
+                    state = State.AFTER_VALUE;
+                    accept(b);
+                }
+                break;
+            case QUOTED_NUMBER:
+                if (b == '"') {
+                    recordRate();
+                    state = State.AFTER_VALUE;
+                } else if (isNumberPart(b)) {
+                    appendToNumber(b);
+                } else {
+                    throw invalidRate();
+                }
+                break;
+            case SKIPPED_STRING:
+                if (b == '"') {
+                    state = nestingDepth > 0 ? State.SKIPPED_CONTAINER : State.AFTER_VALUE;
+                } else if (b == '\\') {
+                    state = State.SKIPPED_ESCAPE;
+                }
+                break;
+            case SKIPPED_ESCAPE:
+                state = State.SKIPPED_STRING;
+                break;
+            case SKIPPED_CONTAINER:
+                if (b == '"') {
+                    state = State.SKIPPED_STRING;
+                } else if (b == '{' || b == '[') {
+                    nestingDepth++;
+                } else if ((b == '}' || b == ']') && --nestingDepth == 0) {
+                    state = State.AFTER_VALUE;
+                }
+                break;
+            case SKIPPED_LITERAL:
+                if (!isLiteralPart(b)) {
+                    state = State.AFTER_VALUE;
+                    accept(b);
+                }
+                break;
+            case AFTER_VALUE:
+                if (b == ',') {
+                    state = State.NEXT_KEY;
+                } else if (b == '}') {
+                    state = State.DONE;
+                } else if (!isWhitespace(b)) {
+                    throw malformed();
+                }
+                break;
+            case DONE:
+                if (!isWhitespace(b)) {
+                    throw malformed();
+                }
+                break;
+            default:
+                throw new IllegalStateException(state.name());
+        }
+    }
+
+    private void acceptKeyStart(byte b) {
+        if (b == '"') {
+            key = 0;
+            keyLength = 0;
+            state = State.KEY;
+        } else if (!isWhitespace(b)) {
+            throw malformed();
+        }
+    }
+
+    private void acceptValue(byte b) {
+        if (isWhitespace(b)) {
+            return;
+        }
+        boolean requested = keyIndex >= 0;
+        numberLength = 0;
+        if (b == '"') {
+            state = requested ? State.QUOTED_NUMBER : State.SKIPPED_STRING;
+        } else if (b == '{' || b == '[') {
+            nestingDepth = 1;
+            state = State.SKIPPED_CONTAINER;
+        } else if (requested && (b == '-' || isDigit(b))) {
+            appendToNumber(b);
+            state = State.NUMBER;
+        } else if (isLiteralPart(b)) {
+            state = State.SKIPPED_LITERAL;
+        } else {
+            throw malformed();
+        }
+    }
+
+    private void appendToNumber(byte b) {
+        if (numberLength == number.length) {
+            number = Arrays.copyOf(number, number.length * 2);
+        }
+        number[numberLength++] = (char) b;
+    }
+
+    private void recordRate() {
+        try {
+            rates[keyIndex] = new BigDecimal(number, 0, numberLength);
+        } catch (NumberFormatException e) {
+            throw invalidRate();
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isNumberPart(byte b) {
+        return isDigit(b) || b == '.' || b == '-' || b == '+' || b == 'e' || b == 'E';
+    }
+
+    private static boolean isLiteralPart(byte b) {
+        return isNumberPart(b) || b >= 'a' && b <= 'z';
+    }
+
+    private JSONException malformed() {
+        return new JSONException(String.format(MALFORMED_JSON_MESSAGE, position));
+    }
+
+    private JSONException invalidRate() {
+        return new JSONException(String.format(INVALID_RATE_MESSAGE, requestedPairs[indexOf(keyIndex)].toKey(), position));
+    }
+
+    private int indexOf(int keyPosition) {
+        int index = 0;
+        while (positions[index] != keyPosition) {
+            index++;
+        }
+        return index;
+    }
+
+    private enum State {
+        BEFORE_OBJECT, FIRST_KEY, NEXT_KEY, KEY, KEY_ESCAPE, COLON, VALUE, NUMBER, QUOTED_NUMBER,
+        SKIPPED_STRING, SKIPPED_ESCAPE, SKIPPED_CONTAINER, SKIPPED_LITERAL, AFTER_VALUE, DONE
+    }
+
+    // Scans every buffer as soon as it is received, so the body is never held in memory as a whole
+    private static final class RateSubscriber implements BodySubscriber<Map<CurrencyPair, BigDecimal>> {
+
+        private final RateScanner scanner;
+        private final LongConsumer sizeListener;
+        private final CompletableFuture<Map<CurrencyPair, BigDecimal>> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        private RateSubscriber(RateScanner scanner, LongConsumer sizeListener) {
+            this.scanner = scanner;
+            this.sizeListener = sizeListener;
+        }
+
+        @Override
+        public CompletionStage<Map<CurrencyPair, BigDecimal>> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    scanner.scan(buffer);
+                }
+                subscription.request(1);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                sizeListener.accept(scanner.getSize());
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (isNull(subscription) || result.isDone()) {
+                return;
+            }
+            sizeListener.accept(scanner.getSize());
+            try {
+                result.complete(scanner.getRates());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
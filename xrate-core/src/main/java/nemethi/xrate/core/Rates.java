@@ -0,0 +1,35 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionResult;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Currency;
+import java.util.Optional;
+
+final class Rates {
+
+    private static final MathContext RATE_MATH_CONTEXT = MathContext.DECIMAL128;
+
+    private Rates() {
+    }
+
+    // The rate is the known rate of the result, or derived from the result instead of ConversionResult.getRate(),
+    // because the latter is rounded to four decimal places, which is too coarse for converting other amounts
+    static Optional<BigDecimal> rateOf(ConversionResult result) {
+        Optional<BigDecimal> knownRate = result.getKnownRate();
+        if (knownRate.isPresent()) {
+            return knownRate;
+        }
+        // A result rounded by the provider is only precise enough to derive the rate from if the amount is at least 1,
+        // e.g. 0.0001 USD = 0.0001 GBP would yield a rate of 1
+        if (result.getAmount().abs().compareTo(BigDecimal.ONE) < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(result.getResult().divide(result.getAmount(), RATE_MATH_CONTEXT));
+    }
+
+    static ConversionResult convert(Currency from, Currency to, BigDecimal amount, BigDecimal rate) {
+        return ConversionResult.ofRate(from, to, amount, rate);
+    }
+}
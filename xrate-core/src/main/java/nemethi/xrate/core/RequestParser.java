@@ -0,0 +1,46 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.CurrencyRegistry;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+
+final class RequestParser {
+
+    private static final Pattern FIELD_DELIMITER = Pattern.compile("\\s*,\\s*|\\s+");
+    private static final String INVALID_REQUEST_MESSAGE = "Invalid request, expected FROM TO AMOUNT";
+    private static final String UNKNOWN_CURRENCY_MESSAGE = "Unknown currency: %s";
+    private static final String INVALID_AMOUNT_MESSAGE = "Invalid amount: %s";
+
+    private RequestParser() {
+    }
+
+    // Accepts both comma and whitespace separated fields, e.g. "USD,GBP,10" and "USD GBP 10"
+    static ConversionRequest parse(String row) {
+        String[] fields = FIELD_DELIMITER.split(row.trim(), -1);
+        if (fields.length != 3) {
+            throw new IllegalArgumentException(INVALID_REQUEST_MESSAGE);
+        }
+        return new ConversionRequest(parseCurrency(fields[0]), parseCurrency(fields[1]), parseAmount(fields[2]));
+    }
+
+    private static Currency parseCurrency(String code) {
+        Currency currency = CurrencyRegistry.findCurrency(code);
+        if (isNull(currency)) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_CURRENCY_MESSAGE, code));
+        }
+        return currency;
+    }
+
+    private static BigDecimal parseAmount(String amount) {
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(INVALID_AMOUNT_MESSAGE, amount), e);
+        }
+    }
+}
@@ -4,27 +4,179 @@ import nemethi.xrate.api.ConversionResult;
 
 import java.io.PrintWriter;
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Currency;
 
+/**
+ * Prints conversion results, and can be shared by any number of threads.
+ * <p>
+ * Every result is rendered into a buffer of the calling thread and written with a single call,
+ * so the lines of concurrently printed results never interleave.
+ * Numbers are formatted like {@code new DecimalFormat("#,###.####")} would format them,
+ * but without the intermediate strings.
+ */
 public class ResultPrinter {
 
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#,###.####");
-    private static final String RESULT_FORMAT = "%s %s = %s %s";
-    private static final String RATE_FORMAT = "1 %s = %s %s";
+    private static final int FRACTION_DIGITS = 4;
+    private static final int GROUP_SIZE = 3;
+    private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String EQUALS = " = ";
+    private static final char SPACE = ' ';
+    private static final char ONE = '1';
+    private static final char CSV_DELIMITER = ',';
+    private static final char QUOTE = '"';
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
 
     private final PrintWriter writer;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final char minusSign;
 
     public ResultPrinter(PrintWriter writer) {
+        this(writer, DecimalFormatSymbols.getInstance());
+    }
+
+    ResultPrinter(PrintWriter writer, DecimalFormatSymbols symbols) {
         this.writer = writer;
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
     }
 
     public void print(ConversionResult result) {
-        writer.println(String.format(RESULT_FORMAT, format(result.getAmount()), result.getFrom(), format(result.getResult()), result.getTo()));
-        writer.println(String.format(RATE_FORMAT, result.getFrom(), format(result.getRate()), result.getTo()));
-        writer.println(String.format(RATE_FORMAT, result.getTo(), format(result.getInverseRate()), result.getFrom()));
+        Buffer buffer = BUFFERS.get();
+        StringBuilder text = buffer.clear();
+        appendDecimal(buffer, result.getAmount());
+        text.append(SPACE);
+        appendConversion(buffer, result.getFrom(), result.getResult(), result.getTo());
+        text.append(ONE).append(SPACE);
+        appendConversion(buffer, result.getFrom(), result.getRate(), result.getTo());
+        text.append(ONE).append(SPACE);
+        appendConversion(buffer, result.getTo(), result.getInverseRate(), result.getFrom());
+        write(buffer);
+    }
+
+    private void appendConversion(Buffer buffer, Currency from, BigDecimal amount, Currency to) {
+        buffer.text.append(from.getCurrencyCode()).append(EQUALS);
+        appendDecimal(buffer, amount);
+        buffer.text.append(SPACE).append(to.getCurrencyCode()).append(LINE_SEPARATOR);
+    }
+
+    public void printCsv(ConversionResult result) {
+        Buffer buffer = BUFFERS.get();
+        buffer.clear()
+                .append(result.getFrom().getCurrencyCode()).append(CSV_DELIMITER)
+                .append(result.getTo().getCurrencyCode()).append(CSV_DELIMITER)
+                .append(result.getAmount().toPlainString()).append(CSV_DELIMITER)
+                .append(result.getResult().toPlainString()).append(LINE_SEPARATOR);
+        write(buffer);
     }
 
-    private String format(BigDecimal amount) {
-        return DECIMAL_FORMAT.format(amount);
+    public void printCsvError(String row, String message) {
+        Buffer buffer = BUFFERS.get();
+        StringBuilder text = buffer.clear()
+                .append(row).append(CSV_DELIMITER).append(CSV_DELIMITER).append(QUOTE);
+        for (int i = 0; i < message.length(); i++) {
+            char character = message.charAt(i);
+            if (character == QUOTE) {
+                text.append(QUOTE);
+            }
+            text.append(character);
+        }
+        text.append(QUOTE).append(LINE_SEPARATOR);
+        write(buffer);
+    }
+
+    // Like DecimalFormat, a negative number that is rounded to zero keeps its sign, e.g. -0.00001 is printed as -0
+    private void appendDecimal(Buffer buffer, BigDecimal number) {
+        BigInteger unscaled = number.setScale(FRACTION_DIGITS, ROUNDING_MODE).unscaledValue();
+        if (number.signum() < 0) {
+            buffer.text.append(minusSign);
+        }
+        int length = unscaled.bitLength() < Long.SIZE - 1
+                ? buffer.setDigits(Math.abs(unscaled.longValue()))
+                : buffer.setDigits(unscaled.abs().toString());
+        appendDigits(buffer.text, buffer.digits, length);
+    }
+
+    private void appendDigits(StringBuilder text, char[] digits, int length) {
+        int integerLength = length - FRACTION_DIGITS;
+        for (int i = 0; i < integerLength; i++) {
+            if (i > 0 && (integerLength - i) % GROUP_SIZE == 0) {
+                text.append(groupingSeparator);
+            }
+            text.append(digits[i]);
+        }
+        int fractionEnd = length;
+        while (fractionEnd > integerLength && digits[fractionEnd - 1] == '0') {
+            fractionEnd--;
+        }
+        if (fractionEnd > integerLength) {
+            text.append(decimalSeparator).append(digits, integerLength, fractionEnd - integerLength);
+        }
+    }
+
+    private void write(Buffer buffer) {
+        int length = buffer.text.length();
+        char[] chars = buffer.chars(length);
+        buffer.text.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+        writer.flush();
+    }
+
+    private static final class Buffer {
+
+        private static final int INITIAL_CAPACITY = 128;
+        // One more digit than the fraction, so there is always at least one integer digit
+        private static final int MIN_DIGITS = FRACTION_DIGITS + 1;
+
+        private final StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+        private char[] digits = new char[20];
+        private char[] chars = new char[INITIAL_CAPACITY];
+
+        private StringBuilder clear() {
+            text.setLength(0);
+            return text;
+        }
+
+        private int setDigits(long value) {
+            int length = Math.max(MIN_DIGITS, digitCount(value));
+            for (int i = length - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return length;
+        }
+
+        private int setDigits(String value) {
+            int length = Math.max(MIN_DIGITS, value.length());
+            if (digits.length < length) {
+                digits = new char[length];
+            }
+            int padding = length - value.length();
+            Arrays.fill(digits, 0, padding, '0');
+            value.getChars(0, value.length(), digits, padding);
+            return length;
+        }
+
+        private int digitCount(long value) {
+            int count = 1;
+            while (value >= 10) {
+                value /= 10;
+                count++;
+            }
+            return count;
+        }
+
+        private char[] chars(int length) {
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            return chars;
+        }
     }
 }
@@ -0,0 +1,340 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.ProviderUnavailableException;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Sends each conversion to the provider that is currently the fastest and healthiest one.
+ * <p>
+ * For every provider it tracks the exponentially weighted moving average of the latency and the error rate,
+ * and ranks the providers by their latency divided by their success rate. A conversion goes to the best ranked provider,
+ * and if it fails with a {@link ConversionException}, to the next one.
+ * <p>
+ * Each provider has a circuit breaker, which opens after a number of consecutive failures,
+ * or right away on a {@link ProviderUnavailableException}, e.g. when the quota of the provider is reached.
+ * An open provider receives no conversions. After the open time it becomes half-open and it is probed in the background
+ * with the currency pair that failed last, which is the first conversion of a failed batch, or USD to EUR if none is known;
+ * the breaker closes if the probe succeeds and opens again otherwise.
+ */
+public class RoutingCurrencyConverter implements CurrencyConverter {
+
+    private static final String NO_PROVIDERS_MESSAGE = "At least one provider is required";
+    private static final String UNAVAILABLE_MESSAGE = "Every provider is unavailable";
+    private static final double SMOOTHING_FACTOR = 0.2;
+    private static final double MIN_LATENCY_NANOS = 1_000;
+    private static final double MIN_SUCCESS_RATE = 0.01;
+    private static final String THREAD_NAME = "xrate-probe";
+    private static final Currency DEFAULT_PROBE_FROM = Currency.getInstance("USD");
+    private static final Currency DEFAULT_PROBE_TO = Currency.getInstance("EUR");
+
+    private final List<Route> routes;
+    private final int failureThreshold;
+    private final Duration openTime;
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier ticker;
+
+    public RoutingCurrencyConverter(List<CurrencyConverter> providers, int failureThreshold, Duration openTime) {
+        this(providers, failureThreshold, openTime, SchedulerHolder.SCHEDULER, System::nanoTime);
+    }
+
+    RoutingCurrencyConverter(List<CurrencyConverter> providers, int failureThreshold, Duration openTime,
+                             ScheduledExecutorService scheduler, LongSupplier ticker) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException(NO_PROVIDERS_MESSAGE);
+        }
+        this.routes = providers.stream().map(Route::new).collect(Collectors.toUnmodifiableList());
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+    }
+
+    @Override
+    @NotNull
+    public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
+        ConversionException failure = null;
+        for (Route route : rankRoutes()) {
+            long startedAt = ticker.getAsLong();
+            try {
+                ConversionResult result = route.provider.convert(from, to, amount);
+                route.recordSuccess(ticker.getAsLong() - startedAt);
+                return result.withProvider(MeteredCurrencyConverter.nameOf(route.provider));
+            } catch (ConversionException e) {
+                route.recordFailure(e, from, to);
+                failure = e;
+            }
+        }
+        throw isNull(failure) ? new ProviderUnavailableException(UNAVAILABLE_MESSAGE) : failure;
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        return convertAsync(rankRoutes(), 0, from, to, amount, null);
+    }
+
+    private CompletableFuture<ConversionResult> convertAsync(List<Route> ranked, int index, Currency from, Currency to,
+                                                             BigDecimal amount, ConversionException failure) {
+        if (index == ranked.size()) {
+            return CompletableFuture.failedFuture(isNull(failure) ? new ProviderUnavailableException(UNAVAILABLE_MESSAGE) : failure);
+        }
+        Route route = ranked.get(index);
+        long startedAt = ticker.getAsLong();
+        CompletableFuture<ConversionResult> attempt;
+        try {
+            attempt = route.provider.convertAsync(from, to, amount);
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        return attempt.handle((result, throwable) -> {
+            if (isNull(throwable)) {
+                route.recordSuccess(ticker.getAsLong() - startedAt);
+                return CompletableFuture.completedFuture(result.withProvider(MeteredCurrencyConverter.nameOf(route.provider)));
+            }
+            Throwable cause = throwable instanceof CompletionException && nonNull(throwable.getCause())
+                    ? throwable.getCause() : throwable;
+            if (!(cause instanceof ConversionException)) {
+                return CompletableFuture.<ConversionResult>failedFuture(cause);
+            }
+            route.recordFailure((ConversionException) cause, from, to);
+            return convertAsync(ranked, index + 1, from, to, amount, (ConversionException) cause);
+        }).thenCompose(Function.identity());
+    }
+
+    @Override
+    @NotNull
+    public List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        ConversionRequest first = requests.isEmpty() ? null : requests.iterator().next();
+        ConversionException failure = null;
+        for (Route route : rankRoutes()) {
+            long startedAt = ticker.getAsLong();
+            try {
+                List<ConversionResult> results = route.provider.convertAll(requests);
+                route.recordSuccess(ticker.getAsLong() - startedAt);
+                return MeteredCurrencyConverter.withProvider(results, route.provider);
+            } catch (ConversionException e) {
+                route.recordFailure(e, isNull(first) ? null : first.getFrom(), isNull(first) ? null : first.getTo());
+                failure = e;
+            }
+        }
+        throw isNull(failure) ? new ProviderUnavailableException(UNAVAILABLE_MESSAGE) : failure;
+    }
+
+    // Ties keep the order of the providers, so the first provider is preferred until latencies are known
+    private List<Route> rankRoutes() {
+        List<Route> closed = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            if (route.getState() == CircuitState.CLOSED) {
+                closed.add(route);
+            }
+        }
+        closed.sort(Comparator.comparingDouble(Route::getScore));
+        return closed;
+    }
+
+    /**
+     * Sets the same credentials for every provider.
+     */
+    @Override
+    public void setAuthCredentials(@NotNull String authCredentials) {
+        routes.forEach(route -> route.provider.setAuthCredentials(authCredentials));
+    }
+
+    /**
+     * Returns the current state of every provider, in the order of the providers.
+     * The weight of a provider is its share of the traffic it would get if traffic was split by score;
+     * the provider with the highest weight receives the conversions.
+     */
+    public List<RouteStatus> getRoutes() {
+        List<RouteStatus> statuses = new ArrayList<>(routes.size());
+        double totalInverseScore = 0;
+        for (Route route : routes) {
+            if (route.getState() == CircuitState.CLOSED) {
+                totalInverseScore += 1 / route.getScore();
+            }
+        }
+        for (Route route : routes) {
+            statuses.add(route.toStatus(totalInverseScore));
+        }
+        return statuses;
+    }
+
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public static final class RouteStatus {
+
+        private final String provider;
+        private final CircuitState state;
+        private final Duration latency;
+        private final double errorRate;
+        private final double weight;
+
+        private RouteStatus(String provider, CircuitState state, Duration latency, double errorRate, double weight) {
+            this.provider = provider;
+            this.state = state;
+            this.latency = latency;
+            this.errorRate = errorRate;
+            this.weight = weight;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public CircuitState getState() {
+            return state;
+        }
+
+        public Duration getLatency() {
+            return latency;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return "RouteStatus{" +
+                    "provider=" + provider +
+                    ", state=" + state +
+                    ", latency=" + latency +
+                    ", errorRate=" + errorRate +
+                    ", weight=" + weight +
+                    '}';
+        }
+    }
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            return new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private final class Route {
+
+        private final CurrencyConverter provider;
+        private double latencyNanos;
+        private double errorRate;
+        private int consecutiveFailures;
+        private CircuitState state = CircuitState.CLOSED;
+        private Currency probeFrom = DEFAULT_PROBE_FROM;
+        private Currency probeTo = DEFAULT_PROBE_TO;
+
+        private Route(CurrencyConverter provider) {
+            this.provider = provider;
+        }
+
+        private synchronized CircuitState getState() {
+            return state;
+        }
+
+        private synchronized double getScore() {
+            return Math.max(latencyNanos, MIN_LATENCY_NANOS) / Math.max(1 - errorRate, MIN_SUCCESS_RATE);
+        }
+
+        private synchronized void recordSuccess(long elapsedNanos) {
+            latencyNanos = latencyNanos == 0 ? elapsedNanos : smooth(latencyNanos, elapsedNanos);
+            errorRate = smooth(errorRate, 0);
+            consecutiveFailures = 0;
+            state = CircuitState.CLOSED;
+        }
+
+        private void recordFailure(ConversionException exception, Currency from, Currency to) {
+            synchronized (this) {
+                errorRate = smooth(errorRate, 1);
+                consecutiveFailures++;
+                if (nonNull(from)) {
+                    probeFrom = from;
+                    probeTo = to;
+                }
+                boolean shouldOpen = exception instanceof ProviderUnavailableException || consecutiveFailures >= failureThreshold;
+                if (state != CircuitState.CLOSED || !shouldOpen) {
+                    return;
+                }
+                state = CircuitState.OPEN;
+            }
+            scheduleProbe();
+        }
+
+        private void scheduleProbe() {
+            scheduler.schedule(this::probe, openTime.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private void probe() {
+            Currency from;
+            Currency to;
+            synchronized (this) {
+                state = CircuitState.HALF_OPEN;
+                from = probeFrom;
+                to = probeTo;
+            }
+            long startedAt = ticker.getAsLong();
+            try {
+                provider.convert(from, to, BigDecimal.ONE);
+                recordSuccess(ticker.getAsLong() - startedAt);
+            } catch (RuntimeException e) {
+                reopen();
+            } catch (Error e) {
+                // Otherwise the route would stay half-open and never receive a conversion again
+                reopen();
+                throw e;
+            }
+        }
+
+        private void reopen() {
+            synchronized (this) {
+                errorRate = smooth(errorRate, 1);
+                state = CircuitState.OPEN;
+            }
+            scheduleProbe();
+        }
+
+        private double smooth(double average, double sample) {
+            return SMOOTHING_FACTOR * sample + (1 - SMOOTHING_FACTOR) * average;
+        }
+
+        private synchronized RouteStatus toStatus(double totalInverseScore) {
+            double weight = state == CircuitState.CLOSED && totalInverseScore > 0 ? 1 / getScore() / totalInverseScore : 0;
+            return new RouteStatus(MeteredCurrencyConverter.nameOf(provider), state, Duration.ofNanos((long) latencyNanos), errorRate, weight);
+        }
+    }
+}
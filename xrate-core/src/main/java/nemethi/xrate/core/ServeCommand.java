@@ -0,0 +1,54 @@
+package nemethi.xrate.core;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
+
+import java.io.PrintWriter;
+import java.util.concurrent.Callable;
+
+@Command(name = "serve", description = "Serve conversions over HTTP as JSON until the process is stopped.%n",
+        mixinStandardHelpOptions = true, version = "1.0.1")
+public class ServeCommand implements Callable<Integer> {
+
+    private static final String DEFAULT_PORT = "8080";
+    private static final String LISTENING_MESSAGE = "Listening on http://localhost:%d";
+
+    @ParentCommand
+    private Application parent;
+    private int port;
+    private CommandSpec spec;
+
+    @Override
+    public Integer call() throws Exception {
+        PrintWriter out = spec.commandLine().getOut();
+        Xrate xrate = parent.createXrate(parent.getConfig(parent.getConfigFilePath()), out);
+        XrateServer server = xrate.createServer(port);
+        addShutdownHook(server);
+        server.start();
+        out.println(String.format(LISTENING_MESSAGE, server.getPort()));
+        server.awaitStop();
+        return 0;
+    }
+
+    void addShutdownHook(XrateServer server) {
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    }
+
+    @Option(names = {"-p", "--port"}, description = "The port to listen on. Defaults to ${DEFAULT-VALUE}.",
+            defaultValue = DEFAULT_PORT)
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    void setParent(Application parent) {
+        this.parent = parent;
+    }
+
+    @Spec
+    public void setSpec(CommandSpec spec) {
+        this.spec = spec;
+    }
+}
@@ -0,0 +1,152 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Makes sure that only one conversion per currency pair is in flight at a time.
+ * <p>
+ * A caller that asks for a pair which is already being converted does not call the delegate,
+ * but waits for the conversion in flight and applies its rate to its own amount.
+ * If that conversion fails, every waiting caller fails with the same exception.
+ */
+public class SingleFlightCurrencyConverter implements CurrencyConverter {
+
+    private final CurrencyConverter delegate;
+    private final ConversionMetrics metrics;
+    private final Map<CurrencyPair, CompletableFuture<ConversionResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public SingleFlightCurrencyConverter(CurrencyConverter delegate) {
+        this(delegate, ConversionMetrics.NONE);
+    }
+
+    public SingleFlightCurrencyConverter(CurrencyConverter delegate, ConversionMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    @NotNull
+    public ConversionResult convert(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) throws ConversionException {
+        CurrencyPair pair = CurrencyPair.of(from, to);
+        CompletableFuture<ConversionResult> flight = new CompletableFuture<>();
+        CompletableFuture<ConversionResult> leader = inFlight.putIfAbsent(pair, flight);
+        if (nonNull(leader)) {
+            recordCoalesced();
+            return await(leader, from, to, amount);
+        }
+        // Errors complete the flight too, otherwise the callers already waiting for it would wait forever
+        try {
+            ConversionResult result = delegate.convert(from, to, amount);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(pair, flight);
+        }
+    }
+
+    private ConversionResult await(CompletableFuture<ConversionResult> leader, Currency from, Currency to, BigDecimal amount) {
+        try {
+            return follow(leader.join(), from, to, amount);
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<ConversionResult> convertAsync(@NotNull Currency from, @NotNull Currency to, @NotNull BigDecimal amount) {
+        CurrencyPair pair = CurrencyPair.of(from, to);
+        CompletableFuture<ConversionResult> flight = new CompletableFuture<>();
+        CompletableFuture<ConversionResult> leader = inFlight.putIfAbsent(pair, flight);
+        if (nonNull(leader)) {
+            recordCoalesced();
+            return leader.thenApply(result -> follow(result, from, to, amount));
+        }
+        try {
+            delegate.convertAsync(from, to, amount).whenComplete((result, throwable) -> {
+                inFlight.remove(pair, flight);
+                if (nonNull(throwable)) {
+                    flight.completeExceptionally(throwable);
+                } else {
+                    flight.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(pair, flight);
+            flight.completeExceptionally(e);
+        } catch (Error e) {
+            inFlight.remove(pair, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        return flight;
+    }
+
+    private void recordCoalesced() {
+        coalescedCount.increment();
+        metrics.recordCoalesced();
+    }
+
+    // The result of the leader is reused as is when the amounts match, otherwise its rate is applied to the amount.
+    // A zero amount carries no rate, so in that case the follower has to convert on its own.
+    private ConversionResult follow(ConversionResult result, Currency from, Currency to, BigDecimal amount) {
+        if (isNull(result) || result.getAmount().compareTo(amount) == 0) {
+            return result;
+        }
+        Optional<BigDecimal> rate = Rates.rateOf(result);
+        if (rate.isPresent()) {
+            return Rates.convert(from, to, amount, rate.get());
+        }
+        return delegate.convert(from, to, amount);
+    }
+
+    private RuntimeException unwrap(CompletionException exception) {
+        Throwable cause = exception.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new ConversionException(String.valueOf(nonNull(cause) ? cause.getMessage() : exception.getMessage()), cause);
+    }
+
+    @Override
+    @NotNull
+    public List<ConversionResult> convertAll(@NotNull Collection<ConversionRequest> requests) throws ConversionException {
+        return delegate.convertAll(requests);
+    }
+
+    @Override
+    public void setAuthCredentials(@NotNull String authCredentials) {
+        delegate.setAuthCredentials(authCredentials);
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
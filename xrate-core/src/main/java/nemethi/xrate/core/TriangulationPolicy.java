@@ -0,0 +1,22 @@
+package nemethi.xrate.core;
+
+import java.util.Locale;
+
+public enum TriangulationPolicy {
+
+    NONE,
+    INVERSE,
+    PIVOT;
+
+    public static TriangulationPolicy fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public boolean allowsInverse() {
+        return this != NONE;
+    }
+
+    public boolean allowsPivot() {
+        return this == PIVOT;
+    }
+}
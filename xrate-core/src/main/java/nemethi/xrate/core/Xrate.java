@@ -1,26 +1,74 @@
 package nemethi.xrate.core;
 
 import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
 import nemethi.xrate.api.ConversionResult;
 import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.SettingsAware;
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportAware;
+import nemethi.xrate.api.TransportStats;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 public class Xrate {
 
     private static final String MISSING_RESULT_ERROR_MESSAGE = "Error: converter did not return any result";
+    private static final String CACHE_ERROR_MESSAGE = "Cannot open rate cache in directory: %s";
+    private static final String BATCH_CONCURRENCY_ERROR_MESSAGE = "Invalid batch concurrency: %d";
+    private static final String PIPELINE_WINDOW_ERROR_MESSAGE = "Invalid pipeline window: %d";
+    private static final String PIPELINE_READ_ERROR_MESSAGE = "Cannot read conversion requests";
+    private static final String SERVER_THREADS_ERROR_MESSAGE = "Invalid number of server threads: %d";
+    private static final String HEDGE_DELAY_ERROR_MESSAGE = "Invalid hedge delay: %d";
+    private static final String ROUTE_FAILURES_ERROR_MESSAGE = "Invalid route failure threshold: %d";
+    private static final String ROUTE_OPEN_TIME_ERROR_MESSAGE = "Invalid route open time: %d";
+    private static final String SERVER_ERROR_MESSAGE = "Cannot start server on port: %d";
+    private static final String TRANSPORT_POOL_SIZE_ERROR_MESSAGE = "Invalid transport pool size: %d";
+    private static final String TRANSPORT_TIMEOUT_ERROR_MESSAGE = "Invalid transport %s timeout: %d";
+    private static final String METRICS_REGISTRATION_ERROR_MESSAGE = "Cannot register metrics MBean: %s";
+
+    private static final String PROVIDER_STATS_FORMAT = "Provider %s: %d succeeded, %d failed, %d cancelled";
+    private static final String LATENCY_STATS_FORMAT = "  latency: p50 %.3f ms, p99 %.3f ms, p999 %.3f ms, max %.3f ms";
+    private static final String FAILURE_STATS_FORMAT = "  failed with %s: %d";
+    private static final String CACHE_STATS_FORMAT = "Cache: %d hits, %d misses, %.1f%% hit ratio";
+    private static final String COALESCED_FORMAT = "Coalesced: %d conversions waited for the same pair in flight";
+    private static final String IN_FLIGHT_FORMAT = "In flight: %d";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String ROUTE_STATS_FORMAT = "Route %s: %s, latency %.3f ms, error rate %.1f%%, weight %.1f%%";
+    private static final String TRANSPORT_STATS_FORMAT =
+            "Transport: %d requests, %d handshakes, %d handshakes saved, %d active and %d idle connections";
 
     private final Configuration config;
     private final PluginLoader loader;
     private final ResultPrinter printer;
+    private CurrencyConverter converter;
+    private RoutingCurrencyConverter router;
+    private Transport transport;
+    private ConversionMetrics metrics;
+    private boolean metricsEnabled;
 
     public Xrate(Configuration config, PrintWriter writer) {
-        this(config, new PluginLoader(), new ResultPrinter(writer));
+        this(config, new PluginLoader(getPluginCacheFile(config)), new ResultPrinter(writer));
     }
 
     Xrate(Configuration config, PluginLoader loader, ResultPrinter printer) {
@@ -29,33 +77,295 @@ public class Xrate {
         this.printer = printer;
     }
 
+    private static Path getPluginCacheFile(Configuration config) {
+        String directory = config.getCacheDirectory();
+        return directory.isEmpty() ? null : Path.of(directory, PluginLoader.CACHE_FILE_NAME);
+    }
+
     public void convert(Currency from, Currency to, BigDecimal amount) {
-        ConversionResult result = createConverter().convert(from, to, amount);
-        processResult(result);
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        try {
+            ConversionResult result = getConverter().convert(from, to, amount);
+            processResult(result);
+        } catch (RuntimeException e) {
+            event.record(from, to, e);
+            throw e;
+        }
+        event.record(from, to, null);
+    }
+
+    public long convertBatch(Path file) {
+        int concurrency = config.getBatchConcurrency();
+        if (concurrency <= 0) {
+            throw new ConversionException(String.format(BATCH_CONCURRENCY_ERROR_MESSAGE, concurrency));
+        }
+        return createBatchConverter(getConverter(), concurrency).convert(file);
+    }
+
+    BatchConverter createBatchConverter(CurrencyConverter converter, int concurrency) {
+        return new BatchConverter(converter, printer, concurrency);
+    }
+
+    public long convertPipeline(Reader input) {
+        int window = config.getPipelineWindow();
+        if (window <= 0) {
+            throw new ConversionException(String.format(PIPELINE_WINDOW_ERROR_MESSAGE, window));
+        }
+        try {
+            return createPipelineConverter(getConverter(), window).convert(new BufferedReader(input));
+        } catch (IOException e) {
+            throw new ConversionException(PIPELINE_READ_ERROR_MESSAGE, e);
+        }
+    }
+
+    PipelineConverter createPipelineConverter(CurrencyConverter converter, int window) {
+        return new PipelineConverter(converter, printer, window);
+    }
+
+    public XrateServer createServer(int port) {
+        int threads = config.getServerThreads();
+        if (threads <= 0) {
+            throw new ConversionException(String.format(SERVER_THREADS_ERROR_MESSAGE, threads));
+        }
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            return new XrateServer(getConverter(), getTransport(), address, threads);
+        } catch (IOException e) {
+            throw new ConversionException(String.format(SERVER_ERROR_MESSAGE, port), e);
+        }
+    }
+
+    public synchronized CurrencyConverter getConverter() {
+        if (isNull(converter)) {
+            CurrencyConverter provider = createConverter();
+            converter = withCache(withPersistentCache(new SingleFlightCurrencyConverter(provider, getMetrics())), provider);
+        }
+        return converter;
+    }
+
+    /**
+     * Records the metrics of the conversions, even if they are not exposed over JMX.
+     * Only conversions of a converter created afterwards are recorded.
+     */
+    public synchronized void enableMetrics() {
+        metricsEnabled = true;
     }
 
     private CurrencyConverter createConverter() {
+        ProviderStrategy strategy = config.getProviderStrategy();
+        if (strategy == ProviderStrategy.HEDGE) {
+            return createHedgingConverter(createProviders());
+        }
+        if (strategy == ProviderStrategy.ROUTE) {
+            return createRoutingConverter(createProviders());
+        }
         Optional<CurrencyConverter> plugin = loader.findFirstPlugin();
         if (plugin.isPresent()) {
-            CurrencyConverter converter = plugin.get();
-            converter.setAuthCredentials(config.getPluginAuthCredentials());
-            return converter;
+            return withMetrics(setUpPlugin(plugin.get()));
         } else {
             CurrConvApiClient client = createDefaultClient(config.getCurrConvEndpoint());
-            return createDefaultConverter(client, config.getCoreAuthCredentials());
+            return withMetrics(createDefaultConverter(client, config.getCoreAuthCredentials()));
+        }
+    }
+
+    // Plugins keep the precedence they have with the first strategy, the built-in converter is the last resort
+    private List<CurrencyConverter> createProviders() {
+        List<CurrencyConverter> providers = new ArrayList<>();
+        for (CurrencyConverter plugin : loader.findAllPlugins()) {
+            providers.add(withMetrics(setUpPlugin(plugin)));
+        }
+        CurrConvApiClient client = createDefaultClient(config.getCurrConvEndpoint());
+        providers.add(withMetrics(createDefaultConverter(client, config.getCoreAuthCredentials())));
+        return providers;
+    }
+
+    private CurrencyConverter setUpPlugin(CurrencyConverter plugin) {
+        plugin.setAuthCredentials(config.getPluginAuthCredentials());
+        if (plugin instanceof SettingsAware) {
+            ((SettingsAware) plugin).setSettings(config.getPluginSettings());
         }
+        if (plugin instanceof TransportAware) {
+            ((TransportAware) plugin).setTransport(getTransport());
+        }
+        return plugin;
+    }
+
+    CurrencyConverter createHedgingConverter(List<CurrencyConverter> providers) {
+        long delayMillis = config.getHedgeDelayMillis();
+        if (delayMillis < 0) {
+            throw new ConversionException(String.format(HEDGE_DELAY_ERROR_MESSAGE, delayMillis));
+        }
+        return new HedgingCurrencyConverter(providers, Duration.ofMillis(delayMillis), config.isHedgeDelayAdaptive());
+    }
+
+    CurrencyConverter createRoutingConverter(List<CurrencyConverter> providers) {
+        int failureThreshold = config.getRouteFailureThreshold();
+        if (failureThreshold <= 0) {
+            throw new ConversionException(String.format(ROUTE_FAILURES_ERROR_MESSAGE, failureThreshold));
+        }
+        long openTimeSeconds = config.getRouteOpenTimeSeconds();
+        if (openTimeSeconds <= 0) {
+            throw new ConversionException(String.format(ROUTE_OPEN_TIME_ERROR_MESSAGE, openTimeSeconds));
+        }
+        router = new RoutingCurrencyConverter(providers, failureThreshold, Duration.ofSeconds(openTimeSeconds));
+        return router;
+    }
+
+    private CurrencyConverter withCache(CurrencyConverter converter, CurrencyConverter provider) {
+        long ttlSeconds = config.getCacheTtlSeconds();
+        if (ttlSeconds <= 0) {
+            return converter;
+        }
+        if (config.isRateMatrixEnabled()) {
+            // With several providers the rates are stored with the provider that answered, the strategy is only the fallback
+            RateCache cache = new RateMatrixCache(Duration.ofSeconds(ttlSeconds), MeteredCurrencyConverter.nameOf(provider));
+            return new CachingCurrencyConverter(converter, cache, getMetrics());
+        }
+        int maxEntries = config.getCacheMaxEntries();
+        if (maxEntries <= 0) {
+            return converter;
+        }
+        RateCache cache = new InMemoryRateCache(Duration.ofSeconds(ttlSeconds), maxEntries);
+        return new CachingCurrencyConverter(converter, cache, getMetrics());
+    }
+
+    private CurrencyConverter withPersistentCache(CurrencyConverter converter) {
+        long ttlSeconds = config.getCacheTtlSeconds();
+        String directory = config.getCacheDirectory();
+        if (ttlSeconds <= 0 || isNull(directory) || directory.isEmpty()) {
+            return converter;
+        }
+        return new CachingCurrencyConverter(converter, openPersistentCache(directory, ttlSeconds), getMetrics());
+    }
+
+    RateCache openPersistentCache(String directory, long ttlSeconds) {
+        try {
+            return new MappedRateCache(Path.of(directory), Duration.ofSeconds(ttlSeconds));
+        } catch (IOException e) {
+            throw new ConfigurationException(String.format(CACHE_ERROR_MESSAGE, directory), e);
+        }
+    }
+
+    // Without metrics the providers are not wrapped at all, so a conversion pays nothing for them
+    private CurrencyConverter withMetrics(CurrencyConverter provider) {
+        ConversionMetrics conversionMetrics = getMetrics();
+        return conversionMetrics == ConversionMetrics.NONE ? provider : new MeteredCurrencyConverter(provider, conversionMetrics);
+    }
+
+    synchronized ConversionMetrics getMetrics() {
+        if (isNull(metrics)) {
+            metrics = createMetrics();
+        }
+        return metrics;
+    }
+
+    private ConversionMetrics createMetrics() {
+        boolean jmxEnabled = config.isMetricsJmxEnabled();
+        if (!metricsEnabled && !jmxEnabled) {
+            return ConversionMetrics.NONE;
+        }
+        DefaultConversionMetrics conversionMetrics = new DefaultConversionMetrics();
+        if (jmxEnabled) {
+            registerMBean(conversionMetrics);
+        }
+        return conversionMetrics;
+    }
+
+    // The MBean of an earlier instance in the same JVM is replaced, so JMX always shows the converter in use
+    void registerMBean(DefaultConversionMetrics conversionMetrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DefaultConversionMetrics.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(conversionMetrics, name);
+        } catch (JMException e) {
+            throw new ConversionException(String.format(METRICS_REGISTRATION_ERROR_MESSAGE, DefaultConversionMetrics.OBJECT_NAME), e);
+        }
+    }
+
+    /**
+     * Prints the metrics recorded so far, if they are enabled, and the statistics of the transport, if it is in use.
+     *
+     * @param writer the writer to print to
+     */
+    public synchronized void printMetrics(PrintWriter writer) {
+        if (metrics instanceof DefaultConversionMetrics) {
+            DefaultConversionMetrics conversionMetrics = (DefaultConversionMetrics) metrics;
+            conversionMetrics.getProviders().forEach(stats -> printProviderStats(writer, stats));
+            writer.println(String.format(CACHE_STATS_FORMAT, conversionMetrics.getCacheHits(),
+                    conversionMetrics.getCacheMisses(), conversionMetrics.getCacheHitRatio() * 100));
+            writer.println(String.format(COALESCED_FORMAT, conversionMetrics.getCoalescedRequests()));
+            writer.println(String.format(IN_FLIGHT_FORMAT, conversionMetrics.getInFlightRequests()));
+        }
+        if (nonNull(router)) {
+            router.getRoutes().forEach(route -> printRouteStats(writer, route));
+        }
+        if (nonNull(transport)) {
+            TransportStats stats = transport.getStats();
+            writer.println(String.format(TRANSPORT_STATS_FORMAT, stats.getRequests(), stats.getHandshakes(),
+                    stats.getHandshakesSaved(), stats.getActiveConnections(), stats.getIdleConnections()));
+        }
+        writer.flush();
+    }
+
+    private void printProviderStats(PrintWriter writer, DefaultConversionMetrics.ProviderStats stats) {
+        writer.println(String.format(PROVIDER_STATS_FORMAT, stats.getProvider(), stats.getSuccesses(),
+                stats.getFailures(), stats.getCancellations()));
+        writer.println(String.format(LATENCY_STATS_FORMAT, stats.getLatencyP50Millis(), stats.getLatencyP99Millis(),
+                stats.getLatencyP999Millis(), stats.getLatencyMaxMillis()));
+        for (Map.Entry<String, Long> failures : stats.getFailuresByCause().entrySet()) {
+            writer.println(String.format(FAILURE_STATS_FORMAT, failures.getKey(), failures.getValue()));
+        }
+    }
+
+    private void printRouteStats(PrintWriter writer, RoutingCurrencyConverter.RouteStatus route) {
+        writer.println(String.format(ROUTE_STATS_FORMAT, route.getProvider(), route.getState(),
+                route.getLatency().toNanos() / NANOS_PER_MILLI, route.getErrorRate() * 100, route.getWeight() * 100));
     }
 
     private CurrConvApiClient createDefaultClient(String endpoint) {
-        return new CurrConvApiClient(endpoint);
+        return new CurrConvApiClient(endpoint, getTransport());
+    }
+
+    synchronized Transport getTransport() {
+        if (isNull(transport)) {
+            transport = createTransport();
+        }
+        return transport;
+    }
+
+    private Transport createTransport() {
+        int poolSize = config.getTransportPoolSize();
+        if (poolSize <= 0) {
+            throw new ConversionException(String.format(TRANSPORT_POOL_SIZE_ERROR_MESSAGE, poolSize));
+        }
+        Duration connectTimeout = getTransportTimeout("connect", config.getTransportConnectTimeoutSeconds());
+        Duration requestTimeout = getTransportTimeout("request", config.getTransportRequestTimeoutSeconds());
+        Duration idleTimeout = getTransportTimeout("idle", config.getTransportIdleTimeoutSeconds());
+        return new HttpTransport(poolSize, config.isTransportHttp2Preferred(), connectTimeout, requestTimeout, idleTimeout);
+    }
+
+    private Duration getTransportTimeout(String name, long seconds) {
+        if (seconds <= 0) {
+            throw new ConversionException(String.format(TRANSPORT_TIMEOUT_ERROR_MESSAGE, name, seconds));
+        }
+        return Duration.ofSeconds(seconds);
     }
 
     CurrencyConverter createDefaultConverter(CurrConvApiClient client, String authCredentials) {
-        DefaultCurrencyConverter converter = new DefaultCurrencyConverter(client);
+        DefaultCurrencyConverter converter = new DefaultCurrencyConverter(client, createRateGraph());
         converter.setAuthCredentials(authCredentials);
         return converter;
     }
 
+    private RateGraph createRateGraph() {
+        Duration maxAge = Duration.ofSeconds(config.getTriangulationMaxAgeSeconds());
+        return new RateGraph(config.getTriangulationPolicy(), config.getTriangulationPivot(), maxAge);
+    }
+
     private void processResult(ConversionResult result) {
         if (isNull(result)) {
             throw new ConversionException(MISSING_RESULT_ERROR_MESSAGE);
@@ -0,0 +1,227 @@
+package nemethi.xrate.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.CurrencyRegistry;
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportStats;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+
+public class XrateServer {
+
+    private static final String CONVERT_PATH = "/convert";
+    private static final String RATES_PATH = "/rates";
+    private static final String STATS_PATH = "/stats";
+    private static final String GET_METHOD = "GET";
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String ALLOW_HEADER = "Allow";
+    private static final String THREAD_NAME_FORMAT = "xrate-server-%d";
+    private static final String MISSING_PARAMETER_MESSAGE = "Missing query parameter: %s";
+    private static final String UNKNOWN_CURRENCY_MESSAGE = "Unknown currency: %s";
+    private static final String INVALID_AMOUNT_MESSAGE = "Invalid amount: %s";
+    private static final String METHOD_NOT_ALLOWED_MESSAGE = "Method not allowed: %s";
+    private static final String SYMBOL_DELIMITER = ",";
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int INTERNAL_SERVER_ERROR = 500;
+    private static final int BAD_GATEWAY = 502;
+    private static final int BACKLOG = 1024;
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final CurrencyConverter converter;
+    private final Transport transport;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    public XrateServer(CurrencyConverter converter, Transport transport, InetSocketAddress address, int threads) throws IOException {
+        this.converter = converter;
+        this.transport = transport;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newFixedThreadPool(threads, new ServerThreadFactory());
+        server.setExecutor(executor);
+        server.createContext(CONVERT_PATH, exchange -> handle(exchange, this::convert));
+        server.createContext(RATES_PATH, exchange -> handle(exchange, this::rates));
+        server.createContext(STATS_PATH, exchange -> handle(exchange, this::stats));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+        stopped.countDown();
+    }
+
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void handle(HttpExchange exchange, RequestHandler handler) throws IOException {
+        try {
+            if (!GET_METHOD.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set(ALLOW_HEADER, GET_METHOD);
+                sendError(exchange, METHOD_NOT_ALLOWED, String.format(METHOD_NOT_ALLOWED_MESSAGE, exchange.getRequestMethod()));
+                return;
+            }
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            send(exchange, OK, handler.handle(parameters));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, BAD_REQUEST, e.getMessage());
+        } catch (ConversionException e) {
+            sendError(exchange, BAD_GATEWAY, e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, INTERNAL_SERVER_ERROR, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private JSONObject convert(Map<String, String> parameters) {
+        Currency from = getCurrency(parameters, "from");
+        Currency to = getCurrency(parameters, "to");
+        BigDecimal amount = getAmount(parameters.getOrDefault("amount", "1"));
+        ConversionResult result = converter.convert(from, to, amount);
+        return new JSONObject()
+                .put("from", result.getFrom().getCurrencyCode())
+                .put("to", result.getTo().getCurrencyCode())
+                .put("amount", result.getAmount())
+                .put("result", result.getResult())
+                .put("rate", result.getRate());
+    }
+
+    private JSONObject rates(Map<String, String> parameters) {
+        Currency base = getCurrency(parameters, "base");
+        List<ConversionRequest> requests = new ArrayList<>();
+        for (String symbol : getParameter(parameters, "symbols").split(SYMBOL_DELIMITER)) {
+            requests.add(new ConversionRequest(base, toCurrency(symbol.trim()), BigDecimal.ONE));
+        }
+        JSONObject rates = new JSONObject();
+        for (ConversionResult result : converter.convertAll(requests)) {
+            rates.put(result.getTo().getCurrencyCode(), result.getResult());
+        }
+        return new JSONObject()
+                .put("base", base.getCurrencyCode())
+                .put("rates", rates);
+    }
+
+    private JSONObject stats(Map<String, String> parameters) {
+        TransportStats stats = transport.getStats();
+        JSONObject transportStats = new JSONObject()
+                .put("requests", stats.getRequests())
+                .put("secureRequests", stats.getSecureRequests())
+                .put("handshakes", stats.getHandshakes())
+                .put("handshakesSaved", stats.getHandshakesSaved())
+                .put("activeConnections", stats.getActiveConnections())
+                .put("idleConnections", stats.getIdleConnections());
+        return new JSONObject().put("transport", transportStats);
+    }
+
+    private Currency getCurrency(Map<String, String> parameters, String name) {
+        return toCurrency(getParameter(parameters, name));
+    }
+
+    private Currency toCurrency(String code) {
+        Currency currency = CurrencyRegistry.findCurrency(code);
+        if (isNull(currency)) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_CURRENCY_MESSAGE, code));
+        }
+        return currency;
+    }
+
+    private BigDecimal getAmount(String amount) {
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(INVALID_AMOUNT_MESSAGE, amount), e);
+        }
+    }
+
+    private String getParameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (isNull(value) || value.isEmpty()) {
+            throw new IllegalArgumentException(String.format(MISSING_PARAMETER_MESSAGE, name));
+        }
+        return value;
+    }
+
+    private Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (isNull(query)) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(decode(parameter.substring(0, separator)), decode(parameter.substring(separator + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, new JSONObject().put("error", String.valueOf(message)));
+    }
+
+    private void send(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestHandler {
+
+        JSONObject handle(Map<String, String> parameters);
+    }
+
+    private static final class ServerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, String.format(THREAD_NAME_FORMAT, threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package nemethi.xrate.core;
 
+import jdk.jfr.consumer.RecordingFile;
+import nemethi.xrate.api.ConversionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -11,17 +15,25 @@ import picocli.CommandLine;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.ParameterException;
 
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.Currency;
 import java.util.regex.Pattern;
 
+import static com.github.stefanbirkner.systemlambda.SystemLambda.restoreSystemProperties;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.matches;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -88,6 +100,161 @@ class ApplicationTest {
         verify(xrate).convert(Currency.getInstance(FROM), Currency.getInstance(TO), new BigDecimal(AMOUNT));
     }
 
+    @Test
+    void callConvertsBatchFileIfSpecified() {
+        Path batchFile = Path.of("batch.csv");
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setBatchFile(batchFile);
+
+        Integer exitCode = application.call();
+
+        assertThat(exitCode).isZero();
+        verify(application).createXrate(config, outWriter);
+        verify(xrate).convertBatch(batchFile);
+        verify(xrate, never()).convert(any(), any(), any());
+    }
+
+    @Test
+    void callConvertsStdinIfSpecified() {
+        Reader input = new StringReader("USD GBP 1");
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        doReturn(input).when(application).createStdinReader();
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setReadStdin(true);
+
+        Integer exitCode = application.call();
+
+        assertThat(exitCode).isZero();
+        verify(xrate).convertPipeline(input);
+        verify(xrate, never()).convert(any(), any(), any());
+    }
+
+    @Test
+    void callPrintsMetricsIfSpecified(@Mock PrintWriter errWriter) {
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        when(commandLine.getErr()).thenReturn(errWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setFrom(FROM);
+        application.setTo(TO);
+        application.setAmount(AMOUNT);
+        application.setPrintStats(true);
+
+        Integer exitCode = application.call();
+
+        assertThat(exitCode).isZero();
+        InOrder inOrder = inOrder(xrate);
+        inOrder.verify(xrate).enableMetrics();
+        inOrder.verify(xrate).convert(Currency.getInstance(FROM), Currency.getInstance(TO), new BigDecimal(AMOUNT));
+        inOrder.verify(xrate).printMetrics(errWriter);
+    }
+
+    @Test
+    void callPrintsMetricsEvenIfConversionFails(@Mock PrintWriter errWriter) {
+        var exception = new ConversionException("test");
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        when(commandLine.getErr()).thenReturn(errWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        doThrow(exception).when(xrate).convert(any(), any(), any());
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setFrom(FROM);
+        application.setTo(TO);
+        application.setAmount(AMOUNT);
+        application.setPrintStats(true);
+
+        Throwable thrown = catchThrowable(() -> application.call());
+
+        assertThat(thrown).isEqualTo(exception);
+        verify(xrate).printMetrics(errWriter);
+    }
+
+    @Test
+    void callRecordsRunIntoJfrFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("xrate.jfr");
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setFrom(FROM);
+        application.setTo(TO);
+        application.setAmount(AMOUNT);
+        application.setRecordingFile(file);
+
+        Integer exitCode = application.call();
+
+        assertThat(exitCode).isZero();
+        verify(xrate).convert(Currency.getInstance(FROM), Currency.getInstance(TO), new BigDecimal(AMOUNT));
+        assertThat(RecordingFile.readAllEvents(file)).isNotEmpty();
+    }
+
+    @Test
+    void callFailsIfJfrFileCannotBeWritten(@TempDir Path directory) {
+        Path file = directory.resolve("missing").resolve("xrate.jfr");
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setRecordingFile(file);
+
+        Throwable thrown = catchThrowable(() -> application.call());
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Cannot record to file: %s", file);
+        verify(xrate, never()).convert(any(), any(), any());
+    }
+
+    @Test
+    void callDoesNotRecordMetricsByDefault() {
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        doReturn(config).when(application).getConfig(anyString());
+        doReturn(xrate).when(application).createXrate(any(), any());
+        application.setConfigFilePath(CONFIG_FILE_PATH);
+        application.setFrom(FROM);
+        application.setTo(TO);
+        application.setAmount(AMOUNT);
+
+        application.call();
+
+        verify(xrate, never()).enableMetrics();
+        verify(xrate, never()).printMetrics(any());
+    }
+
+    @Test
+    void configFilePathDefaultsToSystemProperty() throws Exception {
+        restoreSystemProperties(() -> {
+            System.setProperty("xrate.config", "/opt/xrate/config/xrate.properties");
+            var application = new Application();
+
+            new CommandLine(application).parseArgs();
+
+            assertThat(application.getConfigFilePath()).isEqualTo("/opt/xrate/config/xrate.properties");
+        });
+    }
+
+    @Test
+    void configFilePathDefaultsToClasspathResource() {
+        var application = new Application();
+
+        new CommandLine(application).parseArgs();
+
+        assertThat(application.getConfigFilePath()).isEqualTo(CONFIG_FILE_PATH);
+    }
+
     @Nested
     class ParameterTests {
 
@@ -0,0 +1,213 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchConverterTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final BigDecimal USD_GBP_RATE = new BigDecimal("0.72");
+    private static final BigDecimal USD_EUR_RATE = new BigDecimal("0.84");
+
+    @Mock
+    private CurrencyConverter converter;
+
+    private StringWriter output;
+    private BatchConverter batchConverter;
+
+    @BeforeEach
+    void setUp() {
+        output = new StringWriter();
+        batchConverter = new BatchConverter(converter, new ResultPrinter(new PrintWriter(output, true)), 4);
+    }
+
+    @Test
+    void convertsRowsInInputOrderAndRequestsEachPairOnce() throws IOException {
+        stubRate(USD, GBP, USD_GBP_RATE);
+        stubRate(USD, EUR, USD_EUR_RATE);
+
+        long rowCount = batchConverter.convert(reader(
+                "from,to,amount",
+                "USD,GBP,10",
+                "",
+                "# comment",
+                "USD,EUR,2",
+                " USD , GBP , 0.5 "));
+
+        assertThat(rowCount).isEqualTo(3);
+        assertThat(outputLines()).containsExactly(
+                "USD,GBP,10,7.20",
+                "USD,EUR,2,1.68",
+                "USD,GBP,0.5,0.360");
+        verify(converter, times(1)).convertAsync(USD, GBP, BigDecimal.ONE);
+        verify(converter, times(1)).convertAsync(USD, EUR, BigDecimal.ONE);
+    }
+
+    @Test
+    void convertsRowsWithKnownRateInsteadOfRoundedResult() throws IOException {
+        var roundedResult = new ConversionResult(USD, GBP, BigDecimal.ONE, new BigDecimal("0.72"), new BigDecimal("0.7213")) {
+        };
+        when(converter.convertAsync(USD, GBP, BigDecimal.ONE)).thenReturn(CompletableFuture.completedFuture(roundedResult));
+
+        batchConverter.convert(reader("USD,GBP,10"));
+
+        assertThat(outputLines()).containsExactly("USD,GBP,10,7.2130");
+    }
+
+    @Test
+    void printsCompletedRowsBeforeEndOfFile() throws IOException {
+        stubRate(USD, GBP, USD_GBP_RATE);
+        var pendingRate = new CompletableFuture<ConversionResult>();
+        when(converter.convertAsync(USD, EUR, BigDecimal.ONE)).thenReturn(pendingRate);
+        List<String> outputBeforeEachRead = new ArrayList<>();
+        var reader = new BufferedReader(new StringReader("USD,GBP,10\nUSD,EUR,2\nUSD,GBP,1")) {
+            @Override
+            public String readLine() throws IOException {
+                outputBeforeEachRead.add(output.toString());
+                if (outputBeforeEachRead.size() == 4) {
+                    pendingRate.complete(new ConversionResult(USD, EUR, BigDecimal.ONE, USD_EUR_RATE));
+                }
+                return super.readLine();
+            }
+        };
+
+        batchConverter.convert(reader);
+
+        assertThat(outputBeforeEachRead.get(1)).isEqualTo("USD,GBP,10,7.20" + System.lineSeparator());
+        assertThat(outputBeforeEachRead.get(3)).isEqualTo(outputBeforeEachRead.get(1));
+        assertThat(outputLines()).containsExactly("USD,GBP,10,7.20", "USD,EUR,2,1.68", "USD,GBP,1,0.72");
+    }
+
+    @Test
+    void reportsInvalidRowsInline() throws IOException {
+        long rowCount = batchConverter.convert(reader(
+                "USD,XYZ,1",
+                "USD,GBP,ten",
+                "USD,GBP"));
+
+        assertThat(rowCount).isEqualTo(3);
+        assertThat(outputLines()).containsExactly(
+                "USD,XYZ,1,,\"Unknown currency: XYZ\"",
+                "USD,GBP,ten,,\"Invalid amount: ten\"",
+                "USD,GBP,,\"Invalid request, expected FROM TO AMOUNT\"");
+        verifyNoInteractions(converter);
+    }
+
+    @Test
+    void reportsFailedPairOnEveryRowWithoutRetrying() throws IOException {
+        when(converter.convertAsync(USD, GBP, BigDecimal.ONE))
+                .thenReturn(CompletableFuture.failedFuture(new ConversionException("\"quota\" reached")));
+        stubRate(USD, EUR, USD_EUR_RATE);
+
+        batchConverter.convert(reader("USD,GBP,1", "USD,EUR,1", "USD,GBP,2"));
+
+        assertThat(outputLines()).containsExactly(
+                "USD,GBP,1,,\"\"\"quota\"\" reached\"",
+                "USD,EUR,1,0.84",
+                "USD,GBP,2,,\"\"\"quota\"\" reached\"");
+        verify(converter, times(1)).convertAsync(USD, GBP, BigDecimal.ONE);
+    }
+
+    @Test
+    void limitsConcurrentCalls() throws IOException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(converter.convertAsync(any(), any(), eq(BigDecimal.ONE))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                sleep();
+                inFlight.decrementAndGet();
+                return new ConversionResult(invocation.getArgument(0), invocation.getArgument(1), BigDecimal.ONE, BigDecimal.ONE);
+            });
+        });
+        batchConverter = new BatchConverter(converter, new ResultPrinter(new PrintWriter(output, true)), 2);
+
+        batchConverter.convert(reader("USD,GBP,1", "USD,EUR,1", "USD,HUF,1", "USD,JPY,1", "USD,CHF,1"));
+
+        assertThat(outputLines()).hasSize(5);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void convertsFile(@TempDir Path directory) throws IOException {
+        stubRate(USD, GBP, USD_GBP_RATE);
+        Path file = Files.writeString(directory.resolve("batch.csv"), "from,to,amount\nUSD,GBP,10\n");
+
+        long rowCount = batchConverter.convert(file);
+
+        assertThat(rowCount).isEqualTo(1);
+        assertThat(outputLines()).containsExactly("USD,GBP,10,7.20");
+    }
+
+    @Test
+    void throwsIfFileCannotBeRead(@TempDir Path directory) {
+        Path file = directory.resolve("missing.csv");
+
+        Throwable thrown = catchThrowable(() -> batchConverter.convert(file));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Cannot read batch file: %s", file);
+    }
+
+    @Test
+    void throwsOnNonPositiveConcurrency() {
+        Throwable thrown = catchThrowable(() -> new BatchConverter(converter, new ResultPrinter(new PrintWriter(output)), 0));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void stubRate(Currency from, Currency to, BigDecimal rate) {
+        when(converter.convertAsync(from, to, BigDecimal.ONE))
+                .thenReturn(CompletableFuture.completedFuture(new ConversionResult(from, to, BigDecimal.ONE, rate)));
+    }
+
+    private BufferedReader reader(String... lines) {
+        return new BufferedReader(new StringReader(String.join("\n", lines)));
+    }
+
+    private String[] outputLines() {
+        return output.toString().split(System.lineSeparator());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
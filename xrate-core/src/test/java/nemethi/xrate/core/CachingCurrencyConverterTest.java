@@ -0,0 +1,201 @@
+package nemethi.xrate.core;
+
+import jdk.jfr.consumer.RecordedEvent;
+import nemethi.xrate.api.ConversionMetrics;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.CurrencyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCurrencyConverterTest {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final Currency OTHER = Currency.getInstance("EUR");
+    private static final BigDecimal AMOUNT = new BigDecimal("2");
+    private static final BigDecimal OTHER_AMOUNT = new BigDecimal("10");
+    private static final ConversionResult RESULT = new ConversionResult(FROM, TO, AMOUNT, new BigDecimal("1.44"));
+
+    @Mock
+    private CurrencyConverter delegate;
+
+    private InMemoryRateCache cache;
+    private CachingCurrencyConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InMemoryRateCache(Duration.ofMinutes(1), 10);
+        converter = new CachingCurrencyConverter(delegate, cache);
+    }
+
+    @Test
+    void convertsOtherAmountsOfCachedPairLocally() {
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(RESULT);
+
+        ConversionResult first = converter.convert(FROM, TO, AMOUNT);
+        ConversionResult second = converter.convert(FROM, TO, OTHER_AMOUNT);
+
+        assertThat(first).isEqualTo(RESULT);
+        assertThat(second.getResult()).isEqualByComparingTo("7.2");
+        verify(delegate).convert(FROM, TO, AMOUNT);
+        verifyNoMoreInteractions(delegate);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheResultOfZeroAmount() {
+        var zeroResult = new ConversionResult(FROM, TO, BigDecimal.ZERO, BigDecimal.ZERO);
+        when(delegate.convert(FROM, TO, BigDecimal.ZERO)).thenReturn(zeroResult);
+
+        converter.convert(FROM, TO, BigDecimal.ZERO);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void doesNotCacheDerivedResult() {
+        var derivedResult = DerivedConversionResult.ofRate(FROM, TO, AMOUNT, new BigDecimal("0.72"),
+                RateDerivation.PIVOT, List.of(FROM, OTHER, TO));
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(derivedResult);
+
+        ConversionResult result = converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(result).isSameAs(derivedResult);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void storesRateWithProviderThatProducedResult() {
+        RateMatrixCache matrixCache = new RateMatrixCache(Duration.ofMinutes(1), "fallback");
+        converter = new CachingCurrencyConverter(delegate, matrixCache, ConversionMetrics.NONE);
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(RESULT.withProvider("provider"));
+
+        converter.convert(FROM, TO, AMOUNT);
+
+        RateMatrix snapshot = matrixCache.getSnapshot();
+        assertThat(snapshot.getSource(CurrencyRegistry.idOf(FROM), CurrencyRegistry.idOf(TO)))
+                .isEqualTo("provider");
+    }
+
+    @Test
+    void convertAsyncUsesCachedRate() {
+        when(delegate.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(RESULT));
+
+        converter.convertAsync(FROM, TO, AMOUNT).join();
+        ConversionResult second = converter.convertAsync(FROM, TO, OTHER_AMOUNT).join();
+
+        assertThat(second.getResult()).isEqualByComparingTo("7.2");
+        verify(delegate).convertAsync(FROM, TO, AMOUNT);
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    void convertAllOnlyDelegatesMisses() {
+        var otherResult = new ConversionResult(FROM, OTHER, AMOUNT, new BigDecimal("1.7"));
+        var missedRequest = new ConversionRequest(FROM, OTHER, AMOUNT);
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(RESULT);
+        when(delegate.convertAll(List.of(missedRequest))).thenReturn(List.of(otherResult));
+        converter.convert(FROM, TO, AMOUNT);
+
+        List<ConversionResult> results = converter.convertAll(List.of(new ConversionRequest(FROM, TO, AMOUNT), missedRequest));
+
+        assertThat(results).containsExactly(RESULT, otherResult);
+        verify(delegate).convertAll(List.of(missedRequest));
+    }
+
+    @Test
+    void setAuthCredentialsIsPassedToDelegate() {
+        converter.setAuthCredentials("testAuthCreds");
+        verify(delegate).setAuthCredentials("testAuthCreds");
+    }
+
+    @Test
+    void cachesKnownRateOfResult() {
+        var rate = new BigDecimal("0.72134567891");
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(ConversionResult.ofRate(FROM, TO, AMOUNT, rate));
+
+        converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(cache.get(CurrencyPair.of(FROM, TO))).contains(rate);
+    }
+
+    @Test
+    void doesNotDeriveRateFromResultOfAmountBelowOne() {
+        var tinyAmount = new BigDecimal("0.0001");
+        when(delegate.convert(FROM, TO, tinyAmount)).thenReturn(new ConversionResult(FROM, TO, tinyAmount, new BigDecimal("0.0001")));
+
+        converter.convert(FROM, TO, tinyAmount);
+
+        assertThat(cache.get(CurrencyPair.of(FROM, TO))).isEmpty();
+    }
+
+    @Test
+    void cachesKnownRateOfResultOfAmountBelowOne() {
+        var tinyAmount = new BigDecimal("0.0001");
+        var rate = new BigDecimal("0.7213");
+        when(delegate.convert(FROM, TO, tinyAmount)).thenReturn(ConversionResult.ofRate(FROM, TO, tinyAmount, rate));
+
+        converter.convert(FROM, TO, tinyAmount);
+
+        assertThat(cache.get(CurrencyPair.of(FROM, TO))).contains(rate);
+    }
+
+    @Test
+    void recordsCacheHitsAndMisses(@Mock ConversionMetrics metrics) {
+        converter = new CachingCurrencyConverter(delegate, cache, metrics);
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(RESULT);
+
+        converter.convert(FROM, TO, AMOUNT);
+        converter.convert(FROM, TO, OTHER_AMOUNT);
+
+        verify(metrics).recordCacheMiss();
+        verify(metrics).recordCacheHit();
+    }
+
+    @Test
+    void onlyLastOfStackedCachesRecordsMisses(@Mock ConversionMetrics metrics) {
+        var innerCache = new InMemoryRateCache(Duration.ofMinutes(1), 10);
+        var inner = new CachingCurrencyConverter(delegate, innerCache, metrics);
+        converter = new CachingCurrencyConverter(inner, cache, metrics);
+        innerCache.put(CurrencyPair.of(FROM, TO), new BigDecimal("0.72"));
+        when(delegate.convert(OTHER, TO, AMOUNT)).thenReturn(new ConversionResult(OTHER, TO, AMOUNT, new BigDecimal("1.7")));
+
+        converter.convert(FROM, TO, AMOUNT);
+        converter.convert(OTHER, TO, AMOUNT);
+
+        verify(metrics).recordCacheHit();
+        verify(metrics).recordCacheMiss();
+    }
+
+    @Test
+    void recordsCacheLookupEvents() throws Exception {
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(RESULT);
+
+        List<RecordedEvent> events = RecordedEvents.record("nemethi.xrate.CacheLookup", () -> {
+            converter.convert(FROM, TO, AMOUNT);
+            converter.convert(FROM, TO, OTHER_AMOUNT);
+        });
+
+        assertThat(events).extracting(event -> event.getBoolean("hit")).containsExactly(false, true);
+        assertThat(events).extracting(event -> event.getString("pair")).containsOnly("USD_GBP");
+        assertThat(events).extracting(event -> event.getString("cache")).containsOnly("InMemoryRateCache");
+    }
+}
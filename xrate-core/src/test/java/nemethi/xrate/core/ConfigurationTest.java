@@ -3,9 +3,12 @@ package nemethi.xrate.core;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Currency;
+import java.util.Map;
 import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 class ConfigurationTest {
 
@@ -61,4 +64,190 @@ class ConfigurationTest {
         properties.remove(PLUGIN_AUTH_KEY);
         assertThat(config.getPluginAuthCredentials()).isEmpty();
     }
+
+    @Test
+    void getPluginSettingsReturnsPluginKeysWithoutPrefixAndCredentials() {
+        properties.setProperty("xrate.plugin.rateTable", " true ");
+
+        assertThat(config.getPluginSettings()).containsExactly(Map.entry("rateTable", "true"));
+    }
+
+    @Test
+    void getCacheSettings() {
+        properties.setProperty("xrate.cache.ttl", "30");
+        properties.setProperty("xrate.cache.size", "5");
+
+        assertThat(config.getCacheTtlSeconds()).isEqualTo(30);
+        assertThat(config.getCacheMaxEntries()).isEqualTo(5);
+    }
+
+    @Test
+    void getCacheSettingsReturnsDefaultValues() {
+        assertThat(config.getCacheTtlSeconds()).isEqualTo(60);
+        assertThat(config.getCacheMaxEntries()).isEqualTo(1000);
+    }
+
+    @Test
+    void getCacheTtlThrowsOnInvalidValue() {
+        properties.setProperty("xrate.cache.ttl", "invalid");
+
+        Throwable thrown = catchThrowable(() -> config.getCacheTtlSeconds());
+
+        assertThat(thrown)
+                .isInstanceOf(ConfigurationException.class)
+                .hasMessage("Invalid value of xrate.cache.ttl: invalid");
+    }
+
+    @Test
+    void getCacheDirectoryReturnsEmptyStringByDefault() {
+        assertThat(config.getCacheDirectory()).isEmpty();
+    }
+
+    @Test
+    void getCacheDirectory() {
+        properties.setProperty("xrate.cache.dir", "/tmp/xrate");
+        assertThat(config.getCacheDirectory()).isEqualTo("/tmp/xrate");
+    }
+
+    @Test
+    void isRateMatrixEnabledReturnsFalseByDefault() {
+        assertThat(config.isRateMatrixEnabled()).isFalse();
+    }
+
+    @Test
+    void isRateMatrixEnabled() {
+        properties.setProperty("xrate.cache.matrix", "TRUE");
+        assertThat(config.isRateMatrixEnabled()).isTrue();
+    }
+
+    @Test
+    void isRateMatrixEnabledThrowsOnInvalidValue() {
+        properties.setProperty("xrate.cache.matrix", "yes");
+
+        Throwable thrown = catchThrowable(() -> config.isRateMatrixEnabled());
+
+        assertThat(thrown)
+                .isInstanceOf(ConfigurationException.class)
+                .hasMessage("Invalid value of xrate.cache.matrix: yes");
+    }
+
+    @Test
+    void getTriangulationSettingsReturnsDefaultValues() {
+        assertThat(config.getTriangulationPolicy()).isEqualTo(TriangulationPolicy.NONE);
+        assertThat(config.getTriangulationPivot()).isEqualTo(Currency.getInstance("USD"));
+        assertThat(config.getTriangulationMaxAgeSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void getTriangulationSettings() {
+        properties.setProperty("xrate.core.triangulation", "Pivot");
+        properties.setProperty("xrate.core.triangulation.pivot", "EUR");
+
+        assertThat(config.getTriangulationPolicy()).isEqualTo(TriangulationPolicy.PIVOT);
+        assertThat(config.getTriangulationPivot()).isEqualTo(Currency.getInstance("EUR"));
+    }
+
+    @Test
+    void getProviderSettingsReturnsDefaultValues() {
+        assertThat(config.getProviderStrategy()).isEqualTo(ProviderStrategy.FIRST);
+        assertThat(config.getHedgeDelayMillis()).isEqualTo(200);
+        assertThat(config.isHedgeDelayAdaptive()).isTrue();
+        assertThat(config.getRouteFailureThreshold()).isEqualTo(3);
+        assertThat(config.getRouteOpenTimeSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    void getProviderSettings() {
+        properties.setProperty("xrate.providers.strategy", "Hedge");
+        properties.setProperty("xrate.providers.hedge.delay", "50");
+        properties.setProperty("xrate.providers.hedge.adaptive", "false");
+        properties.setProperty("xrate.providers.route.failures", "5");
+        properties.setProperty("xrate.providers.route.openTime", "10");
+
+        assertThat(config.getProviderStrategy()).isEqualTo(ProviderStrategy.HEDGE);
+        assertThat(config.getHedgeDelayMillis()).isEqualTo(50);
+        assertThat(config.isHedgeDelayAdaptive()).isFalse();
+        assertThat(config.getRouteFailureThreshold()).isEqualTo(5);
+        assertThat(config.getRouteOpenTimeSeconds()).isEqualTo(10);
+    }
+
+    @Test
+    void getTransportSettingsReturnsDefaultValues() {
+        assertThat(config.getTransportPoolSize()).isEqualTo(16);
+        assertThat(config.isTransportHttp2Preferred()).isTrue();
+        assertThat(config.getTransportConnectTimeoutSeconds()).isEqualTo(5);
+        assertThat(config.getTransportRequestTimeoutSeconds()).isEqualTo(10);
+        assertThat(config.getTransportIdleTimeoutSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    void getTransportSettings() {
+        properties.setProperty("xrate.transport.poolSize", "4");
+        properties.setProperty("xrate.transport.http2", "false");
+        properties.setProperty("xrate.transport.connectTimeout", "1");
+        properties.setProperty("xrate.transport.requestTimeout", "2");
+        properties.setProperty("xrate.transport.idleTimeout", "3");
+
+        assertThat(config.getTransportPoolSize()).isEqualTo(4);
+        assertThat(config.isTransportHttp2Preferred()).isFalse();
+        assertThat(config.getTransportConnectTimeoutSeconds()).isEqualTo(1);
+        assertThat(config.getTransportRequestTimeoutSeconds()).isEqualTo(2);
+        assertThat(config.getTransportIdleTimeoutSeconds()).isEqualTo(3);
+    }
+
+    @Test
+    void isMetricsJmxEnabledReturnsFalseByDefault() {
+        assertThat(config.isMetricsJmxEnabled()).isFalse();
+    }
+
+    @Test
+    void isMetricsJmxEnabled() {
+        properties.setProperty("xrate.metrics.jmx", "true");
+
+        assertThat(config.isMetricsJmxEnabled()).isTrue();
+    }
+
+    @Test
+    void getProviderStrategyThrowsOnUnknownStrategy() {
+        properties.setProperty("xrate.providers.strategy", "random");
+
+        Throwable thrown = catchThrowable(() -> config.getProviderStrategy());
+
+        assertThat(thrown)
+                .isInstanceOf(ConfigurationException.class)
+                .hasMessage("Invalid value of xrate.providers.strategy: random");
+    }
+
+    @Test
+    void getTriangulationPolicyThrowsOnUnknownPolicy() {
+        properties.setProperty("xrate.core.triangulation", "sometimes");
+
+        Throwable thrown = catchThrowable(() -> config.getTriangulationPolicy());
+
+        assertThat(thrown)
+                .isInstanceOf(ConfigurationException.class)
+                .hasMessage("Invalid value of xrate.core.triangulation: sometimes");
+    }
+
+    @Test
+    void getBatchConcurrencyReturnsDefaultValue() {
+        assertThat(config.getBatchConcurrency()).isEqualTo(8);
+    }
+
+    @Test
+    void getBatchConcurrency() {
+        properties.setProperty("xrate.batch.concurrency", "32");
+
+        assertThat(config.getBatchConcurrency()).isEqualTo(32);
+    }
+
+    @Test
+    void getPipelineWindowReturnsDefaultValue() {
+        assertThat(config.getPipelineWindow()).isEqualTo(64);
+    }
+
+    @Test
+    void getServerThreadsReturnsDefaultValue() {
+        assertThat(config.getServerThreads()).isEqualTo(16);
+    }
 }
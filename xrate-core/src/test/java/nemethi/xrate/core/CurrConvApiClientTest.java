@@ -1,5 +1,6 @@
 package nemethi.xrate.core;
 
+import jdk.jfr.consumer.RecordedEvent;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,13 +18,22 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,16 +47,18 @@ class CurrConvApiClientTest {
     private static final String ENDPOINT_URI = "http://testUri";
     private static final String URI_TEMPLATE = ENDPOINT_URI + "?q=%s_%s&apiKey=%s&compact=ultra";
     private static final URI EXPECTED_URI = URI.create(String.format(URI_TEMPLATE, FROM, TO, API_KEY));
-    private static final String EXCHANGE_RATE_NOT_FOUND_TEMPLATE = "The exchange rate of %s to %s is not found";
 
     @Mock
     private HttpClient httpClient;
     @Mock
     private HttpResponse httpResponse;
+    @Mock
+    private Flow.Subscription subscription;
     @Captor
     private ArgumentCaptor<HttpRequest> requestCaptor;
 
     private CurrConvApiClient client;
+    private Object body;
 
     @BeforeEach
     void setUp() {
@@ -58,17 +70,59 @@ class CurrConvApiClientTest {
         var key = String.format("%s_%s", FROM, TO);
         var expectedRate = "0.756";
         var responseBody = new JSONObject().put(key, expectedRate).toString();
-        when(httpClient.send(any(), any())).thenReturn(httpResponse);
-        when(httpResponse.body()).thenReturn(responseBody);
+        respondWith(responseBody);
 
-        BigDecimal result = client.getConversionRate(FROM, TO, API_KEY);
+        Optional<BigDecimal> result = client.getConversionRate(FROM, TO, API_KEY);
 
-        assertThat(result).isEqualTo(new BigDecimal(expectedRate));
-        verify(httpClient).send(requestCaptor.capture(), eq(BodyHandlers.ofString()));
+        assertThat(result).contains(new BigDecimal(expectedRate));
+        verify(httpClient).send(requestCaptor.capture(), any());
         verify(httpResponse).body();
         assertHttpRequest();
     }
 
+    @Test
+    void getConversionRatesOfMultiplePairsWithSingleRequest() throws Exception {
+        var eur = Currency.getInstance("EUR");
+        var responseBody = new JSONObject().put("USD_GBP", "0.756").put("USD_EUR", "0.85").toString();
+        respondWith(responseBody);
+        var usdGbp = CurrencyPair.of(FROM, TO);
+        var usdEur = CurrencyPair.of(FROM, eur);
+
+        Map<CurrencyPair, BigDecimal> rates = client.getConversionRates(List.of(usdGbp, usdEur, usdGbp), API_KEY);
+
+        assertThat(rates).containsExactly(
+                Map.entry(usdGbp, new BigDecimal("0.756")),
+                Map.entry(usdEur, new BigDecimal("0.85")));
+        verify(httpClient).send(requestCaptor.capture(), any());
+        assertThat(requestCaptor.getValue().uri())
+                .isEqualTo(URI.create(ENDPOINT_URI + "?q=USD_GBP,USD_EUR&apiKey=" + API_KEY + "&compact=ultra"));
+    }
+
+    @Test
+    void getConversionRateAsyncFromThirdParty() {
+        var key = String.format("%s_%s", FROM, TO);
+        var expectedRate = "0.756";
+        var responseBody = new JSONObject().put(key, expectedRate).toString();
+        when(httpClient.sendAsync(any(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(receive(invocation.getArgument(1), responseBody)));
+        when(httpResponse.body()).thenAnswer(invocation -> body);
+
+        Optional<BigDecimal> result = client.getConversionRateAsync(FROM, TO, API_KEY).join();
+
+        assertThat(result).contains(new BigDecimal(expectedRate));
+        verify(httpClient).sendAsync(requestCaptor.capture(), any());
+        assertHttpRequest();
+    }
+
+    @Test
+    void getConversionRateAsyncCompletesExceptionallyOnHttpClientError(@Mock IOException exception) {
+        when(httpClient.sendAsync(any(), any())).thenReturn(CompletableFuture.failedFuture(exception));
+
+        Throwable thrown = catchThrowable(() -> client.getConversionRateAsync(FROM, TO, API_KEY).join());
+
+        assertThat(thrown).isInstanceOf(CompletionException.class).hasCause(exception);
+    }
+
     @Test
     void throwsExceptionOnInterruption(@Mock InterruptedException exception) throws IOException, InterruptedException {
         when(httpClient.send(any(), any())).thenThrow(exception);
@@ -76,7 +130,7 @@ class CurrConvApiClientTest {
         Throwable thrown = catchThrowable(() -> client.getConversionRate(FROM, TO, API_KEY));
 
         assertThat(thrown).isEqualTo(exception);
-        verify(httpClient).send(requestCaptor.capture(), eq(BodyHandlers.ofString()));
+        verify(httpClient).send(requestCaptor.capture(), any());
         assertHttpRequest();
     }
 
@@ -96,41 +150,70 @@ class CurrConvApiClientTest {
         Throwable thrown = catchThrowable(() -> client.getConversionRate(FROM, TO, API_KEY));
 
         assertThat(thrown).isEqualTo(exception);
-        verify(httpClient).send(requestCaptor.capture(), eq(BodyHandlers.ofString()));
+        verify(httpClient).send(requestCaptor.capture(), any());
         assertHttpRequest();
     }
 
     @Test
-    @DisplayName("Throws an exception with a formal message when the returned JSON doesn't contain the rate")
-    void throwsExceptionWithFormalMessageOnInvalidJson() throws Exception {
-        when(httpClient.send(any(), any())).thenReturn(httpResponse);
-        when(httpResponse.body()).thenReturn("{}");
+    @DisplayName("Returns an empty rate when the returned JSON doesn't contain the rate")
+    void returnsEmptyRateWhenJsonDoesNotContainIt() throws Exception {
+        respondWith("{}");
 
-        Throwable thrown = catchThrowable(() -> client.getConversionRate(FROM, TO, API_KEY));
+        Optional<BigDecimal> result = client.getConversionRate(FROM, TO, API_KEY);
 
-        assertThat(thrown)
-                .isInstanceOf(JSONException.class)
-                .hasMessage(EXCHANGE_RATE_NOT_FOUND_TEMPLATE, FROM, TO);
-        verify(httpClient).send(requestCaptor.capture(), eq(BodyHandlers.ofString()));
+        assertThat(result).isEmpty();
+        verify(httpClient).send(requestCaptor.capture(), any());
         verify(httpResponse).body();
         assertHttpRequest();
     }
 
     @Test
-    @DisplayName("Throws an exception with the original message on other JSON-related errors")
+    @DisplayName("Throws an exception on JSON-related errors")
     void throwsExceptionOnOtherJsonRelatedError() throws IOException, InterruptedException {
-        when(httpClient.send(any(), any())).thenReturn(httpResponse);
-        when(httpResponse.body()).thenReturn("");
+        respondWith("");
 
         Throwable thrown = catchThrowable(() -> client.getConversionRate(FROM, TO, API_KEY));
 
         assertThat(thrown).isInstanceOf(JSONException.class);
-        assertThat(thrown.getMessage()).isNotEqualTo(String.format(EXCHANGE_RATE_NOT_FOUND_TEMPLATE, FROM, TO));
-        verify(httpClient).send(requestCaptor.capture(), eq(BodyHandlers.ofString()));
-        verify(httpResponse).body();
+        verify(httpClient).send(requestCaptor.capture(), any());
         assertHttpRequest();
     }
 
+    @Test
+    void recordsProviderCallEvents() throws Exception {
+        var responseBody = "{\"USD_GBP\":0.756}";
+        respondWith(responseBody);
+
+        List<RecordedEvent> events = RecordedEvents.record("nemethi.xrate.ProviderCall", () -> {
+            client.getConversionRate(FROM, TO, API_KEY);
+            client.getConversionRate(TO, FROM, API_KEY);
+        });
+
+        assertThat(events).extracting(event -> event.getString("provider")).containsOnly(DefaultCurrencyConverter.class.getName());
+        assertThat(events).extracting(event -> event.getString("pairs")).containsExactly("USD_GBP", "GBP_USD");
+        assertThat(events).extracting(event -> event.getLong("payloadSize")).containsOnly((long) responseBody.length());
+        assertThat(events).extracting(event -> event.getString("outcome")).containsExactly("success", "success");
+    }
+
+    private void respondWith(String json) throws IOException, InterruptedException {
+        when(httpClient.send(any(), any())).thenAnswer(invocation -> receive(invocation.getArgument(1), json));
+        lenient().when(httpResponse.body()).thenAnswer(invocation -> body);
+    }
+
+    // Feeds the body to the subscriber of the handler and fails like the JDK client if the subscriber fails
+    private HttpResponse<?> receive(BodyHandler<?> bodyHandler, String json) throws IOException {
+        BodySubscriber<?> subscriber = bodyHandler.apply(null);
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+        try {
+            body = subscriber.getBody().toCompletableFuture().join();
+        } catch (CompletionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        return httpResponse;
+    }
+
     private void assertHttpRequest() {
         HttpRequest request = requestCaptor.getValue();
         assertThat(request.uri()).isEqualTo(EXPECTED_URI);
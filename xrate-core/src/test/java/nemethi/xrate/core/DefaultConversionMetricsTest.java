@@ -0,0 +1,92 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ProviderUnavailableException;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultConversionMetricsTest {
+
+    private static final String PROVIDER = "testProvider";
+    private static final String OTHER_PROVIDER = "otherProvider";
+
+    private final DefaultConversionMetrics metrics = new DefaultConversionMetrics();
+
+    @Test
+    void recordsCallsPerProvider() {
+        metrics.recordStart(PROVIDER);
+        metrics.recordSuccess(PROVIDER, 2_000_000);
+        metrics.recordStart(PROVIDER);
+        metrics.recordFailure(PROVIDER, 4_000_000, new ConversionException("test", new IOException()));
+        metrics.recordStart(OTHER_PROVIDER);
+        metrics.recordCancellation(OTHER_PROVIDER);
+
+        List<DefaultConversionMetrics.ProviderStats> providers = metrics.getProviders();
+
+        assertThat(providers).extracting(DefaultConversionMetrics.ProviderStats::getProvider)
+                .containsExactly(OTHER_PROVIDER, PROVIDER);
+        DefaultConversionMetrics.ProviderStats stats = providers.get(1);
+        assertThat(stats.getSuccesses()).isEqualTo(1);
+        assertThat(stats.getFailures()).isEqualTo(1);
+        assertThat(stats.getCancellations()).isZero();
+        assertThat(stats.getFailuresByCause()).isEqualTo(Map.of("IOException", 1L));
+        assertThat(stats.getLatencyP50Millis()).isBetween(2.0, 2.25);
+        assertThat(stats.getLatencyMaxMillis()).isEqualTo(4.0);
+        assertThat(providers.get(0).getCancellations()).isEqualTo(1);
+        assertThat(metrics.getInFlightRequests()).isZero();
+    }
+
+    @Test
+    void countsRequestsInFlight() {
+        metrics.recordStart(PROVIDER);
+        metrics.recordStart(PROVIDER);
+        metrics.recordSuccess(PROVIDER, 1);
+
+        assertThat(metrics.getInFlightRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void failureIsCountedByCause() {
+        assertThat(DefaultConversionMetrics.causeOf(new ConversionException("test", new JSONException("test"))))
+                .isEqualTo("JSONException");
+        assertThat(DefaultConversionMetrics.causeOf(new ProviderUnavailableException("test")))
+                .isEqualTo("ProviderUnavailableException");
+        assertThat(DefaultConversionMetrics.causeOf(new CompletionException(new ConversionException("test", new IOException()))))
+                .isEqualTo("IOException");
+        assertThat(DefaultConversionMetrics.causeOf(new IllegalStateException()))
+                .isEqualTo("IllegalStateException");
+    }
+
+    @Test
+    void computesCacheHitRatio() {
+        metrics.recordCacheHit();
+        metrics.recordCacheHit();
+        metrics.recordCacheHit();
+        metrics.recordCacheMiss();
+
+        assertThat(metrics.getCacheHits()).isEqualTo(3);
+        assertThat(metrics.getCacheMisses()).isEqualTo(1);
+        assertThat(metrics.getCacheHitRatio()).isEqualTo(0.75);
+    }
+
+    @Test
+    void countsCoalescedRequests() {
+        metrics.recordCoalesced();
+        metrics.recordCoalesced();
+
+        assertThat(metrics.getCoalescedRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void cacheHitRatioIsZeroWithoutLookups() {
+        assertThat(metrics.getCacheHitRatio()).isZero();
+        assertThat(metrics.getProviders()).isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package nemethi.xrate.core;
 
 import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
 import nemethi.xrate.api.ConversionResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,13 +11,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +38,7 @@ class DefaultCurrencyConverterTest {
     private static final BigDecimal RATE = new BigDecimal("1.5");
     private static final BigDecimal RESULT = AMOUNT.multiply(RATE, ConversionResult.MATH_CONTEXT);
     private static final String ERROR_MESSAGE = "Could not convert currency using the default third-party API:";
+    private static final String RATE_NOT_FOUND_TEMPLATE = ERROR_MESSAGE + " The exchange rate of %s to %s is not found";
 
     @Mock
     private CurrConvApiClient client;
@@ -43,7 +53,7 @@ class DefaultCurrencyConverterTest {
 
     @Test
     void multipliesAmountWithRateReturnedFromClient() throws IOException, InterruptedException {
-        when(client.getConversionRate(any(), any(), anyString())).thenReturn(RATE);
+        when(client.getConversionRate(any(), any(), anyString())).thenReturn(Optional.of(RATE));
         ConversionResult expectedResult = new ConversionResult(FROM, TO, AMOUNT, RESULT);
 
         ConversionResult result = converter.convert(FROM, TO, AMOUNT);
@@ -52,6 +62,74 @@ class DefaultCurrencyConverterTest {
         verify(client).getConversionRate(FROM, TO, API_KEY);
     }
 
+    @Test
+    void convertAsyncMultipliesAmountWithRateReturnedFromClient() {
+        when(client.getConversionRateAsync(any(), any(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(RATE)));
+        ConversionResult expectedResult = new ConversionResult(FROM, TO, AMOUNT, RESULT);
+
+        ConversionResult result = converter.convertAsync(FROM, TO, AMOUNT).join();
+
+        assertThat(result).isEqualTo(expectedResult);
+        verify(client).getConversionRateAsync(FROM, TO, API_KEY);
+    }
+
+    @Test
+    void cancellingConvertAsyncCancelsRequestOfClient() {
+        CompletableFuture<Optional<BigDecimal>> request = new CompletableFuture<>();
+        when(client.getConversionRateAsync(any(), any(), anyString())).thenReturn(request);
+
+        converter.convertAsync(FROM, TO, AMOUNT).cancel(true);
+
+        assertThat(request).isCancelled();
+    }
+
+    @Test
+    void convertAsyncWrapsExceptionOfClient(@Mock IOException exception) {
+        when(client.getConversionRateAsync(any(), any(), anyString())).thenReturn(CompletableFuture.failedFuture(exception));
+
+        Throwable thrown = catchThrowable(() -> converter.convertAsync(FROM, TO, AMOUNT).join());
+
+        assertThat(thrown)
+                .isInstanceOf(CompletionException.class)
+                .getCause()
+                .isInstanceOf(ConversionException.class)
+                .hasMessage(ERROR_MESSAGE)
+                .hasCause(exception);
+    }
+
+    @Test
+    void convertAllFetchesRatesOfAllRequestsAtOnce() throws IOException, InterruptedException {
+        var eur = Currency.getInstance("EUR");
+        var eurRate = new BigDecimal("0.85");
+        var requests = List.of(
+                new ConversionRequest(FROM, TO, AMOUNT),
+                new ConversionRequest(FROM, eur, BigDecimal.TEN),
+                new ConversionRequest(FROM, TO, BigDecimal.TEN));
+        var pairs = List.of(CurrencyPair.of(FROM, TO), CurrencyPair.of(FROM, eur), CurrencyPair.of(FROM, TO));
+        when(client.getConversionRates(anyList(), anyString()))
+                .thenReturn(Map.of(CurrencyPair.of(FROM, TO), RATE, CurrencyPair.of(FROM, eur), eurRate));
+
+        List<ConversionResult> results = converter.convertAll(requests);
+
+        assertThat(results).containsExactly(
+                new ConversionResult(FROM, TO, AMOUNT, RESULT),
+                new ConversionResult(FROM, eur, BigDecimal.TEN, BigDecimal.TEN.multiply(eurRate)),
+                new ConversionResult(FROM, TO, BigDecimal.TEN, BigDecimal.TEN.multiply(RATE)));
+        verify(client).getConversionRates(pairs, API_KEY);
+    }
+
+    @Test
+    void convertAllWrapsExceptionThrownByClient(@Mock IOException exception) throws IOException, InterruptedException {
+        when(client.getConversionRates(anyList(), anyString())).thenThrow(exception);
+
+        Throwable thrown = catchThrowable(() -> converter.convertAll(List.of(new ConversionRequest(FROM, TO, AMOUNT))));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage(ERROR_MESSAGE)
+                .hasCause(exception);
+    }
+
     @Test
     void wrapsExceptionThrownByClient(@Mock IOException exception) throws IOException, InterruptedException {
         when(client.getConversionRate(any(), any(), anyString())).thenThrow(exception);
@@ -64,4 +142,78 @@ class DefaultCurrencyConverterTest {
                 .hasCause(exception);
         verify(client).getConversionRate(FROM, TO, API_KEY);
     }
+
+    @Test
+    void throwsExceptionIfClientFindsNoRate() throws IOException, InterruptedException {
+        when(client.getConversionRate(any(), any(), anyString())).thenReturn(Optional.empty());
+
+        Throwable thrown = catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage(RATE_NOT_FOUND_TEMPLATE, FROM, TO)
+                .hasNoCause();
+    }
+
+    @Test
+    void convertAsyncThrowsExceptionIfClientFindsNoRate() {
+        when(client.getConversionRateAsync(any(), any(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        Throwable thrown = catchThrowable(() -> converter.convertAsync(FROM, TO, AMOUNT).join());
+
+        assertThat(thrown)
+                .isInstanceOf(CompletionException.class)
+                .getCause()
+                .isInstanceOf(ConversionException.class)
+                .hasMessage(RATE_NOT_FOUND_TEMPLATE, FROM, TO);
+    }
+
+    @Test
+    void convertAllThrowsExceptionIfClientFindsNoRateOfRequest() throws IOException, InterruptedException {
+        var eur = Currency.getInstance("EUR");
+        when(client.getConversionRates(anyList(), anyString())).thenReturn(Map.of(CurrencyPair.of(FROM, TO), RATE));
+
+        Throwable thrown = catchThrowable(() -> converter.convertAll(List.of(
+                new ConversionRequest(FROM, TO, AMOUNT), new ConversionRequest(FROM, eur, AMOUNT))));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage(RATE_NOT_FOUND_TEMPLATE, FROM, eur);
+    }
+
+    @Test
+    void derivesInverseRateWithoutCallingClient() throws IOException, InterruptedException {
+        converter = new DefaultCurrencyConverter(client, new RateGraph(TriangulationPolicy.INVERSE, FROM, Duration.ofMinutes(1)));
+        converter.setAuthCredentials(API_KEY);
+        when(client.getConversionRate(any(), any(), anyString())).thenReturn(Optional.of(new BigDecimal("1.25")));
+        converter.convert(FROM, TO, AMOUNT);
+
+        ConversionResult result = converter.convert(TO, FROM, new BigDecimal("3"));
+
+        assertThat(result).isInstanceOf(DerivedConversionResult.class);
+        assertThat(result.getResult()).isEqualByComparingTo("2.4");
+        var derivedResult = (DerivedConversionResult) result;
+        assertThat(derivedResult.getDerivation()).isEqualTo(RateDerivation.INVERSE);
+        assertThat(derivedResult.getPath()).containsExactly(TO, FROM);
+        assertThat(derivedResult.getKnownRate()).hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("0.8"));
+        verify(client).getConversionRate(FROM, TO, API_KEY);
+        verifyNoMoreInteractions(client);
+    }
+
+    @Test
+    void convertAllOnlyFetchesPairsThatCannotBeDerived() throws IOException, InterruptedException {
+        var eur = Currency.getInstance("EUR");
+        converter = new DefaultCurrencyConverter(client, new RateGraph(TriangulationPolicy.INVERSE, FROM, Duration.ofMinutes(1)));
+        converter.setAuthCredentials(API_KEY);
+        when(client.getConversionRate(any(), any(), anyString())).thenReturn(Optional.of(RATE));
+        when(client.getConversionRates(anyList(), anyString())).thenReturn(Map.of(CurrencyPair.of(FROM, eur), RATE));
+        converter.convert(FROM, TO, AMOUNT);
+
+        List<ConversionResult> results = converter.convertAll(List.of(
+                new ConversionRequest(TO, FROM, AMOUNT), new ConversionRequest(FROM, eur, AMOUNT)));
+
+        assertThat(results.get(0)).isInstanceOf(DerivedConversionResult.class);
+        assertThat(results.get(1)).isEqualTo(new ConversionResult(FROM, eur, AMOUNT, RESULT));
+        verify(client).getConversionRates(List.of(CurrencyPair.of(FROM, eur)), API_KEY);
+    }
 }
@@ -0,0 +1,212 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingCurrencyConverterTest {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+    private static final ConversionResult PRIMARY_RESULT = new ConversionResult(FROM, TO, AMOUNT, new BigDecimal("0.72"));
+    private static final ConversionResult SECONDARY_RESULT = new ConversionResult(FROM, TO, AMOUNT, new BigDecimal("0.73"));
+    private static final Duration DELAY = Duration.ofMillis(200);
+
+    @Mock
+    private CurrencyConverter primary;
+    @Mock
+    private CurrencyConverter secondary;
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Mock
+    private ScheduledFuture<?> timer;
+    @Captor
+    private ArgumentCaptor<Runnable> hedge;
+
+    private HedgingCurrencyConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new HedgingCurrencyConverter(List.of(primary, secondary), DELAY, false, scheduler);
+    }
+
+    private void stubScheduler() {
+        doReturn(timer).when(scheduler).schedule(hedge.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void returnsResultOfPrimaryIfItAnswersInTime() {
+        stubScheduler();
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(PRIMARY_RESULT));
+
+        ConversionResult result = converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(result).isEqualTo(PRIMARY_RESULT);
+        assertThat(converter.getHedgedCount()).isZero();
+        verify(scheduler).schedule(any(Runnable.class), eq(DELAY.toNanos()), eq(TimeUnit.NANOSECONDS));
+        verify(timer).cancel(false);
+        verify(secondary, never()).convertAsync(any(), any(), any());
+    }
+
+    @Test
+    void sendsConversionToNextProviderAfterDelay() {
+        stubScheduler();
+        CompletableFuture<ConversionResult> slowPrimary = new CompletableFuture<>();
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenReturn(slowPrimary);
+        when(secondary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(SECONDARY_RESULT));
+
+        CompletableFuture<ConversionResult> result = converter.convertAsync(FROM, TO, AMOUNT);
+        assertThat(result).isNotDone();
+        hedge.getValue().run();
+
+        assertThat(result).isCompletedWithValue(SECONDARY_RESULT);
+        assertThat(slowPrimary).isCancelled();
+        assertThat(converter.getHedgedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void returnsResultWithProviderThatAnswered() {
+        stubScheduler();
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenReturn(new CompletableFuture<>());
+        when(secondary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(SECONDARY_RESULT));
+
+        CompletableFuture<ConversionResult> result = converter.convertAsync(FROM, TO, AMOUNT);
+        hedge.getValue().run();
+
+        assertThat(result).isCompletedWithValue(SECONDARY_RESULT);
+        assertThat(result.join().getProvider()).contains(MeteredCurrencyConverter.nameOf(secondary));
+    }
+
+    @Test
+    void sendsConversionToNextProviderRightAwayIfPrimaryFails() {
+        stubScheduler();
+        when(primary.convertAsync(FROM, TO, AMOUNT))
+                .thenReturn(CompletableFuture.failedFuture(new ConversionException("primary failed")));
+        when(secondary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(SECONDARY_RESULT));
+
+        ConversionResult result = converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(result).isEqualTo(SECONDARY_RESULT);
+        verify(timer).cancel(false);
+    }
+
+    @Test
+    void throwsLastFailureIfEveryProviderFails() {
+        stubScheduler();
+        when(primary.convertAsync(FROM, TO, AMOUNT))
+                .thenReturn(CompletableFuture.failedFuture(new ConversionException("primary failed")));
+        when(secondary.convertAsync(FROM, TO, AMOUNT)).thenThrow(new ConversionException("secondary failed"));
+
+        Throwable thrown = catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("secondary failed");
+    }
+
+    @Test
+    void adaptiveDelayFollowsLatencyOfPrimary() {
+        stubScheduler();
+        converter = new HedgingCurrencyConverter(List.of(primary, secondary), DELAY, true, scheduler);
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(PRIMARY_RESULT));
+        assertThat(converter.getHedgeDelay()).isEqualTo(DELAY);
+
+        for (int i = 0; i < 16; i++) {
+            converter.convert(FROM, TO, AMOUNT);
+        }
+
+        assertThat(converter.getHedgeDelay()).isLessThan(DELAY);
+    }
+
+    @Test
+    void adaptiveDelaySamplesPrimaryThatLost() {
+        stubScheduler();
+        converter = new HedgingCurrencyConverter(List.of(primary, secondary), DELAY, true, scheduler);
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenAnswer(invocation -> new CompletableFuture<>());
+        when(secondary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(SECONDARY_RESULT));
+
+        for (int i = 0; i < 16; i++) {
+            CompletableFuture<ConversionResult> result = converter.convertAsync(FROM, TO, AMOUNT);
+            hedge.getValue().run();
+            assertThat(result).isCompletedWithValue(SECONDARY_RESULT);
+        }
+
+        assertThat(converter.getHedgeDelay()).isLessThan(DELAY);
+    }
+
+    @Test
+    void fixedDelayDoesNotChange() {
+        stubScheduler();
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(PRIMARY_RESULT));
+
+        for (int i = 0; i < 16; i++) {
+            converter.convert(FROM, TO, AMOUNT);
+        }
+
+        assertThat(converter.getHedgeDelay()).isEqualTo(DELAY);
+    }
+
+    @Test
+    void singleProviderIsNeverHedged() {
+        converter = new HedgingCurrencyConverter(List.of(primary), DELAY, false, scheduler);
+        when(primary.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(PRIMARY_RESULT));
+
+        assertThat(converter.convert(FROM, TO, AMOUNT)).isEqualTo(PRIMARY_RESULT);
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void convertAllFallsBackToNextProvider() {
+        List<ConversionRequest> requests = List.of(new ConversionRequest(FROM, TO, AMOUNT));
+        when(primary.convertAll(requests)).thenThrow(new ConversionException("primary failed"));
+        when(secondary.convertAll(requests)).thenReturn(List.of(SECONDARY_RESULT));
+
+        assertThat(converter.convertAll(requests)).containsExactly(SECONDARY_RESULT);
+    }
+
+    @Test
+    void setAuthCredentialsSetsEveryProvider() {
+        converter.setAuthCredentials("creds");
+
+        verify(primary).setAuthCredentials("creds");
+        verify(secondary).setAuthCredentials("creds");
+    }
+
+    @Test
+    void throwsWithoutProviders() {
+        Throwable thrown = catchThrowable(() -> new HedgingCurrencyConverter(List.of(), DELAY, false, scheduler));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one provider is required");
+    }
+}
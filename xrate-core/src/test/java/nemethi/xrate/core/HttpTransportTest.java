@@ -0,0 +1,156 @@
+package nemethi.xrate.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import nemethi.xrate.api.TransportStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class HttpTransportTest {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+    private static final String KEY_STORE = "/localhost.p12";
+    private static final char[] KEY_STORE_PASSWORD = "changeit".toCharArray();
+    private static final String BODY = "{\"USD_GBP\":0.72}";
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void newRequestHasRequestTimeout() {
+        HttpTransport transport = new HttpTransport(4, true, CONNECT_TIMEOUT, REQUEST_TIMEOUT, IDLE_TIMEOUT);
+
+        HttpRequest request = transport.newRequest(URI.create("http://localhost/convert")).build();
+
+        assertThat(request.timeout()).contains(REQUEST_TIMEOUT);
+        assertThat(request.method()).isEqualTo("GET");
+    }
+
+    @Test
+    void returnsSettings() {
+        HttpTransport transport = new HttpTransport(4, false, CONNECT_TIMEOUT, REQUEST_TIMEOUT, IDLE_TIMEOUT);
+
+        assertThat(transport.getPoolSize()).isEqualTo(4);
+        assertThat(transport.isHttp2Preferred()).isFalse();
+        assertThat(transport.getConnectTimeout()).isEqualTo(CONNECT_TIMEOUT);
+        assertThat(transport.getRequestTimeout()).isEqualTo(REQUEST_TIMEOUT);
+        assertThat(transport.getIdleTimeout()).isEqualTo(IDLE_TIMEOUT);
+    }
+
+    @Test
+    void countsPlainRequests() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        startServer();
+        HttpTransport transport = new HttpTransport(4, false, CONNECT_TIMEOUT, REQUEST_TIMEOUT, IDLE_TIMEOUT);
+        URI uri = URI.create(String.format("http://localhost:%d/convert", server.getAddress().getPort()));
+
+        HttpResponse<String> response = transport.send(transport.newRequest(uri).build(), BodyHandlers.ofString());
+        transport.sendAsync(transport.newRequest(uri).build(), BodyHandlers.ofString()).join();
+
+        assertThat(response.body()).isEqualTo(BODY);
+        assertThat(transport.getStats()).isEqualTo(new TransportStats(2, 0, 0, 0, 0));
+    }
+
+    @Test
+    void reusesTlsConnections() throws Exception {
+        SSLContext sslContext = createSslContext();
+        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        server = httpsServer;
+        startServer();
+        HttpTransport transport = new HttpTransport(4, false, CONNECT_TIMEOUT, REQUEST_TIMEOUT, IDLE_TIMEOUT, sslContext);
+        URI uri = URI.create(String.format("https://localhost:%d/convert", server.getAddress().getPort()));
+
+        for (int i = 0; i < 3; i++) {
+            transport.send(transport.newRequest(uri).build(), BodyHandlers.ofString());
+        }
+        CompletableFuture<HttpResponse<String>> response = transport.sendAsync(transport.newRequest(uri).build(), BodyHandlers.ofString());
+        response.join();
+
+        TransportStats stats = transport.getStats();
+        assertThat(stats.getRequests()).isEqualTo(4);
+        assertThat(stats.getSecureRequests()).isEqualTo(4);
+        assertThat(stats.getHandshakes()).isEqualTo(1);
+        assertThat(stats.getHandshakesSaved()).isEqualTo(3);
+        assertThat(stats.getActiveConnections()).isZero();
+        assertThat(stats.getIdleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void countsFailedRequests() {
+        HttpTransport transport = new HttpTransport(4, false, CONNECT_TIMEOUT, REQUEST_TIMEOUT, IDLE_TIMEOUT);
+        URI uri = URI.create("http://localhost:1/convert");
+
+        Throwable thrown = catchThrowable(() -> transport.send(transport.newRequest(uri).build(), BodyHandlers.ofString()));
+
+        assertThat(thrown).isInstanceOf(IOException.class);
+        assertThat(transport.getStats().getRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void includesStatsOfSources() {
+        HttpTransport transport = new HttpTransport(4, false, CONNECT_TIMEOUT, REQUEST_TIMEOUT, IDLE_TIMEOUT);
+        transport.addStatsSource(() -> new TransportStats(3, 3, 1, 1, 0));
+        transport.addStatsSource(() -> new TransportStats(2, 2, 1, 0, 1));
+
+        assertThat(transport.getStats()).isEqualTo(new TransportStats(5, 5, 2, 1, 1));
+        assertThat(transport.getStats().getHandshakesSaved()).isEqualTo(3);
+    }
+
+    private void startServer() {
+        server.createContext("/convert", this::respond);
+        server.start();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static SSLContext createSslContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream input = HttpTransportTest.class.getResourceAsStream(KEY_STORE)) {
+            keyStore.load(input, KEY_STORE_PASSWORD);
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, KEY_STORE_PASSWORD);
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return sslContext;
+    }
+}
@@ -0,0 +1,95 @@
+package nemethi.xrate.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+    private static final Instant NOW = Instant.parse("2021-06-01T12:00:00Z");
+    private static final CurrencyPair USD_GBP = CurrencyPair.of(Currency.getInstance("USD"), Currency.getInstance("GBP"));
+    private static final CurrencyPair USD_EUR = CurrencyPair.of(Currency.getInstance("USD"), Currency.getInstance("EUR"));
+    private static final CurrencyPair USD_HUF = CurrencyPair.of(Currency.getInstance("USD"), Currency.getInstance("HUF"));
+    private static final BigDecimal RATE = new BigDecimal("0.72");
+
+    private MutableClock clock;
+    private InMemoryRateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        cache = new InMemoryRateCache(TTL, 2, clock);
+    }
+
+    @Test
+    void returnsStoredRateAndCountsHit() {
+        cache.put(USD_GBP, RATE);
+
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isZero();
+    }
+
+    @Test
+    void countsMissOfUnknownPair() {
+        assertThat(cache.get(USD_GBP)).isEmpty();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsExpiredRate() {
+        cache.put(USD_GBP, RATE);
+        clock.instant = NOW.plus(TTL);
+
+        assertThat(cache.get(USD_GBP)).isEmpty();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedRateWhenFull() {
+        cache.put(USD_GBP, RATE);
+        cache.put(USD_EUR, RATE);
+        cache.get(USD_GBP);
+        cache.put(USD_HUF, RATE);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.get(USD_EUR)).isEmpty();
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package nemethi.xrate.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void everyValueIsWithinItsBucket() {
+        long[] values = {0, 1, 7, 8, 15, 16, 17, 1_000, 1_000_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+
+            assertThat(LatencyHistogram.upperBoundOf(index)).isGreaterThanOrEqualTo(value);
+            assertThat(index == 0 || LatencyHistogram.upperBoundOf(index - 1) < value).isTrue();
+        }
+    }
+
+    @Test
+    void percentilesAreWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat((double) histogram.getPercentile(0.5)).isCloseTo(5_000_000, within(5_000_000 * 0.125));
+        assertThat((double) histogram.getPercentile(0.99)).isCloseTo(9_900_000, within(9_900_000 * 0.125));
+        assertThat(histogram.getPercentile(0.999)).isLessThanOrEqualTo(histogram.getMax());
+        assertThat(histogram.getMax()).isEqualTo(10_000_000);
+    }
+
+    @Test
+    void percentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+
+        assertThat(histogram.getPercentile(0.999)).isEqualTo(1_000_001);
+    }
+
+    @Test
+    void emptyHistogramHasZeroPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getPercentile(0.5)).isZero();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMax()).isZero();
+    }
+
+    @Test
+    void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertThat(histogram.getCount()).isEqualTo(1);
+        assertThat(histogram.getPercentile(1)).isZero();
+    }
+}
@@ -0,0 +1,140 @@
+package nemethi.xrate.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedRateCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+    private static final Instant NOW = Instant.parse("2021-06-01T12:00:00Z");
+    private static final CurrencyPair USD_GBP = pair("USD", "GBP");
+    private static final CurrencyPair GBP_USD = pair("GBP", "USD");
+    private static final BigDecimal RATE = new BigDecimal("0.72");
+
+    @TempDir
+    Path directory;
+
+    private MappedRateCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cache = new MappedRateCache(directory, TTL, MappedRateCache.DEFAULT_BUCKET_COUNT, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.close();
+    }
+
+    @Test
+    void returnsStoredRate() {
+        cache.put(USD_GBP, RATE);
+
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+        assertThat(cache.get(GBP_USD)).isEmpty();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void overwritesRateOfSamePair() {
+        cache.put(USD_GBP, RATE);
+        cache.put(USD_GBP, BigDecimal.TEN);
+
+        assertThat(cache.get(USD_GBP)).contains(BigDecimal.TEN);
+    }
+
+    @Test
+    void rateSurvivesReopeningTheFile() throws IOException {
+        cache.put(USD_GBP, RATE);
+        cache.close();
+
+        cache = new MappedRateCache(directory, TTL, MappedRateCache.DEFAULT_BUCKET_COUNT, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+        assertThat(Files.size(directory.resolve(MappedRateCache.FILE_NAME))).isEqualTo(64 + 512 * 8 * 32);
+    }
+
+    @Test
+    void doesNotReturnExpiredRate() throws IOException {
+        cache.put(USD_GBP, RATE);
+        cache.close();
+
+        cache = new MappedRateCache(directory, TTL, MappedRateCache.DEFAULT_BUCKET_COUNT, Clock.fixed(NOW.plus(TTL), ZoneOffset.UTC));
+
+        assertThat(cache.get(USD_GBP)).isEmpty();
+    }
+
+    @Test
+    void roundsRatesThatDoNotFitInLong() {
+        var preciseRate = new BigDecimal("0.7212345678901234567890123");
+
+        cache.put(USD_GBP, preciseRate);
+
+        assertThat(cache.get(USD_GBP)).contains(new BigDecimal("0.721234567890123457"));
+    }
+
+    @Test
+    void replacesOldestSlotOfFullBucket() throws IOException {
+        cache.close();
+        var clock = new TickingClock();
+        cache = new MappedRateCache(directory, TTL, 1, clock);
+        String[] targets = {"GBP", "EUR", "HUF", "JPY", "CHF", "CAD", "AUD", "SEK", "NOK"};
+        for (String target : targets) {
+            cache.put(pair("USD", target), RATE);
+        }
+
+        assertThat(cache.get(pair("USD", "GBP"))).isEmpty();
+        assertThat(cache.get(pair("USD", "NOK"))).contains(RATE);
+        assertThat(cache.get(pair("USD", "EUR"))).contains(RATE);
+    }
+
+    @Test
+    void keyOfDistinguishesDirection() {
+        assertThat(MappedRateCache.keyOf(USD_GBP)).isNotEqualTo(MappedRateCache.keyOf(GBP_USD));
+    }
+
+    private static CurrencyPair pair(String from, String to) {
+        return CurrencyPair.of(Currency.getInstance(from), Currency.getInstance(to));
+    }
+
+    private static class TickingClock extends Clock {
+
+        private long millis = NOW.toEpochMilli();
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis++;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
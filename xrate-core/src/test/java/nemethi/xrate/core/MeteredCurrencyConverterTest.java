@@ -0,0 +1,130 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredCurrencyConverterTest {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+    private static final ConversionResult RESULT = new ConversionResult(FROM, TO, AMOUNT, new BigDecimal("0.72"));
+    private static final long ELAPSED_NANOS = 5_000;
+
+    @Mock
+    private CurrencyConverter delegate;
+    @Mock
+    private ConversionMetrics metrics;
+
+    private final AtomicLong time = new AtomicLong();
+    private MeteredCurrencyConverter converter;
+    private String provider;
+
+    @BeforeEach
+    void setUp() {
+        converter = new MeteredCurrencyConverter(delegate, metrics, () -> time.getAndAdd(ELAPSED_NANOS));
+        provider = delegate.getClass().getName();
+    }
+
+    @Test
+    void recordsSuccessfulConversion() {
+        when(delegate.convert(FROM, TO, AMOUNT)).thenReturn(RESULT);
+
+        ConversionResult result = converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(result).isEqualTo(RESULT);
+        InOrder inOrder = inOrder(metrics);
+        inOrder.verify(metrics).recordStart(provider);
+        inOrder.verify(metrics).recordSuccess(provider, ELAPSED_NANOS);
+    }
+
+    @Test
+    void recordsFailedConversion() {
+        var exception = new ConversionException("test");
+        when(delegate.convert(FROM, TO, AMOUNT)).thenThrow(exception);
+
+        Throwable thrown = catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+
+        assertThat(thrown).isEqualTo(exception);
+        verify(metrics).recordFailure(provider, ELAPSED_NANOS, exception);
+        verify(metrics, never()).recordSuccess(provider, ELAPSED_NANOS);
+    }
+
+    @Test
+    void recordsAsyncConversionWhenCompleted() {
+        CompletableFuture<ConversionResult> future = new CompletableFuture<>();
+        when(delegate.convertAsync(FROM, TO, AMOUNT)).thenReturn(future);
+
+        CompletableFuture<ConversionResult> result = converter.convertAsync(FROM, TO, AMOUNT);
+
+        assertThat(result).isSameAs(future);
+        verify(metrics).recordStart(provider);
+        verify(metrics, never()).recordSuccess(provider, ELAPSED_NANOS);
+        future.complete(RESULT);
+        verify(metrics).recordSuccess(provider, ELAPSED_NANOS);
+    }
+
+    @Test
+    void recordsFailedAsyncConversion() {
+        var exception = new ConversionException("test");
+        when(delegate.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.failedFuture(exception));
+
+        converter.convertAsync(FROM, TO, AMOUNT);
+
+        verify(metrics).recordFailure(provider, ELAPSED_NANOS, exception);
+    }
+
+    @Test
+    void recordsCancelledAsyncConversionAsCancellation() {
+        CompletableFuture<ConversionResult> future = new CompletableFuture<>();
+        when(delegate.convertAsync(FROM, TO, AMOUNT)).thenReturn(future);
+
+        converter.convertAsync(FROM, TO, AMOUNT).cancel(false);
+
+        verify(metrics).recordCancellation(provider);
+        verify(metrics, never()).recordFailure(eq(provider), anyLong(), any());
+    }
+
+    @Test
+    void recordsConversionOfMultipleRequestsAsOneCall() {
+        List<ConversionRequest> requests = List.of(new ConversionRequest(FROM, TO, AMOUNT), new ConversionRequest(TO, FROM, AMOUNT));
+        when(delegate.convertAll(requests)).thenReturn(List.of(RESULT, RESULT));
+
+        converter.convertAll(requests);
+
+        verify(metrics).recordStart(provider);
+        verify(metrics).recordSuccess(provider, ELAPSED_NANOS);
+    }
+
+    @Test
+    void nameOfMeteredConverterIsNameOfProvider() {
+        assertThat(MeteredCurrencyConverter.nameOf(converter)).isEqualTo(provider);
+        assertThat(MeteredCurrencyConverter.nameOf(delegate)).isEqualTo(provider);
+    }
+}
@@ -0,0 +1,145 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PipelineConverterTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Mock
+    private CurrencyConverter converter;
+
+    private StringWriter output;
+    private ResultPrinter printer;
+
+    @BeforeEach
+    void setUp() {
+        output = new StringWriter();
+        printer = new ResultPrinter(new PrintWriter(output, true));
+    }
+
+    @Test
+    void printsResultsInInputOrderWhenLaterRequestsCompleteFirst() throws IOException {
+        CompletableFuture<ConversionResult> slowResult = new CompletableFuture<>();
+        when(converter.convertAsync(USD, GBP, BigDecimal.ONE)).thenReturn(slowResult);
+        when(converter.convertAsync(USD, EUR, BigDecimal.TEN)).thenAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> slowResult.complete(new ConversionResult(USD, GBP, BigDecimal.ONE, new BigDecimal("0.72"))));
+            return CompletableFuture.completedFuture(new ConversionResult(USD, EUR, BigDecimal.TEN, new BigDecimal("8.4")));
+        });
+        PipelineConverter pipeline = new PipelineConverter(converter, printer, 4);
+
+        long count = pipeline.convert(reader("USD GBP 1", "USD EUR 10"));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(outputLines()).containsExactly("USD,GBP,1,0.72", "USD,EUR,10,8.4");
+    }
+
+    @Test
+    void reportsFailuresInlineAndContinues() throws IOException {
+        when(converter.convertAsync(USD, GBP, BigDecimal.ONE))
+                .thenReturn(CompletableFuture.failedFuture(new ConversionException("Service unavailable")));
+        when(converter.convertAsync(USD, EUR, BigDecimal.ONE))
+                .thenReturn(CompletableFuture.completedFuture(new ConversionResult(USD, EUR, BigDecimal.ONE, new BigDecimal("0.84"))));
+        PipelineConverter pipeline = new PipelineConverter(converter, printer, 4);
+
+        long count = pipeline.convert(reader("USD GBP 1", "", "USD AAA 1", "USD EUR 1"));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(outputLines()).containsExactly(
+                "USD GBP 1,,\"Service unavailable\"",
+                "USD AAA 1,,\"Unknown currency: AAA\"",
+                "USD,EUR,1,0.84");
+    }
+
+    @Test
+    void limitsRequestsInFlight() throws IOException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(converter.convertAsync(any(), any(), any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                sleep();
+                inFlight.decrementAndGet();
+                return new ConversionResult(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), BigDecimal.ONE);
+            });
+        });
+        PipelineConverter pipeline = new PipelineConverter(converter, printer, 2);
+
+        pipeline.convert(reader("USD GBP 1", "USD EUR 2", "USD HUF 3", "USD JPY 4", "USD CHF 5"));
+
+        assertThat(outputLines()).containsExactly(
+                "USD,GBP,1,1", "USD,EUR,2,1", "USD,HUF,3,1", "USD,JPY,4,1", "USD,CHF,5,1");
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void printsOnWriterThreadInsteadOfCompletingThread() throws IOException {
+        Set<String> printingThreads = ConcurrentHashMap.newKeySet();
+        var writer = new PrintWriter(new StringWriter()) {
+            @Override
+            public void write(char[] buf, int off, int len) {
+                printingThreads.add(Thread.currentThread().getName());
+                super.write(buf, off, len);
+            }
+        };
+        when(converter.convertAsync(any(), any(), any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> new ConversionResult(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2), BigDecimal.ONE)));
+        PipelineConverter pipeline = new PipelineConverter(converter, new ResultPrinter(writer), 2);
+
+        long count = pipeline.convert(reader("USD GBP 1", "USD EUR 2", "USD HUF 3"));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(printingThreads).containsExactly("xrate-pipeline-writer");
+    }
+
+    @Test
+    void throwsOnNonPositiveWindowSize() {
+        Throwable thrown = catchThrowable(() -> new PipelineConverter(converter, printer, 0));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BufferedReader reader(String... lines) {
+        return new BufferedReader(new StringReader(String.join("\n", lines)));
+    }
+
+    private String[] outputLines() {
+        return output.toString().split(System.lineSeparator());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
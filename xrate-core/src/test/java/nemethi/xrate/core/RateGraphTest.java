@@ -0,0 +1,82 @@
+package nemethi.xrate.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateGraphTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    private static final Duration MAX_AGE = Duration.ofSeconds(60);
+    private static final Instant NOW = Instant.parse("2021-06-01T12:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    void noneDoesNotDeriveAnything() {
+        var graph = new RateGraph(TriangulationPolicy.NONE, USD, MAX_AGE, CLOCK);
+        graph.record(CurrencyPair.of(USD, EUR), new BigDecimal("0.8"));
+
+        assertThat(graph.find(CurrencyPair.of(USD, EUR))).isEmpty();
+        assertThat(graph.find(CurrencyPair.of(EUR, USD))).isEmpty();
+    }
+
+    @Test
+    void inverseAnswersInversePair() {
+        var graph = new RateGraph(TriangulationPolicy.INVERSE, USD, MAX_AGE, CLOCK);
+        graph.record(CurrencyPair.of(USD, EUR), new BigDecimal("0.8"));
+
+        Optional<DerivedRate> rate = graph.find(CurrencyPair.of(EUR, USD));
+
+        assertThat(rate).isPresent();
+        assertThat(rate.get().getRate()).isEqualByComparingTo("1.25");
+        assertThat(rate.get().getDerivation()).isEqualTo(RateDerivation.INVERSE);
+        assertThat(rate.get().getPath()).containsExactly(EUR, USD);
+    }
+
+    @Test
+    void inverseDoesNotUsePivot() {
+        var graph = new RateGraph(TriangulationPolicy.INVERSE, USD, MAX_AGE, CLOCK);
+        graph.record(CurrencyPair.of(USD, EUR), new BigDecimal("0.8"));
+        graph.record(CurrencyPair.of(USD, JPY), new BigDecimal("110"));
+
+        assertThat(graph.find(CurrencyPair.of(EUR, JPY))).isEmpty();
+    }
+
+    @Test
+    void pivotAnswersCrossPairThroughPivotCurrency() {
+        var graph = new RateGraph(TriangulationPolicy.PIVOT, USD, MAX_AGE, CLOCK);
+        graph.record(CurrencyPair.of(USD, EUR), new BigDecimal("0.8"));
+        graph.record(CurrencyPair.of(USD, JPY), new BigDecimal("110"));
+
+        Optional<DerivedRate> rate = graph.find(CurrencyPair.of(EUR, JPY));
+
+        assertThat(rate).isPresent();
+        assertThat(rate.get().getRate()).isEqualByComparingTo("137.5");
+        assertThat(rate.get().getDerivation()).isEqualTo(RateDerivation.PIVOT);
+        assertThat(rate.get().getPath()).isEqualTo(List.of(EUR, USD, JPY));
+    }
+
+    @Test
+    void ignoresRatesOlderThanMaxAge() {
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW, NOW.plus(MAX_AGE).minusMillis(1), NOW.plus(MAX_AGE));
+        var graph = new RateGraph(TriangulationPolicy.INVERSE, USD, MAX_AGE, clock);
+        graph.record(CurrencyPair.of(USD, EUR), new BigDecimal("0.8"));
+
+        assertThat(graph.find(CurrencyPair.of(EUR, USD))).isPresent();
+        assertThat(graph.find(CurrencyPair.of(EUR, USD))).isEmpty();
+    }
+}
@@ -0,0 +1,243 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.CurrencyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RateMatrixCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+    private static final Instant NOW = Instant.parse("2021-06-01T12:00:00Z");
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final CurrencyPair USD_GBP = CurrencyPair.of(USD, GBP);
+    private static final BigDecimal RATE = new BigDecimal("0.72");
+    private static final String SOURCE = "provider";
+    private static final Duration PUBLISH_DELAY = Duration.ofMillis(50);
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Captor
+    private ArgumentCaptor<Runnable> publish;
+    private MutableClock clock;
+    private RateMatrixCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        cache = new RateMatrixCache(TTL, SOURCE, RateMatrix.empty(), clock, Duration.ZERO, scheduler);
+    }
+
+    @Test
+    void returnsStoredRateAndCountsHit() {
+        cache.put(USD_GBP, RATE);
+
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isZero();
+    }
+
+    @Test
+    void countsMissOfUnknownPair() {
+        assertThat(cache.get(USD_GBP)).isEmpty();
+        assertThat(cache.get(USD_GBP.inverse())).isEmpty();
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotReturnExpiredRate() {
+        cache.put(USD_GBP, RATE);
+        clock.instant = NOW.plus(TTL);
+
+        assertThat(cache.get(USD_GBP)).isEmpty();
+    }
+
+    @Test
+    void publishesNewSnapshotOnPut() {
+        RateMatrix before = cache.getSnapshot();
+
+        cache.put(USD_GBP, RATE);
+
+        RateMatrix after = cache.getSnapshot();
+        int from = CurrencyRegistry.idOf(USD);
+        int to = CurrencyRegistry.idOf(GBP);
+        assertThat(after).isNotSameAs(before);
+        assertThat(before.contains(from, to)).isFalse();
+        assertThat(after.getRate(from, to)).isEqualTo(RATE);
+        assertThat(after.getFetchedAt(from, to)).isEqualTo(NOW.toEpochMilli());
+        assertThat(after.getSource(from, to)).isEqualTo(SOURCE);
+    }
+
+    @Test
+    void storesGivenSourceOfRate() {
+        cache.put(USD_GBP, RATE, "other");
+
+        RateMatrix snapshot = cache.getSnapshot();
+
+        assertThat(snapshot.getSource(CurrencyRegistry.idOf(USD), CurrencyRegistry.idOf(GBP))).isEqualTo("other");
+    }
+
+    @Test
+    void publishesFirstWriteRightAwayAndStagesWritesUntilPublishDelayIsOver() {
+        cache = new RateMatrixCache(TTL, SOURCE, RateMatrix.empty(), clock, PUBLISH_DELAY, scheduler);
+        Currency eur = Currency.getInstance("EUR");
+
+        cache.put(USD_GBP, RATE);
+        cache.put(USD_GBP.inverse(), RATE);
+        cache.put(CurrencyPair.of(USD, eur), RATE);
+
+        verify(scheduler).schedule(publish.capture(), eq(PUBLISH_DELAY.toNanos()), eq(TimeUnit.NANOSECONDS));
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+        assertThat(cache.get(USD_GBP.inverse())).isEmpty();
+        assertThat(cache.get(CurrencyPair.of(USD, eur))).isEmpty();
+
+        publish.getValue().run();
+
+        assertThat(cache.get(USD_GBP.inverse())).contains(RATE);
+        assertThat(cache.get(CurrencyPair.of(USD, eur))).contains(RATE);
+    }
+
+    @Test
+    void publishesRightAwayAgainOnceDelayPassesWithoutWrites() {
+        cache = new RateMatrixCache(TTL, SOURCE, RateMatrix.empty(), clock, PUBLISH_DELAY, scheduler);
+        cache.put(USD_GBP, RATE);
+        cache.put(USD_GBP.inverse(), RATE);
+        verify(scheduler).schedule(publish.capture(), eq(PUBLISH_DELAY.toNanos()), eq(TimeUnit.NANOSECONDS));
+        publish.getValue().run();
+        verify(scheduler, times(2)).schedule(publish.capture(), eq(PUBLISH_DELAY.toNanos()), eq(TimeUnit.NANOSECONDS));
+        publish.getValue().run();
+        BigDecimal newRate = new BigDecimal("0.73");
+
+        cache.put(USD_GBP, newRate);
+
+        assertThat(cache.get(USD_GBP)).contains(newRate);
+        verify(scheduler, times(3)).schedule(any(Runnable.class), eq(PUBLISH_DELAY.toNanos()), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void getSnapshotPublishesStagedWrites() {
+        cache = new RateMatrixCache(TTL, SOURCE, RateMatrix.empty(), clock, PUBLISH_DELAY, scheduler);
+        cache.put(USD_GBP, RATE);
+        cache.put(USD_GBP.inverse(), RATE);
+
+        RateMatrix snapshot = cache.getSnapshot();
+
+        assertThat(snapshot.getRate(CurrencyRegistry.idOf(GBP), CurrencyRegistry.idOf(USD))).isEqualTo(RATE);
+        assertThat(cache.get(USD_GBP.inverse())).contains(RATE);
+    }
+
+    @Test
+    void updateAppliesStagedWritesAndChanges() {
+        cache = new RateMatrixCache(TTL, SOURCE, RateMatrix.empty(), clock, PUBLISH_DELAY, scheduler);
+        Currency eur = Currency.getInstance("EUR");
+        cache.put(USD_GBP, RATE);
+        cache.put(CurrencyPair.of(USD, eur), RATE);
+        int from = CurrencyRegistry.idOf(GBP);
+        int to = CurrencyRegistry.idOf(USD);
+
+        RateMatrix updated = cache.update(builder -> builder.put(from, to, BigDecimal.ONE, NOW.toEpochMilli(), SOURCE));
+
+        assertThat(cache.getSnapshot()).isSameAs(updated);
+        assertThat(updated.getRate(CurrencyRegistry.idOf(USD), CurrencyRegistry.idOf(eur))).isEqualTo(RATE);
+        assertThat(updated.getRate(from, to)).isEqualTo(BigDecimal.ONE);
+    }
+
+    @Test
+    void failedUpdatePublishesNoneOfItsChanges() {
+        cache.put(USD_GBP, RATE);
+        RateMatrix before = cache.getSnapshot();
+        int from = CurrencyRegistry.idOf(USD);
+        int to = CurrencyRegistry.idOf(GBP);
+
+        Throwable thrown = catchThrowable(() -> cache.update(builder -> {
+            builder.remove(from, to);
+            throw new IllegalStateException("failed");
+        }));
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.getSnapshot()).isSameAs(before);
+        assertThat(cache.get(USD_GBP)).contains(RATE);
+    }
+
+    @Test
+    void keepsEveryRateOfConcurrentPuts() throws Exception {
+        cache = new RateMatrixCache(TTL, SOURCE, RateMatrix.empty(), clock, PUBLISH_DELAY, scheduler);
+        List<Currency> currencies = CurrencyRegistry.getCurrencies().subList(0, 32);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Currency currency : currencies) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    cache.put(CurrencyPair.of(USD, currency), RATE);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        cache.getSnapshot();
+
+        for (Currency currency : currencies) {
+            assertThat(cache.get(CurrencyPair.of(USD, currency))).contains(RATE);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
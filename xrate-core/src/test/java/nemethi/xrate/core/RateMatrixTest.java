@@ -0,0 +1,95 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.CurrencyRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RateMatrixTest {
+
+    private static final BigDecimal RATE = new BigDecimal("0.7213");
+    private static final long FETCHED_AT = 1_622_548_800_000L;
+    private static final String SOURCE = "provider";
+
+    private final RateMatrix matrix = RateMatrix.empty(4);
+
+    @Test
+    void emptyMatrixContainsNoRates() {
+        assertThat(matrix.size()).isEqualTo(4);
+        assertThat(matrix.contains(0, 1)).isFalse();
+        assertThat(matrix.getRate(0, 1)).isNull();
+        assertThat(matrix.getSource(0, 1)).isNull();
+    }
+
+    @Test
+    void defaultMatrixCoversEveryRegisteredCurrency() {
+        assertThat(RateMatrix.empty().size()).isEqualTo(CurrencyRegistry.size());
+    }
+
+    @Test
+    void builderCreatesNewSnapshotWithoutChangingOriginal() {
+        RateMatrix updated = matrix.toBuilder().put(0, 1, RATE, FETCHED_AT, SOURCE).build();
+
+        assertThat(updated.contains(0, 1)).isTrue();
+        assertThat(updated.getRate(0, 1)).isEqualTo(RATE);
+        assertThat(updated.getUnscaledRate(0, 1)).isEqualTo(7213);
+        assertThat(updated.getScale(0, 1)).isEqualTo(4);
+        assertThat(updated.getFetchedAt(0, 1)).isEqualTo(FETCHED_AT);
+        assertThat(updated.getSource(0, 1)).isEqualTo(SOURCE);
+        assertThat(updated.contains(1, 0)).isFalse();
+        assertThat(matrix.contains(0, 1)).isFalse();
+    }
+
+    @Test
+    void keepsRatesAndSourcesOfPreviousSnapshot() {
+        RateMatrix first = matrix.toBuilder().put(0, 1, RATE, FETCHED_AT, SOURCE).build();
+
+        RateMatrix second = first.toBuilder().put(2, 3, BigDecimal.TEN, FETCHED_AT, "other").build();
+
+        assertThat(second.getRate(0, 1)).isEqualTo(RATE);
+        assertThat(second.getSource(0, 1)).isEqualTo(SOURCE);
+        assertThat(second.getRate(2, 3)).isEqualTo(BigDecimal.TEN);
+        assertThat(second.getSource(2, 3)).isEqualTo("other");
+    }
+
+    @Test
+    void removeWorks() {
+        RateMatrix first = matrix.toBuilder().put(0, 1, RATE, FETCHED_AT, SOURCE).build();
+
+        RateMatrix second = first.toBuilder().remove(0, 1).build();
+
+        assertThat(second.contains(0, 1)).isFalse();
+        assertThat(first.contains(0, 1)).isTrue();
+    }
+
+    @Test
+    void roundsRatesThatDoNotFitIntoLong() {
+        BigDecimal rate = new BigDecimal("0.12345678901234567890123");
+
+        RateMatrix updated = matrix.toBuilder().put(0, 1, rate, FETCHED_AT, SOURCE).build();
+
+        assertThat(updated.getRate(0, 1)).isEqualTo("0.123456789012345679");
+    }
+
+    @Test
+    void builderCannotBeBuiltTwice() {
+        RateMatrix.Builder builder = matrix.toBuilder();
+        builder.build();
+
+        Throwable thrown = catchThrowable(() -> builder.put(0, 1, RATE, FETCHED_AT, SOURCE));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The matrix is already built");
+    }
+
+    @Test
+    void throwsOnIdOutOfBounds() {
+        Throwable thrown = catchThrowable(() -> matrix.getRate(0, 4));
+
+        assertThat(thrown).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
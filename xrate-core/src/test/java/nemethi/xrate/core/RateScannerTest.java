@@ -0,0 +1,126 @@
+package nemethi.xrate.core;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RateScannerTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final CurrencyPair USD_GBP = CurrencyPair.of(USD, Currency.getInstance("GBP"));
+    private static final CurrencyPair USD_EUR = CurrencyPair.of(USD, Currency.getInstance("EUR"));
+    private static final CurrencyPair USD_HUF = CurrencyPair.of(USD, Currency.getInstance("HUF"));
+
+    @Test
+    void scansRatesInRequestedOrder() {
+        Map<CurrencyPair, BigDecimal> rates = scan("{\"USD_HUF\":367.6017,\"USD_GBP\":0.7438,\"USD_EUR\":0.85}",
+                pairs(USD_GBP, USD_EUR, USD_HUF));
+
+        assertThat(rates).containsExactly(
+                Map.entry(USD_GBP, new BigDecimal("0.7438")),
+                Map.entry(USD_EUR, new BigDecimal("0.85")),
+                Map.entry(USD_HUF, new BigDecimal("367.6017")));
+    }
+
+    @Test
+    void keepsPrecisionOfLiterals() {
+        Map<CurrencyPair, BigDecimal> rates = scan("{\"USD_GBP\":0.72134500000000000001,\"USD_EUR\":-1.5E-3}",
+                pairs(USD_GBP, USD_EUR));
+
+        assertThat(rates.get(USD_GBP)).isEqualTo(new BigDecimal("0.72134500000000000001"));
+        assertThat(rates.get(USD_EUR)).isEqualTo(new BigDecimal("-1.5E-3"));
+    }
+
+    @Test
+    void scansRatesOfQuotedNumbers() {
+        Map<CurrencyPair, BigDecimal> rates = scan("{\"USD_GBP\":\"0.7438\"}", pairs(USD_GBP));
+
+        assertThat(rates).containsExactly(Map.entry(USD_GBP, new BigDecimal("0.7438")));
+    }
+
+    @Test
+    void omitsMissingRates() {
+        Map<CurrencyPair, BigDecimal> rates = scan("{\"USD_GBP\":0.7438}", pairs(USD_GBP, USD_EUR));
+
+        assertThat(rates).containsOnlyKeys(USD_GBP);
+    }
+
+    @Test
+    void omitsRatesThatAreNotNumbers() {
+        Map<CurrencyPair, BigDecimal> rates = scan("{\"USD_GBP\":null,\"USD_EUR\":{\"val\":0.85}}", pairs(USD_GBP, USD_EUR));
+
+        assertThat(rates).isEmpty();
+    }
+
+    @Test
+    void skipsOtherMembers() {
+        String json = " {\n \"status\" : 200, \"note\":\"a \\\"}\\\" [\", \"USD_EUR_X\":1, \"ok\":true,"
+                + " \"nested\":{\"USD_GBP\":1,\"list\":[1,{\"s\":\"]}\"}]}, \"USD_GBP\" : 0.7438 }\n";
+
+        Map<CurrencyPair, BigDecimal> rates = scan(json, pairs(USD_GBP));
+
+        assertThat(rates).containsExactly(Map.entry(USD_GBP, new BigDecimal("0.7438")));
+    }
+
+    @Test
+    void scansBodySplitAcrossBuffers() {
+        byte[] json = "{\"USD_EUR\":0.85,\"USD_GBP\":0.7438}".getBytes(StandardCharsets.UTF_8);
+        RateScanner scanner = new RateScanner(pairs(USD_GBP, USD_EUR));
+
+        for (byte b : json) {
+            scanner.scan(ByteBuffer.wrap(new byte[]{b}));
+        }
+
+        assertThat(scanner.getRates()).containsExactly(
+                Map.entry(USD_GBP, new BigDecimal("0.7438")),
+                Map.entry(USD_EUR, new BigDecimal("0.85")));
+    }
+
+    @Test
+    void throwsOnMalformedJson() {
+        Throwable thrown = catchThrowable(() -> scan("{\"USD_GBP\" 0.7438}", pairs(USD_GBP)));
+
+        assertThat(thrown)
+                .isInstanceOf(JSONException.class)
+                .hasMessage("Malformed JSON at byte 11");
+    }
+
+    @Test
+    void throwsOnIncompleteJson() {
+        Throwable thrown = catchThrowable(() -> scan("{\"USD_GBP\":0.74", pairs(USD_GBP)));
+
+        assertThat(thrown)
+                .isInstanceOf(JSONException.class)
+                .hasMessage("Incomplete JSON after byte 15");
+    }
+
+    @Test
+    void throwsOnInvalidRate() {
+        Throwable thrown = catchThrowable(() -> scan("{\"USD_GBP\":\"0.7.4\"}", pairs(USD_GBP)));
+
+        assertThat(thrown)
+                .isInstanceOf(JSONException.class)
+                .hasMessage("Invalid rate of USD_GBP at byte 17");
+    }
+
+    private Set<CurrencyPair> pairs(CurrencyPair... pairs) {
+        return new LinkedHashSet<>(Arrays.asList(pairs));
+    }
+
+    private Map<CurrencyPair, BigDecimal> scan(String json, Set<CurrencyPair> pairs) {
+        RateScanner scanner = new RateScanner(pairs);
+        scanner.scan(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        return scanner.getRates();
+    }
+}
@@ -0,0 +1,42 @@
+package nemethi.xrate.core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records the events of a single type with Java Flight Recorder while an action runs, and reads them back.
+ * Events of other types are left out, because samples of earlier recordings in the same JVM may end up in the file.
+ */
+final class RecordedEvents {
+
+    private RecordedEvents() {
+    }
+
+    static List<RecordedEvent> record(String eventName, Action action) throws Exception {
+        Path file = Files.createTempFile("xrate", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(eventName))
+                    .collect(toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    interface Action {
+
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,53 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RequestParserTest {
+
+    private static final ConversionRequest EXPECTED_REQUEST =
+            new ConversionRequest(Currency.getInstance("USD"), Currency.getInstance("GBP"), new BigDecimal("10.5"));
+
+    @Test
+    void parsesCommaSeparatedFields() {
+        assertThat(RequestParser.parse("USD, GBP ,10.5")).isEqualTo(EXPECTED_REQUEST);
+    }
+
+    @Test
+    void parsesWhitespaceSeparatedFields() {
+        assertThat(RequestParser.parse(" USD\tGBP  10.5 ")).isEqualTo(EXPECTED_REQUEST);
+    }
+
+    @Test
+    void throwsOnWrongNumberOfFields() {
+        Throwable thrown = catchThrowable(() -> RequestParser.parse("USD GBP"));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid request, expected FROM TO AMOUNT");
+    }
+
+    @Test
+    void throwsOnUnknownCurrency() {
+        Throwable thrown = catchThrowable(() -> RequestParser.parse("USD AAA 1"));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown currency: AAA");
+    }
+
+    @Test
+    void throwsOnInvalidAmount() {
+        Throwable thrown = catchThrowable(() -> RequestParser.parse("USD GBP ten"));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid amount: ten");
+    }
+}
@@ -3,18 +3,24 @@ package nemethi.xrate.core;
 import nemethi.xrate.api.ConversionResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
 import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import static org.mockito.Mockito.verify;
+import static org.assertj.core.api.Assertions.assertThat;
 
-@ExtendWith(MockitoExtension.class)
 class ResultPrinterTest {
 
     private static final Currency FROM = Currency.getInstance("EUR");
@@ -25,24 +31,88 @@ class ResultPrinterTest {
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#,###.####");
     private static final String RESULT_FORMAT = "%s %s = %s %s";
     private static final String RATE_FORMAT = "1 %s = %s %s";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
 
-    @Mock
-    private PrintWriter writer;
-
+    private StringWriter output;
     private ResultPrinter printer;
 
     @BeforeEach
     void setUp() {
-        printer = new ResultPrinter(writer);
+        output = new StringWriter();
+        printer = new ResultPrinter(new PrintWriter(output));
     }
 
     @Test
     void print() {
         printer.print(CONVERSION_RESULT);
 
-        verify(writer).println(formattedResult());
-        verify(writer).println(formattedRate());
-        verify(writer).println(formattedInverseRate());
+        assertThat(output.toString()).isEqualTo(formattedResult() + LINE_SEPARATOR
+                + formattedRate() + LINE_SEPARATOR
+                + formattedInverseRate() + LINE_SEPARATOR);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.00004", "0.72", "0.00001", "-0.00001", "0.00005", "0.00015", "12.30000", "1E+3",
+            "-1234.56785", "1234567.12345", "999.99995", "123456789012345678901234.5", "-123456789012345678901234.56789"})
+    void formatsNumbersLikeDecimalFormat(String number) {
+        BigDecimal amount = new BigDecimal(number);
+
+        printer.print(new ConversionResult(FROM, TO, amount, BigDecimal.ONE.add(amount.abs())));
+
+        assertThat(output.toString()).startsWith(DECIMAL_FORMAT.format(amount) + " EUR = ");
+    }
+
+    @Test
+    void usesGivenDecimalFormatSymbols() {
+        printer = new ResultPrinter(new PrintWriter(output), DecimalFormatSymbols.getInstance(Locale.GERMANY));
+
+        printer.print(new ConversionResult(FROM, TO, new BigDecimal("-1234.5"), BigDecimal.ONE));
+
+        assertThat(output.toString()).startsWith("-1.234,5 EUR = ");
+    }
+
+    @Test
+    void printsResultsOfConcurrentThreadsWithoutInterleaving() throws Exception {
+        int threads = 8;
+        int resultsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < resultsPerThread; j++) {
+                        printer.print(CONVERSION_RESULT);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String[] lines = output.toString().split(LINE_SEPARATOR);
+        assertThat(lines).hasSize(threads * resultsPerThread * 3);
+        for (int i = 0; i < lines.length; i += 3) {
+            assertThat(lines[i]).isEqualTo(formattedResult());
+            assertThat(lines[i + 1]).isEqualTo(formattedRate());
+            assertThat(lines[i + 2]).isEqualTo(formattedInverseRate());
+        }
+    }
+
+    @Test
+    void printCsv() {
+        printer.printCsv(CONVERSION_RESULT);
+
+        assertThat(output.toString()).isEqualTo("EUR,HUF,768.13,278275.41" + LINE_SEPARATOR);
+    }
+
+    @Test
+    void printCsvErrorQuotesMessage() {
+        printer.printCsvError("EUR,XYZ,1", "Unknown currency: \"XYZ\"");
+
+        assertThat(output.toString()).isEqualTo("EUR,XYZ,1,,\"Unknown currency: \"\"XYZ\"\"\"" + LINE_SEPARATOR);
     }
 
     private String formattedResult() {
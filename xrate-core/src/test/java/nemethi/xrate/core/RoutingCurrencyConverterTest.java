@@ -0,0 +1,249 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.ProviderUnavailableException;
+import nemethi.xrate.core.RoutingCurrencyConverter.CircuitState;
+import nemethi.xrate.core.RoutingCurrencyConverter.RouteStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoutingCurrencyConverterTest {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final BigDecimal AMOUNT = BigDecimal.TEN;
+    private static final ConversionResult RESULT = new ConversionResult(FROM, TO, AMOUNT, new BigDecimal("7.2"));
+    private static final Duration OPEN_TIME = Duration.ofSeconds(30);
+    private static final int FAILURE_THRESHOLD = 2;
+
+    @Mock
+    private CurrencyConverter first;
+    @Mock
+    private CurrencyConverter second;
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Captor
+    private ArgumentCaptor<Runnable> probe;
+
+    private long now;
+    private RoutingCurrencyConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new RoutingCurrencyConverter(List.of(first, second), FAILURE_THRESHOLD, OPEN_TIME, scheduler, () -> now);
+    }
+
+    private void respondAfter(CurrencyConverter provider, long latencyNanos) {
+        when(provider.convert(FROM, TO, AMOUNT)).thenAnswer(invocation -> {
+            now += latencyNanos;
+            return RESULT;
+        });
+    }
+
+    @Test
+    void prefersFirstProviderUntilLatenciesAreKnown() {
+        respondAfter(first, 5_000_000);
+
+        assertThat(converter.convert(FROM, TO, AMOUNT)).isEqualTo(RESULT);
+        verify(second, never()).convert(any(), any(), any());
+    }
+
+    @Test
+    void returnsResultWithProviderThatAnswered() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ConversionException("failed"));
+        respondAfter(second, 1_000_000);
+
+        ConversionResult result = converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(result).isEqualTo(RESULT);
+        assertThat(result.getProvider()).contains(MeteredCurrencyConverter.nameOf(second));
+    }
+
+    @Test
+    void routesToFasterProviderOnceLatenciesAreKnown() {
+        when(first.convert(FROM, TO, AMOUNT))
+                .thenThrow(new ConversionException("first failed"))
+                .thenAnswer(invocation -> {
+                    now += 50_000_000;
+                    return RESULT;
+                });
+        respondAfter(second, 5_000_000);
+
+        for (int i = 0; i < 4; i++) {
+            converter.convert(FROM, TO, AMOUNT);
+        }
+
+        List<RouteStatus> routes = converter.getRoutes();
+        assertThat(routes.get(0).getLatency()).isEqualTo(Duration.ofMillis(50));
+        assertThat(routes.get(1).getLatency()).isEqualTo(Duration.ofMillis(5));
+        assertThat(routes.get(0).getErrorRate()).isGreaterThan(0);
+        assertThat(routes.get(1).getWeight()).isGreaterThan(routes.get(0).getWeight());
+        verify(first, times(2)).convert(FROM, TO, AMOUNT);
+        verify(second, times(3)).convert(FROM, TO, AMOUNT);
+    }
+
+    @Test
+    void failsOverToNextProvider() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ConversionException("first failed"));
+        respondAfter(second, 1_000);
+
+        assertThat(converter.convert(FROM, TO, AMOUNT)).isEqualTo(RESULT);
+        assertThat(converter.getRoutes().get(0).getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void opensBreakerAfterConsecutiveFailures() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ConversionException("first failed"));
+        when(second.convert(FROM, TO, AMOUNT)).thenThrow(new ConversionException("second failed"));
+
+        catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+        Throwable thrown = catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+
+        assertThat(thrown).hasMessage("second failed");
+        assertThat(converter.getRoutes()).extracting(RouteStatus::getState).containsOnly(CircuitState.OPEN);
+        assertThat(converter.getRoutes()).extracting(RouteStatus::getWeight).containsOnly(0.0);
+        Throwable unavailable = catchThrowable(() -> converter.convert(FROM, TO, AMOUNT));
+        assertThat(unavailable)
+                .isInstanceOf(ProviderUnavailableException.class)
+                .hasMessage("Every provider is unavailable");
+    }
+
+    @Test
+    void opensBreakerRightAwayIfProviderIsUnavailable() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ProviderUnavailableException("quota reached"));
+        respondAfter(second, 1_000);
+
+        converter.convert(FROM, TO, AMOUNT);
+        converter.convert(FROM, TO, AMOUNT);
+
+        assertThat(converter.getRoutes().get(0).getState()).isEqualTo(CircuitState.OPEN);
+        verify(first).convert(FROM, TO, AMOUNT);
+        verify(scheduler).schedule(any(Runnable.class), eq(OPEN_TIME.toNanos()), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void closesBreakerIfProbeSucceeds() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ProviderUnavailableException("quota reached"));
+        respondAfter(second, 1_000);
+        converter.convert(FROM, TO, AMOUNT);
+        verify(scheduler).schedule(probe.capture(), eq(OPEN_TIME.toNanos()), eq(TimeUnit.NANOSECONDS));
+        when(first.convert(FROM, TO, BigDecimal.ONE)).thenReturn(RESULT);
+
+        probe.getValue().run();
+
+        assertThat(converter.getRoutes().get(0).getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void reopensBreakerIfProbeFails() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ProviderUnavailableException("quota reached"));
+        respondAfter(second, 1_000);
+        converter.convert(FROM, TO, AMOUNT);
+        when(first.convert(FROM, TO, BigDecimal.ONE)).thenThrow(new ProviderUnavailableException("quota reached"));
+
+        probeFirstProvider();
+
+        assertThat(converter.getRoutes().get(0).getState()).isEqualTo(CircuitState.OPEN);
+        verify(scheduler, times(2))
+                .schedule(any(Runnable.class), eq(OPEN_TIME.toNanos()), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void reopensBreakerIfProbeThrowsError() {
+        when(first.convert(FROM, TO, AMOUNT)).thenThrow(new ProviderUnavailableException("quota reached"));
+        respondAfter(second, 1_000);
+        converter.convert(FROM, TO, AMOUNT);
+        when(first.convert(FROM, TO, BigDecimal.ONE)).thenThrow(new StackOverflowError());
+
+        Throwable thrown = catchThrowable(this::probeFirstProvider);
+
+        assertThat(thrown).isInstanceOf(StackOverflowError.class);
+        assertThat(converter.getRoutes().get(0).getState()).isEqualTo(CircuitState.OPEN);
+        verify(scheduler, times(2))
+                .schedule(any(Runnable.class), eq(OPEN_TIME.toNanos()), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void probesBreakerOpenedByBatchWithFirstConversionOfBatch() {
+        Currency eur = Currency.getInstance("EUR");
+        List<ConversionRequest> requests = List.of(new ConversionRequest(FROM, eur, AMOUNT), new ConversionRequest(FROM, TO, AMOUNT));
+        when(first.convertAll(requests)).thenThrow(new ProviderUnavailableException("quota reached"));
+        when(second.convertAll(requests)).thenReturn(List.of(RESULT, RESULT));
+        converter.convertAll(requests);
+        when(first.convert(FROM, eur, BigDecimal.ONE)).thenThrow(new ProviderUnavailableException("quota reached"));
+
+        probeFirstProvider();
+
+        verify(first).convert(FROM, eur, BigDecimal.ONE);
+        assertThat(converter.getRoutes().get(0).getState()).isEqualTo(CircuitState.OPEN);
+    }
+
+    private void probeFirstProvider() {
+        verify(scheduler).schedule(probe.capture(), eq(OPEN_TIME.toNanos()), eq(TimeUnit.NANOSECONDS));
+        probe.getValue().run();
+    }
+
+    @Test
+    void convertAsyncFailsOverToNextProvider() {
+        when(first.convertAsync(FROM, TO, AMOUNT))
+                .thenReturn(CompletableFuture.failedFuture(new CompletionException(new ConversionException("first failed"))));
+        when(second.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.completedFuture(RESULT));
+
+        assertThat(converter.convertAsync(FROM, TO, AMOUNT)).isCompletedWithValue(RESULT);
+    }
+
+    @Test
+    void convertAsyncDoesNotFailOverOnUnexpectedException() {
+        when(first.convertAsync(FROM, TO, AMOUNT)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("bug")));
+
+        Throwable thrown = catchThrowable(() -> converter.convertAsync(FROM, TO, AMOUNT).join());
+
+        assertThat(thrown).hasCauseInstanceOf(IllegalStateException.class);
+        verify(second, never()).convertAsync(any(), any(), any());
+    }
+
+    @Test
+    void convertAllFailsOverToNextProvider() {
+        List<ConversionRequest> requests = List.of(new ConversionRequest(FROM, TO, AMOUNT));
+        when(first.convertAll(requests)).thenThrow(new ConversionException("first failed"));
+        when(second.convertAll(requests)).thenReturn(List.of(RESULT));
+
+        assertThat(converter.convertAll(requests)).containsExactly(RESULT);
+    }
+
+    @Test
+    void throwsWithoutProviders() {
+        Throwable thrown = catchThrowable(() -> new RoutingCurrencyConverter(List.of(), FAILURE_THRESHOLD, OPEN_TIME));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one provider is required");
+    }
+}
@@ -0,0 +1,71 @@
+package nemethi.xrate.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import picocli.CommandLine;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.io.PrintWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServeCommandTest {
+
+    private static final String CONFIG_FILE_PATH = "xrate.properties";
+    private static final int PORT = 8181;
+
+    @Mock
+    private CommandSpec spec;
+    @Mock
+    private CommandLine commandLine;
+    @Mock
+    private PrintWriter outWriter;
+    @Mock
+    private Application application;
+    @Mock(stubOnly = true)
+    private Configuration config;
+    @Mock
+    private Xrate xrate;
+    @Mock
+    private XrateServer server;
+
+    @Spy
+    private ServeCommand command;
+
+    @BeforeEach
+    void setUp() {
+        command.setSpec(spec);
+        command.setParent(application);
+        command.setPort(PORT);
+    }
+
+    @Test
+    void callStartsServerAndWaitsUntilItStops() throws Exception {
+        when(spec.commandLine()).thenReturn(commandLine);
+        when(commandLine.getOut()).thenReturn(outWriter);
+        when(application.getConfigFilePath()).thenReturn(CONFIG_FILE_PATH);
+        when(application.getConfig(CONFIG_FILE_PATH)).thenReturn(config);
+        when(application.createXrate(config, outWriter)).thenReturn(xrate);
+        when(xrate.createServer(PORT)).thenReturn(server);
+        when(server.getPort()).thenReturn(PORT);
+        doNothing().when(command).addShutdownHook(any());
+
+        Integer exitCode = command.call();
+
+        assertThat(exitCode).isZero();
+        var inOrder = inOrder(command, server, outWriter);
+        inOrder.verify(command).addShutdownHook(server);
+        inOrder.verify(server).start();
+        inOrder.verify(outWriter).println("Listening on http://localhost:8181");
+        inOrder.verify(server).awaitStop();
+    }
+}
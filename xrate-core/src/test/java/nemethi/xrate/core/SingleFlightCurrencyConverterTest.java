@@ -0,0 +1,216 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightCurrencyConverterTest {
+
+    private static final Currency FROM = Currency.getInstance("USD");
+    private static final Currency TO = Currency.getInstance("GBP");
+    private static final BigDecimal RATE = new BigDecimal("0.72");
+    private static final ConversionResult RESULT = new ConversionResult(FROM, TO, BigDecimal.ONE, RATE);
+    private static final int CALLERS = 8;
+
+    @Mock
+    private CurrencyConverter delegate;
+
+    private SingleFlightCurrencyConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new SingleFlightCurrencyConverter(delegate);
+    }
+
+    @Test
+    void concurrentCallersShareOneConversion() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.convert(FROM, TO, BigDecimal.ONE)).thenAnswer(invocation -> {
+            release.await();
+            return RESULT;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<ConversionResult>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> converter.convert(FROM, TO, BigDecimal.ONE)));
+            }
+            awaitCoalescedCount(CALLERS - 1);
+            release.countDown();
+
+            for (Future<ConversionResult> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(RESULT);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(delegate, times(1)).convert(FROM, TO, BigDecimal.ONE);
+        assertThat(converter.getCoalescedCount()).isEqualTo(CALLERS - 1);
+        assertThat(converter.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void concurrentCallersShareFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ConversionException failure = new ConversionException("Service unavailable");
+        when(delegate.convert(FROM, TO, BigDecimal.ONE)).thenAnswer(invocation -> {
+            release.await();
+            throw failure;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ConversionResult> leader = executor.submit(() -> converter.convert(FROM, TO, BigDecimal.ONE));
+            Future<ConversionResult> follower = executor.submit(() -> converter.convert(FROM, TO, BigDecimal.ONE));
+            awaitCoalescedCount(1);
+            release.countDown();
+
+            assertThat(causeOf(leader)).isSameAs(failure);
+            assertThat(causeOf(follower)).isSameAs(failure);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(delegate, times(1)).convert(FROM, TO, BigDecimal.ONE);
+    }
+
+    @Test
+    void followersFailIfLeaderThrowsError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AssertionError error = new AssertionError("plugin bug");
+        when(delegate.convert(FROM, TO, BigDecimal.ONE)).thenAnswer(invocation -> {
+            release.await();
+            throw error;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ConversionResult> leader = executor.submit(() -> converter.convert(FROM, TO, BigDecimal.ONE));
+            Future<ConversionResult> follower = executor.submit(() -> converter.convert(FROM, TO, BigDecimal.ONE));
+            awaitCoalescedCount(1);
+            release.countDown();
+
+            assertThat(causeOf(leader)).isSameAs(error);
+            assertThat(causeOf(follower)).isInstanceOf(ConversionException.class).hasCause(error);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(converter.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void asyncCallerFailsAndLeavesNoFlightIfDelegateThrowsError() {
+        AssertionError error = new AssertionError("plugin bug");
+        when(delegate.convertAsync(FROM, TO, BigDecimal.ONE)).thenThrow(error);
+
+        Throwable thrown = catchThrowable(() -> converter.convertAsync(FROM, TO, BigDecimal.ONE));
+
+        assertThat(thrown).isSameAs(error);
+        assertThat(converter.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void recordsCoalescedRequestsInMetrics(@Mock ConversionMetrics metrics) {
+        converter = new SingleFlightCurrencyConverter(delegate, metrics);
+        when(delegate.convertAsync(FROM, TO, BigDecimal.ONE)).thenReturn(new CompletableFuture<>());
+
+        converter.convertAsync(FROM, TO, BigDecimal.ONE);
+        converter.convertAsync(FROM, TO, BigDecimal.ONE);
+
+        verify(metrics).recordCoalesced();
+    }
+
+    @Test
+    void asyncCallersShareOneConversionAndApplyRateToOwnAmount() {
+        CompletableFuture<ConversionResult> upstream = new CompletableFuture<>();
+        when(delegate.convertAsync(FROM, TO, BigDecimal.ONE)).thenReturn(upstream);
+
+        CompletableFuture<ConversionResult> first = converter.convertAsync(FROM, TO, BigDecimal.ONE);
+        CompletableFuture<ConversionResult> second = converter.convertAsync(FROM, TO, BigDecimal.TEN);
+        upstream.complete(RESULT);
+
+        assertThat(first.join()).isEqualTo(RESULT);
+        assertThat(second.join()).isEqualTo(new ConversionResult(FROM, TO, BigDecimal.TEN, new BigDecimal("7.20")));
+        verify(delegate, times(1)).convertAsync(any(), any(), any());
+        assertThat(converter.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void asyncCallersShareFailure() {
+        CompletableFuture<ConversionResult> upstream = new CompletableFuture<>();
+        ConversionException failure = new ConversionException("Service unavailable");
+        when(delegate.convertAsync(FROM, TO, BigDecimal.ONE)).thenReturn(upstream);
+
+        CompletableFuture<ConversionResult> first = converter.convertAsync(FROM, TO, BigDecimal.ONE);
+        CompletableFuture<ConversionResult> second = converter.convertAsync(FROM, TO, BigDecimal.ONE);
+        upstream.completeExceptionally(failure);
+
+        assertThat(catchThrowable(first::join)).hasCause(failure);
+        assertThat(catchThrowable(second::join)).hasCause(failure);
+    }
+
+    @Test
+    void callsDelegateAgainAfterConversionCompleted() {
+        when(delegate.convert(FROM, TO, BigDecimal.ONE)).thenReturn(RESULT);
+
+        converter.convert(FROM, TO, BigDecimal.ONE);
+        converter.convert(FROM, TO, BigDecimal.ONE);
+
+        verify(delegate, times(2)).convert(FROM, TO, BigDecimal.ONE);
+        assertThat(converter.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void delegatesConvertAllAndAuthCredentials() {
+        List<ConversionRequest> requests = List.of(new ConversionRequest(FROM, TO, BigDecimal.ONE));
+        when(delegate.convertAll(requests)).thenReturn(List.of(RESULT));
+
+        List<ConversionResult> results = converter.convertAll(requests);
+        converter.setAuthCredentials("apiKey");
+
+        assertThat(results).containsExactly(RESULT);
+        verify(delegate).setAuthCredentials("apiKey");
+    }
+
+    private void awaitCoalescedCount(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (converter.getCoalescedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(converter.getCoalescedCount()).isEqualTo(count);
+    }
+
+    private Throwable causeOf(Future<ConversionResult> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
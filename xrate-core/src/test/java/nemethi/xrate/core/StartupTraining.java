@@ -0,0 +1,97 @@
+package nemethi.xrate.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Runs the typical xrate commands in a single JVM, so that the classes they load can be recorded
+ * with {@code -XX:DumpLoadedClassList} and stored in the class data sharing archive of the distribution.
+ * Run by the {@code startup} profile; the conversions are answered by a local stub of the default service.
+ */
+class StartupTraining {
+
+    private static final String RATE = "0.9213";
+    private static final String QUERY_PREFIX = "q=";
+    private static final String PAIR_DELIMITER = ",";
+
+    public static void main(String[] args) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/convert", StartupTraining::answer);
+        server.start();
+        Path directory = Files.createTempDirectory("xrate-training");
+        try {
+            String config = writeConfig(directory, server.getAddress().getPort()).toString();
+            String batch = Files.write(directory.resolve("amounts.csv"),
+                    List.of("from,to,amount", "EUR,GBP,5.43", "USD,HUF,10")).toString();
+            run("--help");
+            run("--version");
+            run("--list");
+            run("-c", config, "USD", "EUR", "1");
+            run("-c", config, "EUR", "GBP", "5.43");
+            run("-c", config, "--batch", batch);
+        } finally {
+            server.stop(0);
+            deleteDirectory(directory);
+        }
+    }
+
+    private static Path writeConfig(Path directory, int port) throws IOException {
+        return Files.write(directory.resolve("xrate.properties"), List.of(
+                "xrate.core.endpoint=http://localhost:" + port + "/convert",
+                "xrate.core.auth=training"));
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static void run(String... args) {
+        ExceptionHandler exceptionHandler = new ExceptionHandler();
+        PrintWriter nullWriter = new PrintWriter(Writer.nullWriter());
+        int exitCode = new CommandLine(new Application())
+                .setParameterExceptionHandler(exceptionHandler)
+                .setExecutionExceptionHandler(exceptionHandler)
+                .setOut(nullWriter)
+                .setErr(nullWriter)
+                .execute(args);
+        if (exitCode != 0) {
+            throw new IllegalStateException(String.format("Training command failed: %s", Arrays.toString(args)));
+        }
+    }
+
+    // Answers like the service with compact=ultra: {"USD_EUR":0.9213,...}
+    private static void answer(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String pairs = query.substring(query.indexOf(QUERY_PREFIX) + QUERY_PREFIX.length()).split("&")[0];
+        String body = Arrays.stream(pairs.split(PAIR_DELIMITER))
+                .map(pair -> String.format("\"%s\":%s", pair, RATE))
+                .collect(joining(PAIR_DELIMITER, "{", "}"));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
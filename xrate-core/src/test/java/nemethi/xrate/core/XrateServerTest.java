@@ -0,0 +1,179 @@
+package nemethi.xrate.core;
+
+import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionRequest;
+import nemethi.xrate.api.ConversionResult;
+import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportStats;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class XrateServerTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Mock
+    private CurrencyConverter converter;
+    @Mock
+    private Transport transport;
+
+    private XrateServer server;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new XrateServer(converter, transport, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void convert() throws Exception {
+        when(converter.convert(USD, GBP, BigDecimal.TEN))
+                .thenReturn(new ConversionResult(USD, GBP, BigDecimal.TEN, new BigDecimal("7.2")));
+
+        HttpResponse<String> response = get("/convert?from=USD&to=GBP&amount=10");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).contains("application/json; charset=utf-8");
+        JSONObject body = new JSONObject(response.body());
+        assertThat(body.getString("from")).isEqualTo("USD");
+        assertThat(body.getString("to")).isEqualTo("GBP");
+        assertThat(body.getBigDecimal("amount")).isEqualByComparingTo("10");
+        assertThat(body.getBigDecimal("result")).isEqualByComparingTo("7.2");
+        assertThat(body.getBigDecimal("rate")).isEqualByComparingTo("0.72");
+    }
+
+    @Test
+    void convertDefaultsAmountToOne() throws Exception {
+        when(converter.convert(USD, GBP, BigDecimal.ONE))
+                .thenReturn(new ConversionResult(USD, GBP, BigDecimal.ONE, new BigDecimal("0.72")));
+
+        HttpResponse<String> response = get("/convert?from=USD&to=GBP");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        verify(converter).convert(USD, GBP, BigDecimal.ONE);
+    }
+
+    @Test
+    void rates() throws Exception {
+        when(converter.convertAll(any())).thenReturn(List.of(
+                new ConversionResult(USD, GBP, BigDecimal.ONE, new BigDecimal("0.72")),
+                new ConversionResult(USD, EUR, BigDecimal.ONE, new BigDecimal("0.84"))));
+
+        HttpResponse<String> response = get("/rates?base=USD&symbols=GBP,EUR");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JSONObject body = new JSONObject(response.body());
+        assertThat(body.getString("base")).isEqualTo("USD");
+        assertThat(body.getJSONObject("rates").getBigDecimal("GBP")).isEqualByComparingTo("0.72");
+        assertThat(body.getJSONObject("rates").getBigDecimal("EUR")).isEqualByComparingTo("0.84");
+        verify(converter).convertAll(List.of(
+                new ConversionRequest(USD, GBP, BigDecimal.ONE),
+                new ConversionRequest(USD, EUR, BigDecimal.ONE)));
+    }
+
+    @Test
+    void respondsWithBadRequestOnInvalidParameters() throws Exception {
+        HttpResponse<String> missing = get("/convert?from=USD");
+        HttpResponse<String> unknown = get("/convert?from=USD&to=AAA");
+        HttpResponse<String> invalidAmount = get("/convert?from=USD&to=GBP&amount=ten");
+
+        assertThat(missing.statusCode()).isEqualTo(400);
+        assertThat(new JSONObject(missing.body()).getString("error")).isEqualTo("Missing query parameter: to");
+        assertThat(unknown.statusCode()).isEqualTo(400);
+        assertThat(new JSONObject(unknown.body()).getString("error")).isEqualTo("Unknown currency: AAA");
+        assertThat(invalidAmount.statusCode()).isEqualTo(400);
+        assertThat(new JSONObject(invalidAmount.body()).getString("error")).isEqualTo("Invalid amount: ten");
+        verifyNoInteractions(converter);
+    }
+
+    @Test
+    void respondsWithBadRequestOnRatesWithoutSymbols() throws Exception {
+        HttpResponse<String> response = get("/rates?base=USD");
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(new JSONObject(response.body()).getString("error")).isEqualTo("Missing query parameter: symbols");
+        verifyNoInteractions(converter);
+    }
+
+    @Test
+    void respondsWithBadGatewayOnConversionError() throws Exception {
+        when(converter.convert(any(), any(), any())).thenThrow(new ConversionException("Service unavailable"));
+
+        HttpResponse<String> response = get("/convert?from=USD&to=GBP");
+
+        assertThat(response.statusCode()).isEqualTo(502);
+        assertThat(new JSONObject(response.body()).getString("error")).isEqualTo("Service unavailable");
+    }
+
+    @Test
+    void respondsWithMethodNotAllowedOnPost() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/convert?from=USD&to=GBP"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(405);
+        assertThat(response.headers().firstValue("Allow")).contains("GET");
+        verifyNoInteractions(converter);
+    }
+
+    @Test
+    void stats() throws Exception {
+        when(transport.getStats()).thenReturn(new TransportStats(5, 4, 1, 1, 0));
+
+        HttpResponse<String> response = get("/stats");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JSONObject stats = new JSONObject(response.body()).getJSONObject("transport");
+        assertThat(stats.getLong("requests")).isEqualTo(5);
+        assertThat(stats.getLong("secureRequests")).isEqualTo(4);
+        assertThat(stats.getLong("handshakes")).isEqualTo(1);
+        assertThat(stats.getLong("handshakesSaved")).isEqualTo(3);
+        assertThat(stats.getInt("activeConnections")).isEqualTo(1);
+        assertThat(stats.getInt("idleConnections")).isZero();
+        verifyNoInteractions(converter);
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(uri(pathAndQuery)).GET().build(), BodyHandlers.ofString());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create(String.format("http://localhost:%d%s", server.getPort(), pathAndQuery));
+    }
+}
@@ -1,8 +1,13 @@
 package nemethi.xrate.core;
 
+import jdk.jfr.consumer.RecordedEvent;
 import nemethi.xrate.api.ConversionException;
+import nemethi.xrate.api.ConversionMetrics;
 import nemethi.xrate.api.ConversionResult;
 import nemethi.xrate.api.CurrencyConverter;
+import nemethi.xrate.api.SettingsAware;
+import nemethi.xrate.api.Transport;
+import nemethi.xrate.api.TransportAware;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,19 +15,36 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @ExtendWith(MockitoExtension.class)
 class XrateTest {
@@ -35,6 +57,7 @@ class XrateTest {
     private static final String ENDPOINT = "testEndpoint";
     private static final String AUTH_CREDS = "testAuthCreds";
     private static final String PLUGIN_AUTH_CREDS = "testPluginAuthCreds";
+    private static final String CACHE_DIR = "testCacheDir";
     private static final Exception EXPECTED_EXCEPTION = new ConversionException("testMessage");
     private static final String MISSING_RESULT_ERROR_MESSAGE = "Error: converter did not return any result";
 
@@ -46,6 +69,12 @@ class XrateTest {
     private ResultPrinter printer;
     @Mock
     private CurrencyConverter converter;
+    @Mock
+    private BatchConverter batchConverter;
+    @Mock
+    private PipelineConverter pipelineConverter;
+    @Mock
+    private Transport transport;
 
     private Xrate xrate;
 
@@ -84,11 +113,26 @@ class XrateTest {
         verify(converter).convert(FROM, TO, AMOUNT);
     }
 
+    @Test
+    void recordsConversionEvent() throws Exception {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(converter.convert(any(), any(), any())).thenReturn(CONVERSION_RESULT).thenThrow(EXPECTED_EXCEPTION);
+
+        List<RecordedEvent> events = RecordedEvents.record("nemethi.xrate.Conversion", () -> {
+            xrate.convert(FROM, TO, AMOUNT);
+            catchThrowable(() -> xrate.convert(FROM, TO, AMOUNT));
+        });
+
+        assertThat(events).extracting(event -> event.getString("pair")).containsExactly("USD_GBP", "USD_GBP");
+        assertThat(events).extracting(event -> event.getString("outcome")).containsExactly("success", "ConversionException");
+    }
+
     @Test
     void convertWithDefaultConverter() {
         when(loader.findFirstPlugin()).thenReturn(Optional.empty());
         when(config.getCurrConvEndpoint()).thenReturn(ENDPOINT);
         when(config.getCoreAuthCredentials()).thenReturn(AUTH_CREDS);
+        doReturn(transport).when(xrate).getTransport();
         doReturn(converter).when(xrate).createDefaultConverter(any(), anyString());
         when(converter.convert(any(), any(), any())).thenReturn(CONVERSION_RESULT);
 
@@ -107,6 +151,7 @@ class XrateTest {
         when(loader.findFirstPlugin()).thenReturn(Optional.empty());
         when(config.getCurrConvEndpoint()).thenReturn(ENDPOINT);
         when(config.getCoreAuthCredentials()).thenReturn(AUTH_CREDS);
+        doReturn(transport).when(xrate).getTransport();
         doReturn(converter).when(xrate).createDefaultConverter(any(), anyString());
         when(converter.convert(any(), any(), any())).thenThrow(EXPECTED_EXCEPTION);
 
@@ -120,6 +165,87 @@ class XrateTest {
         verify(converter).convert(FROM, TO, AMOUNT);
     }
 
+    @Test
+    void hedgeStrategyUsesEveryPluginAndDefaultConverter(@Mock CurrencyConverter defaultConverter) {
+        when(config.getProviderStrategy()).thenReturn(ProviderStrategy.HEDGE);
+        when(loader.findAllPlugins()).thenReturn(List.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getCurrConvEndpoint()).thenReturn(ENDPOINT);
+        when(config.getCoreAuthCredentials()).thenReturn(AUTH_CREDS);
+        when(config.getHedgeDelayMillis()).thenReturn(100L);
+        doReturn(transport).when(xrate).getTransport();
+        doReturn(defaultConverter).when(xrate).createDefaultConverter(any(), anyString());
+
+        xrate.getConverter();
+
+        verify(converter).setAuthCredentials(PLUGIN_AUTH_CREDS);
+        verify(xrate).createDefaultConverter(any(), eq(AUTH_CREDS));
+        verify(xrate).createHedgingConverter(List.of(converter, defaultConverter));
+        verify(loader, never()).findFirstPlugin();
+    }
+
+    @Test
+    void hedgeStrategyThrowsOnNegativeDelay() {
+        when(config.getProviderStrategy()).thenReturn(ProviderStrategy.HEDGE);
+        when(loader.findAllPlugins()).thenReturn(List.of());
+        when(config.getHedgeDelayMillis()).thenReturn(-1L);
+        doReturn(transport).when(xrate).getTransport();
+        doReturn(converter).when(xrate).createDefaultConverter(any(), any());
+
+        Throwable thrown = catchThrowable(() -> xrate.getConverter());
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Invalid hedge delay: -1");
+    }
+
+    @Test
+    void routeStrategyUsesEveryPluginAndDefaultConverter(@Mock CurrencyConverter defaultConverter) {
+        when(config.getProviderStrategy()).thenReturn(ProviderStrategy.ROUTE);
+        when(loader.findAllPlugins()).thenReturn(List.of(converter));
+        when(config.getRouteFailureThreshold()).thenReturn(3);
+        when(config.getRouteOpenTimeSeconds()).thenReturn(30L);
+        doReturn(transport).when(xrate).getTransport();
+        doReturn(defaultConverter).when(xrate).createDefaultConverter(any(), any());
+
+        xrate.getConverter();
+
+        verify(xrate).createRoutingConverter(List.of(converter, defaultConverter));
+    }
+
+    @Test
+    void printMetricsIncludesStateOfEveryRoute(@Mock CurrencyConverter defaultConverter) {
+        when(config.getProviderStrategy()).thenReturn(ProviderStrategy.ROUTE);
+        when(loader.findAllPlugins()).thenReturn(List.of(converter));
+        when(config.getRouteFailureThreshold()).thenReturn(3);
+        when(config.getRouteOpenTimeSeconds()).thenReturn(30L);
+        doReturn(transport).when(xrate).getTransport();
+        doReturn(defaultConverter).when(xrate).createDefaultConverter(any(), any());
+        StringWriter output = new StringWriter();
+        xrate.getConverter();
+
+        xrate.printMetrics(new PrintWriter(output));
+
+        assertThat(output.toString())
+                .contains(String.format("Route %s: CLOSED, latency 0.000 ms, error rate 0.0%%, weight 50.0%%", converter.getClass().getName()))
+                .contains(String.format("Route %s: CLOSED, latency 0.000 ms, error rate 0.0%%, weight 50.0%%", defaultConverter.getClass().getName()));
+    }
+
+    @Test
+    void routeStrategyThrowsOnInvalidFailureThreshold() {
+        when(config.getProviderStrategy()).thenReturn(ProviderStrategy.ROUTE);
+        when(loader.findAllPlugins()).thenReturn(List.of());
+        when(config.getRouteFailureThreshold()).thenReturn(0);
+        doReturn(transport).when(xrate).getTransport();
+        doReturn(converter).when(xrate).createDefaultConverter(any(), any());
+
+        Throwable thrown = catchThrowable(() -> xrate.getConverter());
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Invalid route failure threshold: 0");
+    }
+
     @Test
     void throwsExceptionOnNullResult() {
         when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
@@ -137,4 +263,288 @@ class XrateTest {
         verify(converter).convert(FROM, TO, AMOUNT);
         verify(printer, never()).print(any());
     }
+
+    @Test
+    void convertBatchUsesSharedConverter() {
+        Path file = Path.of("batch.csv");
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getBatchConcurrency()).thenReturn(4);
+        doReturn(batchConverter).when(xrate).createBatchConverter(any(), anyInt());
+        when(batchConverter.convert(any(Path.class))).thenReturn(3L);
+
+        long rowCount = xrate.convertBatch(file);
+
+        assertThat(rowCount).isEqualTo(3);
+        verify(xrate).createBatchConverter(xrate.getConverter(), 4);
+        verify(batchConverter).convert(file);
+    }
+
+    @Test
+    void convertBatchThrowsOnNonPositiveConcurrency() {
+        when(config.getBatchConcurrency()).thenReturn(0);
+
+        Throwable thrown = catchThrowable(() -> xrate.convertBatch(Path.of("batch.csv")));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Invalid batch concurrency: 0");
+        verify(loader, never()).findFirstPlugin();
+    }
+
+    @Test
+    void convertPipelineUsesSharedConverter() throws IOException {
+        Reader input = new StringReader("USD GBP 1");
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getPipelineWindow()).thenReturn(16);
+        doReturn(pipelineConverter).when(xrate).createPipelineConverter(any(), anyInt());
+        when(pipelineConverter.convert(any())).thenReturn(1L);
+
+        long count = xrate.convertPipeline(input);
+
+        assertThat(count).isEqualTo(1);
+        verify(xrate).createPipelineConverter(xrate.getConverter(), 16);
+    }
+
+    @Test
+    void convertPipelineWrapsReadError() throws IOException {
+        IOException readError = new IOException("closed");
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getPipelineWindow()).thenReturn(16);
+        doReturn(pipelineConverter).when(xrate).createPipelineConverter(any(), anyInt());
+        when(pipelineConverter.convert(any())).thenThrow(readError);
+
+        Throwable thrown = catchThrowable(() -> xrate.convertPipeline(new StringReader("")));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Cannot read conversion requests")
+                .hasCause(readError);
+    }
+
+    @Test
+    void createServerServesSharedConverter() {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getServerThreads()).thenReturn(2);
+        doReturn(transport).when(xrate).getTransport();
+
+        XrateServer server = xrate.createServer(0);
+
+        try {
+            assertThat(server).isNotNull();
+            verify(loader).findFirstPlugin();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void createServerThrowsOnNonPositiveThreads() {
+        when(config.getServerThreads()).thenReturn(0);
+
+        Throwable thrown = catchThrowable(() -> xrate.createServer(0));
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Invalid number of server threads: 0");
+        verify(loader, never()).findFirstPlugin();
+    }
+
+    @Test
+    void coalescesConcurrentConversionsOfPlugin() {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+
+        assertThat(xrate.getConverter()).isInstanceOf(SingleFlightCurrencyConverter.class);
+    }
+
+    @Test
+    void reusesConverterAcrossConversions() {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(converter.convert(any(), any(), any())).thenReturn(CONVERSION_RESULT);
+
+        xrate.convert(FROM, TO, AMOUNT);
+        xrate.convert(FROM, TO, AMOUNT);
+
+        verify(loader).findFirstPlugin();
+        verify(converter, times(2)).convert(FROM, TO, AMOUNT);
+    }
+
+    @Test
+    void wrapsConverterWithRateCache() {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getCacheTtlSeconds()).thenReturn(60L);
+        when(config.getCacheMaxEntries()).thenReturn(10);
+        when(converter.convert(any(), any(), any())).thenReturn(CONVERSION_RESULT);
+
+        xrate.convert(FROM, TO, AMOUNT);
+        xrate.convert(FROM, TO, AMOUNT);
+
+        assertThat(xrate.getConverter()).isInstanceOf(CachingCurrencyConverter.class);
+        verify(converter).convert(FROM, TO, AMOUNT);
+        verify(printer, times(2)).print(CONVERSION_RESULT);
+    }
+
+    @Test
+    void wrapsConverterWithRateMatrixCacheIfEnabled() {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getCacheTtlSeconds()).thenReturn(60L);
+        when(config.isRateMatrixEnabled()).thenReturn(true);
+        when(converter.convert(any(), any(), any())).thenReturn(CONVERSION_RESULT);
+
+        xrate.convert(FROM, TO, AMOUNT);
+        xrate.convert(FROM, TO, AMOUNT);
+
+        CurrencyConverter cachingConverter = xrate.getConverter();
+        assertThat(cachingConverter).isInstanceOf(CachingCurrencyConverter.class);
+        assertThat(((CachingCurrencyConverter) cachingConverter).getCache()).isInstanceOf(RateMatrixCache.class);
+        verify(converter).convert(FROM, TO, AMOUNT);
+        verify(printer, times(2)).print(CONVERSION_RESULT);
+    }
+
+    @Test
+    void consultsPersistentCacheBeforeConverter(@Mock RateCache persistentCache) {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getCacheTtlSeconds()).thenReturn(60L);
+        when(config.getCacheDirectory()).thenReturn(CACHE_DIR);
+        doReturn(persistentCache).when(xrate).openPersistentCache(CACHE_DIR, 60L);
+        when(persistentCache.get(CurrencyPair.of(FROM, TO))).thenReturn(Optional.of(RESULT));
+
+        xrate.convert(FROM, TO, AMOUNT);
+
+        verify(converter, never()).convert(any(), any(), any());
+        verify(printer).print(CONVERSION_RESULT);
+    }
+
+    @Test
+    void givesSharedTransportToTransportAwarePlugin() {
+        CurrencyConverter plugin = mock(CurrencyConverter.class, withSettings().extraInterfaces(TransportAware.class));
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(plugin));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        doReturn(transport).when(xrate).getTransport();
+
+        xrate.getConverter();
+
+        verify(plugin).setAuthCredentials(PLUGIN_AUTH_CREDS);
+        verify((TransportAware) plugin).setTransport(transport);
+    }
+
+    @Test
+    void givesPluginSettingsToSettingsAwarePlugin() {
+        CurrencyConverter plugin = mock(CurrencyConverter.class, withSettings().extraInterfaces(SettingsAware.class));
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(plugin));
+        when(config.getPluginSettings()).thenReturn(Map.of("rateTable", "true"));
+
+        xrate.getConverter();
+
+        verify((SettingsAware) plugin).setSettings(Map.of("rateTable", "true"));
+    }
+
+    @Test
+    void createsTransportFromConfiguration() {
+        when(config.getTransportPoolSize()).thenReturn(4);
+        when(config.isTransportHttp2Preferred()).thenReturn(false);
+        when(config.getTransportConnectTimeoutSeconds()).thenReturn(1L);
+        when(config.getTransportRequestTimeoutSeconds()).thenReturn(2L);
+        when(config.getTransportIdleTimeoutSeconds()).thenReturn(3L);
+
+        Transport transport = xrate.getTransport();
+
+        assertThat(transport.getPoolSize()).isEqualTo(4);
+        assertThat(transport.isHttp2Preferred()).isFalse();
+        assertThat(transport.getConnectTimeout()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(transport.getRequestTimeout()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(transport.getIdleTimeout()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(xrate.getTransport()).isSameAs(transport);
+    }
+
+    @Test
+    void transportThrowsOnNonPositivePoolSize() {
+        when(config.getTransportPoolSize()).thenReturn(0);
+
+        Throwable thrown = catchThrowable(() -> xrate.getTransport());
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Invalid transport pool size: 0");
+    }
+
+    @Test
+    void transportThrowsOnNonPositiveTimeout() {
+        when(config.getTransportPoolSize()).thenReturn(4);
+        when(config.getTransportConnectTimeoutSeconds()).thenReturn(1L);
+        when(config.getTransportRequestTimeoutSeconds()).thenReturn(-1L);
+
+        Throwable thrown = catchThrowable(() -> xrate.getTransport());
+
+        assertThat(thrown)
+                .isInstanceOf(ConversionException.class)
+                .hasMessage("Invalid transport request timeout: -1");
+    }
+
+    @Test
+    void doesNotRecordMetricsByDefault() {
+        assertThat(xrate.getMetrics()).isSameAs(ConversionMetrics.NONE);
+    }
+
+    @Test
+    void recordsMetricsOfProvidersIfEnabled() {
+        when(loader.findFirstPlugin()).thenReturn(Optional.of(converter));
+        when(config.getPluginAuthCredentials()).thenReturn(PLUGIN_AUTH_CREDS);
+        when(config.getCacheTtlSeconds()).thenReturn(60L);
+        when(config.getCacheMaxEntries()).thenReturn(10);
+        when(converter.convert(any(), any(), any())).thenReturn(CONVERSION_RESULT);
+        StringWriter output = new StringWriter();
+        xrate.enableMetrics();
+
+        xrate.convert(FROM, TO, AMOUNT);
+        xrate.convert(FROM, TO, AMOUNT);
+        xrate.printMetrics(new PrintWriter(output));
+
+        assertThat(xrate.getMetrics()).isInstanceOf(DefaultConversionMetrics.class);
+        assertThat(output.toString())
+                .contains(String.format("Provider %s: 1 succeeded, 0 failed, 0 cancelled", converter.getClass().getName()))
+                .contains("Cache: 1 hits, 1 misses, 50.0% hit ratio")
+                .contains("Coalesced: 0 conversions waited for the same pair in flight")
+                .contains("In flight: 0")
+                .doesNotContain("Transport");
+    }
+
+    @Test
+    void registersMetricsMBeanIfJmxEnabled() throws JMException {
+        when(config.isMetricsJmxEnabled()).thenReturn(true);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(DefaultConversionMetrics.OBJECT_NAME);
+
+        try {
+            xrate.getMetrics().recordCacheHit();
+
+            assertThat(server.getAttribute(name, "CacheHits")).isEqualTo(1L);
+            assertThat(server.getAttribute(name, "CacheHitRatio")).isEqualTo(1.0);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    void printMetricsIncludesTransportInUse() {
+        when(config.getTransportPoolSize()).thenReturn(4);
+        when(config.getTransportConnectTimeoutSeconds()).thenReturn(1L);
+        when(config.getTransportRequestTimeoutSeconds()).thenReturn(2L);
+        when(config.getTransportIdleTimeoutSeconds()).thenReturn(3L);
+        StringWriter output = new StringWriter();
+        xrate.getTransport();
+
+        xrate.printMetrics(new PrintWriter(output));
+
+        assertThat(output.toString())
+                .isEqualTo(String.format("Transport: 0 requests, 0 handshakes, 0 handshakes saved, 0 active and 0 idle connections%n"));
+    }
 }
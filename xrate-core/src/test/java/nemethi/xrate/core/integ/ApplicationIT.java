@@ -41,7 +41,7 @@ class ApplicationIT {
     private static final String CORE_API_KEY_2 = "testAPIKey2";
     private static final String CORE_AUTH_CONFIG_LINE = String.format("xrate.core.auth=%s", CORE_API_KEY_2);
     private static final String CORE_ENDPOINT_CONFIG_LINE = "xrate.core.endpoint=http://localhost:2552";
-    private static final String USAGE = "Usage: xrate [-hlV] [-c=<configFilePath>] FROM TO AMOUNT";
+    private static final String USAGE = "Usage: xrate [-hlV] [--stats] [--stdin] [-b=FILE] [-c=<configFilePath>]";
     private static final String DESCRIPTION = "Get exchange rates and convert currencies using third-party services.";
     private static final String AMOUNT = "757.57";
     private static final String EXPECTED_OUTPUT_OF_DEFAULT_CONVERSION = "1 USD = 2 GBP\n1 USD = 2 GBP\n1 GBP = 0.5 USD\n";
@@ -293,7 +293,7 @@ class ApplicationIT {
         private void printHelp(Statement statement) throws Exception {
             assertExitCode(statement, 0);
             assertThat(systemOut.toString()).contains(USAGE, DESCRIPTION, "FROM", "TO", "AMOUNT", "-c",
-                    "--config=<configFilePath>", "-h", "--help", "-l", "--list", "-V", "--version");
+                    "--config=<configFilePath>", "-h", "--help", "--jfr=FILE", "-l", "--list", "--stats", "-V", "--version");
         }
 
         @Test
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Currency;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -28,7 +29,6 @@ public class CurrConvApiClientIT {
     private static final String API_KEY = "testApiKey";
     private static final String CONTENT_TYPE_HEADER_KEY = "Content-Type";
     private static final String APPLICATION_JSON_HEADER_VALUE = "application/json";
-    private static final String EXCHANGE_RATE_NOT_FOUND_TEMPLATE = "The exchange rate of %s to %s is not found";
 
     private static MockWebServer mockWebServer;
     private CurrConvApiClient client;
@@ -57,9 +57,9 @@ public class CurrConvApiClientIT {
         void clientReturnsConversionRate() throws InterruptedException, IOException {
             mockWebServer.enqueue(mockResponse());
 
-            BigDecimal result = client.getConversionRate(FROM_CURRENCY, TO_CURRENCY, API_KEY);
+            Optional<BigDecimal> result = client.getConversionRate(FROM_CURRENCY, TO_CURRENCY, API_KEY);
 
-            assertThat(result).isEqualTo(EXPECTED_RATE);
+            assertThat(result).contains(EXPECTED_RATE);
             verifyRequest(mockWebServer.takeRequest());
         }
 
@@ -90,15 +90,13 @@ public class CurrConvApiClientIT {
         }
 
         @Test
-        @DisplayName("When the returned JSON doesn't contain the rate then an exception is thrown")
-        void invalidResponse() throws InterruptedException {
+        @DisplayName("When the returned JSON doesn't contain the rate then an empty rate is returned")
+        void invalidResponse() throws InterruptedException, IOException {
             mockWebServer.enqueue(mockResponse());
 
-            Throwable thrown = catchThrowable(() -> client.getConversionRate(FROM_CURRENCY, TO_CURRENCY, API_KEY));
+            Optional<BigDecimal> result = client.getConversionRate(FROM_CURRENCY, TO_CURRENCY, API_KEY);
 
-            assertThat(thrown)
-                    .isInstanceOf(JSONException.class)
-                    .hasMessage(EXCHANGE_RATE_NOT_FOUND_TEMPLATE, FROM_CURRENCY, TO_CURRENCY);
+            assertThat(result).isEmpty();
             verifyRequest(mockWebServer.takeRequest());
         }
 
@@ -2,18 +2,26 @@ package nemethi.xrate.core.integ;
 
 import nemethi.xrate.api.CurrencyConverter;
 import nemethi.xrate.core.PluginLoader;
+import nemethi.xrate.core.integ.util.NullResultCurrencyConverter;
 import nemethi.xrate.core.integ.util.ProviderConfigExtension;
 import nemethi.xrate.core.integ.util.TestCurrencyConverter;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class PluginLoaderIT {
 
+    private static final String CLASS_PATH_FINGERPRINT = Integer.toHexString(System.getProperty("java.class.path").hashCode());
+
     @Nested
     @ExtendWith(ProviderConfigExtension.class)
     class PluginIsPresent {
@@ -28,6 +36,54 @@ class PluginLoaderIT {
             CurrencyConverter converter = plugin.get();
             assertThat(converter).isInstanceOf(TestCurrencyConverter.class);
         }
+
+        @Test
+        void findsPluginTypes() {
+            PluginLoader loader = new PluginLoader();
+
+            assertThat(loader.findPluginTypes()).containsExactly(TestCurrencyConverter.class);
+            assertThat(loader.findAllPlugins()).hasOnlyElementsOfType(TestCurrencyConverter.class).hasSize(1);
+        }
+
+        @Test
+        void storesPluginTypesInCacheFile(@TempDir Path directory) throws IOException {
+            Path cacheFile = directory.resolve("providers.cache");
+
+            new PluginLoader(cacheFile).findFirstPlugin();
+
+            assertThat(Files.readAllLines(cacheFile)).containsExactly(CLASS_PATH_FINGERPRINT, TestCurrencyConverter.class.getName());
+        }
+
+        @Test
+        void loadsPluginTypesFromCacheFileInsteadOfClasspath(@TempDir Path directory) throws IOException {
+            Path cacheFile = directory.resolve("providers.cache");
+            Files.write(cacheFile, List.of(CLASS_PATH_FINGERPRINT, NullResultCurrencyConverter.class.getName()));
+
+            Optional<CurrencyConverter> plugin = new PluginLoader(cacheFile).findFirstPlugin();
+
+            assertThat(plugin).containsInstanceOf(NullResultCurrencyConverter.class);
+        }
+
+        @Test
+        void ignoresCacheFileOfOtherClasspath(@TempDir Path directory) throws IOException {
+            Path cacheFile = directory.resolve("providers.cache");
+            Files.write(cacheFile, List.of("other", NullResultCurrencyConverter.class.getName()));
+
+            Optional<CurrencyConverter> plugin = new PluginLoader(cacheFile).findFirstPlugin();
+
+            assertThat(plugin).containsInstanceOf(TestCurrencyConverter.class);
+            assertThat(Files.readAllLines(cacheFile)).containsExactly(CLASS_PATH_FINGERPRINT, TestCurrencyConverter.class.getName());
+        }
+
+        @Test
+        void ignoresCacheFileWithUnknownClass(@TempDir Path directory) throws IOException {
+            Path cacheFile = directory.resolve("providers.cache");
+            Files.write(cacheFile, List.of(CLASS_PATH_FINGERPRINT, "nemethi.xrate.RemovedConverter"));
+
+            Optional<CurrencyConverter> plugin = new PluginLoader(cacheFile).findFirstPlugin();
+
+            assertThat(plugin).containsInstanceOf(TestCurrencyConverter.class);
+        }
     }
 
     @Nested